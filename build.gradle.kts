@@ -1,5 +1,6 @@
 import org.gradle.api.JavaVersion.VERSION_21
 import org.gradle.api.tasks.testing.logging.TestLogEvent
+import java.io.OutputStream
 import java.util.*
 
 /*
@@ -189,4 +190,46 @@ private fun logStats() {
         csv.required.set(false)
         html.required.set(true)
     }
-}
\ No newline at end of file
+}
+
+// a runnable jar carrying the runtime classpath, so the launcher needs nothing but a JVM
+tasks.jar {
+    archiveFileName = "parker.jar"
+
+    manifest {
+        attributes("Main-Class" to application.mainClass.get())
+    }
+
+    from(configurations.runtimeClasspath.map { config -> config.map { if (it.isDirectory) it else zipTree(it) } })
+    duplicatesStrategy = DuplicatesStrategy.EXCLUDE
+}
+
+// records the classes a training run of the jar loads into a class data sharing archive, along
+// with the JVM it ran on, as the archive is only mapped in by the same JVM off the same jar path
+val cdsArchive by tasks.registering(JavaExec::class) {
+    group = BasePlugin.BUILD_GROUP
+    description = "Dumps the classes a training run of the jar loads into an AppCDS archive."
+
+    val jar = tasks.jar.flatMap { it.archiveFile }
+    val trainingInputs = layout.projectDirectory.file("src/cds/training_inputs.txt")
+    val archive = layout.buildDirectory.file("libs/parker.jsa")
+    val jvm = layout.buildDirectory.file("libs/parker.jvm")
+
+    inputs.file(jar)
+    inputs.file(trainingInputs)
+    outputs.files(archive, jvm)
+
+    classpath(jar)
+    mainClass = application.mainClass
+    args(trainingInputs.asFile.absolutePath)
+    jvmArgs("-XX:ArchiveClassesAtExit=${archive.get().asFile.absolutePath}")
+    standardOutput = OutputStream.nullOutputStream()
+
+    doLast {
+        jvm.get().asFile.writeText(javaLauncher.get().executablePath.asFile.absolutePath + "\n")
+    }
+}
+
+tasks.assemble {
+    dependsOn(cdsArchive)
+}
@@ -23,31 +23,103 @@
 package com.priyakdey.parker;
 
 import com.priyakdey.parker.command.CommandInvoker;
+import com.priyakdey.parker.command.ConsoleEventReporter;
+import com.priyakdey.parker.command.impl.ClaimCommand;
+import com.priyakdey.parker.command.impl.CountFreeCommand;
 import com.priyakdey.parker.command.impl.CreateParkingLotCommand;
+import com.priyakdey.parker.command.impl.FollowCommand;
+import com.priyakdey.parker.command.impl.LatencyReportCommand;
 import com.priyakdey.parker.command.impl.LeaveCommand;
+import com.priyakdey.parker.command.impl.LoadTariffCommand;
 import com.priyakdey.parker.command.impl.ParkCommand;
+import com.priyakdey.parker.command.impl.PromoteCommand;
+import com.priyakdey.parker.command.impl.RegistrationsForColourCommand;
+import com.priyakdey.parker.command.impl.ReplicationStatusCommand;
+import com.priyakdey.parker.command.impl.ReserveCommand;
+import com.priyakdey.parker.command.impl.ResizeParkingLotCommand;
+import com.priyakdey.parker.command.impl.SlotHistoryCommand;
+import com.priyakdey.parker.command.impl.SlotsForColourCommand;
+import com.priyakdey.parker.command.impl.SlotsForPrefixCommand;
+import com.priyakdey.parker.command.impl.SnapshotCommand;
+import com.priyakdey.parker.command.impl.StatsCommand;
 import com.priyakdey.parker.command.impl.StatusCommand;
+import com.priyakdey.parker.command.impl.TickCommand;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.core.journal.Journal;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.server.CommandServer;
+import com.priyakdey.parker.server.HttpApiServer;
+import com.priyakdey.parker.server.HttpConfig;
+import com.priyakdey.parker.server.ServerConfig;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.net.SocketAddress;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author Priyak Dey
  */
 public class ParkerApplication {
 
+    /**
+     * System property which, set to true, prints the latencies of the commands to standard error on
+     * the way out.
+     */
+    private static final String LATENCY_REPORT_PROPERTY = "parker.latency.report";
+
+    /**
+     * System property which, set to true, accounts for the bytes every command allocates, by phase,
+     * and prints them to standard error on the way out.
+     */
+    private static final String ALLOCATION_REPORT_PROPERTY = "parker.allocation.report";
+
     public static void main(String[] args) {
-        if (args.length < 1) {
+        ServerConfig serverConfig = null;
+        HttpConfig httpConfig = null;
+        try {
+            serverConfig = ServerConfig.fromSystemProperties().orElse(null);
+            httpConfig = HttpConfig.fromSystemProperties().orElse(null);
+        } catch (BadInputException ex) {
+            System.err.printf("ERROR: Bad server settings. Details = %s%n", ex.getMessage());
+            System.exit(1);
+        }
+
+        boolean serving = serverConfig != null || httpConfig != null;
+        if (args.length < 1 && !serving) {
             System.err.println("ERROR: No input file provided");
             System.exit(1);
         }
 
-        String filepath = args[0];
+        CommandInvoker commandInvoker = setupCommandInvoker();
+        if (Boolean.getBoolean(ALLOCATION_REPORT_PROPERTY)) {
+            try {
+                commandInvoker.enableAllocationAccounting();
+            } catch (BadInputException ex) {
+                System.err.printf("ERROR: %s%n", ex.getMessage());
+                System.exit(1);
+            }
+        }
+        if (args.length > 0) {
+            // with a server, the file sets the parking lot up before the first client connects
+            runFile(args[0], commandInvoker);
+        }
+
+        if (serving) {
+            serve(serverConfig, httpConfig, commandInvoker);
+            return;
+        }
+
+        report(commandInvoker);
+        closeJournal();
+    }
+
+    private static void runFile(String filepath, CommandInvoker commandInvoker) {
         Path path = Path.of(filepath);
 
         try {
@@ -63,13 +135,84 @@ public static void main(String[] args) {
 
         File file = path.toFile();
         List<String> lines = readLinesFromFile(file);
-        CommandInvoker commandInvoker = setupCommandInvoker();
         lines.forEach(line -> {
-            String[] arguments = line.trim().split("\\s+");
+            String[] arguments = commandInvoker.tokenize(line);
             commandInvoker.execute(arguments);
         });
     }
 
+    /**
+     * Serves commands, and the HTTP API, to clients till the JVM is shut down, closing the journal
+     * on the way out.
+     *
+     * @param serverConfig the command server settings, null to not serve commands
+     * @param httpConfig   the HTTP API settings, null to not serve the API
+     */
+    private static void serve(ServerConfig serverConfig, HttpConfig httpConfig,
+                              CommandInvoker commandInvoker) {
+        HttpApiServer api = null;
+        CommandServer server = null;
+        try {
+            if (httpConfig != null) {
+                api = HttpApiServer.start(httpConfig, commandInvoker);
+                System.out.printf("Serving the HTTP API on %s%n", api.localAddress());
+            }
+            if (serverConfig != null) {
+                server = CommandServer.open(serverConfig, commandInvoker);
+                for (SocketAddress address : server.localAddresses()) {
+                    System.out.printf("Serving commands on %s%n", address);
+                }
+            }
+        } catch (IOException ex) {
+            System.err.printf("ERROR: Cannot serve. Details = %s%n", ex.getMessage());
+            if (api != null) {
+                api.stop();
+            }
+            closeJournal();
+            System.exit(1);
+        }
+
+        HttpApiServer runningApi = api;
+        CommandServer runningServer = server;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (runningServer != null) {
+                runningServer.close();
+            }
+            if (runningApi != null) {
+                runningApi.stop();
+            }
+            report(commandInvoker);
+            closeJournal();
+        }, "parker-shutdown"));
+
+        // without a command server, the HTTP server's own thread keeps the JVM up
+        if (runningServer != null) {
+            runningServer.run();
+        }
+    }
+
+    private static void report(CommandInvoker commandInvoker) {
+        if (Boolean.getBoolean(LATENCY_REPORT_PROPERTY)) {
+            commandInvoker.call(() -> {
+                commandInvoker.latencies().report(System.err);
+                return null;
+            });
+        }
+        if (commandInvoker.allocations().isEnabled()) {
+            commandInvoker.call(() -> {
+                commandInvoker.allocations().report(System.err);
+                return null;
+            });
+        }
+    }
+
+    private static void closeJournal() {
+        Journal journal = ApplicationContext.getInstance().get(Journal.class);
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
     private static List<String> readLinesFromFile(File file) {
         List<String> lines = new ArrayList<>();
         try (BufferedReader br = new BufferedReader(new FileReader(file))) {
@@ -86,11 +229,36 @@ private static List<String> readLinesFromFile(File file) {
     }
 
     private static CommandInvoker setupCommandInvoker() {
-        CommandInvoker commandInvoker = new CommandInvoker();
+        ReentrantLock engineLock = new ReentrantLock();
+        ApplicationContext.getInstance().put(engineLock);
+
+        CommandInvoker commandInvoker = new CommandInvoker(engineLock);
         commandInvoker.registerCommand("create_parking_lot", new CreateParkingLotCommand());
         commandInvoker.registerCommand("park", new ParkCommand());
         commandInvoker.registerCommand("leave", new LeaveCommand());
         commandInvoker.registerCommand("status", new StatusCommand());
+        commandInvoker.registerCommand("resize_parking_lot", new ResizeParkingLotCommand());
+        commandInvoker.registerCommand("reserve", new ReserveCommand());
+        commandInvoker.registerCommand("claim", new ClaimCommand());
+        commandInvoker.registerCommand("tick", new TickCommand());
+        commandInvoker.registerCommand("snapshot", new SnapshotCommand());
+        commandInvoker.registerCommand("slot_history", new SlotHistoryCommand());
+        commandInvoker.registerCommand("follow", new FollowCommand());
+        commandInvoker.registerCommand("promote", new PromoteCommand());
+        commandInvoker.registerCommand("replication_status", new ReplicationStatusCommand());
+        commandInvoker.registerCommand("load_tariff", new LoadTariffCommand());
+        commandInvoker.registerCommand("stats", new StatsCommand());
+        commandInvoker.registerCommand("count_free", new CountFreeCommand());
+        commandInvoker.registerCommand("slots_for_colour", new SlotsForColourCommand());
+        commandInvoker.registerCommand("registrations_for_colour",
+            new RegistrationsForColourCommand());
+        commandInvoker.registerCommand("slots_for_prefix", new SlotsForPrefixCommand());
+        commandInvoker.registerCommand("latency_report", new LatencyReportCommand());
+        ApplicationContext.getInstance().put(commandInvoker.latencies());
+
+        ConsoleEventReporter eventReporter = new ConsoleEventReporter();
+        ApplicationContext.getInstance().put(eventReporter);
+        commandInvoker.registerCompletionHook(eventReporter::flush);
         return commandInvoker;
     }
 
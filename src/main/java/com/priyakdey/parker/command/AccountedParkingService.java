@@ -0,0 +1,437 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command;
+
+import com.priyakdey.parker.command.AllocationAccounting.Phase;
+import com.priyakdey.parker.core.model.LotStats;
+import com.priyakdey.parker.core.model.ParkingCharge;
+import com.priyakdey.parker.core.model.Rejection;
+import com.priyakdey.parker.core.model.SlotOccupancy;
+import com.priyakdey.parker.core.model.SlotType;
+import com.priyakdey.parker.core.model.VehicleType;
+import com.priyakdey.parker.core.model.WaitlistPriority;
+import com.priyakdey.parker.core.pricing.Tariff;
+import com.priyakdey.parker.core.replication.ReplicationStatus;
+import com.priyakdey.parker.core.service.OccupancySubscription;
+import com.priyakdey.parker.core.service.OccupantVisitor;
+import com.priyakdey.parker.service.ParkingService;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link ParkingService} charging what every call to it allocates to the {@link Phase#LOT}
+ * phase of the command making it.
+ *
+ * @author Priyak Dey
+ */
+final class AccountedParkingService implements ParkingService {
+
+    private final ParkingService parkingService;
+
+    private final AllocationAccounting accounting;
+
+    AccountedParkingService(ParkingService parkingService, AllocationAccounting accounting) {
+        this.parkingService = parkingService;
+        this.accounting = accounting;
+    }
+
+    @Override
+    public Optional<Integer> park(String registrationNumber) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.park(registrationNumber);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public Optional<Integer> park(String registrationNumber, VehicleType vehicleType) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.park(registrationNumber, vehicleType);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public Optional<Integer> park(String registrationNumber,
+                                  VehicleType vehicleType,
+                                  String colour) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.park(registrationNumber, vehicleType, colour);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public ParkingCharge leave(String registrationNumber, int hoursParked) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.leave(registrationNumber, hoursParked);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public int tryPark(String registrationNumber, VehicleType vehicleType, String colour) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.tryPark(registrationNumber, vehicleType, colour);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public int vacate(String registrationNumber) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.vacate(registrationNumber);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public long charge(int parkingSpaceId, int hoursParked) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.charge(parkingSpaceId, hoursParked);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public SortedMap<Integer, String> status() {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.status();
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public void forEachOccupied(OccupantVisitor visitor) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            parkingService.forEachOccupied(visitor);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public SortedMap<Integer, String> status(long sequence) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.status(sequence);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public SortedMap<Integer, String> status(int fromId, int toId) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.status(fromId, toId);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public int countFree(int fromId, int toId) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.countFree(fromId, toId);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public List<Integer> slotsForColour(String colour) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.slotsForColour(colour);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public List<String> registrationsForColour(String colour) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.registrationsForColour(colour);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public List<Integer> slotsForPrefix(String prefix) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.slotsForPrefix(prefix);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public List<SlotOccupancy> slotHistory(int parkingSpaceId, long fromSequence, long toSequence) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.slotHistory(parkingSpaceId, fromSequence, toSequence);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public long sequenceAt(Instant instant) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.sequenceAt(instant);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public long lastSequence() {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.lastSequence();
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public int waitlist(String registrationNumber, VehicleType vehicleType, String colour,
+                        WaitlistPriority priority) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.waitlist(registrationNumber, vehicleType, colour, priority);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public boolean isWaitlistEnabled() {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.isWaitlistEnabled();
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public Optional<Integer> reserve(String registrationNumber,
+                                     VehicleType vehicleType,
+                                     int ttlTicks) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.reserve(registrationNumber, vehicleType, ttlTicks);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public int claim(String registrationNumber) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.claim(registrationNumber);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public int advanceClock(int ticks) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.advanceClock(ticks);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public long currentTick() {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.currentTick();
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public void resize(int capacity) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            parkingService.resize(capacity);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> snapshot() {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.snapshot();
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public void follow(String address) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            parkingService.follow(address);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public long promote(long timeoutMillis) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.promote(timeoutMillis);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public ReplicationStatus replicationStatus() {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.replicationStatus();
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public LotStats stats() {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.stats();
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public long rejections(Rejection rejection) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.rejections(rejection);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public int allocatorDepth(SlotType slotType) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.allocatorDepth(slotType);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public OccupancySubscription subscribe(int queueCapacity, Runnable onAvailable) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.subscribe(queueCapacity, onAvailable);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public Tariff loadTariff(Path path) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.loadTariff(path);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public Set<SlotType> slotTypes() {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.slotTypes();
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public SlotType slotTypeOf(int parkingSpaceId) {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            return parkingService.slotTypeOf(parkingSpaceId);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public void close() {
+        Phase previous = accounting.enter(Phase.LOT);
+        try {
+            parkingService.close();
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command;
+
+import com.priyakdey.parker.command.AllocationAccounting.Phase;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * A stream printing to the one a command replies on, charging what the printing allocates to the
+ * {@link Phase#OUTPUT} phase of the command.
+ * <p>
+ * The prints the commands make are handed to the reply stream as they are, so it formats them with
+ * its own formatter and charset, and allocates what it would without accounting. The bytes written,
+ * like a {@link ReplyLine}, are handed over as they are as well. Anything else reaches it as bytes.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+final class AccountedPrintStream extends PrintStream {
+
+    private final AllocationAccounting accounting;
+
+    private PrintStream target;
+
+    AccountedPrintStream(AllocationAccounting accounting) {
+        this(accounting, new Forwarder());
+    }
+
+    private AccountedPrintStream(AllocationAccounting accounting, Forwarder forwarder) {
+        super(forwarder, false);
+        this.accounting = accounting;
+        forwarder.stream = this;
+    }
+
+    void target(PrintStream target) {
+        this.target = target;
+    }
+
+    @Override
+    public void print(String s) {
+        Phase previous = accounting.enter(Phase.OUTPUT);
+        try {
+            target.print(s);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public void print(Object obj) {
+        Phase previous = accounting.enter(Phase.OUTPUT);
+        try {
+            target.print(obj);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public void print(int i) {
+        Phase previous = accounting.enter(Phase.OUTPUT);
+        try {
+            target.print(i);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public void print(long l) {
+        Phase previous = accounting.enter(Phase.OUTPUT);
+        try {
+            target.print(l);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public void println() {
+        Phase previous = accounting.enter(Phase.OUTPUT);
+        try {
+            target.println();
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public void println(String x) {
+        Phase previous = accounting.enter(Phase.OUTPUT);
+        try {
+            target.println(x);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public void println(Object x) {
+        Phase previous = accounting.enter(Phase.OUTPUT);
+        try {
+            target.println(x);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public void println(int x) {
+        Phase previous = accounting.enter(Phase.OUTPUT);
+        try {
+            target.println(x);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public void println(long x) {
+        Phase previous = accounting.enter(Phase.OUTPUT);
+        try {
+            target.println(x);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public PrintStream format(String format, Object... args) {
+        Phase previous = accounting.enter(Phase.OUTPUT);
+        try {
+            target.format(format, args);
+            return this;
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public PrintStream format(Locale l, String format, Object... args) {
+        Phase previous = accounting.enter(Phase.OUTPUT);
+        try {
+            target.format(l, format, args);
+            return this;
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public void write(int b) {
+        Phase previous = accounting.enter(Phase.OUTPUT);
+        try {
+            target.write(b);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) {
+        Phase previous = accounting.enter(Phase.OUTPUT);
+        try {
+            target.write(buf, off, len);
+        } finally {
+            accounting.exit(previous);
+        }
+    }
+
+    @Override
+    public void flush() {
+        target.flush();
+    }
+
+    /**
+     * Hands the bytes of the prints not passed on as they are to the target stream.
+     */
+    private static final class Forwarder extends OutputStream {
+
+        private AccountedPrintStream stream;
+
+        @Override
+        public void write(int b) {
+            stream.target.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            stream.target.write(b, off, len);
+        }
+
+        @Override
+        public void flush() {
+            stream.target.flush();
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command;
+
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.service.ParkingService;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Accounts for the bytes the commands of a {@link CommandInvoker} allocate, by command and by
+ * phase, off the allocation counter the JVM keeps for every thread.
+ * <p>
+ * A command is split into phases - {@link Phase#TOKENIZE} is splitting its line into arguments,
+ * {@link Phase#DISPATCH} is looking the command up, copying its arguments and running the
+ * completion hooks, {@link Phase#VALIDATE} is the command itself reading its arguments,
+ * {@link Phase#LOT} is every call it makes to the {@link ParkingService}, and {@link Phase#OUTPUT}
+ * is every print to {@link CommandOutput#out()}. Boxing, and the arguments array of a
+ * {@code printf}, are made by the command before the call, so they land in validate.
+ * </p>
+ * <p>
+ * Accounting is off till {@link #enable()}, and then costs a read of the counter per phase change.
+ * Virtual threads have no counter, so the commands they run, like the requests to the HTTP API,
+ * are left out.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public final class AllocationAccounting {
+
+    private static final String HEADER = "Command Count Bytes Bytes/op "
+        + "Tokenize/op Validate/op Dispatch/op Lot/op Output/op";
+
+    private static final String ROW_TMPL = "%s %d %d %.1f %.1f %.1f %.1f %.1f %.1f%n";
+
+    /**
+     * Index of the count of commands in the totals of a command, the phases follow it.
+     */
+    private static final int COUNT = 0;
+
+    /**
+     * The phases a command allocates in.
+     */
+    public enum Phase {
+        TOKENIZE, VALIDATE, DISPATCH, LOT, OUTPUT;
+
+        private int index() {
+            return ordinal() + 1;
+        }
+    }
+
+    /**
+     * The count of every command, followed by the bytes it allocated in every phase.
+     */
+    private final Map<String, long[]> totals = new LinkedHashMap<>();
+
+    private final AccountedPrintStream output = new AccountedPrintStream(this);
+
+    private com.sun.management.ThreadMXBean threads;
+
+    /**
+     * Bytes allocated tokenizing the next command run on the thread.
+     */
+    private ThreadLocal<long[]> tokenized;
+
+    /**
+     * Thread running the command being accounted for, null between commands.
+     */
+    private Thread owner;
+
+    private long[] current;
+
+    private Phase phase;
+
+    /**
+     * Allocation counter of the owner when the current phase last changed, or was charged.
+     */
+    private long markBytes;
+
+    AllocationAccounting() {
+    }
+
+    /**
+     * Starts accounting for the commands run from here on.
+     *
+     * @throws BadInputException if the JVM does not count the bytes threads allocate.
+     */
+    void enable() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean mxBean)
+            || !mxBean.isThreadAllocatedMemorySupported()) {
+            throw new BadInputException("Allocation accounting is not supported by the JVM");
+        }
+
+        mxBean.setThreadAllocatedMemoryEnabled(true);
+        tokenized = ThreadLocal.withInitial(() -> new long[1]);
+        threads = mxBean;
+    }
+
+    public boolean isEnabled() {
+        return threads != null;
+    }
+
+    void register(String cmd) {
+        totals.putIfAbsent(cmd, new long[Phase.values().length + 1]);
+    }
+
+    /**
+     * Splits a command line into the command name and its arguments, charging what it allocates
+     * to the command, once it runs on the same thread.
+     */
+    String[] tokenize(String line) {
+        if (threads == null) {
+            return line.trim().split("\\s+");
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        String[] args = line.trim().split("\\s+");
+        if (before >= 0) {
+            tokenized.get()[0] += threads.getCurrentThreadAllocatedBytes() - before;
+        }
+        return args;
+    }
+
+    /**
+     * Starts accounting for a command, in the dispatch phase, under the engine lock.
+     */
+    void begin(String cmd) {
+        if (threads == null) {
+            return;
+        }
+
+        accountParkingService();
+        long now = threads.getCurrentThreadAllocatedBytes();
+        if (now < 0) {
+            return;
+        }
+
+        long[] pending = tokenized.get();
+        current = totals.get(cmd);
+        current[COUNT]++;
+        current[Phase.TOKENIZE.index()] += pending[0];
+        pending[0] = 0;
+        owner = Thread.currentThread();
+        phase = Phase.DISPATCH;
+        markBytes = now;
+    }
+
+    /**
+     * Charges what was allocated so far to the current phase, and moves on to the given one.
+     *
+     * @param next the phase to move on to
+     * @return the phase to go back to with {@link #exit(Phase)}, null if no command on the
+     * thread is being accounted for.
+     */
+    Phase enter(Phase next) {
+        if (owner != Thread.currentThread()) {
+            return null;
+        }
+
+        Phase previous = phase;
+        charge();
+        phase = next;
+        return previous;
+    }
+
+    void exit(Phase previous) {
+        if (previous == null) {
+            return;
+        }
+
+        charge();
+        phase = previous;
+    }
+
+    /**
+     * Finishes accounting for the command, charging the rest to the current phase.
+     */
+    void end() {
+        if (owner == null) {
+            return;
+        }
+
+        charge();
+        owner = null;
+        current = null;
+        phase = null;
+    }
+
+    /**
+     * Returns the stream the command is to print to, so its printing is accounted for as output.
+     *
+     * @param out the stream the command replies on, null for standard output
+     * @return the stream to bind the command's output to.
+     */
+    PrintStream output(PrintStream out) {
+        if (owner == null) {
+            return out;
+        }
+
+        output.target(out == null ? System.out : out);
+        return output;
+    }
+
+    /**
+     * Prints the count, and the bytes allocated per phase, of every command run since accounting
+     * was enabled, in the order the commands were registered.
+     *
+     * @param out the stream to print to
+     */
+    public void report(PrintStream out) {
+        out.println(HEADER);
+        totals.forEach((cmd, bytes) -> {
+            long count = bytes[COUNT];
+            if (count == 0) {
+                return;
+            }
+
+            long total = 0;
+            for (Phase each : Phase.values()) {
+                total += bytes[each.index()];
+            }
+            out.printf(ROW_TMPL, cmd, count, total, (double) total / count,
+                perOp(bytes, Phase.TOKENIZE), perOp(bytes, Phase.VALIDATE),
+                perOp(bytes, Phase.DISPATCH), perOp(bytes, Phase.LOT), perOp(bytes, Phase.OUTPUT));
+        });
+    }
+
+    long bytes(String cmd, Phase of) {
+        return totals.get(cmd)[of.index()];
+    }
+
+    private void charge() {
+        long now = threads.getCurrentThreadAllocatedBytes();
+        current[phase.index()] += now - markBytes;
+        markBytes = now;
+    }
+
+    /**
+     * Puts the parking service the commands look up behind one charging its calls to the lot
+     * phase, the first time a command runs after the parking lot is made.
+     */
+    private void accountParkingService() {
+        ApplicationContext ctx = ApplicationContext.getInstance();
+        ParkingService parkingService = ctx.get(ParkingService.class);
+        if (parkingService != null && !(parkingService instanceof AccountedParkingService)) {
+            ctx.put(new AccountedParkingService(parkingService, this));
+        }
+    }
+
+    private static double perOp(long[] bytes, Phase of) {
+        return (double) bytes[of.index()] / bytes[COUNT];
+    }
+}
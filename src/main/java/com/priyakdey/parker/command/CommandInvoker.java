@@ -24,33 +24,251 @@
 
 import static com.priyakdey.parker.handler.InsufficientArgsExceptionHandler.checkArgsLength;
 
+import com.priyakdey.parker.command.AllocationAccounting.Phase;
 import com.priyakdey.parker.exception.BadInputException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 /**
  * @author Priyak Dey
  */
 public class CommandInvoker {
+
+    /**
+     * Where the completion hooks of work other than a command print to, nowhere.
+     */
+    private static final PrintStream DISCARDED = new PrintStream(OutputStream.nullOutputStream());
+
     private final Map<String, Command> commandMap;
 
+    private final List<Runnable> completionHooks;
+
+    private final CommandLatencies latencies;
+
+    private final AllocationAccounting allocations;
+
+    /**
+     * Number of commands, and other requests, refused for bad input.
+     */
+    private final LongAdder badInputs = new LongAdder();
+
+    /**
+     * Lock every command, and its completion hooks, run under.
+     */
+    private final Lock engineLock;
+
+    /**
+     * The arrays the arguments of the commands are copied into, by number of arguments, reused
+     * from one command to the next, since no command keeps its arguments past its run.
+     */
+    private String[][] argumentBuffers = new String[8][];
+
     public CommandInvoker() {
-        commandMap = new HashMap<>();
+        this(new ReentrantLock());
+    }
+
+    /**
+     * Creates an invoker running every command under the given lock, so work done off the command
+     * thread, like applying a leader's changes to a standby, can be kept from interleaving with it.
+     *
+     * @param engineLock the lock to run commands under
+     */
+    public CommandInvoker(Lock engineLock) {
+        this.commandMap = new HashMap<>();
+        this.completionHooks = new ArrayList<>();
+        this.engineLock = engineLock;
+        this.latencies = new CommandLatencies();
+        this.allocations = new AllocationAccounting();
     }
 
     public void registerCommand(String cmd, Command command) {
         commandMap.put(cmd, command);
+        latencies.register(cmd);
+        allocations.register(cmd);
+    }
+
+    /**
+     * Returns the latencies of the commands run, to be read under the engine lock, the way a command
+     * would.
+     *
+     * @return the latency histograms of the commands.
+     */
+    public CommandLatencies latencies() {
+        return latencies;
+    }
+
+    /**
+     * Returns the bytes allocated by the commands run, to be read under the engine lock, the way a
+     * command would.
+     *
+     * @return the allocation accounting of the commands.
+     */
+    public AllocationAccounting allocations() {
+        return allocations;
+    }
+
+    /**
+     * Accounts for the bytes every command run from here on allocates, by phase, which costs a few
+     * hundred nanoseconds a command.
+     *
+     * @throws BadInputException if the JVM does not count the bytes threads allocate.
+     * @see AllocationAccounting
+     */
+    public void enableAllocationAccounting() {
+        engineLock.lock();
+        try {
+            allocations.enable();
+        } finally {
+            engineLock.unlock();
+        }
+    }
+
+    /**
+     * Splits a command line into the command name and its arguments, for {@link
+     * #execute(String[], PrintStream)}.
+     *
+     * @param line the command line
+     * @return the command name followed by its arguments.
+     */
+    public String[] tokenize(String line) {
+        return allocations.tokenize(line);
+    }
+
+    /**
+     * Counts requests refused for bad input, where the refusal does not surface as a {@link
+     * BadInputException} out of {@link #execute(String[], PrintStream)} or {@link #call(Supplier)},
+     * which count theirs.
+     *
+     * @param count the number of requests refused
+     */
+    public void recordBadInputs(int count) {
+        badInputs.add(count);
+    }
+
+    /**
+     * Returns the number of commands, and other requests, refused for bad input so far.
+     *
+     * @return the number of bad inputs.
+     */
+    public long badInputs() {
+        return badInputs.sum();
+    }
+
+    /**
+     * Registers a hook which runs after every command executed.
+     *
+     * @param hook the hook to run
+     */
+    public void registerCompletionHook(Runnable hook) {
+        completionHooks.add(hook);
     }
 
     public void execute(String[] args) {
+        execute(args, null);
+    }
+
+    /**
+     * Runs a command, printing its reply, and the events it raised, to the given stream, and records
+     * how long it took, waiting for the engine lock aside.
+     *
+     * @param args the command name followed by its arguments
+     * @param out  the stream to reply on, null for standard output
+     * @throws BadInputException if the command is unknown, or its arguments are.
+     * @see CommandOutput
+     */
+    public void execute(String[] args, PrintStream out) {
         checkArgsLength(args, 1);
 
         String cmd = args[0].trim();
         if (cmd.isEmpty() || !commandMap.containsKey(cmd)) {
+            badInputs.increment();
             throw new BadInputException("Invalid command.");
         }
 
-        commandMap.get(cmd).execute(Arrays.copyOfRange(args, 1, args.length));
+        engineLock.lock();
+        allocations.begin(cmd);
+        CommandOutput.bind(allocations.output(out));
+        long startNanos = System.nanoTime();
+        try {
+            Command command = commandMap.get(cmd);
+            String[] commandArgs = argumentBuffer(args.length - 1);
+            System.arraycopy(args, 1, commandArgs, 0, commandArgs.length);
+            Phase phase = allocations.enter(Phase.VALIDATE);
+            try {
+                command.execute(commandArgs);
+            } finally {
+                allocations.exit(phase);
+                Arrays.fill(commandArgs, null);
+            }
+
+            runCompletionHooks();
+        } catch (BadInputException ex) {
+            badInputs.increment();
+            throw ex;
+        } finally {
+            latencies.histogram(cmd).record(System.nanoTime() - startNanos);
+            CommandOutput.unbind();
+            allocations.end();
+            engineLock.unlock();
+        }
+    }
+
+    /**
+     * Runs work other than a command, like a request to an API, exclusively of every command, and
+     * runs the completion hooks after it, the way a command would be.
+     * <p>
+     * The work has no stream to reply on, so whatever the hooks print, like the events the work
+     * raised, is dropped - the caller is to put what its client needs to know in its own reply.
+     * </p>
+     *
+     * @param work the work to run
+     * @param <T>  the type of the result of the work
+     * @return the result of the work.
+     */
+    public <T> T call(Supplier<T> work) {
+        engineLock.lock();
+        CommandOutput.bind(DISCARDED);
+        try {
+            T result = work.get();
+
+            runCompletionHooks();
+            return result;
+        } catch (BadInputException ex) {
+            badInputs.increment();
+            throw ex;
+        } finally {
+            CommandOutput.unbind();
+            engineLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the array to copy the given number of arguments of a command into, under the engine
+     * lock.
+     */
+    private String[] argumentBuffer(int count) {
+        if (count >= argumentBuffers.length) {
+            argumentBuffers = Arrays.copyOf(argumentBuffers, count + 1);
+        }
+        if (argumentBuffers[count] == null) {
+            argumentBuffers[count] = new String[count];
+        }
+        return argumentBuffers[count];
+    }
+
+    private void runCompletionHooks() {
+        // an indexed loop, so running the hooks allocates no iterator
+        for (int i = 0; i < completionHooks.size(); i++) {
+            completionHooks.get(i).run();
+        }
     }
 }
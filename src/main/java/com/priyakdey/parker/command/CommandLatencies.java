@@ -0,0 +1,109 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * The latency histograms of the commands of a {@link CommandInvoker}, one per command, timing each
+ * command from when it starts running to when its completion hooks are done.
+ * <p>
+ * The histograms are made as the commands are registered, so timing a command looks one up and
+ * records into it, allocating nothing. Like the commands, they are only touched under the engine
+ * lock.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public final class CommandLatencies {
+
+    private static final String HEADER =
+        "Command Count Ops/s p50(us) p90(us) p99(us) p99.9(us) Max(us)";
+
+    private static final String ROW_TMPL = "%s %d %.1f %.1f %.1f %.1f %.1f %.1f%n";
+
+    private static final double NANOS_PER_MICRO = 1_000.0;
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+
+    /**
+     * When the histograms were last reset, for the throughput.
+     */
+    private long sinceNanos = System.nanoTime();
+
+    void register(String cmd) {
+        histograms.putIfAbsent(cmd, new LatencyHistogram());
+    }
+
+    LatencyHistogram histogram(String cmd) {
+        return histograms.get(cmd);
+    }
+
+    /**
+     * Hands every command, and its histogram, to the given action, in the order the commands were
+     * registered.
+     *
+     * @param action the action to run for every command
+     */
+    public void forEach(BiConsumer<String, LatencyHistogram> action) {
+        histograms.forEach(action);
+    }
+
+    /**
+     * Prints the count, throughput and latency percentiles of every command run since the start,
+     * or the last reset, in the order the commands were registered.
+     *
+     * @param out the stream to print to
+     */
+    public void report(PrintStream out) {
+        double seconds = Math.max(System.nanoTime() - sinceNanos, 1) / NANOS_PER_SECOND;
+
+        out.println(HEADER);
+        histograms.forEach((cmd, histogram) -> {
+            if (histogram.count() == 0) {
+                return;
+            }
+            out.printf(ROW_TMPL, cmd, histogram.count(), histogram.count() / seconds,
+                micros(histogram.valueAtPercentile(50)), micros(histogram.valueAtPercentile(90)),
+                micros(histogram.valueAtPercentile(99)), micros(histogram.valueAtPercentile(99.9)),
+                micros(histogram.maxNanos()));
+        });
+    }
+
+    /**
+     * Forgets every latency recorded, starting the throughput afresh as well.
+     */
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+        sinceNanos = System.nanoTime();
+    }
+
+    private static double micros(long nanos) {
+        return nanos / NANOS_PER_MICRO;
+    }
+}
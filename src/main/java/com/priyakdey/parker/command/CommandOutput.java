@@ -0,0 +1,71 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command;
+
+import java.io.PrintStream;
+
+/**
+ * Where commands print their replies to.
+ * <p>
+ * A command prints to {@link #out()}, which is the stream the {@link CommandInvoker} was asked to
+ * reply on for the command running on the current thread, and standard output otherwise. That way
+ * the same commands serve a command file on the console, and every client connected to a server.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public final class CommandOutput {
+
+    private static final ThreadLocal<PrintStream> CURRENT = new ThreadLocal<>();
+
+    private CommandOutput() {
+    }
+
+    /**
+     * Returns the stream to print the reply of the running command to.
+     *
+     * @return the stream the command is replying on, standard output if none was given.
+     */
+    public static PrintStream out() {
+        PrintStream out = CURRENT.get();
+        return out == null ? System.out : out;
+    }
+
+    /**
+     * Sends the replies of the commands run on the current thread to the given stream, till
+     * {@link #unbind()} is called.
+     *
+     * @param out the stream to reply on
+     */
+    static void bind(PrintStream out) {
+        CURRENT.set(out);
+    }
+
+    /**
+     * Sends the replies of the commands run on the current thread back to standard output. The
+     * entry of the thread is kept, cleared, so binding the next command does not make a new one.
+     */
+    static void unbind() {
+        CURRENT.set(null);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command;
+
+import static com.priyakdey.parker.command.CommandOutput.out;
+
+import com.priyakdey.parker.core.event.ParkingEventListener;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports the events raised by the parking lot on the console.
+ * <p>
+ * Events are raised in the middle of the command which caused them, so they are held back and
+ * only printed by {@link #flush()}, once the command has printed its own output.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class ConsoleEventReporter implements ParkingEventListener {
+
+    private static final String WAITLIST_ASSIGNED_MSG_TMPL =
+        "Allocated slot number: %d to waitlisted registration number %s";
+
+    private final List<String> pending = new ArrayList<>();
+
+    @Override
+    public void onWaitlistAssigned(String registrationNumber, int parkingSpaceId) {
+        pending.add(String.format(WAITLIST_ASSIGNED_MSG_TMPL, parkingSpaceId, registrationNumber));
+    }
+
+    /**
+     * Prints every event held back since the last flush, in the order they were raised.
+     */
+    public void flush() {
+        // an indexed loop, so that a flush with nothing pending, after most commands, allocates nothing
+        for (int i = 0; i < pending.size(); i++) {
+            out().println(pending.get(i));
+        }
+        pending.clear();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of latencies, in nanoseconds, with log-linear buckets - every power of two is split
+ * into the same number of linear sub-buckets, so a value is kept to within 1/64th of itself, from a
+ * nanosecond up to hours, in a fixed array.
+ * <p>
+ * Recording a value is a few shifts and an array increment - it neither allocates nor locks, and is
+ * meant to be called by one thread at a time, like the commands are.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Values below {@code 2^SUB_BUCKET_BITS} get a bucket each.
+     */
+    private static final int SUB_BUCKET_BITS = 7;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+
+    /**
+     * Largest value told apart, a little over two hours - anything longer is counted as it.
+     */
+    private static final long MAX_TRACKABLE_NANOS = (1L << 43) - 1;
+
+    private final long[] counts = new long[indexOf(MAX_TRACKABLE_NANOS) + 1];
+
+    private long totalCount;
+
+    private long maxNanos;
+
+    private long sumNanos;
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency, in nanoseconds, negative ones counted as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts[indexOf(Math.min(value, MAX_TRACKABLE_NANOS))]++;
+        totalCount++;
+        sumNanos += value;
+        if (value > maxNanos) {
+            maxNanos = value;
+        }
+    }
+
+    public long count() {
+        return totalCount;
+    }
+
+    public long maxNanos() {
+        return maxNanos;
+    }
+
+    public long sumNanos() {
+        return sumNanos;
+    }
+
+    /**
+     * Returns the latency the given percentage of the recorded ones are at or below.
+     *
+     * @param percentile the percentage, {@code 0 < percentile <= 100}
+     * @return the highest latency in the bucket of the percentile, never above the largest one
+     * recorded, 0 if none was.
+     */
+    public long valueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long seen = 0;
+        for (int index = 0; index < counts.length; index++) {
+            seen += counts[index];
+            if (seen >= rank) {
+                return Math.min(highestValueAt(index), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * Counts the latencies at or below each of the given bounds, in one pass over the buckets. A
+     * latency counts towards a bound only if its whole bucket is at or below the bound, so a count
+     * can fall short by the latencies within 1/64th of the bound.
+     *
+     * @param boundsNanos the bounds, in nanoseconds, in increasing order
+     * @param counts      the array to fill with the count of every bound, as long as the bounds
+     */
+    public void cumulativeCounts(long[] boundsNanos, long[] counts) {
+        int bound = 0;
+        long seen = 0;
+        for (int index = 0; index < this.counts.length && bound < boundsNanos.length; index++) {
+            long highest = highestValueAt(index);
+            while (bound < boundsNanos.length && highest > boundsNanos[bound]) {
+                counts[bound++] = seen;
+            }
+            seen += this.counts[index];
+        }
+        while (bound < boundsNanos.length) {
+            counts[bound++] = seen;
+        }
+    }
+
+    /**
+     * Forgets every latency recorded.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        maxNanos = 0;
+        sumNanos = 0;
+    }
+
+    // Values in [2^k, 2^(k+1)), k >= SUB_BUCKET_BITS - 1, are shifted right by the bits finer than
+    // the sub-bucket count, which leaves them in the upper half of the sub-buckets.
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_HALF_COUNT + (int) (value >>> shift) - SUB_BUCKET_HALF_COUNT;
+    }
+
+    private static long highestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+        long lowest = (long) (index % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A line of a reply, put together in a reusable buffer and written to the reply stream as bytes,
+ * so a command replying with it allocates nothing once the buffer has grown to its longest line.
+ * <p>
+ * Printing text to a {@link PrintStream} encodes it through a buffer made per call, and
+ * {@code printf} formats it through a {@link java.util.Formatter} made per call as well - a line
+ * handed over as bytes skips both. ASCII text is copied byte for byte, anything else is encoded
+ * as UTF-8.
+ * </p>
+ * <p>
+ * A reply line is meant to be kept by one command, and used by one thread at a time, like the
+ * commands are.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public final class ReplyLine {
+
+    private static final byte[] LINE_SEPARATOR =
+        System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Digits of the smallest long, which has no positive counterpart to print.
+     */
+    private static final String MIN_LONG = Long.toString(Long.MIN_VALUE);
+
+    private byte[] bytes = new byte[64];
+
+    private int length;
+
+    /**
+     * Appends text to the line.
+     *
+     * @param text the text to append
+     * @return this line.
+     */
+    public ReplyLine append(String text) {
+        int textLength = text.length();
+        ensureCapacity(textLength);
+        for (int i = 0; i < textLength; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                byte[] encoded = text.substring(i).getBytes(StandardCharsets.UTF_8);
+                ensureCapacity(encoded.length);
+                System.arraycopy(encoded, 0, bytes, length, encoded.length);
+                length += encoded.length;
+                return this;
+            }
+            bytes[length++] = (byte) c;
+        }
+        return this;
+    }
+
+    /**
+     * Appends a character to the line.
+     *
+     * @param c the character to append
+     * @return this line.
+     */
+    public ReplyLine append(char c) {
+        if (c >= 0x80) {
+            return append(String.valueOf(c));
+        }
+
+        ensureCapacity(1);
+        bytes[length++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * Appends the decimal digits of a number to the line.
+     *
+     * @param value the number to append
+     * @return this line.
+     */
+    public ReplyLine append(long value) {
+        if (value == Long.MIN_VALUE) {
+            return append(MIN_LONG);
+        }
+
+        ensureCapacity(20);
+        long rest = value;
+        if (rest < 0) {
+            bytes[length++] = '-';
+            rest = -rest;
+        }
+
+        int digits = 1;
+        for (long bound = 10; digits < 19 && rest >= bound; bound *= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            bytes[i] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        }
+        length += digits;
+        return this;
+    }
+
+    /**
+     * Writes the line, ended with the line separator, to a stream, and empties it for the next one.
+     *
+     * @param out the stream to write to
+     */
+    public void printTo(PrintStream out) {
+        ensureCapacity(LINE_SEPARATOR.length);
+        System.arraycopy(LINE_SEPARATOR, 0, bytes, length, LINE_SEPARATOR.length);
+        length += LINE_SEPARATOR.length;
+        try {
+            out.write(bytes, 0, length);
+        } finally {
+            length = 0;
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command.impl;
+
+import com.priyakdey.parker.command.ReplyLine;
+
+/**
+ * Formats charges, kept in cents everywhere else, for the output.
+ *
+ * @author Priyak Dey
+ */
+final class Charges {
+
+    private Charges() {
+    }
+
+    /**
+     * Formats a charge in currency units, whole amounts without decimals.
+     *
+     * @param cents The charge, in cents.
+     * @return The formatted charge, example - {@code 30} or {@code 11.75}.
+     */
+    static String format(long cents) {
+        if (cents % 100 == 0) {
+            return Long.toString(cents / 100);
+        }
+        return String.format("%d.%02d", cents / 100, Math.abs(cents % 100));
+    }
+
+    /**
+     * Appends a charge to a reply line, formatted the way {@link #format(long)} does.
+     *
+     * @param line  The line to append to.
+     * @param cents The charge, in cents.
+     * @return The line.
+     */
+    static ReplyLine append(ReplyLine line, long cents) {
+        line.append(cents / 100);
+        long fraction = Math.abs(cents % 100);
+        if (fraction != 0) {
+            line.append('.').append(fraction / 10).append(fraction % 10);
+        }
+        return line;
+    }
+}
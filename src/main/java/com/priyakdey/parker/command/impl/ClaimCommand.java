@@ -0,0 +1,72 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command.impl;
+
+import static com.priyakdey.parker.command.CommandOutput.out;
+import static com.priyakdey.parker.handler.InsufficientArgsExceptionHandler.checkArgsLength;
+
+import com.priyakdey.parker.command.Command;
+import com.priyakdey.parker.common.Validator;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.service.ParkingService;
+
+/**
+ * A command that represents the arrival of a vehicle holding a reservation.
+ *
+ * <p>
+ * The vehicle is parked in the space held for it, instead of being allocated the nearest free one.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class ClaimCommand implements Command {
+
+    private static final String PARKING_ALLOCATED_MSG = "Allocated slot number: %d%n";
+    private static final String RESERVATION_NOT_FOUND_MSG_TMPL =
+        "No reservation found for registration number %s%n";
+
+    /**
+     * Executes the command to park a vehicle in the space held for it.
+     *
+     * @param args An array of string arguments, expected to contain the registration number.
+     */
+    @Override
+    public void execute(String... args) {
+        checkArgsLength(args, 1);
+
+        String registrationNumber = args[0].trim();
+        if (!Validator.isRegistrationNumber(registrationNumber)) {
+            throw new BadInputException("Bad registration number");
+        }
+
+        ApplicationContext ctx = ApplicationContext.getInstance();
+        ParkingService parkingService = ctx.get(ParkingService.class);
+        try {
+            int parkingId = parkingService.claim(registrationNumber);
+            out().printf(PARKING_ALLOCATED_MSG, parkingId);
+        } catch (BadInputException ex) {
+            out().printf(RESERVATION_NOT_FOUND_MSG_TMPL, registrationNumber);
+        }
+    }
+}
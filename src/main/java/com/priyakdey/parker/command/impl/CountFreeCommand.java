@@ -0,0 +1,69 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command.impl;
+
+import static com.priyakdey.parker.command.CommandOutput.out;
+import static com.priyakdey.parker.handler.InsufficientArgsExceptionHandler.checkArgsLength;
+
+import com.priyakdey.parker.command.Command;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.service.ParkingService;
+
+/**
+ * A command that counts the free parking spaces in a range of slots.
+ *
+ * <p>
+ * A slot is free when it is neither occupied nor reserved. The count takes the same time whatever
+ * the size of the range.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class CountFreeCommand implements Command {
+
+    private static final String FREE_MSG_TMPL = "Free slots between %d and %d: %d%n";
+    private static final String FAILED_MSG_TMPL = "Cannot count free slots. %s%n";
+
+    /**
+     * Executes the command to count the free parking spaces in a range.
+     *
+     * @param args An array of string arguments, expected to contain the first and the last slot
+     *             number of the range.
+     */
+    @Override
+    public void execute(String... args) {
+        checkArgsLength(args, 2);
+
+        ApplicationContext ctx = ApplicationContext.getInstance();
+        ParkingService parkingService = ctx.get(ParkingService.class);
+
+        try {
+            int from = SlotRange.parseId(args[0]);
+            int to = SlotRange.parseId(args[1]);
+            out().printf(FREE_MSG_TMPL, from, to, parkingService.countFree(from, to));
+        } catch (BadInputException ex) {
+            out().printf(FAILED_MSG_TMPL, ex.getMessage());
+        }
+    }
+}
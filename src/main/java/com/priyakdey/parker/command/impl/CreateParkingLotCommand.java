@@ -22,19 +22,39 @@
 
 package com.priyakdey.parker.command.impl;
 
+import static com.priyakdey.parker.command.CommandOutput.out;
 import static com.priyakdey.parker.handler.InsufficientArgsExceptionHandler.checkArgsLength;
 
 import com.priyakdey.parker.command.Command;
+import com.priyakdey.parker.command.ReplyLine;
 import com.priyakdey.parker.common.Validator;
 import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.core.event.ParkingEventListener;
+import com.priyakdey.parker.core.jfr.Events;
+import com.priyakdey.parker.core.jfr.LotCreatedEvent;
+import com.priyakdey.parker.core.journal.Journal;
+import com.priyakdey.parker.core.journal.JournalConfig;
+import com.priyakdey.parker.core.journal.MappedJournal;
+import com.priyakdey.parker.core.model.SlotSection;
+import com.priyakdey.parker.core.model.SlotType;
 import com.priyakdey.parker.core.pricing.ChargesCalculator;
-import com.priyakdey.parker.core.pricing.impl.PerHourChargesCalculatorImpl;
+import com.priyakdey.parker.core.pricing.Tariff;
+import com.priyakdey.parker.core.pricing.impl.TariffChargesCalculatorImpl;
+import com.priyakdey.parker.core.replication.ReplicatingJournal;
+import com.priyakdey.parker.core.replication.ReplicationConfig;
+import com.priyakdey.parker.core.service.FallbackPolicy;
+import com.priyakdey.parker.core.service.OccupancyHistory;
 import com.priyakdey.parker.core.service.ParkingLot;
 import com.priyakdey.parker.core.service.ParkingLotManager;
 import com.priyakdey.parker.core.service.ParkingLotManagerImpl;
 import com.priyakdey.parker.exception.BadInputException;
 import com.priyakdey.parker.service.ParkingService;
 import com.priyakdey.parker.service.impl.ParkingServiceImpl;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A command that represents the action of creating a parking lot.
@@ -49,7 +69,17 @@
  */
 public class CreateParkingLotCommand implements Command {
 
-    private static final String MSG_TMPL = "Created parking lot with %d slots%n";
+    private static final String MSG_PREFIX = "Created parking lot with ";
+
+    private static final String MSG_SUFFIX = " slots";
+
+    private static final String RECOVERED_MSG_TMPL = "Recovered %d journal records%n";
+
+    private static final String STRICT_POLICY = "strict";
+
+    private static final String WAITLIST = "waitlist";
+
+    private final ReplyLine reply = new ReplyLine();
 
     /**
      * Executes the command to initialize a new parking lot based on provided arguments.
@@ -60,6 +90,36 @@ public class CreateParkingLotCommand implements Command {
      * slots, and other necessary initial configurations.
      * </p>
      *
+     * <p>
+     * The capacity can be followed by any number of {@code <slot_class>:<count>} sections, example -
+     * {@code create_parking_lot 10 motorcycle:2 ev:2}. Those sections take the spaces nearest to the
+     * entry, in the order given, and the remaining capacity is laid out as {@code standard} spaces.
+     * A trailing {@code strict} disables parking vehicles outside their preferred slot class, and a
+     * trailing {@code waitlist} queues vehicles turned away by the full parking lot.
+     * </p>
+     *
+     * <p>
+     * When a journal directory is set with the {@code parker.journal.dir} system property, every
+     * change to the parking lot is journaled there, and the parking lot is first rebuilt from
+     * whatever the journal already holds.
+     * </p>
+     *
+     * <p>
+     * When followers are set with the {@code parker.replication.followers} system property, every
+     * change is shipped to those warm standbys as well, see {@link FollowCommand}.
+     * </p>
+     *
+     * <p>
+     * When a retention is set with the {@code parker.history.retention} system property, that many
+     * of the latest changes are kept to look back at, see {@link StatusCommand}.
+     * </p>
+     *
+     * <p>
+     * Stays are priced with the tariff file set with the {@code parker.tariff.file} system
+     * property, or $10 for the first 2 hours and $10 for every additional hour when it is not set,
+     * see {@link LoadTariffCommand}.
+     * </p>
+     *
      * @param args An array of string arguments that provide configurations or parameters for the
      *             parking lot creation. For example, one might expect a capacity argument indicating
      *             how many vehicles the parking lot should be able to accommodate.
@@ -74,21 +134,121 @@ public void execute(String... args) {
         }
 
         int capacity = Integer.parseInt(input);
-        init(capacity);
-        System.out.printf(MSG_TMPL, capacity);
+        FallbackPolicy fallbackPolicy = FallbackPolicy.ALLOW_FALLBACK;
+        boolean waitlistEnabled = false;
+        List<SlotSection> sections = new ArrayList<>();
+        int remaining = capacity;
+
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i].trim();
+            if (STRICT_POLICY.equalsIgnoreCase(arg)) {
+                fallbackPolicy = FallbackPolicy.STRICT;
+                continue;
+            }
+            if (WAITLIST.equalsIgnoreCase(arg)) {
+                waitlistEnabled = true;
+                continue;
+            }
+
+            SlotSection section = parseSection(arg);
+            sections.add(section);
+            remaining -= section.size();
+        }
+
+        if (remaining < 0) {
+            throw new BadInputException("Sections exceed the `capacity` of the parking lot");
+        }
+        if (remaining > 0) {
+            sections.add(new SlotSection(SlotType.STANDARD, remaining));
+        }
+
+        // the event class is only loaded when the Flight Recorder is up, loading it costs the start
+        LotCreatedEvent event = Events.begin(LotCreatedEvent.class, LotCreatedEvent::new);
+        long recovered = init(sections, fallbackPolicy, waitlistEnabled);
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.sections = sections.size();
+                event.recoveredRecords = recovered;
+                event.waitlistEnabled = waitlistEnabled;
+                event.setLot(capacity, ApplicationContext.getInstance().get(ParkingService.class)
+                    .stats().occupied());
+                event.commit();
+            }
+        }
+        // no printf, its formatter loads the locale data, which costs the start of a short run
+        reply.append(MSG_PREFIX).append(capacity).append(MSG_SUFFIX).printTo(out());
+        if (recovered > 0) {
+            out().printf(RECOVERED_MSG_TMPL, recovered);
+        }
     }
 
-    private void init(int capacity) {
-        ParkingLot parkingLot = ParkingLot.withCapacity(capacity);
-        ParkingLotManager parkingLotManager = new ParkingLotManagerImpl(parkingLot);
+    private SlotSection parseSection(String arg) {
+        String[] parts = arg.split(":");
+        if (parts.length != 2 || !Validator.isDigit(parts[1])) {
+            throw new BadInputException("Invalid section, expecting `<slot_class>:<count>`");
+        }
+
+        SlotType slotType = SlotType.fromCode(parts[0]);
+        if (slotType == SlotType.STANDARD) {
+            throw new BadInputException("Standard slots take the remaining `capacity`");
+        }
+        return new SlotSection(slotType, Integer.parseInt(parts[1]));
+    }
 
-        ChargesCalculator chargesCalculator = new PerHourChargesCalculatorImpl();
+    private long init(List<SlotSection> sections, FallbackPolicy fallbackPolicy,
+                      boolean waitlistEnabled) {
+        ApplicationContext ctx = ApplicationContext.getInstance();
+        ParkingEventListener eventListener = ctx.get(ParkingEventListener.class);
+        if (eventListener == null) {
+            eventListener = ParkingEventListener.NOOP;
+        }
+
+        // a standby of the parking lot replaced would keep applying its leader's changes to it
+        ParkingService previous = ctx.get(ParkingService.class);
+        if (previous != null) {
+            previous.close();
+        }
+
+        Journal journal = ctx.get(Journal.class);
+        if (journal != null) {
+            journal.close();
+        }
+        journal = JournalConfig.fromSystemProperties()
+            .<Journal>map(MappedJournal::open)
+            .orElse(Journal.NOOP);
+
+        ReplicatingJournal leader = null;
+        Optional<ReplicationConfig> replicationConfig = ReplicationConfig.fromSystemProperties();
+        if (replicationConfig.isPresent()) {
+            leader = ReplicatingJournal.start(journal, replicationConfig.get());
+            journal = leader;
+        }
+
+        Lock engineLock = ctx.get(Lock.class);
+        if (engineLock == null) {
+            engineLock = new ReentrantLock();
+        }
+
+        ParkingLot parkingLot = ParkingLot.withLayout(sections, fallbackPolicy);
+        ParkingLotManager parkingLotManager = new ParkingLotManagerImpl(parkingLot, waitlistEnabled,
+            eventListener, journal, OccupancyHistory.fromSystemProperties().orElse(null));
+        long recovered = parkingLotManager.recover();
+
+        // a tariff loaded since start-up outlives the parking lot it was loaded for
+        ChargesCalculator chargesCalculator = ctx.get(ChargesCalculator.class);
+        if (chargesCalculator == null) {
+            chargesCalculator = new TariffChargesCalculatorImpl(
+                Tariff.fromSystemProperties().orElse(Tariff.DEFAULT));
+        }
 
         ParkingService parkingService =
-            new ParkingServiceImpl(parkingLotManager, chargesCalculator);
+            new ParkingServiceImpl(parkingLotManager, chargesCalculator, leader, engineLock);
 
         // push this to context
-        ApplicationContext ctx = ApplicationContext.getInstance();
         ctx.put(parkingService);
+        ctx.put(journal);
+        ctx.put(chargesCalculator);
+        return recovered;
     }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command.impl;
+
+import static com.priyakdey.parker.command.CommandOutput.out;
+import static com.priyakdey.parker.handler.InsufficientArgsExceptionHandler.checkArgsLength;
+
+import com.priyakdey.parker.command.Command;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.exception.ReplicationException;
+import com.priyakdey.parker.service.ParkingService;
+
+/**
+ * A command that turns the parking lot into a warm standby of a leader.
+ *
+ * <p>
+ * The parking lot listens on the given address, {@code host:port} or a Unix domain socket path,
+ * for a leader started with the {@code parker.replication.followers} system property, and applies
+ * every change it ships in the background. Till it is promoted, the parking lot rejects any other change.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class FollowCommand implements Command {
+
+    private static final String MSG_TMPL = "Following leader on %s%n";
+    private static final String FAILED_MSG_TMPL = "Cannot follow leader. %s%n";
+
+    /**
+     * Executes the command to start following a leader.
+     *
+     * @param args An array of string arguments, expected to contain the address to listen on.
+     */
+    @Override
+    public void execute(String... args) {
+        checkArgsLength(args, 1);
+
+        String address = args[0].trim();
+        ApplicationContext ctx = ApplicationContext.getInstance();
+        ParkingService parkingService = ctx.get(ParkingService.class);
+
+        try {
+            parkingService.follow(address);
+            out().printf(MSG_TMPL, address);
+        } catch (BadInputException | ReplicationException ex) {
+            out().printf(FAILED_MSG_TMPL, ex.getMessage());
+        }
+    }
+}
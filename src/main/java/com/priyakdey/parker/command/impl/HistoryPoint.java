@@ -0,0 +1,74 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command.impl;
+
+import com.priyakdey.parker.common.Validator;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.service.ParkingService;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads a point in the history of the parking lot off a command argument.
+ *
+ * <p>
+ * A point is either the sequence number of a change, a time of today as {@code HH:mm[:ss]}, or a
+ * date and time as {@code yyyy-MM-ddTHH:mm[:ss]}, in the system time zone. A time stands for the
+ * last change made at or before it.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+final class HistoryPoint {
+
+    private HistoryPoint() {
+    }
+
+    /**
+     * Resolves a point in history to the sequence number of a change.
+     *
+     * @param input          the command argument
+     * @param parkingService the service to look times up with
+     * @return the sequence number of the change.
+     * @throws BadInputException if the argument is malformed, or no change was made by the time.
+     */
+    static long resolve(String input, ParkingService parkingService) {
+        String point = input.trim();
+        if (Validator.isDigit(point)) {
+            return Long.parseLong(point);
+        }
+
+        try {
+            LocalDateTime dateTime = point.indexOf('T') > 0
+                ? LocalDateTime.parse(point)
+                : LocalDate.now().atTime(LocalTime.parse(point));
+            return parkingService.sequenceAt(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+        } catch (DateTimeParseException ex) {
+            throw new BadInputException(
+                "Invalid point in history, expecting a sequence number, `HH:mm[:ss]` or `yyyy-MM-ddTHH:mm[:ss]`");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command.impl;
+
+import static com.priyakdey.parker.command.CommandOutput.out;
+
+import com.priyakdey.parker.command.Command;
+import com.priyakdey.parker.command.CommandLatencies;
+import com.priyakdey.parker.context.ApplicationContext;
+
+/**
+ * A command that prints how many times every command ran, how often, and how long it took - the
+ * 50th, 90th, 99th and 99.9th percentile, and the longest - since the start, or the last reset.
+ *
+ * <p>
+ * Given {@code reset}, it starts the latencies afresh after printing them, to time a stretch of
+ * the run on its own.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class LatencyReportCommand implements Command {
+
+    private static final String RESET = "reset";
+    private static final String FAILED_MSG = "Cannot report latencies. Expecting no argument, or reset";
+
+    /**
+     * Executes the command to print the latencies of the commands.
+     *
+     * @param args An array of string arguments, expected to be empty, or {@code reset}.
+     */
+    @Override
+    public void execute(String... args) {
+        if (args.length > 1 || (args.length == 1 && !args[0].equals(RESET))) {
+            out().println(FAILED_MSG);
+            return;
+        }
+
+        CommandLatencies latencies = ApplicationContext.getInstance().get(CommandLatencies.class);
+        latencies.report(out());
+        if (args.length == 1) {
+            latencies.reset();
+        }
+    }
+}
@@ -22,13 +22,15 @@
 
 package com.priyakdey.parker.command.impl;
 
+import static com.priyakdey.parker.command.CommandOutput.out;
 import static com.priyakdey.parker.handler.InsufficientArgsExceptionHandler.checkArgsLength;
 
 import com.priyakdey.parker.command.Command;
+import com.priyakdey.parker.command.ReplyLine;
 import com.priyakdey.parker.common.Validator;
 import com.priyakdey.parker.context.ApplicationContext;
-import com.priyakdey.parker.core.model.ParkingCharge;
 import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.exception.VehicleNotParkedException;
 import com.priyakdey.parker.service.ParkingService;
 
 /**
@@ -44,11 +46,19 @@
  */
 public class LeaveCommand implements Command {
 
-    private static final String LEAVE_MSG_TMPL =
-        "Registration number %s with Slot Number %s is free with Charge %s%n";
+    private static final String LEAVE_MSG_REGISTRATION = "Registration number ";
+    private static final String LEAVE_MSG_SLOT = " with Slot Number ";
+    private static final String LEAVE_MSG_CHARGE = " is free with Charge ";
 
     private static final String VEHICLE_NOT_FOUND_MSG_TMPL = "Registration number %s not found%n";
 
+    /**
+     * Most digits of hours parked, every number of which fits an int.
+     */
+    private static final int MAX_HOURS_DIGITS = 9;
+
+    private final ReplyLine reply = new ReplyLine();
+
     /**
      * Executes the command to process the departure of a vehicle from the parking lot.
      *
@@ -69,21 +79,27 @@ public void execute(String... args) {
         String registrationNumber = args[0].trim();
         String hoursParkedS = args[1].trim();
 
+        // hours are read before the vehicle leaves, an hours too long for an int is refused with
+        // the vehicle still parked, not after its space is vacated and journaled
         if (!Validator.isRegistrationNumber(registrationNumber) ||
-            !Validator.isDigit(hoursParkedS)) {
+            !Validator.isDigit(hoursParkedS) || hoursParkedS.length() > MAX_HOURS_DIGITS) {
             throw new BadInputException("Incorrect format of input.");
         }
+        int hoursParked = Integer.parseInt(hoursParkedS);
 
         ApplicationContext ctx = ApplicationContext.getInstance();
         ParkingService parkingService = ctx.get(ParkingService.class);
+        int parkedSpot;
         try {
-            ParkingCharge parkingCharge =
-                parkingService.leave(registrationNumber, Integer.parseInt(hoursParkedS));
-            System.out.printf(LEAVE_MSG_TMPL, parkingCharge.registrationNumber(),
-                parkingCharge.parkedSpot(), parkingCharge.charge());
-        } catch (BadInputException ex) {
-            System.out.printf(VEHICLE_NOT_FOUND_MSG_TMPL, registrationNumber);
+            parkedSpot = parkingService.vacate(registrationNumber);
+        } catch (VehicleNotParkedException ex) {
+            out().printf(VEHICLE_NOT_FOUND_MSG_TMPL, registrationNumber);
+            return;
         }
 
+        long chargeCents = parkingService.charge(parkedSpot, hoursParked);
+        reply.append(LEAVE_MSG_REGISTRATION).append(registrationNumber)
+            .append(LEAVE_MSG_SLOT).append(parkedSpot).append(LEAVE_MSG_CHARGE);
+        Charges.append(reply, chargeCents).printTo(out());
     }
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command.impl;
+
+import static com.priyakdey.parker.command.CommandOutput.out;
+import static com.priyakdey.parker.handler.InsufficientArgsExceptionHandler.checkArgsLength;
+
+import com.priyakdey.parker.command.Command;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.core.pricing.Tariff;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.service.ParkingService;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+
+/**
+ * A command that swaps the tariff stays are priced with for the one in a tariff file.
+ *
+ * <p>
+ * The file is compiled before it is swapped in, so a malformed file is reported and leaves the
+ * current tariff in place. Every stay ending after the swap is priced with the new tariff.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class LoadTariffCommand implements Command {
+
+    private static final String MSG_TMPL = "Loaded tariff with %d rules from %s%n";
+    private static final String FAILED_MSG_TMPL = "Cannot load tariff. %s%n";
+
+    /**
+     * Executes the command to load a tariff.
+     *
+     * @param args An array of string arguments, expected to contain the path of the tariff file.
+     */
+    @Override
+    public void execute(String... args) {
+        checkArgsLength(args, 1);
+
+        String file = args[0].trim();
+        ApplicationContext ctx = ApplicationContext.getInstance();
+        ParkingService parkingService = ctx.get(ParkingService.class);
+
+        try {
+            Tariff tariff = parkingService.loadTariff(Path.of(file));
+            out().printf(MSG_TMPL, tariff.ruleCount(), file);
+        } catch (InvalidPathException ex) {
+            out().printf(FAILED_MSG_TMPL, "Invalid path " + file);
+        } catch (BadInputException ex) {
+            out().printf(FAILED_MSG_TMPL, ex.getMessage());
+        }
+    }
+}
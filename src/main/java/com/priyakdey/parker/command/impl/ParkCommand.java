@@ -22,12 +22,17 @@
 
 package com.priyakdey.parker.command.impl;
 
+import static com.priyakdey.parker.command.CommandOutput.out;
 import static com.priyakdey.parker.handler.InsufficientArgsExceptionHandler.checkArgsLength;
 
 import com.priyakdey.parker.command.Command;
+import com.priyakdey.parker.command.ReplyLine;
 import com.priyakdey.parker.common.Validator;
 import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.core.model.VehicleType;
+import com.priyakdey.parker.core.model.WaitlistPriority;
 import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.exception.VehicleAlreadyParkedException;
 import com.priyakdey.parker.service.ParkingService;
 import java.util.Optional;
 
@@ -44,7 +49,15 @@
 public class ParkCommand implements Command {
 
     private static final String PARKING_FULL_MSG = "Sorry, parking lot is full";
-    private static final String PARKING_ALLOCATED_MSG = "Allocated slot number: %d%n";
+    private static final String PARKING_ALLOCATED_MSG = "Allocated slot number: ";
+    private static final String WAITLISTED_MSG_TMPL =
+        "Sorry, parking lot is full. Waitlisted at position %d%n";
+    private static final String ALREADY_WAITLISTED_MSG_TMPL =
+        "Registration number %s is already waitlisted%n";
+    private static final String ALREADY_PARKED_MSG_TMPL =
+        "Registration number %s is already parked%n";
+
+    private final ReplyLine reply = new ReplyLine();
 
     /**
      * Executes the command with the specified arguments to facilitate the parking process of a vehicle.
@@ -54,6 +67,27 @@ public class ParkCommand implements Command {
      * marking that space as occupied, logging the arrival time, and other relevant tasks.
      * </p>
      *
+     * <p>
+     * The registration number can be followed by the vehicle class, example - {@code park KA-01-HH-1234 ev}.
+     * Vehicles without a class are parked as {@code car}. When the parking lot has more than one
+     * slot class, the class of the allocated slot is reported along with its number.
+     * </p>
+     *
+     * <p>
+     * When the parking lot is full and has a waitlist, the vehicle is waitlisted instead. It waits
+     * in the {@code regular} priority class, unless another one is given after the registration
+     * number, example - {@code park KA-01-HH-1234 ev accessible}.
+     * </p>
+     *
+     * <p>
+     * Any other word after the registration number is the colour of the vehicle, example -
+     * {@code park KA-01-HH-1234 White}, recorded to look vehicles up by colour.
+     * </p>
+     *
+     * <p>
+     * A registration number already parked is turned away, to be left before it is parked again.
+     * </p>
+     *
      * @param args An array of string arguments to be used when executing the command. Expected to contain
      *             details relevant to the parking process, like vehicle registration number.
      */
@@ -66,16 +100,58 @@ public void execute(String... args) {
             throw new BadInputException("Bad registration number");
         }
 
+        VehicleType vehicleType = VehicleType.CAR;
+        WaitlistPriority priority = WaitlistPriority.REGULAR;
+        String colour = null;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i].trim();
+            Optional<WaitlistPriority> optionalPriority = WaitlistPriority.findByCode(arg);
+            Optional<VehicleType> optionalVehicleType = VehicleType.findByCode(arg);
+            if (optionalPriority.isPresent()) {
+                priority = optionalPriority.get();
+            } else if (optionalVehicleType.isPresent()) {
+                vehicleType = optionalVehicleType.get();
+            } else if (colour == null && Validator.isColour(arg)) {
+                colour = arg;
+            } else {
+                vehicleType = VehicleType.fromCode(arg);
+            }
+        }
+
         ApplicationContext ctx = ApplicationContext.getInstance();
         ParkingService parkingService = ctx.get(ParkingService.class);
-        Optional<Integer> optional = parkingService.park(registrationNumber);
+        int parkingId;
+        try {
+            parkingId = parkingService.tryPark(registrationNumber, vehicleType, colour);
+        } catch (VehicleAlreadyParkedException ex) {
+            out().printf(ALREADY_PARKED_MSG_TMPL, registrationNumber);
+            return;
+        }
 
-        if (optional.isEmpty()) {
-            System.out.println(PARKING_FULL_MSG);
+        if (parkingId == 0) {
+            if (parkingService.isWaitlistEnabled()) {
+                waitlist(parkingService, registrationNumber, vehicleType, colour, priority);
+            } else {
+                out().println(PARKING_FULL_MSG);
+            }
             return;
         }
 
-        int parkingId = optional.get();
-        System.out.printf(PARKING_ALLOCATED_MSG, parkingId);
+        reply.append(PARKING_ALLOCATED_MSG).append(parkingId);
+        if (parkingService.slotTypes().size() > 1) {
+            reply.append(" (").append(parkingService.slotTypeOf(parkingId).getCode()).append(')');
+        }
+        reply.printTo(out());
+    }
+
+    private void waitlist(ParkingService parkingService, String registrationNumber,
+                          VehicleType vehicleType, String colour, WaitlistPriority priority) {
+        try {
+            int position =
+                parkingService.waitlist(registrationNumber, vehicleType, colour, priority);
+            out().printf(WAITLISTED_MSG_TMPL, position);
+        } catch (BadInputException ex) {
+            out().printf(ALREADY_WAITLISTED_MSG_TMPL, registrationNumber);
+        }
     }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command.impl;
+
+import static com.priyakdey.parker.command.CommandOutput.out;
+
+import com.priyakdey.parker.command.Command;
+import com.priyakdey.parker.common.Validator;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.service.ParkingService;
+
+/**
+ * A command that promotes a warm standby, taking over from the leader it follows.
+ *
+ * <p>
+ * The standby stops applying the leader's changes, and accepts changes of its own from there on.
+ * An optional timeout, in milliseconds, waits for the leader to ship its last changes and go away
+ * first - a planned hand-over - while without it, the standby takes over right away.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class PromoteCommand implements Command {
+
+    private static final String MSG_TMPL = "Promoted to leader at sequence %d%n";
+    private static final String FAILED_MSG_TMPL = "Cannot promote. %s%n";
+
+    /**
+     * Executes the command to promote the standby.
+     *
+     * @param args An array of string arguments, optionally containing the milliseconds to wait for
+     *             the leader to go away. Defaults to not waiting.
+     */
+    @Override
+    public void execute(String... args) {
+        long timeoutMillis = 0;
+        if (args.length > 0) {
+            String input = args[0].trim();
+            if (!Validator.isDigit(input)) {
+                throw new BadInputException("Invalid `timeout`, expecting a real number");
+            }
+            timeoutMillis = Long.parseLong(input);
+        }
+
+        ApplicationContext ctx = ApplicationContext.getInstance();
+        ParkingService parkingService = ctx.get(ParkingService.class);
+
+        try {
+            out().printf(MSG_TMPL, parkingService.promote(timeoutMillis));
+        } catch (BadInputException ex) {
+            out().printf(FAILED_MSG_TMPL, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command.impl;
+
+import static com.priyakdey.parker.command.CommandOutput.out;
+import static com.priyakdey.parker.handler.InsufficientArgsExceptionHandler.checkArgsLength;
+
+import com.priyakdey.parker.command.Command;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.service.ParkingService;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * A command that lists the registration numbers of the cars of a colour, example -
+ * {@code registrations_for_colour White}.
+ *
+ * <p>
+ * The look up walks only the vehicles it finds, whatever the size of the parking lot.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class RegistrationsForColourCommand implements Command {
+
+    private static final String NOT_FOUND_MSG = "Not found";
+
+    /**
+     * Executes the command to list the registration numbers of the cars of a colour.
+     *
+     * @param args An array of string arguments, expected to contain the colour, matched ignoring case.
+     */
+    @Override
+    public void execute(String... args) {
+        checkArgsLength(args, 1);
+
+        ApplicationContext ctx = ApplicationContext.getInstance();
+        ParkingService parkingService = ctx.get(ParkingService.class);
+        List<String> found = parkingService.registrationsForColour(args[0].trim());
+
+        if (found.isEmpty()) {
+            out().println(NOT_FOUND_MSG);
+            return;
+        }
+
+        StringJoiner joiner = new StringJoiner(", ");
+        found.forEach(value -> joiner.add(String.valueOf(value)));
+        out().println(joiner);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command.impl;
+
+import static com.priyakdey.parker.command.CommandOutput.out;
+
+import com.priyakdey.parker.command.Command;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.core.replication.ReplicationStatus;
+import com.priyakdey.parker.service.ParkingService;
+
+/**
+ * A command that reports where the parking lot stands in replication.
+ *
+ * <p>
+ * A leader reports the last change it shipped and the last one every follower acknowledged. A
+ * follower reports the last change it applied, how far the leader was ahead of it as of the latest
+ * batch, and how long that batch took to arrive.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class ReplicationStatusCommand implements Command {
+
+    private static final String STANDALONE_MSG = "Replication is not enabled";
+    private static final String LEADER_MSG_TMPL =
+        "Leader at sequence %d, %d followers connected, acknowledged up to %d, lag %d records, %d ms, %d batches shipped%n";
+    private static final String FOLLOWER_MSG_TMPL =
+        "Follower at sequence %d of %d, leader %s, lag %d records, %d ms, %d batches applied%n";
+    private static final String FOLLOWER_STOPPED_MSG_TMPL =
+        "Follower stopped at sequence %d of %d, %d batches applied. Details = %s%n";
+
+    /**
+     * Executes the command to report the replication status.
+     *
+     * @param args An array of string arguments, expected to be empty.
+     */
+    @Override
+    public void execute(String... args) {
+        ApplicationContext ctx = ApplicationContext.getInstance();
+        ParkingService parkingService = ctx.get(ParkingService.class);
+
+        ReplicationStatus status = parkingService.replicationStatus();
+        switch (status.role()) {
+            case STANDALONE -> out().println(STANDALONE_MSG);
+            case LEADER -> out().printf(LEADER_MSG_TMPL, status.sequence(),
+                status.connectedPeers(), status.acknowledged(), status.lagRecords(),
+                status.lagMillis(), status.batches());
+            case FOLLOWER -> {
+                if (status.failure() != null) {
+                    out().printf(FOLLOWER_STOPPED_MSG_TMPL, status.acknowledged(),
+                        status.sequence(), status.batches(), status.failure());
+                } else {
+                    out().printf(FOLLOWER_MSG_TMPL, status.acknowledged(), status.sequence(),
+                        status.connectedPeers() > 0 ? "connected" : "disconnected",
+                        status.lagRecords(), status.lagMillis(), status.batches());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command.impl;
+
+import static com.priyakdey.parker.command.CommandOutput.out;
+import static com.priyakdey.parker.handler.InsufficientArgsExceptionHandler.checkArgsLength;
+
+import com.priyakdey.parker.command.Command;
+import com.priyakdey.parker.common.Validator;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.core.model.VehicleType;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.service.ParkingService;
+import java.util.Optional;
+
+/**
+ * A command that represents the action of holding a parking space for a vehicle yet to arrive.
+ *
+ * <p>
+ * The space is held for the given number of ticks of the reservation clock, and released back to
+ * the parking lot if the vehicle does not claim it in time.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class ReserveCommand implements Command {
+
+    private static final String PARKING_FULL_MSG = "Sorry, parking lot is full";
+    private static final String RESERVED_MSG_TMPL = "Reserved slot number: %d till tick %d%n";
+    private static final String ALREADY_RESERVED_MSG_TMPL =
+        "Registration number %s already holds a reservation%n";
+
+    /**
+     * Executes the command to hold a parking space for a vehicle.
+     *
+     * <p>
+     * Expected arguments are the registration number, the number of ticks to hold the space for,
+     * and optionally the vehicle class, example - {@code reserve KA-01-HH-1234 30 ev}.
+     * </p>
+     *
+     * @param args An array of string arguments containing the details of the reservation.
+     */
+    @Override
+    public void execute(String... args) {
+        checkArgsLength(args, 2);
+
+        String registrationNumber = args[0].trim();
+        String ttlTicksS = args[1].trim();
+
+        if (!Validator.isRegistrationNumber(registrationNumber) || !Validator.isDigit(ttlTicksS)) {
+            throw new BadInputException("Incorrect format of input.");
+        }
+
+        VehicleType vehicleType = args.length > 2 ? VehicleType.fromCode(args[2].trim()) : VehicleType.CAR;
+        int ttlTicks = Integer.parseInt(ttlTicksS);
+        if (ttlTicks < 1) {
+            throw new BadInputException("Reservation needs to be held for at least one tick");
+        }
+
+        ApplicationContext ctx = ApplicationContext.getInstance();
+        ParkingService parkingService = ctx.get(ParkingService.class);
+
+        Optional<Integer> optional;
+        try {
+            optional = parkingService.reserve(registrationNumber, vehicleType, ttlTicks);
+        } catch (BadInputException ex) {
+            out().printf(ALREADY_RESERVED_MSG_TMPL, registrationNumber);
+            return;
+        }
+
+        if (optional.isEmpty()) {
+            out().println(PARKING_FULL_MSG);
+            return;
+        }
+
+        out().printf(RESERVED_MSG_TMPL, optional.get(), parkingService.currentTick() + ttlTicks);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command.impl;
+
+import static com.priyakdey.parker.command.CommandOutput.out;
+import static com.priyakdey.parker.handler.InsufficientArgsExceptionHandler.checkArgsLength;
+
+import com.priyakdey.parker.command.Command;
+import com.priyakdey.parker.common.Validator;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.service.ParkingService;
+
+/**
+ * A command that represents the action of resizing an existing parking lot.
+ *
+ * <p>
+ * Unlike running {@link CreateParkingLotCommand} again, this keeps the state of the parking lot,
+ * and only adds or retires the spaces farthest from the entry.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class ResizeParkingLotCommand implements Command {
+
+    private static final String MSG_TMPL = "Resized parking lot to %d slots%n";
+
+    private static final String REJECTED_MSG_TMPL = "Cannot resize parking lot to %d slots. %s%n";
+
+    /**
+     * Executes the command to resize the parking lot to the provided capacity.
+     *
+     * <p>
+     * Growing always succeeds. Shrinking is rejected, and the parking lot left as is, if any of the
+     * spaces to be retired is in use.
+     * </p>
+     *
+     * @param args An array of string arguments, expected to contain the new capacity.
+     */
+    @Override
+    public void execute(String... args) {
+        checkArgsLength(args, 1);
+
+        String input = args[0].trim();
+        if (!Validator.isDigit(input)) {
+            throw new BadInputException("Invalid `capacity`, expecting a real number");
+        }
+
+        int capacity = Integer.parseInt(input);
+
+        ApplicationContext ctx = ApplicationContext.getInstance();
+        ParkingService parkingService = ctx.get(ParkingService.class);
+        try {
+            parkingService.resize(capacity);
+            out().printf(MSG_TMPL, capacity);
+        } catch (BadInputException ex) {
+            out().printf(REJECTED_MSG_TMPL, capacity, ex.getMessage());
+        }
+    }
+}
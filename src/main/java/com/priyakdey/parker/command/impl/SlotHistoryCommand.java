@@ -0,0 +1,96 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command.impl;
+
+import static com.priyakdey.parker.command.CommandOutput.out;
+import static com.priyakdey.parker.handler.InsufficientArgsExceptionHandler.checkArgsLength;
+
+import com.priyakdey.parker.command.Command;
+import com.priyakdey.parker.common.Validator;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.core.model.SlotOccupancy;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.service.ParkingService;
+import java.util.List;
+
+/**
+ * A command that lists every vehicle which held a parking space over a stretch of its history.
+ *
+ * <p>
+ * The stretch runs from the given point in history up to another one, or up to the last change
+ * when not given. Points are sequence numbers or times, see {@link StatusCommand}.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class SlotHistoryCommand implements Command {
+
+    private static final String HELD_MSG_TMPL = "Slot %d held by %s from sequence %d to %d%n";
+    private static final String HOLDING_MSG_TMPL = "Slot %d held by %s since sequence %d%n";
+    private static final String FREE_MSG_TMPL = "Slot %d was free from sequence %d to %d%n";
+    private static final String FAILED_MSG_TMPL = "Cannot look back. %s%n";
+
+    /**
+     * Executes the command to list the vehicles which held a parking space.
+     *
+     * @param args An array of string arguments, expected to contain the parking space id and the
+     *             point in history to start from, optionally followed by the point to end at.
+     */
+    @Override
+    public void execute(String... args) {
+        checkArgsLength(args, 2);
+
+        String input = args[0].trim();
+        if (!Validator.isDigit(input)) {
+            throw new BadInputException("Invalid `slot`, expecting a real number");
+        }
+        int parkingSpaceId = Integer.parseInt(input);
+
+        ApplicationContext ctx = ApplicationContext.getInstance();
+        ParkingService parkingService = ctx.get(ParkingService.class);
+
+        try {
+            long from = HistoryPoint.resolve(args[1], parkingService);
+            long to = args.length > 2
+                ? HistoryPoint.resolve(args[2], parkingService)
+                : parkingService.lastSequence();
+
+            List<SlotOccupancy> stretches = parkingService.slotHistory(parkingSpaceId, from, to);
+            if (stretches.isEmpty()) {
+                out().printf(FREE_MSG_TMPL, parkingSpaceId, from, to);
+                return;
+            }
+            for (SlotOccupancy stretch : stretches) {
+                if (stretch.isOngoing()) {
+                    out().printf(HOLDING_MSG_TMPL, parkingSpaceId,
+                        stretch.registrationNumber(), stretch.parkedAt());
+                } else {
+                    out().printf(HELD_MSG_TMPL, parkingSpaceId, stretch.registrationNumber(),
+                        stretch.parkedAt(), stretch.vacatedAt() - 1);
+                }
+            }
+        } catch (BadInputException ex) {
+            out().printf(FAILED_MSG_TMPL, ex.getMessage());
+        }
+    }
+}
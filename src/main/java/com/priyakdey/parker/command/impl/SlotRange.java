@@ -0,0 +1,52 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command.impl;
+
+import com.priyakdey.parker.common.Validator;
+import com.priyakdey.parker.exception.BadInputException;
+
+/**
+ * Reads the bounds of a range of parking spaces off command arguments.
+ *
+ * @author Priyak Dey
+ */
+final class SlotRange {
+
+    private SlotRange() {
+    }
+
+    /**
+     * Reads a parking space id bounding a range.
+     *
+     * @param input the command argument
+     * @return the parking space id.
+     * @throws BadInputException if the argument is not a slot number.
+     */
+    static int parseId(String input) {
+        String id = input.trim();
+        if (!Validator.isDigit(id) || id.length() > 9) {
+            throw new BadInputException("Invalid slot range, expecting two slot numbers");
+        }
+        return Integer.parseInt(id);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command.impl;
+
+import static com.priyakdey.parker.command.CommandOutput.out;
+
+import com.priyakdey.parker.command.Command;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.exception.JournalException;
+import com.priyakdey.parker.service.ParkingService;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A command that takes a snapshot of the parking lot right away.
+ *
+ * <p>
+ * Snapshots are also taken on their own, every so many journal records. This command waits till
+ * the snapshot is durable, so the journal it covers is dropped once it returns.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class SnapshotCommand implements Command {
+
+    private static final String MSG = "Snapshot written";
+    private static final String FAILED_MSG_TMPL = "Cannot take snapshot. %s%n";
+
+    /**
+     * Executes the command to take a snapshot of the parking lot.
+     *
+     * @param args An array of string arguments, expected to be empty.
+     */
+    @Override
+    public void execute(String... args) {
+        ApplicationContext ctx = ApplicationContext.getInstance();
+        ParkingService parkingService = ctx.get(ParkingService.class);
+
+        try {
+            parkingService.snapshot().join();
+            out().println(MSG);
+        } catch (BadInputException ex) {
+            out().printf(FAILED_MSG_TMPL, ex.getMessage());
+        } catch (CompletionException ex) {
+            if (!(ex.getCause() instanceof JournalException)) {
+                throw ex;
+            }
+            out().printf(FAILED_MSG_TMPL, ex.getCause().getMessage());
+        }
+    }
+}
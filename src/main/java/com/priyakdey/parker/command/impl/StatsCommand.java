@@ -0,0 +1,70 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command.impl;
+
+import static com.priyakdey.parker.command.CommandOutput.out;
+
+import com.priyakdey.parker.command.Command;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.core.model.LotStats;
+import com.priyakdey.parker.core.model.ZoneStats;
+import com.priyakdey.parker.service.ParkingService;
+
+/**
+ * A command that prints the occupancy, turnover and revenue of the parking lot, by slot class and
+ * overall.
+ *
+ * <p>
+ * The stats are read off counters kept up to date with every park and leave, so printing them
+ * takes the same time whatever the size of the parking lot.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class StatsCommand implements Command {
+
+    private static final String HEADER = "Slot Class Capacity Occupied Reserved Free Sessions Departures Revenue";
+    private static final String ROW_TMPL = "%s %d %d %d %d %d %d %s%n";
+    private static final String TOTAL = "total";
+
+    /**
+     * Executes the command to print the stats of the parking lot.
+     *
+     * @param args An array of string arguments, expected to be empty.
+     */
+    @Override
+    public void execute(String... args) {
+        ApplicationContext ctx = ApplicationContext.getInstance();
+        ParkingService parkingService = ctx.get(ParkingService.class);
+
+        LotStats stats = parkingService.stats();
+        out().println(HEADER);
+        for (ZoneStats zone : stats.zones()) {
+            out().printf(ROW_TMPL, zone.slotType().getCode(), zone.capacity(), zone.occupied(),
+                zone.reserved(), zone.free(), zone.sessions(), zone.departures(),
+                Charges.format(zone.revenueCents()));
+        }
+        out().printf(ROW_TMPL, TOTAL, stats.capacity(), stats.occupied(), stats.reserved(),
+            stats.free(), stats.sessions(), stats.departures(), Charges.format(stats.revenueCents()));
+    }
+}
@@ -22,8 +22,13 @@
 
 package com.priyakdey.parker.command.impl;
 
+import static com.priyakdey.parker.command.CommandOutput.out;
+
 import com.priyakdey.parker.command.Command;
+import com.priyakdey.parker.command.ReplyLine;
 import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.core.service.OccupantVisitor;
+import com.priyakdey.parker.exception.BadInputException;
 import com.priyakdey.parker.service.ParkingService;
 import java.util.Map;
 import java.util.SortedMap;
@@ -41,7 +46,14 @@
 public class StatusCommand implements Command {
     private static final String STATUS_HEADER = "Slot No. Registration No.";
     private static final String STATUS_MSG_TMPL = "%d %s%n";
+    private static final String STATUS_WITH_CLASS_HEADER = "Slot No. Registration No. Slot Class";
+    private static final String STATUS_WITH_CLASS_MSG_TMPL = "%d %s %s%n";
+    private static final String HISTORY_HEADER_TMPL = "Status at sequence %d%n";
+    private static final String FAILED_MSG_TMPL = "Cannot look back. %s%n";
+    private static final String RANGE_FAILED_MSG_TMPL = "Cannot show the range. %s%n";
+    private static final String RETIRED_SLOT_CLASS = "retired";
 
+    private final CurrentStatusPrinter currentStatusPrinter = new CurrentStatusPrinter();
 
     /**
      * Executes the command to retrieve the current status of the parking lot.
@@ -53,25 +65,134 @@ public class StatusCommand implements Command {
      * no specific arguments would typically be required. However, the mechanism is in place
      * for flexibility.
      * </p>
+     * <p>
+     * When the parking lot has more than one slot class, every row also reports the slot class.
+     * </p>
+     * <p>
+     * Given a point in history - the sequence number of a change, a time of today as
+     * {@code HH:mm[:ss]}, or a date and time as {@code yyyy-MM-ddTHH:mm[:ss]} - the status is the
+     * one right after that change, or the last change made by that time. Looking back needs the
+     * history to be enabled with the {@code parker.history.retention} system property.
+     * </p>
+     * <p>
+     * Given two slot numbers instead, the status is the current one of the slots between them.
+     * </p>
      *
      * @param args An array of string arguments, which in the context of a status command, are
-     *             expected to be empty or not specifically used.
+     *             expected to be empty, to hold a point in history, or a range of slots.
      */
     @Override
     public void execute(String... args) {
         ApplicationContext ctx = ApplicationContext.getInstance();
         ParkingService parkingService = ctx.get(ParkingService.class);
 
-        SortedMap<Integer, String> status = parkingService.status();
+        if (args.length == 0) {
+            currentStatusPrinter.print(parkingService);
+            return;
+        }
 
-        if (!status.isEmpty()) {
-            System.out.println(STATUS_HEADER);
+        if (args.length == 2) {
+            printRange(args[0], args[1], parkingService);
+            return;
+        }
+
+        SortedMap<Integer, String> status;
+        long sequence;
+        try {
+            sequence = HistoryPoint.resolve(args[0], parkingService);
+            status = parkingService.status(sequence);
+        } catch (BadInputException ex) {
+            out().printf(FAILED_MSG_TMPL, ex.getMessage());
+            return;
+        }
+
+        out().printf(HISTORY_HEADER_TMPL, sequence);
+        print(status, parkingService);
+    }
+
+    private void printRange(String from, String to, ParkingService parkingService) {
+        SortedMap<Integer, String> status;
+        try {
+            status = parkingService.status(SlotRange.parseId(from), SlotRange.parseId(to));
+        } catch (BadInputException ex) {
+            out().printf(RANGE_FAILED_MSG_TMPL, ex.getMessage());
+            return;
+        }
+
+        print(status, parkingService);
+    }
+
+    private void print(SortedMap<Integer, String> status, ParkingService parkingService) {
+        if (status.isEmpty()) {
+            return;
+        }
+
+        if (parkingService.slotTypes().size() > 1) {
+            out().println(STATUS_WITH_CLASS_HEADER);
 
             for (Map.Entry<Integer, String> entry : status.entrySet()) {
-                System.out.printf(STATUS_MSG_TMPL, entry.getKey(), entry.getValue());
+                out().printf(STATUS_WITH_CLASS_MSG_TMPL, entry.getKey(), entry.getValue(),
+                    slotClassOf(entry.getKey(), parkingService));
             }
+            return;
+        }
 
+        out().println(STATUS_HEADER);
+
+        for (Map.Entry<Integer, String> entry : status.entrySet()) {
+            out().printf(STATUS_MSG_TMPL, entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Returns the slot class code of a parking space, which may have been retired by a shrink since
+     * the point in history being printed.
+     */
+    private String slotClassOf(int parkingSpaceId, ParkingService parkingService) {
+        try {
+            return parkingService.slotTypeOf(parkingSpaceId).getCode();
+        } catch (BadInputException ex) {
+            return RETIRED_SLOT_CLASS;
         }
+    }
+
+    /**
+     * Prints the current status straight off the parking lot, one row per occupied parking space as
+     * it is visited, and the header before the first, so printing it allocates nothing.
+     */
+    private static final class CurrentStatusPrinter implements OccupantVisitor {
+
+        private final ReplyLine reply = new ReplyLine();
 
+        private ParkingService parkingService;
+
+        private boolean withClass;
+
+        private boolean headerPrinted;
+
+        private void print(ParkingService parkingService) {
+            this.parkingService = parkingService;
+            this.withClass = parkingService.slotTypes().size() > 1;
+            this.headerPrinted = false;
+            try {
+                parkingService.forEachOccupied(this);
+            } finally {
+                this.parkingService = null;
+            }
+        }
+
+        @Override
+        public void visit(int parkingSpaceId, String registrationNumber) {
+            if (!headerPrinted) {
+                reply.append(withClass ? STATUS_WITH_CLASS_HEADER : STATUS_HEADER).printTo(out());
+                headerPrinted = true;
+            }
+
+            reply.append(parkingSpaceId).append(' ').append(registrationNumber);
+            if (withClass) {
+                reply.append(' ').append(parkingService.slotTypeOf(parkingSpaceId).getCode());
+            }
+            reply.printTo(out());
+        }
     }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.command.impl;
+
+import static com.priyakdey.parker.command.CommandOutput.out;
+
+import com.priyakdey.parker.command.Command;
+import com.priyakdey.parker.common.Validator;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.service.ParkingService;
+
+/**
+ * A command that advances the reservation clock.
+ *
+ * <p>
+ * Reservations are held for a number of ticks of a logical clock, which only moves forward when
+ * this command is executed. Every reservation expiring on the way is released back to the parking lot.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class TickCommand implements Command {
+
+    private static final String MSG_TMPL = "Clock at tick %d, %d reservations expired%n";
+
+    /**
+     * Executes the command to advance the reservation clock.
+     *
+     * @param args An array of string arguments, optionally containing the number of ticks to
+     *             advance by. Defaults to one tick.
+     */
+    @Override
+    public void execute(String... args) {
+        int ticks = 1;
+        if (args.length > 0) {
+            String input = args[0].trim();
+            if (!Validator.isDigit(input)) {
+                throw new BadInputException("Invalid `ticks`, expecting a real number");
+            }
+            ticks = Integer.parseInt(input);
+        }
+
+        ApplicationContext ctx = ApplicationContext.getInstance();
+        ParkingService parkingService = ctx.get(ParkingService.class);
+
+        int expired = parkingService.advanceClock(ticks);
+        out().printf(MSG_TMPL, parkingService.currentTick(), expired);
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.common;
+
+import com.priyakdey.parker.exception.BadInputException;
+
+/**
+ * Packs a registration number into a {@code long}, and back, for the binary protocol.
+ * <p>
+ * Every registration number {@link Validator#isRegistrationNumber(String)} accepts, like
+ * {@code KA-01-HH-1234}, fits in 42 bits - letters as {@code 1} to {@code 26}, in 5 bits each,
+ * the district in 7 bits, a second series letter of {@code 0} when there is none, and the number in
+ * 14 bits with a bit telling 3 digits from 4, so {@code 0123} and {@code 123} stay apart.
+ * </p>
+ * <pre>
+ *     [state : 10][district : 7][series : 10][4 digits : 1][number : 14]
+ * </pre>
+ * <p>
+ * Both directions are a scan of the characters, without a regular expression. No registration
+ * number packs to {@link #INVALID}.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public final class PackedRegistration {
+
+    /**
+     * What {@link #pack(String)} returns for anything but a registration number.
+     */
+    public static final long INVALID = 0;
+
+    private static final int LETTER_BITS = 5;
+
+    private static final int DISTRICT_BITS = 7;
+
+    private static final int NUMBER_BITS = 14;
+
+    private static final int NUMBER_SHIFT = 0;
+
+    private static final int FOUR_DIGITS_SHIFT = NUMBER_SHIFT + NUMBER_BITS;
+
+    private static final int SERIES_SHIFT = FOUR_DIGITS_SHIFT + 1;
+
+    private static final int DISTRICT_SHIFT = SERIES_SHIFT + 2 * LETTER_BITS;
+
+    private static final int STATE_SHIFT = DISTRICT_SHIFT + DISTRICT_BITS;
+
+    private static final int PACKED_BITS = STATE_SHIFT + 2 * LETTER_BITS;
+
+    /**
+     * Longest registration number, {@code AA-00-AA-0000}.
+     */
+    private static final int MAX_LENGTH = 13;
+
+    private PackedRegistration() {
+    }
+
+    /**
+     * Packs a registration number.
+     *
+     * @param registrationNumber the registration number, example - {@code KA-01-HH-1234}
+     * @return the packed registration number, {@link #INVALID} if the input is not one.
+     */
+    public static long pack(String registrationNumber) {
+        int length = registrationNumber.length();
+        if (length < MAX_LENGTH - 2 || length > MAX_LENGTH) {
+            return INVALID;
+        }
+
+        // AA-00-
+        int state1 = letter(registrationNumber.charAt(0));
+        int state2 = letter(registrationNumber.charAt(1));
+        int district = digits(registrationNumber, 3, 5);
+        if (state1 == 0 || state2 == 0 || district < 0
+            || registrationNumber.charAt(2) != '-' || registrationNumber.charAt(5) != '-') {
+            return INVALID;
+        }
+
+        // A- or AA-
+        int series1 = letter(registrationNumber.charAt(6));
+        int series2 = letter(registrationNumber.charAt(7));
+        int dash = series2 == 0 ? 7 : 8;
+        if (series1 == 0 || registrationNumber.charAt(dash) != '-') {
+            return INVALID;
+        }
+
+        // 000 or 0000
+        int numberLength = length - dash - 1;
+        int number = digits(registrationNumber, dash + 1, length);
+        if (numberLength < 3 || numberLength > 4 || number < 0) {
+            return INVALID;
+        }
+
+        return (long) state1 << (STATE_SHIFT + LETTER_BITS)
+            | (long) state2 << STATE_SHIFT
+            | (long) district << DISTRICT_SHIFT
+            | (long) series1 << (SERIES_SHIFT + LETTER_BITS)
+            | (long) series2 << SERIES_SHIFT
+            | (long) (numberLength == 4 ? 1 : 0) << FOUR_DIGITS_SHIFT
+            | (long) number << NUMBER_SHIFT;
+    }
+
+    /**
+     * Unpacks a registration number.
+     *
+     * @param packed the packed registration number
+     * @return the registration number.
+     * @throws BadInputException if the value is not a packed registration number.
+     */
+    public static String unpack(long packed) {
+        int state1 = field(packed, STATE_SHIFT + LETTER_BITS, LETTER_BITS);
+        int state2 = field(packed, STATE_SHIFT, LETTER_BITS);
+        int district = field(packed, DISTRICT_SHIFT, DISTRICT_BITS);
+        int series1 = field(packed, SERIES_SHIFT + LETTER_BITS, LETTER_BITS);
+        int series2 = field(packed, SERIES_SHIFT, LETTER_BITS);
+        boolean fourDigits = field(packed, FOUR_DIGITS_SHIFT, 1) == 1;
+        int number = field(packed, NUMBER_SHIFT, NUMBER_BITS);
+        if (packed >>> PACKED_BITS != 0 || !isLetter(state1) || !isLetter(state2) || district > 99
+            || !isLetter(series1) || (series2 != 0 && !isLetter(series2))
+            || number > (fourDigits ? 9999 : 999)) {
+            throw new BadInputException(
+                String.format("Invalid packed registration number %d", packed));
+        }
+
+        char[] chars = new char[MAX_LENGTH];
+        int length = 0;
+        chars[length++] = (char) ('A' + state1 - 1);
+        chars[length++] = (char) ('A' + state2 - 1);
+        chars[length++] = '-';
+        chars[length++] = (char) ('0' + district / 10);
+        chars[length++] = (char) ('0' + district % 10);
+        chars[length++] = '-';
+        chars[length++] = (char) ('A' + series1 - 1);
+        if (series2 != 0) {
+            chars[length++] = (char) ('A' + series2 - 1);
+        }
+        chars[length++] = '-';
+        for (int divisor = fourDigits ? 1000 : 100; divisor > 0; divisor /= 10) {
+            chars[length++] = (char) ('0' + number / divisor % 10);
+        }
+        return new String(chars, 0, length);
+    }
+
+
+    // ---- Internals ------
+
+    /**
+     * Returns the letter as {@code 1} to {@code 26}, or {@code 0} if it is not an uppercase letter.
+     */
+    private static int letter(char c) {
+        return c >= 'A' && c <= 'Z' ? c - 'A' + 1 : 0;
+    }
+
+    private static boolean isLetter(int code) {
+        return code >= 1 && code <= 26;
+    }
+
+    /**
+     * Returns the value of the digits in {@code [from, to)}, or {@code -1} if any is not a digit.
+     */
+    private static int digits(String input, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = input.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int field(long packed, int shift, int bits) {
+        return (int) (packed >>> shift) & ((1 << bits) - 1);
+    }
+}
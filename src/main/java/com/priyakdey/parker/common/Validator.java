@@ -22,19 +22,18 @@
 
 package com.priyakdey.parker.common;
 
-import java.util.regex.Pattern;
-
 /**
  * {@link Validator} provides common validation functions.
+ * <p>
+ * The checks walk the characters of the input by hand, rather than running a regular expression,
+ * so validating the arguments of a command allocates nothing.
+ * </p>
  *
  * @author Priyak Dey
  */
 public final class Validator {
 
-    private static final Pattern IS_DIGIT = Pattern.compile("^\\d+$");
-
-    private static final Pattern IS_REG_NUM =
-        Pattern.compile("^[A-Z]{2}-\\d{2}-[A-Z]{1,2}-\\d{3,4}$");
+    private static final int MAX_COLOUR_LENGTH = 32;
 
     private Validator() {
     }
@@ -46,17 +45,81 @@ private Validator() {
      * @return true if input is all digits, false otherwise
      */
     public static boolean isDigit(String input) {
-        return IS_DIGIT.matcher(input).matches();
+        return !input.isEmpty() && countDigits(input, 0) == input.length();
     }
 
     /**
      * Returns if input is a valid registration number.
+     * <p>
+     * A valid registration number is two upper case letters, two digits, one or two upper case
+     * letters, and three or four digits, separated by hyphens, like {@code KA-01-HH-1234}.
+     * </p>
      *
      * @param input input string
      * @return true if input is valid registration number else false.
      */
     public static boolean isRegistrationNumber(String input) {
-        return IS_REG_NUM.matcher(input).matches();
+        int at = 0;
+        int run = countUpperCase(input, at);
+        if (run != 2 || !isHyphen(input, at += run)) {
+            return false;
+        }
+        run = countDigits(input, ++at);
+        if (run != 2 || !isHyphen(input, at += run)) {
+            return false;
+        }
+        run = countUpperCase(input, ++at);
+        if (run < 1 || run > 2 || !isHyphen(input, at += run)) {
+            return false;
+        }
+        run = countDigits(input, ++at);
+        return run >= 3 && run <= 4 && at + run == input.length();
+    }
+
+    /**
+     * Returns if input is a valid colour name.
+     *
+     * @param input input string
+     * @return true if input is a word of up to 32 letters else false.
+     */
+    public static boolean isColour(String input) {
+        int length = input.length();
+        if (length == 0 || length > MAX_COLOUR_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            if ((c < 'A' || c > 'Z') && (c < 'a' || c > 'z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the ASCII digits in a row from an index of the input.
+     */
+    private static int countDigits(String input, int from) {
+        int at = from;
+        while (at < input.length() && input.charAt(at) >= '0' && input.charAt(at) <= '9') {
+            at++;
+        }
+        return at - from;
+    }
+
+    /**
+     * Counts the ASCII upper case letters in a row from an index of the input.
+     */
+    private static int countUpperCase(String input, int from) {
+        int at = from;
+        while (at < input.length() && input.charAt(at) >= 'A' && input.charAt(at) <= 'Z') {
+            at++;
+        }
+        return at - from;
+    }
+
+    private static boolean isHyphen(String input, int at) {
+        return at < input.length() && input.charAt(at) == '-';
     }
 
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.event;
+
+/**
+ * Receives the events raised by the parking lot, as they happen.
+ * <p>
+ * Events are raised on the thread mutating the parking lot, in the middle of the operation which
+ * raised them, so implementations should only record the event and return.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public interface ParkingEventListener {
+
+    /**
+     * A listener which ignores every event.
+     */
+    ParkingEventListener NOOP = new ParkingEventListener() {
+    };
+
+    /**
+     * Called when a freed parking space is handed over to a waitlisted vehicle.
+     *
+     * @param registrationNumber the registration number of the waitlisted vehicle
+     * @param parkingSpaceId     the id of the parking space the vehicle is now parked in
+     */
+    default void onWaitlistAssigned(String registrationNumber, int parkingSpaceId) {
+    }
+}
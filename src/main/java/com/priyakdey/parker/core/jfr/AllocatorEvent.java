@@ -0,0 +1,61 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * An operation on the pool of free parking space ids of a slot class.
+ *
+ * @author Priyak Dey
+ */
+@Name("parker.Allocator")
+@Label("Allocator")
+@Category({"Parker", "Allocator"})
+@Description("An operation on the min-heap of free parking space ids of a slot class")
+public final class AllocatorEvent extends Event {
+
+    @Label("Operation")
+    @Description("poll, push, remove, pushAll, reset, grow or shrink")
+    public String operation;
+
+    @Label("Slot")
+    @Description("The parking space id taken or given back, 0 for an operation on many ids")
+    public int slot;
+
+    @Label("Lower Bound")
+    @Description("Smallest parking space id of the pool")
+    public int lowerBound;
+
+    @Label("Upper Bound")
+    @Description("Largest parking space id of the pool")
+    public int upperBound;
+
+    @Label("Heap Size")
+    @Description("Number of free parking space ids in the pool, after the operation")
+    public int heapSize;
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.jfr;
+
+import java.util.function.Supplier;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Begins the events of the parking lot only when the Flight Recorder records them, so the hot
+ * paths allocate no event object for a JVM which is not recording, or not recording that event.
+ *
+ * @author Priyak Dey
+ */
+public final class Events {
+
+    /**
+     * The type of every event class begun, looked up once the Flight Recorder is initialized. It
+     * stays enabled or disabled along with the recordings running.
+     */
+    private static final ClassValue<EventType> EVENT_TYPES = new ClassValue<>() {
+        @Override
+        protected EventType computeValue(Class<?> eventClass) {
+            return EventType.getEventType(eventClass.asSubclass(Event.class));
+        }
+    };
+
+    private Events() {
+    }
+
+    /**
+     * Makes an event and begins timing it.
+     *
+     * @param eventClass the class of the event
+     * @param factory    makes the event, meant to be a constructor reference, which allocates
+     *                   nothing itself
+     * @param <T>        the type of the event
+     * @return the event begun, null if the Flight Recorder was never started in the JVM, or no
+     * recording running enables the event.
+     */
+    public static <T extends Event> T begin(Class<T> eventClass, Supplier<T> factory) {
+        if (!FlightRecorder.isInitialized() || !EVENT_TYPES.get(eventClass).isEnabled()) {
+            return null;
+        }
+
+        T event = factory.get();
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Percentage;
+
+/**
+ * A Flight Recorder event of the parking lot, carrying how full the lot was once it was done, to
+ * line slow commands and GC pauses up with the state of the lot.
+ *
+ * @author Priyak Dey
+ */
+@Category({"Parker", "Parking Lot"})
+abstract class LotEvent extends Event {
+
+    @Label("Capacity")
+    @Description("Number of parking spaces of the lot")
+    int capacity;
+
+    @Label("Occupied")
+    @Description("Number of parking spaces with a vehicle parked")
+    long occupied;
+
+    @Label("Fill Ratio")
+    @Percentage
+    float fillRatio;
+
+    /**
+     * Sets how full the lot is.
+     *
+     * @param capacity number of parking spaces of the lot
+     * @param occupied number of them with a vehicle parked
+     */
+    public void setLot(int capacity, long occupied) {
+        this.capacity = capacity;
+        this.occupied = occupied;
+        this.fillRatio = capacity == 0 ? 0 : (float) occupied / capacity;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The occupied parking spaces listed, of the whole lot, a range of it, or the lot as it was at a
+ * change in its history.
+ *
+ * @author Priyak Dey
+ */
+@Name("parker.Status")
+@Label("Status")
+@Description("The occupied parking spaces of the lot listed")
+public final class StatusEvent extends LotEvent {
+
+    @Label("From Slot")
+    public int fromSlot;
+
+    @Label("To Slot")
+    public int toSlot;
+
+    @Label("Sequence")
+    @Description("The change of the history the lot was listed as of, -1 for the lot as it is")
+    public long sequence;
+
+    @Label("Listed")
+    @Description("Number of occupied parking spaces listed")
+    public int listed;
+}
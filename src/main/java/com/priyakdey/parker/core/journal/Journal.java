@@ -0,0 +1,169 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.journal;
+
+import com.priyakdey.parker.core.model.VehicleType;
+import com.priyakdey.parker.exception.JournalException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An append-only log of every change made to the parking lot, which the parking lot can be
+ * rebuilt from after a restart.
+ * <p>
+ * Only changes which succeeded are appended, so replaying the journal in order, onto a parking lot
+ * laid out the same way, brings it back to the state it was in when the last record was appended.
+ * </p>
+ * <p>
+ * To keep the replay short, a {@link LotSnapshot} of the parking lot can be taken from time to
+ * time. Replaying then starts from the latest snapshot, and the records it covers are dropped.
+ * </p>
+ *
+ * @author Priyak Dey
+ * @see MappedJournal
+ */
+public interface Journal extends AutoCloseable {
+
+    /**
+     * A journal which records nothing, used when durability is not asked for.
+     */
+    Journal NOOP = new Journal() {
+        @Override
+        public void appendPark(int parkingSpaceId, VehicleType vehicleType, String registrationNumber,
+                               String colour) {
+        }
+
+        @Override
+        public void appendVacate(int parkingSpaceId) {
+        }
+
+        @Override
+        public void appendResize(int capacity) {
+        }
+
+        @Override
+        public long replay(JournalRecordHandler handler) {
+            return 0;
+        }
+
+        @Override
+        public boolean isSnapshotDue() {
+            return false;
+        }
+
+        @Override
+        public CompletableFuture<Void> snapshot(LotSnapshot snapshot) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public Optional<LotSnapshot> latestSnapshot() {
+            return Optional.empty();
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * Records a vehicle parked in a parking space.
+     *
+     * @param parkingSpaceId     the id of the parking space
+     * @param vehicleType        the class of the parked vehicle
+     * @param registrationNumber the registration number of the parked vehicle
+     * @param colour             the colour of the parked vehicle, null if not recorded
+     * @throws JournalException if the record cannot be written.
+     */
+    void appendPark(int parkingSpaceId, VehicleType vehicleType, String registrationNumber,
+                    String colour);
+
+    /**
+     * Records a parking space vacated.
+     *
+     * @param parkingSpaceId the id of the parking space
+     * @throws JournalException if the record cannot be written.
+     */
+    void appendVacate(int parkingSpaceId);
+
+    /**
+     * Records the parking lot resized.
+     *
+     * @param capacity the new number of parking spaces
+     * @throws JournalException if the record cannot be written.
+     */
+    void appendResize(int capacity);
+
+    /**
+     * Hands every record appended after the latest snapshot to the handler, oldest first.
+     *
+     * @param handler receives the records
+     * @return the number of records replayed.
+     * @throws JournalException if the journal cannot be read.
+     */
+    long replay(JournalRecordHandler handler);
+
+    /**
+     * Returns if enough records have been appended since the latest snapshot to take a new one.
+     *
+     * @return true if a snapshot should be taken, false otherwise.
+     */
+    boolean isSnapshotDue();
+
+    /**
+     * Writes a snapshot of the parking lot, taken right after the last record appended, and drops
+     * every record it covers once it is durable.
+     * <p>
+     * The snapshot is written in the background - the caller must hand over a snapshot it will not
+     * change, and can keep on appending right away.
+     * </p>
+     *
+     * @param snapshot the image of the parking lot
+     * @return a future completed once the snapshot is durable and the records it covers are dropped.
+     */
+    CompletableFuture<Void> snapshot(LotSnapshot snapshot);
+
+    /**
+     * Reads back the latest snapshot written.
+     *
+     * @return the latest snapshot wrapped in an {@link Optional}, empty if none was ever written.
+     * @throws JournalException if the snapshot cannot be read.
+     */
+    Optional<LotSnapshot> latestSnapshot();
+
+    /**
+     * Told the state a recovery rebuilt the parking lot to, before anything else is appended.
+     *
+     * @param state the image of the recovered parking lot
+     */
+    default void onRecovered(LotSnapshot state) {
+    }
+
+    /**
+     * Flushes every record appended so far to the storage device, and releases the journal.
+     *
+     * @throws JournalException if the records cannot be flushed.
+     */
+    @Override
+    void close();
+}
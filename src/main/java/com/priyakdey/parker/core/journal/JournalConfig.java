@@ -0,0 +1,125 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.journal;
+
+import com.priyakdey.parker.exception.BadInputException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Settings of a {@link MappedJournal}.
+ * <p>
+ * Records are flushed to the storage device in groups - as soon as {@code fsyncBatchSize} records
+ * are pending, or at most {@code fsyncIntervalMillis} after a record was appended, whichever comes
+ * first. A larger group trades the number of records which can be lost in a power failure, for
+ * fewer, cheaper flushes.
+ * </p>
+ * <p>
+ * Every {@code snapshotEveryRecords} records, a snapshot of the parking lot is written and the
+ * records before it are dropped, which bounds how much of the journal a restart has to replay.
+ * </p>
+ *
+ * @param directory            the directory holding the segment and snapshot files
+ * @param segmentBytes         size each segment file is pre-allocated to
+ * @param fsyncIntervalMillis  longest a record stays un-flushed, {@code 0} to only flush by batch size
+ * @param fsyncBatchSize       number of pending records which triggers a flush
+ * @param snapshotEveryRecords number of records which triggers a snapshot, {@code 0} to never take one
+ * @author Priyak Dey
+ */
+public record JournalConfig(Path directory, int segmentBytes, long fsyncIntervalMillis,
+                            int fsyncBatchSize, long snapshotEveryRecords) {
+
+    /**
+     * System property holding the journal directory, the journal is disabled when it is not set.
+     */
+    public static final String DIRECTORY_PROPERTY = "parker.journal.dir";
+
+    public static final String SEGMENT_BYTES_PROPERTY = "parker.journal.segment-bytes";
+
+    public static final String FSYNC_INTERVAL_PROPERTY = "parker.journal.fsync-interval-ms";
+
+    public static final String FSYNC_BATCH_PROPERTY = "parker.journal.fsync-batch";
+
+    public static final String SNAPSHOT_EVERY_PROPERTY = "parker.journal.snapshot-every";
+
+    private static final int DEFAULT_SEGMENT_BYTES = 64 * 1024 * 1024;
+
+    private static final long DEFAULT_FSYNC_INTERVAL_MILLIS = 10;
+
+    private static final int DEFAULT_FSYNC_BATCH_SIZE = 512;
+
+    private static final long DEFAULT_SNAPSHOT_EVERY_RECORDS = 1_000_000;
+
+    /**
+     * Smallest segment accepted, every segment must be able to hold the largest record.
+     */
+    private static final int MIN_SEGMENT_BYTES = 4096;
+
+    public JournalConfig {
+        if (segmentBytes < MIN_SEGMENT_BYTES) {
+            throw new BadInputException(
+                String.format("Journal segments need at least %d bytes", MIN_SEGMENT_BYTES));
+        }
+        if (fsyncIntervalMillis < 0) {
+            throw new BadInputException("Journal fsync interval cannot be negative");
+        }
+        if (fsyncBatchSize < 1) {
+            throw new BadInputException("Journal fsync batch needs at least one record");
+        }
+        if (snapshotEveryRecords < 0) {
+            throw new BadInputException("Journal snapshot interval cannot be negative");
+        }
+    }
+
+    /**
+     * Reads the journal settings from the {@code parker.journal.*} system properties.
+     *
+     * @return the settings wrapped in an {@link Optional}, empty if no journal directory is set.
+     * @throws BadInputException if any of the properties is malformed.
+     */
+    public static Optional<JournalConfig> fromSystemProperties() {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        if (directory == null || directory.isBlank()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new JournalConfig(Path.of(directory),
+            (int) longProperty(SEGMENT_BYTES_PROPERTY, DEFAULT_SEGMENT_BYTES),
+            longProperty(FSYNC_INTERVAL_PROPERTY, DEFAULT_FSYNC_INTERVAL_MILLIS),
+            (int) longProperty(FSYNC_BATCH_PROPERTY, DEFAULT_FSYNC_BATCH_SIZE),
+            longProperty(SNAPSHOT_EVERY_PROPERTY, DEFAULT_SNAPSHOT_EVERY_RECORDS)));
+    }
+
+    private static long longProperty(String name, long defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new BadInputException(String.format("Invalid `%s`, expecting a number", name));
+        }
+    }
+}
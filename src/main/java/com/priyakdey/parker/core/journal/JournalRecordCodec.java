@@ -0,0 +1,255 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.journal;
+
+import com.priyakdey.parker.core.model.VehicleType;
+import com.priyakdey.parker.exception.JournalException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Encodes and decodes journal records, shared by everything which stores or ships them.
+ * <p>
+ * Every record is laid out as {@code [payload length : int][type : byte][payload][crc32c : int]},
+ * the checksum covering the type and the payload. A codec holds its own scratch buffers, and so is
+ * meant to be used from a single thread.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public final class JournalRecordCodec {
+
+    /**
+     * A park record without the colour of the vehicle, as journaled before colours were, still read.
+     */
+    static final byte PARK = 1;
+
+    static final byte VACATE = 2;
+
+    static final byte RESIZE = 3;
+
+    /**
+     * A park record with the colour of the vehicle, its length 0 if not recorded.
+     */
+    static final byte PARK_V2 = 4;
+
+    private static final int LENGTH_BYTES = Integer.BYTES;
+
+    private static final int TYPE_BYTES = Byte.BYTES;
+
+    private static final int CRC_BYTES = Integer.BYTES;
+
+    /**
+     * Largest payload of any record - a park record with a registration number and a colour of 255
+     * bytes each.
+     */
+    private static final int MAX_PAYLOAD_BYTES = Integer.BYTES + 3 + 2 * 255;
+
+    /**
+     * Largest encoded record, header and checksum included.
+     */
+    public static final int MAX_RECORD_BYTES = LENGTH_BYTES + TYPE_BYTES + MAX_PAYLOAD_BYTES + CRC_BYTES;
+
+    private static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+
+    /**
+     * The last encoded record, or the body of the last decoded one.
+     */
+    private final byte[] record = new byte[MAX_RECORD_BYTES];
+
+    private final CRC32C crc = new CRC32C();
+
+    /**
+     * Encodes a park record, laid out as {@code [id : int][vehicle class : byte]
+     * [registration length : byte][registration][colour length : byte][colour]}.
+     *
+     * @param parkingSpaceId     the id of the parking space
+     * @param vehicleType        the class of the parked vehicle
+     * @param registrationNumber the registration number of the parked vehicle
+     * @param colour             the colour of the parked vehicle, null if not recorded
+     * @return the length of the encoded record, held in {@link #record()}.
+     * @throws JournalException if the registration number or the colour is longer than 255
+     *                          characters.
+     */
+    public int encodePark(int parkingSpaceId, VehicleType vehicleType, String registrationNumber,
+                          String colour) {
+        int registrationLength = registrationNumber.length();
+        int colourLength = colour == null ? 0 : colour.length();
+        if (registrationLength > 255 || colourLength > 255) {
+            throw new JournalException("Registration number or colour is too long to be journaled");
+        }
+
+        int body = LENGTH_BYTES;
+        record[body] = PARK_V2;
+        putInt(record, body + 1, parkingSpaceId);
+        record[body + 5] = (byte) vehicleType.ordinal();
+        record[body + 6] = (byte) registrationLength;
+        int offset = putLatin1(record, body + 7, registrationNumber, registrationLength);
+        record[offset] = (byte) colourLength;
+        putLatin1(record, offset + 1, colour, colourLength);
+        return seal(Integer.BYTES + 3 + registrationLength + colourLength);
+    }
+
+    /**
+     * Encodes a vacate record.
+     *
+     * @param parkingSpaceId the id of the vacated parking space
+     * @return the length of the encoded record, held in {@link #record()}.
+     */
+    public int encodeVacate(int parkingSpaceId) {
+        record[LENGTH_BYTES] = VACATE;
+        putInt(record, LENGTH_BYTES + 1, parkingSpaceId);
+        return seal(Integer.BYTES);
+    }
+
+    /**
+     * Encodes a resize record.
+     *
+     * @param capacity the capacity the parking lot was resized to
+     * @return the length of the encoded record, held in {@link #record()}.
+     */
+    public int encodeResize(int capacity) {
+        record[LENGTH_BYTES] = RESIZE;
+        putInt(record, LENGTH_BYTES + 1, capacity);
+        return seal(Integer.BYTES);
+    }
+
+    /**
+     * Returns the buffer holding the last encoded record, from index 0. It is overwritten by the next
+     * call on the codec.
+     *
+     * @return the record buffer.
+     */
+    public byte[] record() {
+        return record;
+    }
+
+    /**
+     * Decodes the record at the given position of the buffer, without moving the buffer's position.
+     *
+     * @param buffer   the buffer holding the record
+     * @param position the position the record starts at
+     * @param limit    the position past which the buffer holds no record bytes
+     * @param handler  receives the record if it is intact, null to only check it
+     * @return the length of the record, or -1 if there is no intact record at the position - an end
+     * marker, a truncated record, or one failing its checksum.
+     * @throws JournalException if the record is intact, but of an unknown type.
+     */
+    public int decode(ByteBuffer buffer, int position, int limit, JournalRecordHandler handler) {
+        if (limit - position < LENGTH_BYTES) {
+            return -1;
+        }
+
+        int payloadLength = buffer.getInt(position);
+        if (payloadLength <= 0 || payloadLength > MAX_PAYLOAD_BYTES) {
+            return -1;
+        }
+
+        int bodyLength = TYPE_BYTES + payloadLength;
+        if (limit - position < LENGTH_BYTES + bodyLength + CRC_BYTES) {
+            return -1;
+        }
+
+        buffer.get(position + LENGTH_BYTES, record, 0, bodyLength);
+        crc.reset();
+        crc.update(record, 0, bodyLength);
+        if ((int) crc.getValue() != buffer.getInt(position + LENGTH_BYTES + bodyLength)) {
+            return -1;
+        }
+
+        if (handler != null) {
+            dispatch(payloadLength, handler);
+        }
+        return LENGTH_BYTES + bodyLength + CRC_BYTES;
+    }
+
+
+    // ---- Internals ------
+
+    /**
+     * Writes the length and the checksum around the type and payload already in the record buffer.
+     *
+     * @param payloadLength number of payload bytes, after the type
+     * @return the length of the encoded record.
+     */
+    private int seal(int payloadLength) {
+        int bodyLength = TYPE_BYTES + payloadLength;
+        putInt(record, 0, payloadLength);
+
+        crc.reset();
+        crc.update(record, LENGTH_BYTES, bodyLength);
+        putInt(record, LENGTH_BYTES + bodyLength, (int) crc.getValue());
+        return LENGTH_BYTES + bodyLength + CRC_BYTES;
+    }
+
+    private void dispatch(int payloadLength, JournalRecordHandler handler) {
+        int parkingSpaceId = getInt(record, 1);
+        switch (record[0]) {
+            case PARK -> {
+                int registrationLength = record[6] & 0xFF;
+                handler.onPark(parkingSpaceId, VEHICLE_TYPES[record[5]],
+                    new String(record, 7, registrationLength, StandardCharsets.ISO_8859_1), null);
+            }
+            case PARK_V2 -> {
+                int registrationLength = record[6] & 0xFF;
+                int colourAt = 7 + registrationLength;
+                int colourLength = record[colourAt] & 0xFF;
+                handler.onPark(parkingSpaceId, VEHICLE_TYPES[record[5]],
+                    new String(record, 7, registrationLength, StandardCharsets.ISO_8859_1),
+                    colourLength == 0 ? null
+                        : new String(record, colourAt + 1, colourLength, StandardCharsets.ISO_8859_1));
+            }
+            case VACATE -> handler.onVacate(parkingSpaceId);
+            case RESIZE -> handler.onResize(parkingSpaceId);
+            default -> throw new JournalException(
+                String.format("Unknown journal record type %d, of %d bytes", record[0], payloadLength));
+        }
+    }
+
+    /**
+     * Writes the characters of a string of Latin-1 characters, one byte each.
+     *
+     * @return the offset past the last byte written.
+     */
+    private static int putLatin1(byte[] bytes, int offset, String s, int length) {
+        for (int i = 0; i < length; i++) {
+            bytes[offset + i] = (byte) s.charAt(i);
+        }
+        return offset + length;
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static int getInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24
+            | (bytes[offset + 1] & 0xFF) << 16
+            | (bytes[offset + 2] & 0xFF) << 8
+            | (bytes[offset + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.journal;
+
+import com.priyakdey.parker.core.model.VehicleType;
+
+/**
+ * Receives the records of a {@link Journal}, in the order they were appended, while it is replayed.
+ *
+ * @author Priyak Dey
+ */
+public interface JournalRecordHandler {
+
+    /**
+     * Called for a vehicle parked in a parking space.
+     *
+     * @param parkingSpaceId     the id of the parking space
+     * @param vehicleType        the class of the parked vehicle
+     * @param registrationNumber the registration number of the parked vehicle
+     * @param colour             the colour of the parked vehicle, null if not recorded
+     */
+    void onPark(int parkingSpaceId, VehicleType vehicleType, String registrationNumber,
+                String colour);
+
+    /**
+     * Called for a parking space vacated.
+     *
+     * @param parkingSpaceId the id of the parking space
+     */
+    void onVacate(int parkingSpaceId);
+
+    /**
+     * Called for the parking lot resized.
+     *
+     * @param capacity the new number of parking spaces
+     */
+    void onResize(int capacity);
+}
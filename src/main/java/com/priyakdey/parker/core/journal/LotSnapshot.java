@@ -0,0 +1,62 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.journal;
+
+import com.priyakdey.parker.core.model.SlotSection;
+import com.priyakdey.parker.core.model.VehicleType;
+import java.util.List;
+
+/**
+ * A consistent image of the parking lot, taken at a point in between two journal records.
+ * <p>
+ * Occupied parking spaces are held as parallel arrays, the first {@code occupiedCount} entries of
+ * each in use, sorted by parking space id. Free parking spaces are not listed - every parking
+ * space of the layout which is not occupied is free.
+ * </p>
+ *
+ * @param sections            the layout of the parking lot, nearest to the entry first
+ * @param occupiedCount       number of occupied parking spaces
+ * @param parkingSpaceIds     ids of the occupied parking spaces, in increasing order
+ * @param vehicleTypes        class of the vehicle parked in every occupied parking space
+ * @param registrationNumbers registration number of the vehicle parked in every occupied parking space
+ * @param colours             colour of the vehicle parked in every occupied parking space, null if
+ *                            not recorded
+ * @author Priyak Dey
+ */
+public record LotSnapshot(List<SlotSection> sections, int occupiedCount, int[] parkingSpaceIds,
+                          VehicleType[] vehicleTypes, String[] registrationNumbers,
+                          String[] colours) {
+
+    /**
+     * Returns the number of parking spaces in the parking lot.
+     *
+     * @return the sum of the sizes of every section.
+     */
+    public int capacity() {
+        int capacity = 0;
+        for (SlotSection section : sections) {
+            capacity += section.size();
+        }
+        return capacity;
+    }
+}
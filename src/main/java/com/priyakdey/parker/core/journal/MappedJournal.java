@@ -0,0 +1,468 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.journal;
+
+import com.priyakdey.parker.core.model.VehicleType;
+import com.priyakdey.parker.exception.JournalException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * A {@link Journal} written to memory-mapped, pre-allocated segment files.
+ * <p>
+ * Every segment file is allocated to its full size upfront and mapped into memory, so appending a
+ * record is a copy into the mapping - no system call, and no file growth on the way. Once a record
+ * does not fit in the active segment, the segment is flushed and the next one is allocated.
+ * </p>
+ * <p>
+ * Records are encoded by a {@link JournalRecordCodec}. The unused tail of a segment is zero-filled, so a
+ * zero length marks the end of the records, and a record with a bad checksum marks a write torn by a
+ * crash - reading stops at either one.
+ * </p>
+ * <p>
+ * Records reach the page cache as soon as they are appended, and so survive the process crashing.
+ * They are flushed to the storage device in groups, by batch size on the appending thread, and by
+ * interval on a background daemon thread, as set in the {@link JournalConfig}.
+ * </p>
+ * <p>
+ * Taking a snapshot seals the active segment, so the snapshot covers every segment before the next
+ * one, which becomes the checkpoint. Once the snapshot file is durable, the segments it covers, and
+ * any older snapshot, are deleted. Snapshots are written on a background daemon thread as well.
+ * </p>
+ * <p>
+ * A journal is meant to be appended to from a single thread, while the flusher and the snapshot
+ * writer run on their own.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public final class MappedJournal implements Journal {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    private final JournalConfig config;
+
+    /**
+     * Encodes every appended record before it is copied to the segment.
+     */
+    private final JournalRecordCodec codec = new JournalRecordCodec();
+
+    private final Thread flusher;
+
+    private final ExecutorService snapshotWriter;
+
+    /**
+     * Index of the first segment not covered by the latest durable snapshot, {@code 0} if there is
+     * no snapshot.
+     */
+    private volatile long checkpoint;
+
+    /**
+     * Number of records appended since the latest snapshot was taken.
+     */
+    private long recordsSinceSnapshot;
+
+    /**
+     * Index of the active segment, the one being appended to.
+     */
+    private long segmentIndex;
+
+    private MappedByteBuffer segment;
+
+    /**
+     * Position in the active segment up to which records have been flushed, or handed to a flush.
+     */
+    private int flushedPosition;
+
+    /**
+     * Number of records appended since the last flush.
+     */
+    private int pendingRecords;
+
+    private volatile boolean closed;
+
+    private MappedJournal(JournalConfig config) {
+        this.config = config;
+        this.flusher = config.fsyncIntervalMillis() > 0
+            ? Thread.ofPlatform().name("parker-journal-flusher").daemon().unstarted(this::flushPeriodically)
+            : null;
+        this.snapshotWriter = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("parker-snapshot-writer").daemon().factory());
+    }
+
+    /**
+     * Opens the journal in the configured directory, creating the directory and the first segment if
+     * needed. Appends continue right after the last intact record.
+     *
+     * @param config the journal settings
+     * @return the opened journal.
+     * @throws JournalException if the journal cannot be opened.
+     */
+    public static MappedJournal open(JournalConfig config) {
+        MappedJournal journal = new MappedJournal(config);
+        try {
+            Files.createDirectories(config.directory());
+
+            List<Path> snapshots = listFiles(config.directory(), SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            if (!snapshots.isEmpty()) {
+                journal.checkpoint = indexOf(snapshots.getLast(), SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            }
+
+            List<Path> segments = listSegments(config.directory());
+            if (segments.isEmpty() || indexOf(segments.getLast()) < journal.checkpoint) {
+                journal.mapSegment(journal.checkpoint);
+            } else {
+                journal.mapSegment(indexOf(segments.getLast()));
+                journal.seekToTail();
+            }
+        } catch (IOException ex) {
+            throw new JournalException("Cannot open journal in " + config.directory(), ex);
+        }
+
+        if (journal.flusher != null) {
+            journal.flusher.start();
+        }
+        return journal;
+    }
+
+    @Override
+    public synchronized void appendPark(int parkingSpaceId, VehicleType vehicleType,
+                                       String registrationNumber, String colour) {
+        append(codec.encodePark(parkingSpaceId, vehicleType, registrationNumber, colour));
+    }
+
+    @Override
+    public synchronized void appendVacate(int parkingSpaceId) {
+        append(codec.encodeVacate(parkingSpaceId));
+    }
+
+    @Override
+    public synchronized void appendResize(int capacity) {
+        append(codec.encodeResize(capacity));
+    }
+
+    @Override
+    public long replay(JournalRecordHandler handler) {
+        long replayed = 0;
+        try {
+            for (Path path : listSegments(config.directory())) {
+                if (indexOf(path) < checkpoint) {
+                    // covered by the latest snapshot, but not deleted yet
+                    continue;
+                }
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    MappedByteBuffer buffer =
+                        channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    replayed += scan(buffer, handler);
+                }
+            }
+        } catch (IOException ex) {
+            throw new JournalException("Cannot replay journal in " + config.directory(), ex);
+        }
+        return replayed;
+    }
+
+    @Override
+    public boolean isSnapshotDue() {
+        return config.snapshotEveryRecords() > 0
+            && recordsSinceSnapshot >= config.snapshotEveryRecords();
+    }
+
+    @Override
+    public CompletableFuture<Void> snapshot(LotSnapshot snapshot) {
+        long snapshotCheckpoint;
+        synchronized (this) {
+            if (segment.position() > 0) {
+                rollOver();
+            }
+            snapshotCheckpoint = segmentIndex;
+            recordsSinceSnapshot = 0;
+        }
+
+        return CompletableFuture.runAsync(() -> {
+            try {
+                SnapshotFile.write(snapshot,
+                    config.directory().resolve(fileName(SNAPSHOT_PREFIX, snapshotCheckpoint, SNAPSHOT_SUFFIX)));
+                checkpoint = snapshotCheckpoint;
+                truncate(snapshotCheckpoint);
+            } catch (IOException ex) {
+                throw new JournalException("Cannot write snapshot " + snapshotCheckpoint, ex);
+            }
+        }, snapshotWriter);
+    }
+
+    @Override
+    public Optional<LotSnapshot> latestSnapshot() {
+        Path path = config.directory().resolve(fileName(SNAPSHOT_PREFIX, checkpoint, SNAPSHOT_SUFFIX));
+        if (Files.notExists(path)) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(SnapshotFile.read(path));
+        } catch (IOException ex) {
+            throw new JournalException("Cannot read snapshot " + path, ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        if (flusher != null) {
+            LockSupport.unpark(flusher);
+            try {
+                flusher.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        snapshotWriter.shutdown();
+        try {
+            snapshotWriter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+
+    // ---- Internals ------
+
+    /**
+     * Copies the record encoded by the {@link #codec} to the active segment, rolling over to the next
+     * segment if it does not fit.
+     *
+     * @param recordLength number of bytes of the encoded record
+     */
+    private void append(int recordLength) {
+        if (closed) {
+            throw new JournalException("Journal is closed");
+        }
+
+        if (segment.remaining() < recordLength) {
+            rollOver();
+        }
+        segment.put(codec.record(), 0, recordLength);
+
+        recordsSinceSnapshot++;
+        if (++pendingRecords >= config.fsyncBatchSize()) {
+            flush();
+        }
+    }
+
+    /**
+     * Forces every record appended since the last flush to the storage device.
+     */
+    private void flush() {
+        MappedByteBuffer buffer;
+        int from;
+        int to;
+        synchronized (this) {
+            buffer = segment;
+            from = flushedPosition;
+            to = segment.position();
+            flushedPosition = to;
+            pendingRecords = 0;
+        }
+
+        if (to > from) {
+            buffer.force(from, to - from);
+        }
+    }
+
+    private void flushPeriodically() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(config.fsyncIntervalMillis());
+        while (!closed) {
+            LockSupport.parkNanos(this, intervalNanos);
+            flush();
+        }
+    }
+
+    /**
+     * Deletes every segment and snapshot before the checkpoint.
+     *
+     * @param checkpoint index of the first segment to be kept
+     * @throws IOException if any of the files cannot be deleted.
+     */
+    private void truncate(long checkpoint) throws IOException {
+        for (Path path : listSegments(config.directory())) {
+            if (indexOf(path) < checkpoint) {
+                Files.deleteIfExists(path);
+            }
+        }
+        for (Path path : listFiles(config.directory(), SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (indexOf(path, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < checkpoint) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Flushes the active segment in full, and maps the next one.
+     */
+    private void rollOver() {
+        segment.force();
+        try {
+            mapSegment(segmentIndex + 1);
+        } catch (IOException ex) {
+            throw new JournalException("Cannot allocate journal segment " + (segmentIndex + 1), ex);
+        }
+    }
+
+    /**
+     * Maps the segment at the given index as the active one, allocating it if it does not exist.
+     *
+     * @param index the index of the segment
+     * @throws IOException if the segment cannot be allocated or mapped.
+     */
+    private void mapSegment(long index) throws IOException {
+        Path path = config.directory().resolve(segmentName(index));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = Math.max(channel.size(), config.segmentBytes());
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        segmentIndex = index;
+        flushedPosition = 0;
+    }
+
+    /**
+     * Moves the active segment's position right after its last intact record, and zero-fills the
+     * bytes a torn record may have left behind.
+     */
+    private void seekToTail() {
+        recordsSinceSnapshot = scan(segment, null);
+        int tail = segment.position();
+
+        int end = Math.min(segment.capacity(), tail + JournalRecordCodec.MAX_RECORD_BYTES);
+        for (int i = tail; i < end; i++) {
+            segment.put(i, (byte) 0);
+        }
+        flushedPosition = tail;
+    }
+
+    /**
+     * Reads the records of a segment from its start, stopping at the end marker or the first record
+     * which is truncated or fails its checksum. The buffer is left positioned after the last intact record.
+     *
+     * @param buffer  the segment
+     * @param handler receives every intact record, null to only find the end of the records
+     * @return the number of intact records.
+     */
+    private long scan(MappedByteBuffer buffer, JournalRecordHandler handler) {
+        JournalRecordCodec decoder = new JournalRecordCodec();
+
+        long count = 0;
+        int position = 0;
+        int limit = buffer.limit();
+
+        int recordLength;
+        while ((recordLength = decoder.decode(buffer, position, limit, handler)) > 0) {
+            count++;
+            position += recordLength;
+        }
+
+        buffer.position(position);
+        return count;
+    }
+
+    private static String segmentName(long index) {
+        return fileName(SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    private static String fileName(String prefix, long index, String suffix) {
+        return String.format("%s%020d%s", prefix, index, suffix);
+    }
+
+    private static long indexOf(Path segment) {
+        return indexOf(segment, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+    }
+
+    private static long indexOf(Path path, String prefix, String suffix) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    /**
+     * Lists the segment files in the directory, oldest first.
+     *
+     * @param directory the journal directory
+     * @return the paths of the segment files, ordered by index.
+     * @throws IOException if the directory cannot be listed.
+     */
+    private static List<Path> listSegments(Path directory) throws IOException {
+        return listFiles(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Lists the files in the directory with the given prefix and suffix, lowest index first.
+     *
+     * @param directory the journal directory
+     * @param prefix    the file name prefix
+     * @param suffix    the file name suffix
+     * @return the paths of the files, ordered by index.
+     * @throws IOException if the directory cannot be listed.
+     */
+    private static List<Path> listFiles(Path directory, String prefix, String suffix)
+        throws IOException {
+        if (Files.notExists(directory)) {
+            return List.of();
+        }
+
+        try (Stream<Path> paths = Files.list(directory)) {
+            List<Path> files = new ArrayList<>(paths
+                .filter(path -> {
+                    String name = path.getFileName().toString();
+                    return name.startsWith(prefix) && name.endsWith(suffix);
+                })
+                .toList());
+            // names are zero-padded, so the lexical order is the index order
+            files.sort(null);
+            return files;
+        }
+    }
+}
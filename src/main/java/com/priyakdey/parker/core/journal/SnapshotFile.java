@@ -0,0 +1,226 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.journal;
+
+import com.priyakdey.parker.core.model.SlotSection;
+import com.priyakdey.parker.core.model.SlotType;
+import com.priyakdey.parker.core.model.VehicleType;
+import com.priyakdey.parker.exception.JournalException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads and writes {@link LotSnapshot}s as compact binary files.
+ * <p>
+ * A snapshot file is laid out as
+ * {@code [magic : int][version : int][section count : int]([slot class : byte][size : int])*
+ * [occupied count : int]([id : int][vehicle class : byte][registration length : byte][registration]
+ * [colour length : byte][colour])*[crc32c : int]}, the checksum covering every byte before it, and
+ * the colour length 0 for a vehicle with no colour recorded.
+ * </p>
+ * <p>
+ * Version 1 snapshots, written before colours were, are still read, their vehicles without one.
+ * </p>
+ * <p>
+ * Files are written to a temporary name, flushed, and only then renamed into place, so a snapshot
+ * file is either complete or absent.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+final class SnapshotFile {
+
+    private static final int MAGIC = 0x504B534E;
+
+    private static final int VERSION = 2;
+
+    /**
+     * Version of the snapshots without the colours of the vehicles.
+     */
+    private static final int VERSION_WITHOUT_COLOURS = 1;
+
+    private static final int CHUNK_BYTES = 1 << 20;
+
+    private static final SlotType[] SLOT_TYPES = SlotType.values();
+
+    private static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Writes the snapshot to the given path, replacing any file already there.
+     *
+     * @param snapshot the snapshot to be written
+     * @param path     the path of the snapshot file
+     * @throws IOException if the file cannot be written.
+     */
+    static void write(LotSnapshot snapshot, Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_BYTES);
+
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(snapshot.sections().size());
+            for (SlotSection section : snapshot.sections()) {
+                buffer.put((byte) section.slotType().ordinal());
+                buffer.putInt(section.size());
+                drainIfFull(channel, buffer, crc);
+            }
+
+            buffer.putInt(snapshot.occupiedCount());
+            for (int i = 0; i < snapshot.occupiedCount(); i++) {
+                buffer.putInt(snapshot.parkingSpaceIds()[i]);
+                buffer.put((byte) snapshot.vehicleTypes()[i].ordinal());
+                putLatin1(buffer, snapshot.registrationNumbers()[i]);
+                putLatin1(buffer, snapshot.colours()[i]);
+                drainIfFull(channel, buffer, crc);
+            }
+
+            drain(channel, buffer, crc);
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads a snapshot back from the given path, with a single mapping of the whole file.
+     *
+     * @param path the path of the snapshot file
+     * @return the snapshot.
+     * @throws IOException      if the file cannot be read.
+     * @throws JournalException if the file is corrupt.
+     */
+    static LotSnapshot read(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        int crcPosition = buffer.limit() - Integer.BYTES;
+        if (crcPosition < 3 * Integer.BYTES) {
+            throw new JournalException("Snapshot " + path + " is truncated");
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(0, crcPosition));
+        if ((int) crc.getValue() != buffer.getInt(crcPosition)) {
+            throw new JournalException("Snapshot " + path + " fails its checksum");
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new JournalException("Snapshot " + path + " is not a snapshot");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION && version != VERSION_WITHOUT_COLOURS) {
+            throw new JournalException("Snapshot " + path + " is of unknown version " + version);
+        }
+
+        int sectionCount = buffer.getInt();
+        List<SlotSection> sections = new ArrayList<>(sectionCount);
+        for (int i = 0; i < sectionCount; i++) {
+            sections.add(new SlotSection(SLOT_TYPES[buffer.get()], buffer.getInt()));
+        }
+
+        int occupiedCount = buffer.getInt();
+        int[] parkingSpaceIds = new int[occupiedCount];
+        VehicleType[] vehicleTypes = new VehicleType[occupiedCount];
+        String[] registrationNumbers = new String[occupiedCount];
+        String[] colours = new String[occupiedCount];
+        byte[] scratch = new byte[255];
+        for (int i = 0; i < occupiedCount; i++) {
+            parkingSpaceIds[i] = buffer.getInt();
+            vehicleTypes[i] = VEHICLE_TYPES[buffer.get()];
+            registrationNumbers[i] = getLatin1(buffer, scratch);
+            if (version != VERSION_WITHOUT_COLOURS) {
+                colours[i] = getLatin1(buffer, scratch);
+            }
+        }
+
+        return new LotSnapshot(sections, occupiedCount, parkingSpaceIds, vehicleTypes,
+            registrationNumbers, colours);
+    }
+
+    /**
+     * Writes the buffer out if it may not have room for another entry.
+     */
+    private static void drainIfFull(FileChannel channel, ByteBuffer buffer, CRC32C crc)
+        throws IOException {
+        // the largest entry is an occupied space, of 7 bytes, a registration and a colour of up to
+        // 255 bytes each
+        if (buffer.remaining() < 7 + 2 * 255) {
+            drain(channel, buffer, crc);
+        }
+    }
+
+    /**
+     * Writes the length of a string of Latin-1 characters, 0 for null, and a byte for every one.
+     */
+    private static void putLatin1(ByteBuffer buffer, String s) {
+        int length = s == null ? 0 : s.length();
+        buffer.put((byte) length);
+        for (int c = 0; c < length; c++) {
+            buffer.put((byte) s.charAt(c));
+        }
+    }
+
+    /**
+     * Reads a string written by {@link #putLatin1(ByteBuffer, String)}, null for a length of 0.
+     */
+    private static String getLatin1(ByteBuffer buffer, byte[] scratch) {
+        int length = buffer.get() & 0xFF;
+        if (length == 0) {
+            return null;
+        }
+        buffer.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer, CRC32C crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.model;
+
+/**
+ * A change to the occupancy of a parking lot, as streamed to its subscribers.
+ *
+ * @param kind           what changed
+ * @param parkingSpaceId the parking space parked in or vacated, 0 for a {@link Kind#FREE} count
+ * @param slotType       the slot class, or zone, of the change
+ * @param free           number of free spaces of the slot class right after the change
+ * @author Priyak Dey
+ */
+public record OccupancyEvent(Kind kind, int parkingSpaceId, SlotType slotType, long free) {
+
+    public enum Kind {
+        PARK,
+        VACATE,
+
+        /**
+         * The free count of a zone, with no single change behind it - the count a subscriber
+         * starts with, a count changed by a reservation or a resize, or the latest count standing
+         * in for changes a slow subscriber had no room to queue.
+         */
+        FREE
+    }
+}
@@ -25,21 +25,18 @@
 /**
  * Represents the details of a parking charge for a vehicle.
  *
- * <p>This record abstracts the representation of hours parked and the charge incurred
- * to avoid tight coupling with specific numerical or currency types.
- * By using {@code String} for all fields, it provides flexibility in terms of
- * representing charges (which could be integers today and floating points tomorrow)
- * and currency units.</p>
+ * <p>The parking space and the charge are kept as primitives, the charge in cents, so the
+ * charge is exact whatever the tariff, and nothing is formatted till it is printed.</p>
  * <p>
  * It is a data classes which holds the following information:
  * <li>
  *     <ul>registrationNumber: The registration number of the parked vehicle.</ul>
  *     <ul>parkedSpot: Parking Spot id</ul>
- *     <ul>charge: The charge incurred for the parking duration. Example formats: "10", "10.6", "10 dollars 60 cents", etc.<ul/>
+ *     <ul>chargeCents: The charge incurred for the parking duration, in cents.<ul/>
  * </li>
  * <p/>
  *
  * @author Priyak Dey
  */
-public record ParkingCharge(String registrationNumber, String parkedSpot, String charge) {
+public record ParkingCharge(String registrationNumber, int parkedSpot, long chargeCents) {
 }
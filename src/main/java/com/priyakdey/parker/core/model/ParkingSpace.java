@@ -42,6 +42,11 @@ public class ParkingSpace {
      */
     private final int id;
 
+    /**
+     * The slot class of this space.
+     */
+    private final SlotType slotType;
+
     /**
      * Holds the vehicle which is currently parked in the space.
      * If no vehicle parked, this is set to null.
@@ -49,12 +54,35 @@ public class ParkingSpace {
     private Vehicle parkedVehicle;
 
     /**
-     * Constructs a new parking space with the given unique identifier.
+     * Holds the vehicle this space is held for, till it arrives or the reservation expires.
+     * If the space is not reserved, this is set to null.
+     */
+    private Vehicle reservedFor;
+
+    /**
+     * The vehicle object every vehicle parked with {@link #park(String, VehicleType, String)} is
+     * parked in, made on the first one, so parking allocates no vehicle after that.
+     */
+    private Vehicle resident;
+
+    /**
+     * Constructs a new {@link SlotType#STANDARD} parking space with the given unique identifier.
      *
      * @param id the unique identifier for this parking space
      */
     public ParkingSpace(int id) {
+        this(id, SlotType.STANDARD);
+    }
+
+    /**
+     * Constructs a new parking space with the given unique identifier and slot class.
+     *
+     * @param id       the unique identifier for this parking space
+     * @param slotType the slot class of this parking space
+     */
+    public ParkingSpace(int id, SlotType slotType) {
         this.id = id;
+        this.slotType = slotType;
     }
 
     /**
@@ -66,6 +94,15 @@ public int getId() {
         return id;
     }
 
+    /**
+     * Returns the slot class of this parking space.
+     *
+     * @return the parking space's slot class
+     */
+    public SlotType getSlotType() {
+        return slotType;
+    }
+
     /**
      * Retrieves the vehicle currently occupying this parking space wrapped in an {@link Optional}.
      *
@@ -82,6 +119,26 @@ public void setParkedVehicle(Vehicle parkedVehicle) {
         this.parkedVehicle = parkedVehicle;
     }
 
+    /**
+     * Parks a vehicle in the free parking space, in the vehicle object of the space, which stands
+     * for the vehicle parked till the space is vacated.
+     *
+     * @param registrationNumber the vehicle's unique registration number
+     * @param vehicleType        the vehicle's class
+     * @param colour             the vehicle's colour, null if not recorded
+     * @return the vehicle parked.
+     */
+    public Vehicle park(String registrationNumber, VehicleType vehicleType, String colour) {
+        if (resident == null) {
+            resident = new Vehicle(registrationNumber, vehicleType, colour);
+        } else {
+            resident.reset(registrationNumber, vehicleType, colour);
+        }
+        parkedVehicle = resident;
+        resident.setParkedAt(this);
+        return resident;
+    }
+
     /**
      * Returns if the parking space is currently occupied.
      *
@@ -90,4 +147,29 @@ public void setParkedVehicle(Vehicle parkedVehicle) {
     public boolean isOccupied() {
         return parkedVehicle != null;
     }
+
+    /**
+     * Returns the vehicle this parking space is held for.
+     *
+     * @return the vehicle holding the reservation, null if the space is not reserved.
+     */
+    public Vehicle getReservedFor() {
+        return reservedFor;
+    }
+
+    /**
+     * Sets the vehicle this parking space is held for, null to clear the reservation.
+     */
+    public void setReservedFor(Vehicle reservedFor) {
+        this.reservedFor = reservedFor;
+    }
+
+    /**
+     * Returns if the parking space is currently held for a vehicle.
+     *
+     * @return true if the parking space is reserved, else false.
+     */
+    public boolean isReserved() {
+        return reservedFor != null;
+    }
 }
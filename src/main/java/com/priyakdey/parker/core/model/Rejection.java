@@ -0,0 +1,59 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.model;
+
+/**
+ * Represents why the parking lot refused a request.
+ *
+ * @author Priyak Dey
+ */
+public enum Rejection {
+
+    /**
+     * No free space of a slot class the vehicle fits, to park or hold.
+     */
+    FULL("full"),
+
+    /**
+     * No vehicle parked under the registration number given.
+     */
+    NOT_FOUND("not_found");
+
+    /**
+     * Short code used to refer to the rejection in output.
+     */
+    private final String code;
+
+    Rejection(String code) {
+        this.code = code;
+    }
+
+    /**
+     * Returns the short code of the rejection.
+     *
+     * @return the short code, example - {@code not_found}
+     */
+    public String getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.model;
+
+/**
+ * A stretch of time a vehicle held a parking space, measured in change sequence numbers.
+ * <p>
+ * Every park and every leave is numbered in the order it happened. The vehicle held the space from
+ * the change which parked it, up to but not including the change which vacated it.
+ * </p>
+ *
+ * @param registrationNumber The registration number of the vehicle.
+ * @param parkedAt           The sequence number of the change which parked the vehicle.
+ * @param vacatedAt          The sequence number of the change which vacated the space, {@code 0} if
+ *                           the vehicle is still parked.
+ * @author Priyak Dey
+ */
+public record SlotOccupancy(String registrationNumber, long parkedAt, long vacatedAt) {
+
+    /**
+     * Returns if the vehicle is still parked in the space.
+     *
+     * @return true if the space has not been vacated since, false otherwise.
+     */
+    public boolean isOngoing() {
+        return vacatedAt == 0;
+    }
+}
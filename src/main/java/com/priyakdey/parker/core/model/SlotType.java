@@ -0,0 +1,76 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.model;
+
+import com.priyakdey.parker.exception.BadInputException;
+
+/**
+ * Represents the class of a {@link ParkingSpace}.
+ * <p>
+ * Every parking space belongs to exactly one slot class, and the parking lot keeps an independent
+ * pool of free spaces for every slot class it has been laid out with.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public enum SlotType {
+    MOTORCYCLE("motorcycle"),
+    STANDARD("standard"),
+    EV_CHARGING("ev"),
+    OVERSIZED("oversized");
+
+    /**
+     * Short code used to refer to the slot class in commands and output.
+     */
+    private final String code;
+
+    SlotType(String code) {
+        this.code = code;
+    }
+
+    /**
+     * Returns the short code of the slot class.
+     *
+     * @return the short code, as accepted by {@link #fromCode(String)}
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Resolves a slot class from its short code.
+     *
+     * @param code the short code, example - {@code ev}
+     * @return the matching slot class
+     * @throws BadInputException if no slot class matches the code
+     */
+    public static SlotType fromCode(String code) {
+        for (SlotType slotType : values()) {
+            if (slotType.code.equalsIgnoreCase(code)) {
+                return slotType;
+            }
+        }
+
+        throw new BadInputException(String.format("Unknown slot class `%s`", code));
+    }
+}
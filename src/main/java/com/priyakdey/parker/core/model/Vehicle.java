@@ -23,6 +23,7 @@
 package com.priyakdey.parker.core.model;
 
 import java.util.Objects;
+import java.util.Optional;
 import java.util.StringJoiner;
 
 /**
@@ -37,17 +38,59 @@
  * @author Priyak Dey
  */
 public class Vehicle {
-    private final String registrationNumber;
+    private String registrationNumber;
+
+    private VehicleType vehicleType;
+
+    private String colour;
 
     private ParkingSpace parkedAt;
 
     /**
-     * Constructs a new vehicle with the given registration number, color, and entry timestamp.
+     * Constructs a new {@link VehicleType#CAR} with the given registration number.
      *
      * @param registrationNumber the vehicle's unique registration number
      */
     public Vehicle(String registrationNumber) {
+        this(registrationNumber, VehicleType.CAR);
+    }
+
+    /**
+     * Constructs a new vehicle with the given registration number and vehicle class.
+     *
+     * @param registrationNumber the vehicle's unique registration number
+     * @param vehicleType        the vehicle's class
+     */
+    public Vehicle(String registrationNumber, VehicleType vehicleType) {
+        this(registrationNumber, vehicleType, null);
+    }
+
+    /**
+     * Constructs a new vehicle with the given registration number, vehicle class and colour.
+     *
+     * @param registrationNumber the vehicle's unique registration number
+     * @param vehicleType        the vehicle's class
+     * @param colour             the vehicle's colour, null if not recorded
+     */
+    public Vehicle(String registrationNumber, VehicleType vehicleType, String colour) {
+        this.registrationNumber = registrationNumber;
+        this.vehicleType = vehicleType;
+        this.colour = colour;
+    }
+
+    /**
+     * Makes the vehicle object stand for another vehicle, for a {@link ParkingSpace} to park
+     * every vehicle it takes in the same object.
+     *
+     * @param registrationNumber the vehicle's unique registration number
+     * @param vehicleType        the vehicle's class
+     * @param colour             the vehicle's colour, null if not recorded
+     */
+    void reset(String registrationNumber, VehicleType vehicleType, String colour) {
         this.registrationNumber = registrationNumber;
+        this.vehicleType = vehicleType;
+        this.colour = colour;
+        this.parkedAt = null;
     }
 
     /**
@@ -59,6 +102,23 @@ public String getRegistrationNumber() {
         return registrationNumber;
     }
 
+    /**
+     * Returns the vehicle's class.
+     *
+     * @return the vehicle's class
+     */
+    public VehicleType getVehicleType() {
+        return vehicleType;
+    }
+
+    /**
+     * Returns the vehicle's colour, as recorded when it was ticketed.
+     *
+     * @return the vehicle's colour, or an empty Optional if it was not recorded
+     */
+    public Optional<String> getColour() {
+        return Optional.ofNullable(colour);
+    }
 
     /**
      * Returns the parking space allocated to the vehicle.
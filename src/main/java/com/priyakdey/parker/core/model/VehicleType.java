@@ -0,0 +1,141 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.model;
+
+import com.priyakdey.parker.exception.BadInputException;
+import java.util.Optional;
+
+/**
+ * Represents the class of a {@link Vehicle}.
+ * <p>
+ * Each vehicle class carries its compatibility rules - an ordered list of {@link SlotType}s the
+ * vehicle can be parked in. The first entry is the preferred slot class, the remaining entries are
+ * fallbacks, tried in order, when the preferred slot class has no free space left.
+ * </p>
+ * <p>
+ * For example, a car prefers a {@link SlotType#STANDARD} slot but may take an
+ * {@link SlotType#OVERSIZED} one, whereas an oversized vehicle never fits anywhere else.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public enum VehicleType {
+    MOTORCYCLE("motorcycle", SlotType.MOTORCYCLE, SlotType.STANDARD, SlotType.OVERSIZED),
+    CAR("car", SlotType.STANDARD, SlotType.OVERSIZED),
+    EV("ev", SlotType.EV_CHARGING, SlotType.STANDARD, SlotType.OVERSIZED),
+    OVERSIZED("oversized", SlotType.OVERSIZED);
+
+    /**
+     * Short code used to refer to the vehicle class in commands and output.
+     */
+    private final String code;
+
+    /**
+     * Slot classes this vehicle class fits in, in the order of preference.
+     */
+    private final SlotType[] compatibleSlotTypes;
+
+    VehicleType(String code, SlotType... compatibleSlotTypes) {
+        this.code = code;
+        this.compatibleSlotTypes = compatibleSlotTypes;
+    }
+
+    /**
+     * Returns the short code of the vehicle class.
+     *
+     * @return the short code, as accepted by {@link #fromCode(String)}
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Returns the preferred slot class for this vehicle class.
+     *
+     * @return the preferred slot class.
+     */
+    public SlotType getPreferredSlotType() {
+        return compatibleSlotTypes[0];
+    }
+
+    /**
+     * Returns the number of slot classes this vehicle class fits in, preferred one included.
+     *
+     * @return number of compatible slot classes.
+     */
+    public int getCompatibleSlotTypeCount() {
+        return compatibleSlotTypes.length;
+    }
+
+    /**
+     * Returns the compatible slot class at the given preference rank, {@code 0} being the preferred one.
+     *
+     * @param rank preference rank, in the range of [0, {@link #getCompatibleSlotTypeCount()})
+     * @return the slot class at the given rank.
+     */
+    public SlotType getCompatibleSlotType(int rank) {
+        return compatibleSlotTypes[rank];
+    }
+
+    /**
+     * Returns if a vehicle of this class can be parked in a slot of the given class.
+     *
+     * @param slotType the slot class
+     * @return true if the slot class is compatible, false otherwise.
+     */
+    public boolean fits(SlotType slotType) {
+        for (SlotType compatibleSlotType : compatibleSlotTypes) {
+            if (compatibleSlotType == slotType) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resolves a vehicle class from its short code.
+     *
+     * @param code the short code, example - {@code motorcycle}
+     * @return the matching vehicle class
+     * @throws BadInputException if no vehicle class matches the code
+     */
+    public static VehicleType fromCode(String code) {
+        return findByCode(code).orElseThrow(
+            () -> new BadInputException(String.format("Unknown vehicle class `%s`", code)));
+    }
+
+    /**
+     * Looks up a vehicle class by its short code.
+     *
+     * @param code the short code
+     * @return the matching vehicle class wrapped in an {@link Optional}, empty if there is no match.
+     */
+    public static Optional<VehicleType> findByCode(String code) {
+        for (VehicleType vehicleType : values()) {
+            if (vehicleType.code.equalsIgnoreCase(code)) {
+                return Optional.of(vehicleType);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.model;
+
+import java.util.Optional;
+
+/**
+ * Represents the priority class a {@link Vehicle} is waitlisted with, when the parking lot is full.
+ * <p>
+ * Priority classes are served in their declaration order - every vehicle of a higher priority
+ * class is assigned a freed space before any vehicle of a lower one. Within a priority class,
+ * vehicles are served first come, first served.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public enum WaitlistPriority {
+    ACCESSIBILITY("accessible"),
+    REGULAR("regular");
+
+    /**
+     * Short code used to refer to the priority class in commands and output.
+     */
+    private final String code;
+
+    WaitlistPriority(String code) {
+        this.code = code;
+    }
+
+    /**
+     * Returns the short code of the priority class.
+     *
+     * @return the short code, as accepted by {@link #findByCode(String)}
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Looks up a priority class by its short code.
+     *
+     * @param code the short code, example - {@code accessible}
+     * @return the matching priority class wrapped in an {@link Optional}, empty if there is no match.
+     */
+    public static Optional<WaitlistPriority> findByCode(String code) {
+        for (WaitlistPriority priority : values()) {
+            if (priority.code.equalsIgnoreCase(code)) {
+                return Optional.of(priority);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.model;
+
+/**
+ * Stats of the parking spaces of one slot class.
+ *
+ * @param slotType     the slot class
+ * @param capacity     number of parking spaces of the slot class
+ * @param occupied     number of vehicles parked right now
+ * @param reserved     number of spaces held for arriving vehicles right now
+ * @param sessions     number of vehicles parked so far, still parked or not
+ * @param departures   number of vehicles which left so far
+ * @param revenueCents charges of every vehicle which left so far, in cents
+ * @author Priyak Dey
+ */
+public record ZoneStats(SlotType slotType, int capacity, long occupied, long reserved,
+                        long sessions, long departures, long revenueCents) {
+
+    /**
+     * Returns the number of spaces neither occupied nor held.
+     *
+     * @return the number of free spaces.
+     */
+    public long free() {
+        return capacity - occupied - reserved;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.pricing;
+
+import com.priyakdey.parker.core.model.SlotType;
+import com.priyakdey.parker.exception.BadInputException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Bills a batch of stays in one go, for end of day settlement.
+ * <p>
+ * The stays are laid out in columns - parallel primitive arrays of the hours parked, the hour of
+ * the week every stay started at and its slot class - and their charges are written to a column of
+ * their own. The batch is split into chunks billed in parallel on the common fork-join pool, every
+ * chunk adding up its own totals by slot class and by starting hour of the day as it prices the
+ * stays, and the chunk totals are merged as the chunks join.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public final class BatchBilling {
+
+    /**
+     * Number of stays below which a chunk is billed on the calling thread, not split any further.
+     */
+    static final int CHUNK_STAYS = 16 * 1024;
+
+    private static final int SLOT_TYPES = SlotType.values().length;
+
+    /**
+     * Chunk totals are a single array - the slot class totals, then the starting hour ones.
+     */
+    private static final int TOTALS_LENGTH = SLOT_TYPES + Tariff.HOURS_PER_DAY;
+
+    private BatchBilling() {
+    }
+
+    /**
+     * Bills every stay of a batch.
+     *
+     * @param tariff           the tariff to price the stays with
+     * @param hoursParked      the hours parked of every stay
+     * @param startHoursOfWeek the hour of the week every stay started at, {@code 0} being Monday 00:00
+     * @param slotTypes        the {@link SlotType#ordinal()} of the slot class of every stay
+     * @param charges          receives the charge of every stay, in cents
+     * @return the totals of the batch.
+     * @throws BadInputException if the columns are not of the same length, or hold an invalid stay.
+     */
+    public static BillingTotals bill(Tariff tariff, int[] hoursParked, int[] startHoursOfWeek,
+                                     int[] slotTypes, long[] charges) {
+        int stays = hoursParked.length;
+        if (startHoursOfWeek.length != stays || slotTypes.length != stays || charges.length != stays) {
+            throw new BadInputException("Billing columns need to be of the same length");
+        }
+
+        Chunk batch = new Chunk(tariff, hoursParked, startHoursOfWeek, slotTypes, charges, 0, stays);
+        long[] totals = stays <= CHUNK_STAYS ? batch.compute() : ForkJoinPool.commonPool().invoke(batch);
+
+        long[] slotTypeCents = new long[SLOT_TYPES];
+        long[] startHourCents = new long[Tariff.HOURS_PER_DAY];
+        System.arraycopy(totals, 0, slotTypeCents, 0, SLOT_TYPES);
+        System.arraycopy(totals, SLOT_TYPES, startHourCents, 0, Tariff.HOURS_PER_DAY);
+
+        long totalCents = 0;
+        for (long cents : slotTypeCents) {
+            totalCents += cents;
+        }
+        return new BillingTotals(totalCents, slotTypeCents, startHourCents);
+    }
+
+
+    // ---- Internals ------
+
+    /**
+     * Bills the stays in {@code [from, to)}, splitting them in halves till they fit a chunk.
+     */
+    // a fork/join task is serializable by inheritance only, a chunk never leaves the billing run
+    @SuppressWarnings("serial")
+    private static final class Chunk extends RecursiveTask<long[]> {
+
+        private final Tariff tariff;
+
+        private final int[] hoursParked;
+
+        private final int[] startHoursOfWeek;
+
+        private final int[] slotTypes;
+
+        private final long[] charges;
+
+        private final int from;
+
+        private final int to;
+
+        Chunk(Tariff tariff, int[] hoursParked, int[] startHoursOfWeek, int[] slotTypes,
+              long[] charges, int from, int to) {
+            this.tariff = tariff;
+            this.hoursParked = hoursParked;
+            this.startHoursOfWeek = startHoursOfWeek;
+            this.slotTypes = slotTypes;
+            this.charges = charges;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= CHUNK_STAYS) {
+                return bill();
+            }
+
+            int middle = (from + to) >>> 1;
+            Chunk left = new Chunk(tariff, hoursParked, startHoursOfWeek, slotTypes, charges, from,
+                middle);
+            Chunk right = new Chunk(tariff, hoursParked, startHoursOfWeek, slotTypes, charges,
+                middle, to);
+            left.fork();
+            long[] totals = right.compute();
+            long[] leftTotals = left.join();
+            for (int i = 0; i < TOTALS_LENGTH; i++) {
+                totals[i] += leftTotals[i];
+            }
+            return totals;
+        }
+
+        private long[] bill() {
+            long[] totals = new long[TOTALS_LENGTH];
+            for (int i = from; i < to; i++) {
+                int startHour = startHoursOfWeek[i];
+                int slotType = slotTypes[i];
+                if (startHour < 0 || startHour >= Tariff.HOURS_PER_WEEK
+                    || slotType < 0 || slotType >= SLOT_TYPES) {
+                    throw new BadInputException(String.format("Invalid stay at index %d", i));
+                }
+
+                long cents = tariff.computeCents(hoursParked[i], startHour);
+                charges[i] = cents;
+                totals[slotType] += cents;
+                totals[SLOT_TYPES + startHour % Tariff.HOURS_PER_DAY] += cents;
+            }
+            return totals;
+        }
+    }
+}
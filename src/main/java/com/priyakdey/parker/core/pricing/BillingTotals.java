@@ -0,0 +1,56 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.pricing;
+
+import com.priyakdey.parker.core.model.SlotType;
+
+/**
+ * Totals of a batch of stays billed by {@link BatchBilling}, all in cents.
+ *
+ * @param totalCents       the charges of every stay in the batch
+ * @param slotTypeCents    the charges by slot class, indexed by {@link SlotType#ordinal()}
+ * @param startHourCents   the charges by the hour of the day the stays started at, 0 to 23
+ * @author Priyak Dey
+ */
+public record BillingTotals(long totalCents, long[] slotTypeCents, long[] startHourCents) {
+
+    /**
+     * Returns the charges of the stays in a slot class.
+     *
+     * @param slotType the slot class
+     * @return the charges, in cents.
+     */
+    public long centsOf(SlotType slotType) {
+        return slotTypeCents[slotType.ordinal()];
+    }
+
+    /**
+     * Returns the charges of the stays started in an hour of the day.
+     *
+     * @param hourOfDay the hour of the day, 0 to 23
+     * @return the charges, in cents.
+     */
+    public long centsStartedAt(int hourOfDay) {
+        return startHourCents[hourOfDay];
+    }
+}
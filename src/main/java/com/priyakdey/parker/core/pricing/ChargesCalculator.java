@@ -22,6 +22,8 @@
 
 package com.priyakdey.parker.core.pricing;
 
+import java.math.BigDecimal;
+
 /**
  * Represents a mechanism to compute the parking fee based on the number of hours a vehicle has been parked.
  *
@@ -31,23 +33,39 @@
  * strategies for parking.
  * </p>
  * <p>
+ * Fees are computed in cents, as a primitive {@code long}, so pricing a stay allocates nothing.
+ * Turning cents into a currency string is left to whatever prints the fee.
+ * </p>
+ * <p>
  * Example:
  * <pre>
- *     ParkingFeeCalculator calculator = ...;
- *     Number fee = calculator.computePrice(5);  // Calculate fee for 5 hours of parking.
+ *     ChargesCalculator calculator = ...;
+ *     long cents = calculator.computeCents(5);  // Calculate fee for 5 hours of parking.
  * </pre>
  *
  * @author Priyak Dey
  */
 public interface ChargesCalculator {
 
+    /**
+     * Computes the parking fee, in cents, for the specified number of hours.
+     *
+     * @param hoursParked The number of hours for which the parking fee should be computed.
+     * @return The computed parking fee, in cents.
+     * @throws com.priyakdey.parker.exception.BadInputException if the hours parked are negative.
+     */
+    long computeCents(int hoursParked);
+
     /**
      * Computes the parking fee for the specified number of hours.
      *
      * @param hoursParked The number of hours for which the parking fee should be computed.
-     * @return The computed parking fee as a {@link Number}. Implementations might return fee as
-     * an integer, decimal, or other numerical representations.
+     * @return The computed parking fee, in currency units, with two decimal places.
+     * @deprecated boxes the fee, use {@link #computeCents(int)} instead.
      */
-    Number computePrice(int hoursParked);
+    @Deprecated
+    default Number computePrice(int hoursParked) {
+        return BigDecimal.valueOf(computeCents(hoursParked), 2);
+    }
 }
 
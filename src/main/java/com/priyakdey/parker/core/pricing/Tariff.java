@@ -0,0 +1,403 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.pricing;
+
+import com.priyakdey.parker.exception.BadInputException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A tariff, compiled from its rules into tables of charges indexed by the hours parked, so pricing
+ * a stay is a lookup whatever the rules are.
+ * <p>
+ * A tariff is written one rule per line, {@code #} starting a comment, amounts in currency units
+ * with up to two decimals:
+ * <pre>
+ *     grace 1                      # stays of at most 1 hour are free
+ *     flat 2 10                    # the first 2 hours cost 10, whatever their rates
+ *     rate 10                      # every further hour costs 10
+ *     rate weekday 18-08 5         # ... but 5 if it starts between 18:00 and 08:00 on a weekday
+ *     rate weekend 0-24 8          # ... and 8 on a weekend
+ *     cap 50                       # every 24 hours since entry cost at most 50
+ * </pre>
+ * Windowed rates are matched against the day and hour every parked hour starts at, a later rule
+ * winning over an earlier one. A window whose end is not after its start wraps past midnight.
+ * </p>
+ * <p>
+ * The rates repeat every week, and so does the daily cap, a week being a whole number of days.
+ * The tariff is compiled into two tables of cumulative charges for one week of parking - for every
+ * hour of the week a stay can start at, with the flat block and without it - and a longer stay adds
+ * up as its first week, as many whole weeks as it spans after that, and the hours left over. When
+ * every hour of the week has the same rate, both tables collapse to a single starting hour.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public final class Tariff {
+
+    /**
+     * System property holding the path of the tariff file to price stays with.
+     */
+    public static final String FILE_PROPERTY = "parker.tariff.file";
+
+    public static final int HOURS_PER_DAY = 24;
+
+    public static final int HOURS_PER_WEEK = 7 * HOURS_PER_DAY;
+
+    /**
+     * Hour of the week Saturday starts at, the week starting on Monday.
+     */
+    private static final int WEEKEND_START_HOUR = 5 * HOURS_PER_DAY;
+
+    /**
+     * $10 for the first 2 hours and $10 for every additional hour.
+     */
+    public static final Tariff DEFAULT = new Tariff.Builder().flat(2, 1_000).rate(1_000).compile();
+
+    private final int graceHours;
+
+    /**
+     * Number of starting hours the tables are laid out for, {@code 1} or {@link #HOURS_PER_WEEK}.
+     */
+    private final int startHours;
+
+    /**
+     * Charge of the first {@code h} hours of a stay starting at hour of the week {@code s}, at
+     * {@code s * (HOURS_PER_WEEK + 1) + h}.
+     */
+    private final long[] firstWeek;
+
+    /**
+     * Same as {@link #firstWeek}, without the flat block, for the weeks after the first one.
+     */
+    private final long[] laterWeeks;
+
+    private final int ruleCount;
+
+    private Tariff(int graceHours, int startHours, long[] firstWeek, long[] laterWeeks,
+                   int ruleCount) {
+        this.graceHours = graceHours;
+        this.startHours = startHours;
+        this.firstWeek = firstWeek;
+        this.laterWeeks = laterWeeks;
+        this.ruleCount = ruleCount;
+    }
+
+    /**
+     * Loads the tariff file set with the {@code parker.tariff.file} system property.
+     *
+     * @return The compiled tariff wrapped in an {@link Optional}, empty if no file is set.
+     * @throws BadInputException if the file cannot be read, or is malformed.
+     */
+    public static Optional<Tariff> fromSystemProperties() {
+        String file = System.getProperty(FILE_PROPERTY);
+        if (file == null || file.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.of(load(Path.of(file.trim())));
+    }
+
+    /**
+     * Reads and compiles a tariff file.
+     *
+     * @param path The path of the tariff file.
+     * @return The compiled tariff.
+     * @throws BadInputException if the file cannot be read, or is malformed.
+     */
+    public static Tariff load(Path path) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(path);
+        } catch (IOException ex) {
+            throw new BadInputException(String.format("Cannot read tariff file %s", path));
+        }
+        return parse(lines);
+    }
+
+    /**
+     * Compiles the lines of a tariff.
+     *
+     * @param lines The rules, one per line.
+     * @return The compiled tariff.
+     * @throws BadInputException if a rule is malformed, or the tariff has no rate.
+     */
+    public static Tariff parse(List<String> lines) {
+        Builder builder = new Builder();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int comment = line.indexOf('#');
+            String rule = (comment < 0 ? line : line.substring(0, comment)).trim();
+            if (rule.isEmpty()) {
+                continue;
+            }
+
+            try {
+                builder.rule(rule.split("\\s+"));
+            } catch (BadInputException ex) {
+                throw new BadInputException(
+                    String.format("Invalid tariff rule at line %d. %s", i + 1, ex.getMessage()));
+            }
+        }
+        return builder.compile();
+    }
+
+    /**
+     * Looks the charge of a stay up.
+     *
+     * @param hoursParked     The number of hours parked.
+     * @param startHourOfWeek The hour of the week the stay started at, {@code 0} being Monday 00:00.
+     * @return The charge, in cents.
+     * @throws BadInputException if the hours parked are negative.
+     */
+    public long computeCents(int hoursParked, int startHourOfWeek) {
+        if (hoursParked < 0) {
+            throw new BadInputException("Hours parked cannot be negative");
+        }
+        if (hoursParked <= graceHours) {
+            return 0;
+        }
+
+        int base = startHours == 1 ? 0 : startHourOfWeek * (HOURS_PER_WEEK + 1);
+        if (hoursParked <= HOURS_PER_WEEK) {
+            return firstWeek[base + hoursParked];
+        }
+
+        int afterFirstWeek = hoursParked - HOURS_PER_WEEK;
+        return firstWeek[base + HOURS_PER_WEEK]
+            + (long) (afterFirstWeek / HOURS_PER_WEEK) * laterWeeks[base + HOURS_PER_WEEK]
+            + laterWeeks[base + afterFirstWeek % HOURS_PER_WEEK];
+    }
+
+    /**
+     * Tells whether the charge of a stay depends on when it started.
+     *
+     * @return true if the rates vary over the week.
+     */
+    public boolean isTimeOfWeekDependent() {
+        return startHours > 1;
+    }
+
+    /**
+     * Returns the number of rules the tariff was compiled from.
+     *
+     * @return The number of rules.
+     */
+    public int ruleCount() {
+        return ruleCount;
+    }
+
+
+    // ---- Internals ------
+
+    /**
+     * Collects the rules of a tariff, and compiles them.
+     */
+    private static final class Builder {
+
+        private int graceHours = -1;
+
+        private int flatHours;
+
+        private long flatCents;
+
+        private long capCents = Long.MAX_VALUE;
+
+        /**
+         * Rate, in cents, of every hour of the week, unset hours at -1.
+         */
+        private final long[] rates = new long[HOURS_PER_WEEK];
+
+        private boolean hasRate;
+
+        private int ruleCount;
+
+        Builder() {
+            Arrays.fill(rates, -1);
+        }
+
+        private void rule(String[] tokens) {
+            switch (tokens[0]) {
+                case "grace" -> {
+                    expectTokens(tokens, 2, "grace {hours}");
+                    graceHours = hours(tokens[1]);
+                }
+                case "flat" -> {
+                    expectTokens(tokens, 3, "flat {hours} {amount}");
+                    flat(hours(tokens[1]), cents(tokens[2]));
+                }
+                case "rate" -> {
+                    if (tokens.length == 2) {
+                        rate(cents(tokens[1]));
+                    } else {
+                        expectTokens(tokens, 4, "rate [{daily|weekday|weekend} {from}-{to}] {amount}");
+                        window(tokens[1], tokens[2], cents(tokens[3]));
+                    }
+                }
+                case "cap" -> {
+                    expectTokens(tokens, 2, "cap {amount}");
+                    capCents = cents(tokens[1]);
+                }
+                default -> throw new BadInputException(
+                    String.format("Unknown rule `%s`", tokens[0]));
+            }
+            ruleCount++;
+        }
+
+        private Builder flat(int hours, long cents) {
+            flatHours = hours;
+            flatCents = cents;
+            return this;
+        }
+
+        /**
+         * Sets the rate of every hour, overriding the windows set so far.
+         */
+        private Builder rate(long cents) {
+            Arrays.fill(rates, cents);
+            hasRate = true;
+            return this;
+        }
+
+        private void window(String days, String hours, long cents) {
+            String[] bounds = hours.split("-");
+            if (bounds.length != 2) {
+                throw new BadInputException("Invalid window, expecting `{from}-{to}`");
+            }
+            int from = hourOfDay(bounds[0], 23);
+            int to = hourOfDay(bounds[1], 24);
+
+            for (int hour = 0; hour < HOURS_PER_WEEK; hour++) {
+                boolean weekend = hour >= WEEKEND_START_HOUR;
+                boolean dayMatches = switch (days) {
+                    case "daily" -> true;
+                    case "weekday" -> !weekend;
+                    case "weekend" -> weekend;
+                    default -> throw new BadInputException(
+                        "Invalid days, expecting `daily`, `weekday` or `weekend`");
+                };
+
+                int hourOfDay = hour % HOURS_PER_DAY;
+                boolean inWindow = from < to
+                    ? hourOfDay >= from && hourOfDay < to
+                    : hourOfDay >= from || hourOfDay < to;
+                if (dayMatches && inWindow) {
+                    rates[hour] = cents;
+                }
+            }
+            hasRate = true;
+        }
+
+        private Tariff compile() {
+            if (!hasRate) {
+                throw new BadInputException("Tariff needs a rate");
+            }
+            for (int hour = 0; hour < HOURS_PER_WEEK; hour++) {
+                if (rates[hour] < 0) {
+                    throw new BadInputException(
+                        "Tariff leaves hours without a rate, add a `rate {amount}` before the windows");
+                }
+            }
+
+            boolean uniform = true;
+            for (long rate : rates) {
+                uniform &= rate == rates[0];
+            }
+
+            int startHours = uniform ? 1 : HOURS_PER_WEEK;
+            long[] firstWeek = new long[startHours * (HOURS_PER_WEEK + 1)];
+            long[] laterWeeks = new long[startHours * (HOURS_PER_WEEK + 1)];
+            for (int start = 0; start < startHours; start++) {
+                accumulate(firstWeek, start, true);
+                accumulate(laterWeeks, start, false);
+            }
+            return new Tariff(graceHours, startHours, firstWeek, laterWeeks, ruleCount);
+        }
+
+        /**
+         * Fills the cumulative charges of one week of parking, starting at the given hour.
+         *
+         * @param table     The table to fill.
+         * @param start     The hour of the week the stay starts at.
+         * @param withFlat  true to charge the flat block, false for the weeks after the first one.
+         */
+        private void accumulate(long[] table, int start, boolean withFlat) {
+            int base = start * (HOURS_PER_WEEK + 1);
+            long closedDays = 0;
+            long day = withFlat ? flatCents : 0;
+            table[base] = Math.min(capCents, day);
+
+            for (int hour = 0; hour < HOURS_PER_WEEK; hour++) {
+                if (hour > 0 && hour % HOURS_PER_DAY == 0) {
+                    closedDays += Math.min(capCents, day);
+                    day = 0;
+                }
+                if (!withFlat || hour >= flatHours) {
+                    day += rates[(start + hour) % HOURS_PER_WEEK];
+                }
+                table[base + hour + 1] = closedDays + Math.min(capCents, day);
+            }
+        }
+
+        private static void expectTokens(String[] tokens, int count, String usage) {
+            if (tokens.length != count) {
+                throw new BadInputException(String.format("Expecting `%s`", usage));
+            }
+        }
+
+        private static int hours(String token) {
+            if (!token.matches("\\d{1,6}")) {
+                throw new BadInputException(String.format("Invalid hours `%s`", token));
+            }
+            return Integer.parseInt(token);
+        }
+
+        private static int hourOfDay(String token, int max) {
+            int hour = hours(token);
+            if (hour > max) {
+                throw new BadInputException(String.format("Invalid hour of day `%s`", token));
+            }
+            return hour;
+        }
+
+        /**
+         * Parses an amount in currency units, with up to two decimals, into cents.
+         */
+        private static long cents(String token) {
+            if (!token.matches("\\d{1,15}(\\.\\d{1,2})?")) {
+                throw new BadInputException(String.format("Invalid amount `%s`", token));
+            }
+
+            int dot = token.indexOf('.');
+            if (dot < 0) {
+                return Long.parseLong(token) * 100;
+            }
+            String fraction = token.length() - dot == 2 ? token.substring(dot + 1) + "0"
+                : token.substring(dot + 1);
+            return Long.parseLong(token.substring(0, dot)) * 100 + Integer.parseInt(fraction);
+        }
+    }
+}
@@ -37,8 +37,8 @@
  * <p>
  * Example:
  * <pre>
- *     ParkingFeeCalculator calculator = new PerHourFeeCalculatorImpl();
- *     Number fee = calculator.computePrice(3);  // Calculate fee for 3 hours of parking.
+ *     ChargesCalculator calculator = new PerHourChargesCalculatorImpl();
+ *     long cents = calculator.computeCents(3);  // Calculate fee for 3 hours of parking.
  * </pre>
  *
  * @author Priyak Dey
@@ -46,9 +46,9 @@
 public class PerHourChargesCalculatorImpl implements ChargesCalculator {
 
     /**
-     * The fixed charge applicable for parking durations up to FLAT_RATE_DURATION_HOURS.
+     * The fixed charge, in cents, applicable for parking durations up to FLAT_RATE_DURATION_HOURS.
      */
-    private static final int FLAT_RATE_CHARGE = 10;
+    private static final long FLAT_RATE_CHARGE_CENTS = 1_000;
 
     /**
      * The number of hours for which the flat rate (FLAT_RATE_CHARGE) applies.
@@ -57,20 +57,20 @@ public class PerHourChargesCalculatorImpl implements ChargesCalculator {
 
 
     /**
-     * Charge applied for every hour after the INITIAL_HOURS.
+     * Charge, in cents, applied for every hour after the FLAT_RATE_DURATION_HOURS.
      */
-    private static final int PER_HOUR_CHARGE = 10;
+    private static final long PER_HOUR_CHARGE_CENTS = 1_000;
 
 
     /**
-     * Computes the parking fee for the specified number of hours.
+     * Computes the parking fee, in cents, for the specified number of hours.
      *
      * @param hoursParked The number of hours for which the parking fee should be computed.
-     * @return The computed parking fee as a {@link Number}. Implementations might return fee as
-     * an integer, decimal, or other numerical representations.
+     * @return The computed parking fee, in cents.
+     * @throws BadInputException if the hours parked are negative.
      */
     @Override
-    public Number computePrice(int hoursParked) {
+    public long computeCents(int hoursParked) {
         if (hoursParked < 0) {
             throw new BadInputException("Hours parked cannot be negative");
         }
@@ -78,6 +78,6 @@ public Number computePrice(int hoursParked) {
         int overheadHours =
             hoursParked > FLAT_RATE_DURATION_HOURS ? hoursParked - FLAT_RATE_DURATION_HOURS : 0;
 
-        return FLAT_RATE_CHARGE + overheadHours * PER_HOUR_CHARGE;
+        return FLAT_RATE_CHARGE_CENTS + overheadHours * PER_HOUR_CHARGE_CENTS;
     }
 }
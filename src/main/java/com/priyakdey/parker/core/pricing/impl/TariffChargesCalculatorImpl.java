@@ -0,0 +1,136 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.pricing.impl;
+
+import com.priyakdey.parker.core.pricing.ChargesCalculator;
+import com.priyakdey.parker.core.pricing.Tariff;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Implementation of the {@link ChargesCalculator} that prices stays with a compiled {@link Tariff}.
+ *
+ * <p>
+ * A stay is taken to have ended when it is priced, which places its start in the week for the
+ * time-of-day and weekend rates. Pricing a stay is a lookup in the tariff's tables.
+ * </p>
+ * <p>
+ * The tariff is swapped for a new one by replacing a single volatile reference, so a stay is
+ * priced with either the old tariff or the new one, never a mix of the two, and pricing never
+ * waits for a tariff to load.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class TariffChargesCalculatorImpl implements ChargesCalculator {
+
+    /**
+     * 1970-01-01, the epoch day, was a Thursday, three days after the Monday the week starts at.
+     */
+    private static final long EPOCH_HOUR_OF_WEEK = 3L * Tariff.HOURS_PER_DAY;
+
+    private final LongSupplier clock;
+
+    /**
+     * The time zone the tariff's hours are in, null till first needed for the system one, since
+     * looking it up reads the time zone database, which would cost every start of the application.
+     */
+    private ZoneId zone;
+
+    private volatile Tariff tariff;
+
+    /**
+     * Initializes a calculator pricing with the given tariff, in the system time zone.
+     *
+     * @param tariff The tariff to price stays with.
+     */
+    public TariffChargesCalculatorImpl(Tariff tariff) {
+        this(tariff, System::currentTimeMillis, null);
+    }
+
+    /**
+     * Initializes a calculator pricing with the given tariff.
+     *
+     * @param tariff The tariff to price stays with.
+     * @param clock  Supplies the current time, in epoch milliseconds.
+     * @param zone   The time zone the tariff's hours are in, null for the system one.
+     */
+    TariffChargesCalculatorImpl(Tariff tariff, LongSupplier clock, ZoneId zone) {
+        this.tariff = tariff;
+        this.clock = clock;
+        this.zone = zone;
+    }
+
+    /**
+     * Computes the parking fee, in cents, for a stay of the specified number of hours, ending now.
+     *
+     * @param hoursParked The number of hours for which the parking fee should be computed.
+     * @return The computed parking fee, in cents.
+     * @throws com.priyakdey.parker.exception.BadInputException if the hours parked are negative.
+     */
+    @Override
+    public long computeCents(int hoursParked) {
+        Tariff current = tariff;
+        if (!current.isTimeOfWeekDependent()) {
+            return current.computeCents(hoursParked, 0);
+        }
+        int startHourOfWeek = Math.floorMod(hourOfWeekNow() - hoursParked, Tariff.HOURS_PER_WEEK);
+        return current.computeCents(hoursParked, startHourOfWeek);
+    }
+
+    /**
+     * Replaces the tariff stays are priced with.
+     *
+     * @param tariff The new tariff.
+     */
+    public void load(Tariff tariff) {
+        this.tariff = tariff;
+    }
+
+    /**
+     * Returns the tariff stays are priced with.
+     *
+     * @return The current tariff.
+     */
+    public Tariff tariff() {
+        return tariff;
+    }
+
+    private long hourOfWeekNow() {
+        long now = clock.getAsLong();
+        long offsetMillis = TimeUnit.SECONDS.toMillis(
+            zone().getRules().getOffset(Instant.ofEpochMilli(now)).getTotalSeconds());
+        long epochHour = Math.floorDiv(now + offsetMillis, TimeUnit.HOURS.toMillis(1));
+        return Math.floorMod(epochHour + EPOCH_HOUR_OF_WEEK, Tariff.HOURS_PER_WEEK);
+    }
+
+    private ZoneId zone() {
+        // a race only looks the same time zone up twice
+        if (zone == null) {
+            zone = ZoneId.systemDefault();
+        }
+        return zone;
+    }
+}
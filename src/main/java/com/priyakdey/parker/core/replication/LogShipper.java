@@ -0,0 +1,168 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.replication;
+
+import com.priyakdey.parker.exception.ReplicationException;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams the backlog of a {@link ReplicatingJournal} to a single follower, on its own thread.
+ * <p>
+ * The shipper connects to the follower, learns the last record it applied, and from there on ships
+ * one batch at a time, waiting for each to be acknowledged before staging the next. Whatever was
+ * appended in the meantime goes into the next batch, so the batches grow with the load. A broken
+ * connection is retried till the journal is closed.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+final class LogShipper {
+
+    private static final long RECONNECT_DELAY_MILLIS = 100;
+
+    private final ReplicatingJournal journal;
+
+    private final String follower;
+
+    private final SocketAddress address;
+
+    private final Thread thread;
+
+    private final ByteBuffer frame;
+
+    private final ByteBuffer sequence = ByteBuffer.allocate(Long.BYTES);
+
+    /**
+     * Sequence number of the last record the follower acknowledged.
+     */
+    private volatile long acknowledged;
+
+    private volatile SocketChannel channel;
+
+    private volatile boolean stopped;
+
+    LogShipper(ReplicatingJournal journal, String follower, SocketAddress address) {
+        this.journal = journal;
+        this.follower = follower;
+        this.address = address;
+        this.frame = ByteBuffer.allocateDirect(journal.maxFrameBytes());
+        this.thread = Thread.ofPlatform().name("parker-log-shipper-" + follower).daemon()
+            .unstarted(this::run);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    long acknowledged() {
+        return acknowledged;
+    }
+
+    boolean isConnected() {
+        return channel != null;
+    }
+
+    /**
+     * Waits for the shipper to ship the end of stream, and tears the connection down if it does not
+     * in time.
+     *
+     * @param timeoutMillis longest to wait for
+     */
+    void stop(long timeoutMillis) {
+        try {
+            thread.join(timeoutMillis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        stopped = true;
+        thread.interrupt();
+        SocketChannel current = channel;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException ignored) {
+                // the shipper is going away anyway
+            }
+        }
+    }
+
+    private void run() {
+        while (!stopped) {
+            try (SocketChannel connected = ReplicationEndpoints.connect(address)) {
+                long applied = ReplicationEndpoints.readSequence(connected, sequence);
+                journal.checkResumable(follower, applied);
+                acknowledged = applied;
+                channel = connected;
+                stream(connected);
+                return;
+            } catch (ReplicationException ex) {
+                System.err.printf("ERROR: Stopped shipping to %s. Details = %s%n", follower,
+                    ex.getMessage());
+                return;
+            } catch (IOException ex) {
+                if (journal.isClosed()) {
+                    // no follower to drain to, nothing is waiting on it
+                    return;
+                }
+                pause();
+            } catch (InterruptedException ex) {
+                return;
+            } finally {
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * Ships batches to a connected follower till the end of stream.
+     *
+     * @param connected the channel to the follower
+     * @throws IOException          if the connection breaks.
+     * @throws InterruptedException if interrupted while waiting for records.
+     */
+    private void stream(SocketChannel connected) throws IOException, InterruptedException {
+        while (!stopped) {
+            boolean more = journal.nextBatch(follower, acknowledged + 1, frame);
+            ReplicationEndpoints.writeFully(connected, frame);
+            if (!more) {
+                return;
+            }
+
+            acknowledged = ReplicationEndpoints.readSequence(connected, sequence);
+            journal.acknowledged();
+        }
+    }
+
+    private void pause() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(RECONNECT_DELAY_MILLIS);
+        } catch (InterruptedException ex) {
+            stopped = true;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.replication;
+
+import com.priyakdey.parker.core.journal.Journal;
+import com.priyakdey.parker.core.journal.JournalRecordCodec;
+import com.priyakdey.parker.core.journal.JournalRecordHandler;
+import com.priyakdey.parker.core.journal.LotSnapshot;
+import com.priyakdey.parker.core.model.VehicleType;
+import com.priyakdey.parker.exception.ReplicationException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link Journal} which, on top of appending to the journal it wraps, ships every record to a set
+ * of warm standby followers, making the parking lot the leader.
+ * <p>
+ * Every record is numbered with a sequence, starting at 1, and encoded by a {@link JournalRecordCodec}
+ * into an in-memory backlog, which one {@link LogShipper} thread per follower streams from in
+ * batches. A record is dropped from the backlog once every follower has acknowledged it. A follower
+ * which reconnects tells where it stopped, and is shipped the records after it.
+ * </p>
+ * <p>
+ * The backlog is numbered from the moment the leader starts, so every follower has to start from
+ * the same parking lot layout, empty. A leader which was rebuilt from its own journal ships that
+ * state first, as a resize followed by every parked vehicle.
+ * </p>
+ *
+ * @author Priyak Dey
+ * @see ReplicationFollower
+ */
+public final class ReplicatingJournal implements Journal {
+
+    private final Journal delegate;
+
+    private final ReplicationConfig config;
+
+    /**
+     * Encodes every appended record before it is copied to the backlog.
+     */
+    private final JournalRecordCodec codec = new JournalRecordCodec();
+
+    private final List<LogShipper> shippers = new ArrayList<>();
+
+    // ---- Backlog, guarded by this ------
+
+    private byte[] backlog = new byte[64 * 1024];
+
+    private int backlogBytes;
+
+    /**
+     * Start of every record in the backlog, the record at index {@code i} numbered
+     * {@code baseSequence + i}.
+     */
+    private int[] offsets = new int[1024];
+
+    /**
+     * Time every record in the backlog was appended at, in millis, by the same index as the
+     * {@link #offsets}.
+     */
+    private long[] appendedAtMillis = new long[1024];
+
+    private int backlogRecords;
+
+    /**
+     * Sequence number of the oldest record in the backlog.
+     */
+    private long baseSequence = 1;
+
+    private long shippedBatches;
+
+    private boolean closed;
+
+    private ReplicatingJournal(Journal delegate, ReplicationConfig config) {
+        this.delegate = delegate;
+        this.config = config;
+    }
+
+    /**
+     * Wraps a journal, and starts shipping to every configured follower. Followers which are not up
+     * yet are connected to as soon as they are.
+     *
+     * @param delegate the journal every record is appended to as well
+     * @param config   the replication settings
+     * @return the leader's journal.
+     */
+    public static ReplicatingJournal start(Journal delegate, ReplicationConfig config) {
+        ReplicatingJournal journal = new ReplicatingJournal(delegate, config);
+        for (String follower : config.followers()) {
+            journal.shippers.add(new LogShipper(journal, follower, ReplicationEndpoints.parse(follower)));
+        }
+        journal.shippers.forEach(LogShipper::start);
+        return journal;
+    }
+
+    @Override
+    public synchronized void appendPark(int parkingSpaceId, VehicleType vehicleType,
+                                       String registrationNumber, String colour) {
+        delegate.appendPark(parkingSpaceId, vehicleType, registrationNumber, colour);
+        ship(codec.encodePark(parkingSpaceId, vehicleType, registrationNumber, colour));
+    }
+
+    @Override
+    public synchronized void appendVacate(int parkingSpaceId) {
+        delegate.appendVacate(parkingSpaceId);
+        ship(codec.encodeVacate(parkingSpaceId));
+    }
+
+    @Override
+    public synchronized void appendResize(int capacity) {
+        delegate.appendResize(capacity);
+        ship(codec.encodeResize(capacity));
+    }
+
+    @Override
+    public long replay(JournalRecordHandler handler) {
+        return delegate.replay(handler);
+    }
+
+    @Override
+    public boolean isSnapshotDue() {
+        return delegate.isSnapshotDue();
+    }
+
+    @Override
+    public CompletableFuture<Void> snapshot(LotSnapshot snapshot) {
+        return delegate.snapshot(snapshot);
+    }
+
+    @Override
+    public Optional<LotSnapshot> latestSnapshot() {
+        return delegate.latestSnapshot();
+    }
+
+    /**
+     * Ships the recovered state of the parking lot, so the followers start from it.
+     *
+     * @param state the image of the recovered parking lot
+     */
+    @Override
+    public synchronized void onRecovered(LotSnapshot state) {
+        delegate.onRecovered(state);
+
+        ship(codec.encodeResize(state.capacity()));
+        for (int i = 0; i < state.occupiedCount(); i++) {
+            ship(codec.encodePark(state.parkingSpaceIds()[i], state.vehicleTypes()[i],
+                state.registrationNumbers()[i], state.colours()[i]));
+        }
+    }
+
+    /**
+     * Returns the leader's side of the replication.
+     *
+     * @return the sequence appended, the sequence acknowledged by every follower, and the age of
+     * the oldest record not acknowledged by every follower yet.
+     */
+    public synchronized ReplicationStatus status() {
+        int connected = 0;
+        for (LogShipper shipper : shippers) {
+            if (shipper.isConnected()) {
+                connected++;
+            }
+        }
+
+        long acknowledged = minAcknowledged();
+        long lagMillis = 0;
+        // a record not acknowledged is never dropped off the backlog, short of the backlog limit
+        if (acknowledged < lastSequence() && acknowledged + 1 >= baseSequence) {
+            int oldest = (int) (acknowledged + 1 - baseSequence);
+            lagMillis = Math.max(0, System.currentTimeMillis() - appendedAtMillis[oldest]);
+        }
+        return new ReplicationStatus(ReplicationStatus.Role.LEADER, connected, lastSequence(),
+            acknowledged, lagMillis, shippedBatches, null);
+    }
+
+    /**
+     * Ships whatever the followers have not acknowledged yet, waiting for them for up to the drain
+     * timeout, then closes the wrapped journal.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+
+        long deadline = System.currentTimeMillis() + config.drainTimeoutMillis();
+        for (LogShipper shipper : shippers) {
+            shipper.stop(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+        delegate.close();
+    }
+
+
+    // ---- Shipper side ------
+
+    /**
+     * Checks a follower which just connected can continue from the record it last applied.
+     *
+     * @param follower the address of the follower
+     * @param applied  the sequence number of the last record the follower applied
+     * @throws ReplicationException if the follower is ahead of the leader, or behind the backlog.
+     */
+    synchronized void checkResumable(String follower, long applied) {
+        if (applied > lastSequence()) {
+            throw new ReplicationException(String.format(
+                "Follower %s applied sequence %d, ahead of the leader at %d", follower, applied,
+                lastSequence()));
+        }
+        if (applied + 1 < baseSequence) {
+            throw new ReplicationException(String.format(
+                "Follower %s applied sequence %d, behind the backlog starting at %d", follower,
+                applied, baseSequence));
+        }
+    }
+
+    /**
+     * Waits for records after the given sequence, and stages the next batch of them in the frame.
+     * Once the journal is closed and every record was shipped, stages the end of stream instead.
+     *
+     * @param follower the address of the follower
+     * @param from     the sequence number of the first record to ship
+     * @param frame    the buffer to stage the frame in, flipped for writing
+     * @return false if the frame is the end of stream, true otherwise.
+     * @throws ReplicationException  if the records have already been dropped from the backlog.
+     * @throws InterruptedException if interrupted while waiting for records.
+     */
+    synchronized boolean nextBatch(String follower, long from, ByteBuffer frame)
+        throws InterruptedException {
+        while (!closed && lastSequence() < from) {
+            wait();
+        }
+
+        frame.clear();
+        if (lastSequence() < from) {
+            frame.putInt(0).putInt(ReplicationEndpoints.END_OF_STREAM)
+                .putLong(from).putLong(lastSequence()).putLong(System.currentTimeMillis());
+            frame.flip();
+            return false;
+        }
+        if (from < baseSequence) {
+            throw new ReplicationException(String.format(
+                "Follower %s fell behind the backlog starting at %d", follower, baseSequence));
+        }
+
+        int first = (int) (from - baseSequence);
+        int count = Math.min(config.batchRecords(), backlogRecords - first);
+        int start = offsets[first];
+        int end = first + count == backlogRecords ? backlogBytes : offsets[first + count];
+
+        frame.putInt(end - start).putInt(count)
+            .putLong(from).putLong(lastSequence()).putLong(System.currentTimeMillis());
+        frame.put(backlog, start, end - start);
+        frame.flip();
+        shippedBatches++;
+        return true;
+    }
+
+    /**
+     * Drops the records every follower has acknowledged, once they make up half the backlog, so the
+     * copying is amortized over the records appended.
+     */
+    synchronized void acknowledged() {
+        int acknowledged = (int) (minAcknowledged() - baseSequence + 1);
+        if (acknowledged > 0 && acknowledged >= backlogRecords / 2) {
+            discard(acknowledged);
+        }
+    }
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns the frame size needed for a batch.
+     *
+     * @return the largest frame a batch can take.
+     */
+    int maxFrameBytes() {
+        return ReplicationEndpoints.HEADER_BYTES
+            + config.batchRecords() * JournalRecordCodec.MAX_RECORD_BYTES;
+    }
+
+
+    // ---- Internals ------
+
+    /**
+     * Copies the record encoded by the {@link #codec} to the backlog, and wakes the shippers up.
+     * Past the backlog limit, the oldest half of the backlog is dropped.
+     *
+     * @param recordLength number of bytes of the encoded record
+     */
+    private void ship(int recordLength) {
+        if (backlogRecords >= config.backlogRecords()) {
+            discard(backlogRecords / 2);
+        }
+        if (backlogRecords == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            appendedAtMillis = Arrays.copyOf(appendedAtMillis, offsets.length);
+        }
+        if (backlogBytes + recordLength > backlog.length) {
+            backlog = Arrays.copyOf(backlog, Math.max(backlog.length * 2, backlogBytes + recordLength));
+        }
+
+        appendedAtMillis[backlogRecords] = System.currentTimeMillis();
+        offsets[backlogRecords++] = backlogBytes;
+        System.arraycopy(codec.record(), 0, backlog, backlogBytes, recordLength);
+        backlogBytes += recordLength;
+        notifyAll();
+    }
+
+    /**
+     * Drops the oldest records from the backlog.
+     *
+     * @param count number of records to drop
+     */
+    private void discard(int count) {
+        int from = count == backlogRecords ? backlogBytes : offsets[count];
+        System.arraycopy(backlog, from, backlog, 0, backlogBytes - from);
+        backlogBytes -= from;
+        for (int i = count; i < backlogRecords; i++) {
+            offsets[i - count] = offsets[i] - from;
+        }
+        System.arraycopy(appendedAtMillis, count, appendedAtMillis, 0, backlogRecords - count);
+        backlogRecords -= count;
+        baseSequence += count;
+    }
+
+    private long lastSequence() {
+        return baseSequence + backlogRecords - 1;
+    }
+
+    private long minAcknowledged() {
+        long min = lastSequence();
+        for (LogShipper shipper : shippers) {
+            min = Math.min(min, shipper.acknowledged());
+        }
+        return min;
+    }
+}
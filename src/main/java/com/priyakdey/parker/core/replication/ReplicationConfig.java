@@ -0,0 +1,120 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.replication;
+
+import com.priyakdey.parker.exception.BadInputException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Settings of a {@link ReplicatingJournal}.
+ * <p>
+ * Records are shipped to every follower in batches of up to {@code batchRecords} records, each
+ * batch acknowledged before the next one is sent, so a follower which keeps up gets every record
+ * as soon as it is appended, and one which falls behind catches up in large batches.
+ * </p>
+ * <p>
+ * Records are held in memory till every follower has acknowledged them, up to
+ * {@code backlogRecords} records. Past that, the oldest half is dropped, and a follower which has
+ * not acknowledged them yet cannot catch up any more.
+ * </p>
+ *
+ * @param followers          addresses of the followers, {@code host:port} or a Unix domain socket path
+ * @param batchRecords       largest number of records shipped in a batch
+ * @param backlogRecords     largest number of un-acknowledged records held for the followers
+ * @param drainTimeoutMillis longest closing the journal waits for the followers to catch up
+ * @author Priyak Dey
+ */
+public record ReplicationConfig(List<String> followers, int batchRecords, int backlogRecords,
+                                long drainTimeoutMillis) {
+
+    /**
+     * System property holding the comma separated follower addresses, replication is disabled when
+     * it is not set.
+     */
+    public static final String FOLLOWERS_PROPERTY = "parker.replication.followers";
+
+    public static final String BATCH_RECORDS_PROPERTY = "parker.replication.batch-records";
+
+    public static final String BACKLOG_RECORDS_PROPERTY = "parker.replication.backlog-records";
+
+    public static final String DRAIN_TIMEOUT_PROPERTY = "parker.replication.drain-timeout-ms";
+
+    private static final int DEFAULT_BATCH_RECORDS = 256;
+
+    private static final int DEFAULT_BACKLOG_RECORDS = 1 << 20;
+
+    private static final long DEFAULT_DRAIN_TIMEOUT_MILLIS = 5_000;
+
+    public ReplicationConfig {
+        followers = List.copyOf(followers);
+        if (followers.isEmpty()) {
+            throw new BadInputException("Replication needs at least one follower");
+        }
+        if (batchRecords < 1) {
+            throw new BadInputException("Replication batch needs at least one record");
+        }
+        if (backlogRecords < batchRecords) {
+            throw new BadInputException("Replication backlog needs to hold at least one batch");
+        }
+        if (drainTimeoutMillis < 0) {
+            throw new BadInputException("Replication drain timeout cannot be negative");
+        }
+    }
+
+    /**
+     * Reads the replication settings from the {@code parker.replication.*} system properties.
+     *
+     * @return the settings wrapped in an {@link Optional}, empty if no follower is set.
+     * @throws BadInputException if any of the properties is malformed.
+     */
+    public static Optional<ReplicationConfig> fromSystemProperties() {
+        String followers = System.getProperty(FOLLOWERS_PROPERTY);
+        if (followers == null || followers.isBlank()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new ReplicationConfig(
+            Arrays.stream(followers.split(","))
+                .map(String::trim)
+                .filter(address -> !address.isEmpty())
+                .toList(),
+            (int) longProperty(BATCH_RECORDS_PROPERTY, DEFAULT_BATCH_RECORDS),
+            (int) longProperty(BACKLOG_RECORDS_PROPERTY, DEFAULT_BACKLOG_RECORDS),
+            longProperty(DRAIN_TIMEOUT_PROPERTY, DEFAULT_DRAIN_TIMEOUT_MILLIS)));
+    }
+
+    private static long longProperty(String name, long defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new BadInputException(String.format("Invalid `%s`, expecting a number", name));
+        }
+    }
+}
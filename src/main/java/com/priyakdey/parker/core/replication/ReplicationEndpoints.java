@@ -0,0 +1,177 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.replication;
+
+import com.priyakdey.parker.exception.BadInputException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+
+/**
+ * Opens the sockets, and moves the frames, the record stream is shipped over.
+ * <p>
+ * An address is either {@code host:port}, for TCP, or a file system path, for a Unix domain socket.
+ * Every frame from the leader is a {@link #HEADER_BYTES} byte header -
+ * {@code [record bytes : int][record count : int][first sequence : long][leader sequence : long][sent at millis : long]}
+ * - followed by the records as encoded in the journal. A record count of {@link #END_OF_STREAM}
+ * marks the leader closing. The follower sends a single {@code long} - the sequence of the last
+ * record it applied - once when the leader connects, and after every batch it applies.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+final class ReplicationEndpoints {
+
+    static final int HEADER_BYTES = 2 * Integer.BYTES + 3 * Long.BYTES;
+
+    static final int END_OF_STREAM = -1;
+
+    private ReplicationEndpoints() {
+    }
+
+    /**
+     * Parses an address into a TCP or a Unix domain socket address.
+     *
+     * @param address {@code host:port}, or a path
+     * @return the socket address.
+     * @throws BadInputException if the address is blank or the port is out of range.
+     */
+    static SocketAddress parse(String address) {
+        if (address == null || address.isBlank()) {
+            throw new BadInputException("Invalid replication address, expecting `host:port` or a path");
+        }
+
+        int separator = address.lastIndexOf(':');
+        if (separator > 0 && address.indexOf('/') < 0) {
+            String port = address.substring(separator + 1);
+            if (!port.chars().allMatch(Character::isDigit) || port.isEmpty()
+                || Integer.parseInt(port) > 65535) {
+                throw new BadInputException(String.format("Invalid port in `%s`", address));
+            }
+            return new InetSocketAddress(address.substring(0, separator), Integer.parseInt(port));
+        }
+        return UnixDomainSocketAddress.of(address);
+    }
+
+    /**
+     * Binds a listening socket, replacing a stale Unix domain socket file left behind.
+     *
+     * @param address the address to listen on
+     * @return the bound channel, in blocking mode.
+     * @throws IOException if the address cannot be bound.
+     */
+    static ServerSocketChannel bind(SocketAddress address) throws IOException {
+        if (address instanceof UnixDomainSocketAddress unixAddress) {
+            Files.deleteIfExists(unixAddress.getPath());
+            ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            channel.bind(address);
+            return channel;
+        }
+
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        channel.bind(address);
+        return channel;
+    }
+
+    /**
+     * Connects to a listening socket.
+     *
+     * @param address the address to connect to
+     * @return the connected channel, in blocking mode.
+     * @throws IOException if the connection is refused.
+     */
+    static SocketChannel connect(SocketAddress address) throws IOException {
+        if (address instanceof UnixDomainSocketAddress) {
+            SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+            try {
+                channel.connect(address);
+            } catch (IOException ex) {
+                channel.close();
+                throw ex;
+            }
+            return channel;
+        }
+
+        SocketChannel channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        return channel;
+    }
+
+    /**
+     * Sends a sequence number.
+     *
+     * @param channel  the connected channel
+     * @param buffer   a buffer of at least 8 bytes to stage the sequence in
+     * @param sequence the sequence number
+     * @throws IOException if the channel is broken.
+     */
+    static void writeSequence(SocketChannel channel, ByteBuffer buffer, long sequence)
+        throws IOException {
+        buffer.clear();
+        buffer.putLong(sequence).flip();
+        writeFully(channel, buffer);
+    }
+
+    /**
+     * Receives a sequence number.
+     *
+     * @param channel the connected channel
+     * @param buffer  a buffer of at least 8 bytes to stage the sequence in
+     * @return the sequence number.
+     * @throws IOException if the channel is broken, or closed by the peer.
+     */
+    static long readSequence(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.clear().limit(Long.BYTES);
+        readFully(channel, buffer);
+        return buffer.getLong(0);
+    }
+
+    static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Fills the buffer up to its limit.
+     *
+     * @param channel the connected channel
+     * @param buffer  the buffer to fill
+     * @throws IOException if the channel is broken, or closed by the peer.
+     */
+    static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Replication peer closed the connection");
+            }
+        }
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.replication;
+
+import com.priyakdey.parker.core.journal.JournalRecordCodec;
+import com.priyakdey.parker.core.journal.JournalRecordHandler;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.exception.ReplicationException;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * The warm standby side of replication - listens for a leader, and applies the record stream it
+ * ships to a parking lot of its own.
+ * <p>
+ * Every batch is applied in one go while holding the engine lock, the lock every command runs under,
+ * so commands reading the standby see it between two batches, never halfway through one. The
+ * batch is acknowledged to the leader only once it is applied.
+ * </p>
+ * <p>
+ * A leader which goes away, cleanly or not, can reconnect and continue where it stopped. Applying a
+ * record which does not fit the parking lot means the standby has diverged from the leader, and
+ * stops it for good.
+ * </p>
+ *
+ * @author Priyak Dey
+ * @see ReplicatingJournal
+ */
+public final class ReplicationFollower {
+
+    private final ServerSocketChannel server;
+
+    private final SocketAddress localAddress;
+
+    private final JournalRecordHandler applier;
+
+    private final Lock engineLock;
+
+    /**
+     * Signalled, under the engine lock, every time a leader disconnects.
+     */
+    private final Condition leaderGone;
+
+    private final Thread thread;
+
+    private final JournalRecordCodec decoder = new JournalRecordCodec();
+
+    private final ByteBuffer header = ByteBuffer.allocate(ReplicationEndpoints.HEADER_BYTES);
+
+    private final ByteBuffer sequence = ByteBuffer.allocate(Long.BYTES);
+
+    private ByteBuffer records = ByteBuffer.allocateDirect(64 * 1024);
+
+    private volatile SocketChannel channel;
+
+    private volatile boolean stopped;
+
+    /**
+     * Why the follower stopped following for good, null while it follows.
+     */
+    private volatile String failure;
+
+    // ---- Progress, written under the engine lock ------
+
+    private volatile long applied;
+
+    private volatile long leaderSequence;
+
+    private volatile long lagMillis;
+
+    private volatile long batches;
+
+    private int disconnects;
+
+    private ReplicationFollower(ServerSocketChannel server, JournalRecordHandler applier,
+                                Lock engineLock) throws IOException {
+        this.server = server;
+        this.localAddress = server.getLocalAddress();
+        this.applier = applier;
+        this.engineLock = engineLock;
+        this.leaderGone = engineLock.newCondition();
+        this.thread = Thread.ofPlatform().name("parker-replication-follower").daemon()
+            .unstarted(this::run);
+    }
+
+    /**
+     * Starts listening for a leader on the given address.
+     *
+     * @param address    {@code host:port}, or a Unix domain socket path
+     * @param applier    applies every shipped record to the standby's parking lot
+     * @param engineLock the lock every change to, and read of, the parking lot is made under
+     * @return the listening follower.
+     * @throws BadInputException    if the address is malformed.
+     * @throws ReplicationException if the address cannot be listened on.
+     */
+    public static ReplicationFollower listen(String address, JournalRecordHandler applier,
+                                             Lock engineLock) {
+        SocketAddress socketAddress = ReplicationEndpoints.parse(address);
+        ReplicationFollower follower;
+        try {
+            follower = new ReplicationFollower(ReplicationEndpoints.bind(socketAddress), applier,
+                engineLock);
+        } catch (IOException ex) {
+            throw new ReplicationException("Cannot listen on " + address, ex);
+        }
+
+        follower.thread.start();
+        return follower;
+    }
+
+    /**
+     * Returns the address the follower listens on, with the port picked if it was asked for port 0.
+     *
+     * @return the bound address.
+     */
+    public SocketAddress localAddress() {
+        return localAddress;
+    }
+
+    /**
+     * Returns the follower's side of the replication.
+     *
+     * @return the sequence applied, and the lag behind the leader as of the latest batch.
+     */
+    public ReplicationStatus status() {
+        return new ReplicationStatus(ReplicationStatus.Role.FOLLOWER, channel == null ? 0 : 1,
+            leaderSequence, applied, lagMillis, batches, failure);
+    }
+
+    /**
+     * Waits till a leader has connected and gone away since the follower started listening, and
+     * none is connected.
+     *
+     * @param timeoutMillis longest to wait for, {@code 0} to not wait at all
+     * @return true if the leader is gone, false if the wait timed out.
+     */
+    public boolean awaitLeaderGone(long timeoutMillis) {
+        engineLock.lock();
+        try {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while ((disconnects == 0 || channel != null) && remaining > 0 && !stopped) {
+                remaining = leaderGone.awaitNanos(remaining);
+            }
+            return disconnects > 0 && channel == null;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            engineLock.unlock();
+        }
+    }
+
+    /**
+     * Stops listening, and drops the connection to the leader. No record is applied once this
+     * returns, even if a batch was on its way.
+     *
+     * @return the sequence number of the last record applied.
+     */
+    public long close() {
+        engineLock.lock();
+        try {
+            stopped = true;
+            leaderGone.signalAll();
+        } finally {
+            engineLock.unlock();
+        }
+
+        closeChannels();
+        return applied;
+    }
+
+
+    // ---- Internals ------
+
+    private void run() {
+        while (!stopped) {
+            SocketChannel accepted;
+            try {
+                accepted = server.accept();
+            } catch (IOException ex) {
+                if (!stopped) {
+                    System.err.printf("ERROR: Standby stopped listening. Details = %s%n",
+                        ex.getMessage());
+                }
+                return;
+            }
+
+            try (SocketChannel connected = accepted) {
+                channel = connected;
+                ReplicationEndpoints.writeSequence(connected, sequence, applied);
+                stream(connected);
+            } catch (RuntimeException ex) {
+                // a record the standby cannot apply, for whatever reason, means it has diverged
+                System.err.printf("ERROR: Standby stopped following. Details = %s%n", ex);
+                failure = String.valueOf(ex.getMessage());
+                // a leader reconnecting would be left in the accept backlog, waiting for a sequence
+                closeChannels();
+                stopped = true;
+            } catch (IOException ex) {
+                // the leader went away, or the follower is closing - wait for the next leader
+            } finally {
+                disconnected();
+            }
+        }
+    }
+
+    /**
+     * Applies batches from a connected leader till the end of stream.
+     *
+     * @param connected the channel to the leader
+     * @throws IOException if the connection breaks.
+     */
+    private void stream(SocketChannel connected) throws IOException {
+        while (!stopped) {
+            header.clear();
+            ReplicationEndpoints.readFully(connected, header);
+            int recordBytes = header.getInt(0);
+            int recordCount = header.getInt(4);
+            long firstSequence = header.getLong(8);
+            if (recordCount == ReplicationEndpoints.END_OF_STREAM) {
+                return;
+            }
+            if (firstSequence != applied + 1) {
+                throw new ReplicationException(String.format(
+                    "Leader shipped sequence %d, expected %d", firstSequence, applied + 1));
+            }
+
+            if (records.capacity() < recordBytes) {
+                records = ByteBuffer.allocateDirect(Math.max(records.capacity() * 2, recordBytes));
+            }
+            records.clear().limit(recordBytes);
+            ReplicationEndpoints.readFully(connected, records);
+
+            apply(recordCount, header.getLong(16), header.getLong(24));
+            ReplicationEndpoints.writeSequence(connected, sequence, applied);
+        }
+    }
+
+    /**
+     * Applies a received batch to the parking lot, under the engine lock.
+     *
+     * @param recordCount    number of records in the batch
+     * @param leaderSequence the last sequence the leader had appended when it sent the batch
+     * @param sentAtMillis   the time the leader sent the batch at
+     */
+    private void apply(int recordCount, long leaderSequence, long sentAtMillis) {
+        engineLock.lock();
+        try {
+            if (stopped) {
+                return;
+            }
+
+            int position = 0;
+            int limit = records.limit();
+            for (int i = 0; i < recordCount; i++) {
+                int recordLength = decoder.decode(records, position, limit, applier);
+                if (recordLength < 0) {
+                    throw new ReplicationException(String.format(
+                        "Corrupt record at sequence %d in the shipped batch", applied + 1));
+                }
+                position += recordLength;
+                applied++;
+            }
+
+            this.leaderSequence = leaderSequence;
+            this.lagMillis = Math.max(0, System.currentTimeMillis() - sentAtMillis);
+            this.batches++;
+        } finally {
+            engineLock.unlock();
+        }
+    }
+
+    private void disconnected() {
+        engineLock.lock();
+        try {
+            channel = null;
+            disconnects++;
+            leaderGone.signalAll();
+        } finally {
+            engineLock.unlock();
+        }
+    }
+
+    /**
+     * Drops the connection to the leader, and stops listening, freeing the address.
+     */
+    private void closeChannels() {
+        closeQuietly(channel);
+        closeQuietly(server);
+        if (localAddress instanceof UnixDomainSocketAddress unixAddress) {
+            try {
+                Files.deleteIfExists(unixAddress.getPath());
+            } catch (IOException ignored) {
+                // the socket file is replaced by the next bind anyway
+            }
+        }
+    }
+
+    private static void closeQuietly(Channel closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // nothing left to release
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.replication;
+
+/**
+ * Where a parking lot stands in replication, at the time it was asked.
+ * <p>
+ * For a leader, {@code sequence} is the last record appended and {@code acknowledged} the last
+ * record every follower has applied. For a follower, {@code sequence} is the last record the leader
+ * had appended as of the latest batch, and {@code acknowledged} the last record applied here.
+ * </p>
+ *
+ * @param role           the part the parking lot plays
+ * @param connectedPeers number of followers connected to a leader, or leaders to a follower
+ * @param sequence       the sequence number of the last record known to be appended
+ * @param acknowledged   the sequence number of the last record known to be applied
+ * @param lagMillis      for a leader, the age of the oldest record not applied by every follower
+ *                       yet, for a follower, how long the latest batch took from the leader to here
+ * @param batches        number of batches shipped by a leader, or applied by a follower
+ * @param failure        for a follower which stopped following for good, why it did, null otherwise
+ * @author Priyak Dey
+ */
+public record ReplicationStatus(Role role, int connectedPeers, long sequence, long acknowledged,
+                                long lagMillis, long batches, String failure) {
+
+    /**
+     * Status of a parking lot neither shipping nor applying a record stream.
+     */
+    public static final ReplicationStatus STANDALONE =
+        new ReplicationStatus(Role.STANDALONE, 0, 0, 0, 0, 0, null);
+
+    /**
+     * Returns the number of records appended but not applied yet.
+     *
+     * @return the replication lag in records.
+     */
+    public long lagRecords() {
+        return Math.max(0, sequence - acknowledged);
+    }
+
+    /**
+     * The part a parking lot plays in replication.
+     */
+    public enum Role {
+        STANDALONE,
+        LEADER,
+        FOLLOWER
+    }
+}
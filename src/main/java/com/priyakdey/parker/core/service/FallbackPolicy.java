@@ -0,0 +1,73 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.service;
+
+import com.priyakdey.parker.core.model.SlotType;
+import com.priyakdey.parker.core.model.VehicleType;
+
+/**
+ * Decides which slot classes a {@link ParkingLot} may hand out to a vehicle.
+ *
+ * @author Priyak Dey
+ * @see VehicleType#getCompatibleSlotType(int)
+ */
+public enum FallbackPolicy {
+
+    /**
+     * Vehicles are only ever parked in their preferred slot class.
+     */
+    STRICT,
+
+    /**
+     * Vehicles are parked in their preferred slot class, and when that is full, in the first
+     * compatible slot class which still has free space.
+     */
+    ALLOW_FALLBACK;
+
+    /**
+     * Returns how many of the vehicle class's compatible slot classes can be tried under this policy.
+     *
+     * @param vehicleType the vehicle class to be parked
+     * @return number of compatible slot classes, in preference order, to try.
+     */
+    int candidateCount(VehicleType vehicleType) {
+        return this == STRICT ? 1 : vehicleType.getCompatibleSlotTypeCount();
+    }
+
+    /**
+     * Returns if a vehicle of the given class can be parked in a slot of the given class under this policy.
+     *
+     * @param vehicleType the vehicle class to be parked
+     * @param slotType    the slot class
+     * @return true if the slot class is one of the candidates for the vehicle class, false otherwise.
+     */
+    boolean allows(VehicleType vehicleType, SlotType slotType) {
+        int candidates = candidateCount(vehicleType);
+        for (int rank = 0; rank < candidates; rank++) {
+            if (vehicleType.getCompatibleSlotType(rank) == slotType) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
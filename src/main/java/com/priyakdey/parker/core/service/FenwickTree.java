@@ -0,0 +1,157 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.service;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * A Fenwick tree, or binary indexed tree, over the parking spaces - holding a non-negative count
+ * for every parking space id, and adding up any range of ids in O(log n).
+ * <p>
+ * Node {@code i} holds the sum of the counts of ids {@code (i - lowbit(i), i]}, {@code lowbit(i)}
+ * being the lowest set bit of {@code i}, so both an update and a prefix sum walk at most
+ * {@code log n} nodes. Ids are 1-based, as parking space ids are.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+final class FenwickTree {
+
+    private int[] tree;
+
+    private int size;
+
+    /**
+     * Initializes a tree of the given size, every count at zero.
+     *
+     * @param size Number of ids.
+     */
+    FenwickTree(int size) {
+        this.tree = new int[size + 1];
+        this.size = size;
+    }
+
+    /**
+     * Adds to the count of an id.
+     *
+     * @param id    The id, 1 to size.
+     * @param delta The amount to add, the count staying non-negative.
+     */
+    void add(int id, int delta) {
+        for (int i = id; i <= size; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Adds the counts of ids 1 to {@code id} up.
+     *
+     * @param id The last id, 0 to size.
+     * @return The sum of the counts.
+     */
+    int prefixSum(int id) {
+        int sum = 0;
+        for (int i = id; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Adds the counts of ids {@code from} to {@code to}, both included, up.
+     *
+     * @param from The first id.
+     * @param to   The last id.
+     * @return The sum of the counts.
+     */
+    int rangeSum(int from, int to) {
+        return prefixSum(to) - prefixSum(from - 1);
+    }
+
+    /**
+     * Finds the smallest id the prefix sum reaches the given rank at, by descending the tree from
+     * its highest power of two.
+     *
+     * @param rank The rank, 1 or more.
+     * @return The id, or {@code size + 1} if the counts add up to less than the rank.
+     */
+    int search(int rank) {
+        int id = 0;
+        int remaining = rank;
+        for (int step = Integer.highestOneBit(Math.max(size, 1)); step > 0; step >>= 1) {
+            int next = id + step;
+            if (next <= size && tree[next] < remaining) {
+                id = next;
+                remaining -= tree[next];
+            }
+        }
+        return id + 1;
+    }
+
+    /**
+     * Resizes the tree. Ids added come in with a count of zero, and ids dropped must have a count
+     * of zero, so the nodes kept stay valid.
+     * <p>
+     * A node added covers ids before it as well, and is filled from prefix sums of the nodes before
+     * it, in O(log n) each.
+     * </p>
+     *
+     * @param newSize The new number of ids.
+     */
+    void resize(int newSize) {
+        if (newSize + 1 > tree.length) {
+            tree = Arrays.copyOf(tree, Math.max(tree.length * 2, newSize + 1));
+        }
+        for (int i = size + 1; i <= newSize; i++) {
+            tree[i] = prefixSum(i - 1) - prefixSum(i - (i & -i));
+        }
+        size = newSize;
+    }
+
+    /**
+     * Rebuilds the tree in O(n), every id counting one if it matches the predicate, zero otherwise.
+     *
+     * @param newSize The new number of ids.
+     * @param counted Tells if an id counts one.
+     */
+    void reset(int newSize, IntPredicate counted) {
+        if (newSize + 1 > tree.length) {
+            tree = new int[newSize + 1];
+        }
+        size = newSize;
+        for (int i = 1; i <= size; i++) {
+            tree[i] = counted.test(i) ? 1 : 0;
+        }
+        for (int i = 1; i <= size; i++) {
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.service;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * A bit set over the parking spaces, which finds the next id set after any id in
+ * O(log<sub>64</sub> n), no matter how many ids in between are clear.
+ * <p>
+ * Level 0 holds a bit for every id, and every level above holds a bit for every word of the level
+ * below, set while that word has any bit set. Finding the next id climbs from the word of the id
+ * till a word with a bit set after it, and descends from there along the lowest bits set, so it
+ * reads at most two words a level - a lot of 16 million spaces has four levels. Setting and clearing
+ * an id touch the levels above only when a word turns empty, or stops being so. Ids are 1-based,
+ * as parking space ids are.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+final class HierarchicalBitSet {
+
+    private static final int WORD_BITS = 6;
+
+    /**
+     * The words of every level, level 0 first, the top level a single word.
+     */
+    private long[][] levels;
+
+    private int size;
+
+    /**
+     * Initializes a bit set of the given size, every id clear.
+     *
+     * @param size Number of ids.
+     */
+    HierarchicalBitSet(int size) {
+        this.levels = allocate(size);
+        this.size = size;
+    }
+
+    void set(int id) {
+        for (int level = 0, bit = id; level < levels.length; level++, bit >>>= WORD_BITS) {
+            long[] words = levels[level];
+            int word = bit >>> WORD_BITS;
+            boolean wasEmpty = words[word] == 0;
+            words[word] |= 1L << bit;
+            if (!wasEmpty) {
+                return;
+            }
+        }
+    }
+
+    void clear(int id) {
+        for (int level = 0, bit = id; level < levels.length; level++, bit >>>= WORD_BITS) {
+            long[] words = levels[level];
+            int word = bit >>> WORD_BITS;
+            words[word] &= ~(1L << bit);
+            if (words[word] != 0) {
+                return;
+            }
+        }
+    }
+
+    boolean get(int id) {
+        return id <= size && (levels[0][id >>> WORD_BITS] & (1L << id)) != 0;
+    }
+
+    /**
+     * Finds the smallest id set from the given id on.
+     *
+     * @param fromId The id to look from, included.
+     * @return The id, or {@code -1} if no id from there on is set.
+     */
+    int nextSetBit(int fromId) {
+        if (fromId > size) {
+            return -1;
+        }
+
+        int level = 0;
+        int bit = fromId;
+        while (true) {
+            long[] words = levels[level];
+            int word = bit >>> WORD_BITS;
+            if (word >= words.length) {
+                return -1;
+            }
+            long bits = words[word] & (-1L << bit);
+            if (bits != 0) {
+                bit = (word << WORD_BITS) + Long.numberOfTrailingZeros(bits);
+                break;
+            }
+            if (level == levels.length - 1) {
+                return -1;
+            }
+            // nothing left in this word, go on from the next word, a bit of the level above
+            bit = word + 1;
+            level++;
+        }
+
+        while (level > 0) {
+            level--;
+            bit = (bit << WORD_BITS) + Long.numberOfTrailingZeros(levels[level][bit]);
+        }
+        return bit;
+    }
+
+    /**
+     * Resizes the bit set. Ids added come in clear, and ids dropped must be clear, so the ids kept
+     * stay as they are.
+     *
+     * @param newSize The new number of ids.
+     */
+    void resize(int newSize) {
+        long[] ids = levels[0];
+        levels = allocate(newSize);
+        System.arraycopy(ids, 0, levels[0], 0, Math.min(ids.length, levels[0].length));
+        size = newSize;
+        summarize();
+    }
+
+    /**
+     * Rebuilds the bit set in O(n), every id set if it matches the predicate, clear otherwise.
+     *
+     * @param newSize The new number of ids.
+     * @param set     Tells if an id is set.
+     */
+    void reset(int newSize, IntPredicate set) {
+        levels = allocate(newSize);
+        size = newSize;
+        long[] ids = levels[0];
+        for (int id = 1; id <= size; id++) {
+            if (set.test(id)) {
+                ids[id >>> WORD_BITS] |= 1L << id;
+            }
+        }
+        summarize();
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Fills every level above the first from the one below it.
+     */
+    private void summarize() {
+        for (int level = 1; level < levels.length; level++) {
+            long[] below = levels[level - 1];
+            long[] words = levels[level];
+            Arrays.fill(words, 0);
+            for (int word = 0; word < below.length; word++) {
+                if (below[word] != 0) {
+                    words[word >>> WORD_BITS] |= 1L << word;
+                }
+            }
+        }
+    }
+
+    private static long[][] allocate(int size) {
+        int levelCount = 1;
+        for (int bits = size + 1; bits > 1 << WORD_BITS; bits = wordsFor(bits)) {
+            levelCount++;
+        }
+
+        long[][] levels = new long[levelCount][];
+        int bits = size + 1;
+        for (int level = 0; level < levelCount; level++) {
+            levels[level] = new long[wordsFor(bits)];
+            bits = levels[level].length;
+        }
+        return levels;
+    }
+
+    private static int wordsFor(int bits) {
+        return ((bits - 1) >>> WORD_BITS) + 1;
+    }
+}
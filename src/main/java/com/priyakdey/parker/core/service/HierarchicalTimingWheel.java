@@ -0,0 +1,356 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.service;
+
+import com.priyakdey.parker.exception.BadInputException;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A hierarchical timing wheel, which expires timers on a logical clock measured in ticks.
+ * <p>
+ * The wheel has {@link #LEVELS} levels of {@link #BUCKETS} buckets each. Level {@code l} buckets
+ * timers due within {@code 64^(l + 1)} ticks, at a resolution of {@code 64^l} ticks. Every time a
+ * lower level completes a full turn, the next bucket of the level above is cascaded down. Scheduling
+ * and cancelling are O(1), and every tick costs O(1) amortized plus the timers it expires, no matter
+ * how many timers are pending. Timers due further than {@code 64^4} ticks are parked in the top level,
+ * and re-cascaded till they get close enough.
+ * </p>
+ * <p>
+ * Timers are not objects - they live in parallel primitive arrays and are referred to by an
+ * {@code int} handle, so millions of pending timers cost a handful of bytes each. Each timer carries
+ * an {@code int} payload, which is handed back when it expires.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class HierarchicalTimingWheel {
+
+    private static final int BUCKET_BITS = 6;
+
+    private static final int BUCKETS = 1 << BUCKET_BITS;
+
+    private static final int BUCKET_MASK = BUCKETS - 1;
+
+    private static final int LEVELS = 4;
+
+    /**
+     * Furthest a timer can be placed from the current tick, without being re-cascaded.
+     */
+    private static final long MAX_SPAN = (1L << (BUCKET_BITS * LEVELS)) - 1;
+
+    /**
+     * Marker for the end of a bucket list, the end of the free list, and a timer not in any bucket.
+     */
+    private static final int NIL = -1;
+
+    /**
+     * Head of every bucket's doubly linked list of timers, level {@code l} bucket {@code b} at
+     * {@code l * BUCKETS + b}.
+     */
+    private final int[] buckets = new int[LEVELS * BUCKETS];
+
+    private long[] deadlines;
+
+    private int[] payloads;
+
+    private int[] next;
+
+    private int[] prev;
+
+    /**
+     * Bucket of every timer, {@link #NIL} for a handle on the free list.
+     */
+    private int[] bucketOf;
+
+    /**
+     * Head of the singly linked list of free handles, chained through {@link #next}.
+     */
+    private int freeHead;
+
+    /**
+     * Number of handles ever given out, handles at or above it have never been used.
+     */
+    private int highWaterMark;
+
+    /**
+     * Number of pending timers.
+     */
+    private int size;
+
+    /**
+     * The last tick processed by the wheel.
+     */
+    private long currentTick;
+
+    /**
+     * Initializes an empty wheel at tick 0.
+     *
+     * @param initialCapacity number of pending timers to make room for upfront
+     */
+    public HierarchicalTimingWheel(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        this.deadlines = new long[capacity];
+        this.payloads = new int[capacity];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.bucketOf = new int[capacity];
+        this.freeHead = NIL;
+        Arrays.fill(buckets, NIL);
+    }
+
+    /**
+     * Returns the last tick processed by the wheel.
+     *
+     * @return the current tick.
+     */
+    public long currentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Returns the number of pending timers.
+     *
+     * @return number of timers scheduled and neither expired nor cancelled.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedules a timer to expire at the given tick.
+     *
+     * @param deadline the tick at which the timer expires, must be after the current tick
+     * @param payload  value handed back when the timer expires
+     * @return the handle of the timer, valid till the timer expires or is cancelled.
+     * @throws BadInputException if the deadline is not after the current tick.
+     */
+    public int schedule(long deadline, int payload) {
+        if (deadline <= currentTick) {
+            throw new BadInputException(
+                String.format("Deadline %d is not after the current tick %d", deadline, currentTick));
+        }
+
+        int handle = allocate();
+        deadlines[handle] = deadline;
+        payloads[handle] = payload;
+        insert(handle);
+        size++;
+        return handle;
+    }
+
+    /**
+     * Returns the payload of a pending timer.
+     *
+     * @param handle the handle of the timer
+     * @return the payload the timer was scheduled with.
+     */
+    public int payload(int handle) {
+        return payloads[handle];
+    }
+
+    /**
+     * Cancels a pending timer, in O(1). The handle must not be used afterwards.
+     *
+     * @param handle the handle of the timer
+     * @throws BadInputException if the handle does not refer to a pending timer.
+     */
+    public void cancel(int handle) {
+        if (handle < 0 || handle >= highWaterMark || bucketOf[handle] == NIL) {
+            throw new BadInputException(String.format("No pending timer with handle %d", handle));
+        }
+
+        unlink(handle);
+        release(handle);
+        size--;
+    }
+
+    /**
+     * Advances the clock, tick by tick, up to the given tick, expiring every timer due on the way.
+     * <p>
+     * When no timers are pending, the clock jumps straight to the given tick.
+     * </p>
+     *
+     * @param tick     the tick to advance to, ticks at or before the current one are ignored
+     * @param onExpire receives the payload of every expired timer, in deadline order
+     * @return the number of timers expired.
+     */
+    public int advanceTo(long tick, IntConsumer onExpire) {
+        int expired = 0;
+
+        while (currentTick < tick) {
+            if (size == 0) {
+                currentTick = tick;
+                break;
+            }
+
+            long now = currentTick + 1;
+            int index = (int) (now & BUCKET_MASK);
+            if (index == 0) {
+                cascade(now);
+            }
+
+            int handle = buckets[index];
+            buckets[index] = NIL;
+            while (handle != NIL) {
+                int nextHandle = next[handle];
+                int payload = payloads[handle];
+                release(handle);
+                size--;
+                expired++;
+                onExpire.accept(payload);
+                handle = nextHandle;
+            }
+
+            currentTick = now;
+        }
+
+        return expired;
+    }
+
+
+    // ---- Internals ------
+
+    /**
+     * Moves the timers of the due bucket of every level above the lowest, whose level below just
+     * completed a full turn, to the level below.
+     *
+     * @param now the tick being processed
+     */
+    private void cascade(long now) {
+        for (int level = 1; level < LEVELS; level++) {
+            int index = (int) ((now >>> (BUCKET_BITS * level)) & BUCKET_MASK);
+            int bucket = level * BUCKETS + index;
+
+            int handle = buckets[bucket];
+            buckets[bucket] = NIL;
+            while (handle != NIL) {
+                int nextHandle = next[handle];
+                insert(handle, now);
+                handle = nextHandle;
+            }
+
+            if (index != 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Links a timer into its bucket, relative to the next tick to be processed.
+     *
+     * @param handle the handle of the timer
+     */
+    private void insert(int handle) {
+        insert(handle, currentTick + 1);
+    }
+
+    /**
+     * Links a timer into its bucket, relative to the given tick.
+     *
+     * @param handle the handle of the timer
+     * @param base   the tick to be processed next
+     */
+    private void insert(int handle, long base) {
+        long deadline = deadlines[handle];
+        long delta = deadline - base;
+
+        if (delta < 0) {
+            deadline = base;
+            delta = 0;
+        } else if (delta > MAX_SPAN) {
+            deadline = base + MAX_SPAN;
+            delta = MAX_SPAN;
+        }
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (BUCKET_BITS * (level + 1)))) {
+            level++;
+        }
+
+        int bucket =
+            level * BUCKETS + (int) ((deadline >>> (BUCKET_BITS * level)) & BUCKET_MASK);
+
+        int head = buckets[bucket];
+        next[handle] = head;
+        prev[handle] = NIL;
+        if (head != NIL) {
+            prev[head] = handle;
+        }
+        buckets[bucket] = handle;
+        bucketOf[handle] = bucket;
+    }
+
+    /**
+     * Unlinks a timer from its bucket.
+     *
+     * @param handle the handle of the timer
+     */
+    private void unlink(int handle) {
+        int before = prev[handle];
+        int after = next[handle];
+
+        if (before == NIL) {
+            buckets[bucketOf[handle]] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != NIL) {
+            prev[after] = before;
+        }
+    }
+
+    /**
+     * Takes a handle off the free list, or a never used one, growing the arrays if needed.
+     *
+     * @return a free handle.
+     */
+    private int allocate() {
+        if (freeHead != NIL) {
+            int handle = freeHead;
+            freeHead = next[handle];
+            return handle;
+        }
+
+        if (highWaterMark == deadlines.length) {
+            int newLength = deadlines.length + (deadlines.length >> 1);
+            deadlines = Arrays.copyOf(deadlines, newLength);
+            payloads = Arrays.copyOf(payloads, newLength);
+            next = Arrays.copyOf(next, newLength);
+            prev = Arrays.copyOf(prev, newLength);
+            bucketOf = Arrays.copyOf(bucketOf, newLength);
+        }
+        return highWaterMark++;
+    }
+
+    /**
+     * Returns a handle to the free list.
+     *
+     * @param handle the handle to be released
+     */
+    private void release(int handle) {
+        bucketOf[handle] = NIL;
+        next[handle] = freeHead;
+        freeHead = handle;
+    }
+}
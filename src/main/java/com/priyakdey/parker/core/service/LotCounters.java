@@ -0,0 +1,144 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.service;
+
+import com.priyakdey.parker.core.model.Rejection;
+import com.priyakdey.parker.core.model.SlotType;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running counters of the parking lot, kept by slot class, so its stats are read without scanning
+ * the parking spaces.
+ * <p>
+ * Every counter is a {@link LongAdder}, striped over cells, so gates updating the counters at the
+ * same time do not contend on a single value.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+final class LotCounters {
+
+    private static final SlotType[] SLOT_TYPES = SlotType.values();
+
+    private final LongAdder[] occupied = adders();
+
+    private final LongAdder[] reserved = adders();
+
+    /**
+     * Number of vehicles parked, whether they are still parked or not.
+     */
+    private final LongAdder[] sessions = adders();
+
+    /**
+     * Number of vehicles which left.
+     */
+    private final LongAdder[] departures = adders();
+
+    private final LongAdder[] revenueCents = adders();
+
+    /**
+     * Number of requests refused, by {@link Rejection#ordinal()}.
+     */
+    private final LongAdder[] rejections = adders(Rejection.values().length);
+
+    void parked(SlotType slotType) {
+        occupied[slotType.ordinal()].increment();
+        sessions[slotType.ordinal()].increment();
+    }
+
+    void vacated(SlotType slotType) {
+        occupied[slotType.ordinal()].decrement();
+        departures[slotType.ordinal()].increment();
+    }
+
+    /**
+     * Counts a parking space held for an arriving vehicle.
+     */
+    void held(SlotType slotType) {
+        reserved[slotType.ordinal()].increment();
+    }
+
+    /**
+     * Counts a held parking space given up, whether claimed or expired.
+     */
+    void released(SlotType slotType) {
+        reserved[slotType.ordinal()].decrement();
+    }
+
+    void rejected(Rejection rejection) {
+        rejections[rejection.ordinal()].increment();
+    }
+
+    void charged(SlotType slotType, long cents) {
+        revenueCents[slotType.ordinal()].add(cents);
+    }
+
+    /**
+     * Resets the occupied counts to those of a parking lot just rebuilt, which holds no reservation.
+     *
+     * @param occupiedBySlotType number of occupied parking spaces, indexed by {@link SlotType#ordinal()}
+     */
+    void reset(int[] occupiedBySlotType) {
+        for (int i = 0; i < SLOT_TYPES.length; i++) {
+            occupied[i].reset();
+            occupied[i].add(occupiedBySlotType[i]);
+            reserved[i].reset();
+        }
+    }
+
+    long occupied(SlotType slotType) {
+        return occupied[slotType.ordinal()].sum();
+    }
+
+    long reserved(SlotType slotType) {
+        return reserved[slotType.ordinal()].sum();
+    }
+
+    long sessions(SlotType slotType) {
+        return sessions[slotType.ordinal()].sum();
+    }
+
+    long departures(SlotType slotType) {
+        return departures[slotType.ordinal()].sum();
+    }
+
+    long revenueCents(SlotType slotType) {
+        return revenueCents[slotType.ordinal()].sum();
+    }
+
+    long rejections(Rejection rejection) {
+        return rejections[rejection.ordinal()].sum();
+    }
+
+    private static LongAdder[] adders() {
+        return adders(SLOT_TYPES.length);
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
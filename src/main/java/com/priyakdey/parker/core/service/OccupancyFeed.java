@@ -0,0 +1,100 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.service;
+
+import com.priyakdey.parker.core.model.OccupancyEvent;
+import com.priyakdey.parker.core.model.SlotType;
+import com.priyakdey.parker.exception.BadInputException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Publishes the occupancy changes of a parking lot to its {@link OccupancySubscription}s.
+ * <p>
+ * Changes are published on the thread making them, so publishing only ever queues, or conflates,
+ * an event per subscriber. With no subscriber, nothing is published at all.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+final class OccupancyFeed {
+
+    /**
+     * Largest queue a subscriber can ask for.
+     */
+    static final int MAX_QUEUE_CAPACITY = 64 * 1024;
+
+    private final List<OccupancySubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Adds a subscriber.
+     *
+     * @param queueCapacity number of events queued for the subscriber before they are conflated
+     * @param onAvailable   run when an event comes in for the subscriber, who had none to take,
+     *                      null to only be woken up in {@link OccupancySubscription#poll(long,
+     *                      java.util.concurrent.TimeUnit)}
+     * @param zones         the zones of the parking lot
+     * @param free          the free count of every zone right now, to start the subscriber off with
+     * @return the subscription.
+     * @throws BadInputException if the queue capacity is out of range.
+     */
+    OccupancySubscription subscribe(int queueCapacity, Runnable onAvailable,
+                                    List<SlotType> zones, long[] free) {
+        if (queueCapacity < 1 || queueCapacity > MAX_QUEUE_CAPACITY) {
+            throw new BadInputException(String.format(
+                "Invalid queue capacity, expecting 1 <= capacity <= %d", MAX_QUEUE_CAPACITY));
+        }
+
+        OccupancySubscription subscription =
+            new OccupancySubscription(this, queueCapacity, onAvailable);
+        for (int i = 0; i < zones.size(); i++) {
+            subscription.start(zones.get(i), free[i]);
+        }
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    void publish(OccupancyEvent.Kind kind, int parkingSpaceId, SlotType slotType, long free) {
+        OccupancyEvent event = new OccupancyEvent(kind, parkingSpaceId, slotType, free);
+        for (OccupancySubscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * Ends every subscription, for a parking lot no change will be made to any more.
+     */
+    void closeAll() {
+        for (OccupancySubscription subscription : subscriptions) {
+            subscription.end();
+        }
+    }
+
+    void remove(OccupancySubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+}
@@ -0,0 +1,392 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.service;
+
+import com.priyakdey.parker.core.model.SlotOccupancy;
+import com.priyakdey.parker.exception.BadInputException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers who held every parking space over time, so the parking lot can be looked at as it was
+ * at any past change, without replaying the journal.
+ * <p>
+ * Every change - a park, a leave or a resize - is numbered with a sequence, in the order it is
+ * made, and the time it happened at is kept in a sequence indexed array. Every parking space keeps
+ * its own list of changes, in sequence order, so who held a space at a given sequence is a binary
+ * search - O(log k) for a space changed k times - and the whole parking lot at a given sequence is
+ * one binary search per space. A point in time is turned into a sequence
+ * with a binary search over the times.
+ * </p>
+ * <p>
+ * At least the latest {@code retention} changes can be looked back at. Once twice as many have
+ * been recorded, the older half is dropped in one go, keeping the last change before the cut-off
+ * for every space still held, so the memory used stays bounded. Dropping takes one pass over the
+ * spaces, once every {@code retention} changes.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public final class OccupancyHistory {
+
+    /**
+     * System property holding the number of changes to retain, the history is disabled when it is
+     * not set.
+     */
+    public static final String RETENTION_PROPERTY = "parker.history.retention";
+
+    private final int retention;
+
+    private final LongSupplier clock;
+
+    /**
+     * Sequence number of the oldest change which can be looked back at.
+     */
+    private long baseSequence = 1;
+
+    /**
+     * Sequence number of the last change recorded, {@code 0} if there is none.
+     */
+    private long lastSequence;
+
+    /**
+     * Time, in epoch milliseconds, of every retained change, sequence {@code s} at {@code s - baseSequence}.
+     */
+    private long[] times = new long[1024];
+
+    // ---- Changes of every parking space, indexed by parking space id ------
+
+    private long[][] sequences = new long[16][];
+
+    /**
+     * Registration number parked by every change, null for a change which vacated the space.
+     */
+    private String[][] occupants = new String[16][];
+
+    private int[] counts = new int[16];
+
+    /**
+     * Initializes an empty history, timed by the system clock.
+     *
+     * @param retention Number of the latest changes which can be looked back at.
+     * @throws BadInputException if the retention is not positive.
+     */
+    public OccupancyHistory(int retention) {
+        this(retention, System::currentTimeMillis);
+    }
+
+    /**
+     * Initializes an empty history, timed by the given clock.
+     *
+     * @param retention Number of the latest changes which can be looked back at.
+     * @param clock     Supplies the current time, in epoch milliseconds.
+     * @throws BadInputException if the retention is not positive.
+     */
+    OccupancyHistory(int retention, LongSupplier clock) {
+        if (retention < 1) {
+            throw new BadInputException("History needs to retain at least one change");
+        }
+        this.retention = retention;
+        this.clock = clock;
+    }
+
+    /**
+     * Creates a history retaining the number of changes set with the {@code parker.history.retention}
+     * system property.
+     *
+     * @return The history wrapped in an {@link Optional}, empty if no retention is set.
+     * @throws BadInputException if the property is malformed.
+     */
+    public static Optional<OccupancyHistory> fromSystemProperties() {
+        String value = System.getProperty(RETENTION_PROPERTY);
+        if (value == null || value.isBlank()) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(new OccupancyHistory(Integer.parseInt(value.trim())));
+        } catch (NumberFormatException ex) {
+            throw new BadInputException(
+                String.format("Invalid `%s`, expecting a number", RETENTION_PROPERTY));
+        }
+    }
+
+    /**
+     * Records a vehicle parked in a parking space.
+     *
+     * @param parkingSpaceId     The id of the parking space.
+     * @param registrationNumber The registration number of the parked vehicle.
+     */
+    public void recordPark(int parkingSpaceId, String registrationNumber) {
+        record(parkingSpaceId, registrationNumber);
+    }
+
+    /**
+     * Records a parking space vacated.
+     *
+     * @param parkingSpaceId The id of the parking space.
+     */
+    public void recordVacate(int parkingSpaceId) {
+        record(parkingSpaceId, null);
+    }
+
+    /**
+     * Records the parking lot resized, which changes no occupant, but is numbered like any other change.
+     */
+    public void recordResize() {
+        nextSequence();
+    }
+
+    /**
+     * Returns the sequence number of the last change recorded.
+     *
+     * @return The last sequence number, {@code 0} if nothing was recorded yet.
+     */
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Returns who held a parking space right after the given change.
+     *
+     * @param parkingSpaceId The id of the parking space.
+     * @param sequence       The sequence number of the change.
+     * @return The registration number wrapped in an {@link Optional}, empty if the space was free.
+     * @throws BadInputException if the change is not retained.
+     */
+    public Optional<String> occupantAt(int parkingSpaceId, long sequence) {
+        checkRetained(sequence);
+        if (parkingSpaceId < 1 || parkingSpaceId >= counts.length) {
+            return Optional.empty();
+        }
+
+        int index = floor(parkingSpaceId, sequence);
+        return index < 0 ? Optional.empty() : Optional.ofNullable(occupants[parkingSpaceId][index]);
+    }
+
+    /**
+     * Returns every occupied parking space right after the given change.
+     *
+     * @param sequence The sequence number of the change.
+     * @return A map of occupied parking space ids to registration numbers, sorted by ids.
+     * @throws BadInputException if the change is not retained.
+     */
+    public TreeMap<Integer, String> statusAt(long sequence) {
+        checkRetained(sequence);
+
+        TreeMap<Integer, String> status = new TreeMap<>();
+        for (int id = 1; id < counts.length; id++) {
+            if (counts[id] == 0) {
+                continue;
+            }
+            int index = floor(id, sequence);
+            if (index >= 0 && occupants[id][index] != null) {
+                status.put(id, occupants[id][index]);
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Returns every vehicle which held a parking space at any change in the given range.
+     *
+     * @param parkingSpaceId The id of the parking space.
+     * @param fromSequence   The sequence number of the first change in the range.
+     * @param toSequence     The sequence number of the last change in the range.
+     * @return The stretches the space was held for, oldest first.
+     * @throws BadInputException if the range is empty, or not retained.
+     */
+    public List<SlotOccupancy> occupancy(int parkingSpaceId, long fromSequence, long toSequence) {
+        if (fromSequence > toSequence) {
+            throw new BadInputException("Invalid range, `from` is after `to`");
+        }
+        checkRetained(fromSequence);
+        checkRetained(toSequence);
+
+        List<SlotOccupancy> stretches = new ArrayList<>();
+        if (parkingSpaceId < 1 || parkingSpaceId >= counts.length) {
+            return stretches;
+        }
+
+        long[] changes = sequences[parkingSpaceId];
+        String[] registrations = occupants[parkingSpaceId];
+        int count = counts[parkingSpaceId];
+        for (int i = Math.max(0, floor(parkingSpaceId, fromSequence)); i < count; i++) {
+            if (changes[i] > toSequence) {
+                break;
+            }
+            if (registrations[i] != null) {
+                long vacatedAt = i + 1 < count ? changes[i + 1] : 0;
+                stretches.add(new SlotOccupancy(registrations[i], changes[i], vacatedAt));
+            }
+        }
+        return stretches;
+    }
+
+    /**
+     * Returns the last change made at or before the given time.
+     *
+     * @param epochMillis The time, in epoch milliseconds.
+     * @return The sequence number of the change.
+     * @throws BadInputException if no retained change was made at or before the time.
+     */
+    public long sequenceAt(long epochMillis) {
+        int low = 0;
+        int high = (int) (lastSequence - baseSequence);
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= epochMillis) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        if (found < 0) {
+            throw new BadInputException("No retained change was made at or before the given time");
+        }
+        return baseSequence + found;
+    }
+
+
+    // ---- Internals ------
+
+    private void record(int parkingSpaceId, String registrationNumber) {
+        long sequence = nextSequence();
+
+        if (parkingSpaceId >= counts.length) {
+            int length = Math.max(counts.length * 2, parkingSpaceId + 1);
+            sequences = Arrays.copyOf(sequences, length);
+            occupants = Arrays.copyOf(occupants, length);
+            counts = Arrays.copyOf(counts, length);
+        }
+
+        int count = counts[parkingSpaceId];
+        if (sequences[parkingSpaceId] == null) {
+            sequences[parkingSpaceId] = new long[4];
+            occupants[parkingSpaceId] = new String[4];
+        } else if (count == sequences[parkingSpaceId].length) {
+            sequences[parkingSpaceId] = Arrays.copyOf(sequences[parkingSpaceId], count * 2);
+            occupants[parkingSpaceId] = Arrays.copyOf(occupants[parkingSpaceId], count * 2);
+        }
+
+        sequences[parkingSpaceId][count] = sequence;
+        occupants[parkingSpaceId][count] = registrationNumber;
+        counts[parkingSpaceId] = count + 1;
+    }
+
+    /**
+     * Numbers the next change and records its time, dropping the older half of the history first
+     * if it holds twice the retention.
+     *
+     * @return The sequence number of the change.
+     */
+    private long nextSequence() {
+        if (lastSequence - baseSequence + 1 >= 2L * retention) {
+            discardBefore(lastSequence - retention + 1);
+        }
+
+        int index = (int) (++lastSequence - baseSequence);
+        if (index == times.length) {
+            times = Arrays.copyOf(times, times.length * 2);
+        }
+        times[index] = clock.getAsLong();
+        return lastSequence;
+    }
+
+    /**
+     * Drops every change before the cut-off, other than the last one of every space still held
+     * at the cut-off.
+     *
+     * @param cutoff The sequence number of the oldest change to be retained.
+     */
+    private void discardBefore(long cutoff) {
+        for (int id = 1; id < counts.length; id++) {
+            int count = counts[id];
+            if (count == 0) {
+                continue;
+            }
+
+            int last = floor(id, cutoff - 1);
+            if (last < 0) {
+                continue;
+            }
+            // the change in effect at the cut-off is kept, unless it left the space free
+            int drop = occupants[id][last] == null ? last + 1 : last;
+            if (drop > 0) {
+                System.arraycopy(sequences[id], drop, sequences[id], 0, count - drop);
+                System.arraycopy(occupants[id], drop, occupants[id], 0, count - drop);
+                Arrays.fill(occupants[id], count - drop, count, null);
+                counts[id] = count - drop;
+            }
+        }
+
+        int dropped = (int) (cutoff - baseSequence);
+        System.arraycopy(times, dropped, times, 0, (int) (lastSequence - cutoff + 1));
+        baseSequence = cutoff;
+    }
+
+    /**
+     * Finds the last change of a parking space at or before the given sequence.
+     *
+     * @param parkingSpaceId The id of the parking space.
+     * @param sequence       The sequence number.
+     * @return The index of the change, -1 if the space has none at or before the sequence.
+     */
+    private int floor(int parkingSpaceId, long sequence) {
+        long[] changes = sequences[parkingSpaceId];
+        int low = 0;
+        int high = counts[parkingSpaceId] - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (changes[mid] <= sequence) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private void checkRetained(long sequence) {
+        if (lastSequence == 0) {
+            throw new BadInputException("No change has been made to the parking lot yet");
+        }
+        if (sequence < baseSequence) {
+            throw new BadInputException(
+                String.format("History before sequence %d is no longer retained", baseSequence));
+        }
+        if (sequence > lastSequence) {
+            throw new BadInputException(
+                String.format("Sequence %d is ahead of the last change %d", sequence, lastSequence));
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.service;
+
+import com.priyakdey.parker.core.model.OccupancyEvent;
+import com.priyakdey.parker.core.model.SlotType;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A subscriber's stream of the occupancy changes of a parking lot.
+ * <p>
+ * The changes are queued up to the capacity the subscription was made with. A subscriber which
+ * falls behind further is not waited for - once its queue is full, the changes after are conflated
+ * into the latest free count of every zone they touched, and handed over as {@link
+ * OccupancyEvent.Kind#FREE} events after the queued ones. Till those are taken, every new change is
+ * conflated as well, so no event ever follows a newer one. The parking lot so spends the same
+ * constant time on a subscriber, however slow it is.
+ * </p>
+ * <p>
+ * A subscription starts with the free count of every zone of the parking lot.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public final class OccupancySubscription implements AutoCloseable {
+
+    private static final SlotType[] SLOT_TYPES = SlotType.values();
+
+    private final OccupancyFeed feed;
+
+    private final Runnable onAvailable;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition available = lock.newCondition();
+
+    /**
+     * Ring of the queued events.
+     */
+    private final OccupancyEvent[] queue;
+
+    private int head;
+
+    private int size;
+
+    /**
+     * Latest free count of every zone with changes conflated, by {@link SlotType#ordinal()}.
+     */
+    private final long[] latestFree = new long[SLOT_TYPES.length];
+
+    private final boolean[] stale = new boolean[SLOT_TYPES.length];
+
+    private int staleCount;
+
+    private long conflated;
+
+    private boolean closed;
+
+    OccupancySubscription(OccupancyFeed feed, int capacity, Runnable onAvailable) {
+        this.feed = feed;
+        this.queue = new OccupancyEvent[capacity];
+        this.onAvailable = onAvailable;
+    }
+
+    /**
+     * Takes the next event, without waiting.
+     *
+     * @return the next event, null if there is none.
+     */
+    public OccupancyEvent poll() {
+        lock.lock();
+        try {
+            return next();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the next event, waiting up to the given time for one.
+     *
+     * @param timeout how long to wait
+     * @param unit    the unit of the timeout
+     * @return the next event, null if none came in time, or the subscription is closed.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public OccupancyEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            OccupancyEvent event;
+            while ((event = next()) == null && !closed && nanos > 0) {
+                nanos = available.awaitNanos(nanos);
+            }
+            return event;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of changes conflated so far, for the subscriber falling behind.
+     *
+     * @return the number of changes not queued.
+     */
+    public long conflated() {
+        lock.lock();
+        try {
+            return conflated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the stream, waking up a subscriber waiting for an event.
+     */
+    @Override
+    public void close() {
+        feed.remove(this);
+        lock.lock();
+        try {
+            closed = true;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    // ---- Publishing, from the parking lot ------
+
+    /**
+     * Stops the stream from the side of the parking lot, letting the subscriber know the way a
+     * change would, so one not waiting in {@link #poll(long, TimeUnit)} finds it closed too.
+     */
+    void end() {
+        close();
+        if (onAvailable != null) {
+            onAvailable.run();
+        }
+    }
+
+    /**
+     * Queues an event, or conflates it if the queue is full or already conflating.
+     */
+    void offer(OccupancyEvent event) {
+        boolean wasEmpty;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+
+            wasEmpty = size == 0 && staleCount == 0;
+            if (staleCount == 0 && size < queue.length) {
+                queue[(head + size++) % queue.length] = event;
+            } else {
+                conflate(event.slotType(), event.free());
+                conflated++;
+            }
+            if (wasEmpty) {
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (wasEmpty && onAvailable != null) {
+            onAvailable.run();
+        }
+    }
+
+    /**
+     * Queues the free count a zone starts with, ahead of any change.
+     */
+    void start(SlotType slotType, long free) {
+        lock.lock();
+        try {
+            if (size < queue.length) {
+                queue[(head + size++) % queue.length] =
+                    new OccupancyEvent(OccupancyEvent.Kind.FREE, 0, slotType, free);
+            } else {
+                conflate(slotType, free);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    // ---- Internals ------
+
+    private void conflate(SlotType slotType, long free) {
+        int zone = slotType.ordinal();
+        if (!stale[zone]) {
+            stale[zone] = true;
+            staleCount++;
+        }
+        latestFree[zone] = free;
+    }
+
+    private OccupancyEvent next() {
+        if (size > 0) {
+            OccupancyEvent event = queue[head];
+            queue[head] = null;
+            head = (head + 1) % queue.length;
+            size--;
+            return event;
+        }
+
+        if (staleCount > 0) {
+            for (int zone = 0; zone < stale.length; zone++) {
+                if (stale[zone]) {
+                    stale[zone] = false;
+                    staleCount--;
+                    return new OccupancyEvent(OccupancyEvent.Kind.FREE, 0, SLOT_TYPES[zone],
+                        latestFree[zone]);
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -22,13 +22,25 @@
 
 package com.priyakdey.parker.core.service;
 
+import com.priyakdey.parker.core.journal.LotSnapshot;
 import com.priyakdey.parker.core.model.ParkingSpace;
+import com.priyakdey.parker.core.model.SlotSection;
+import com.priyakdey.parker.core.model.SlotType;
+import com.priyakdey.parker.core.model.Vehicle;
+import com.priyakdey.parker.core.model.VehicleType;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.exception.HeapOperationException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * Represents a parking lot with a specified capacity.
@@ -42,10 +54,16 @@
  * This ensures efficient space utilization and minimizes the distance drivers need to travel
  * within the lot.
  * </p>
+ * <p>
+ * The lot is laid out as a list of {@link SlotSection}s. Every {@link SlotType} present in the
+ * layout gets its own independent pool of free spaces, so allocating a space for a vehicle only
+ * ever looks at the pools of the slot classes it is compatible with, never at individual spaces.
+ * </p>
  *
  * <p>
  * Typical usage involves initializing the parking lot with a specific capacity using the
- * {@link #withCapacity(int)} method.
+ * {@link #withCapacity(int)} method, or with a mixed layout using {@link #withLayout(List, FallbackPolicy)}.
+ * The lot can later be grown or shrunk in place with {@link #resize(int)}.
  * </p>
  *
  * @author Priyak Dey
@@ -59,40 +77,123 @@ public final class ParkingLot {
     private final List<ParkingSpace> parkingSpaces;
 
     /**
-     * A priority-based data structure to manage available parking spaces.
+     * Priority-based data structures to manage available parking spaces, one per slot class.
      * This ensures that spaces are allocated in an optimal manner.
      */
-    private final ParkingSpaceIdMinHeap availableParkingSpace;
+    private final Map<SlotType, ParkingSpaceIdMinHeap> availableParkingSpaces;
+
+    /**
+     * The slot classes of the layout, a read-only view made once.
+     */
+    private final Set<SlotType> slotTypes;
+
+    /**
+     * Decides if vehicles may be parked outside their preferred slot class.
+     */
+    private final FallbackPolicy fallbackPolicy;
+
+    /**
+     * Every section but the last one, which never change size.
+     */
+    private final List<SlotSection> leadingSections;
+
+    /**
+     * Slot class of the last section, the one farthest from the entry.
+     * Resizing the parking lot adds or retires spaces in this section only.
+     */
+    private final SlotType trailingSlotType;
+
+    /**
+     * Smallest parking space id of the last section.
+     */
+    private final int trailingLowerBound;
 
     /**
      * The maximum number of vehicles the parking lot can accommodate.
      */
-    private final int capacity;
+    private int capacity;
 
     /**
-     * Private constructor to initialize the parking lot with a specific capacity.
+     * Private constructor to initialize the parking lot with a specific layout.
      *
      * <p>
      * This initializes all parking spaces and sets up internal structures to manage and allocate spaces.
      * </p>
      *
-     * @param capacity The maximum number of parking spaces in the parking lot.
+     * @param sections       The sections of the parking lot, nearest to the entry first.
+     * @param fallbackPolicy The policy deciding if vehicles may take a non-preferred slot class.
      */
-    private ParkingLot(int capacity) {
-        this.capacity = capacity;
-        this.parkingSpaces =
-            IntStream.rangeClosed(1, capacity).mapToObj(ParkingSpace::new).toList();
-        this.availableParkingSpace = new ParkingSpaceIdMinHeap(capacity);
+    private ParkingLot(List<SlotSection> sections, FallbackPolicy fallbackPolicy) {
+        int totalCapacity = 0;
+        for (SlotSection section : sections) {
+            totalCapacity += section.size();
+        }
+
+        this.capacity = totalCapacity;
+        this.fallbackPolicy = fallbackPolicy;
+        this.parkingSpaces = new ArrayList<>(totalCapacity);
+        this.availableParkingSpaces = new EnumMap<>(SlotType.class);
+
+        int lowerBound = 1;
+        for (SlotSection section : sections) {
+            lowerBound = parkingSpaces.size() + 1;
+            int upperBound = parkingSpaces.size() + section.size();
+            for (int id = lowerBound; id <= upperBound; id++) {
+                parkingSpaces.add(new ParkingSpace(id, section.slotType()));
+            }
+            availableParkingSpaces.put(section.slotType(),
+                new ParkingSpaceIdMinHeap(lowerBound, upperBound));
+        }
+
+        this.slotTypes = Collections.unmodifiableSet(availableParkingSpaces.keySet());
+        this.leadingSections = List.copyOf(sections.subList(0, sections.size() - 1));
+        this.trailingSlotType = sections.getLast().slotType();
+        this.trailingLowerBound = lowerBound;
     }
 
     /**
      * Factory method to create a new parking lot instance with the specified capacity.
+     * All parking spaces are {@link SlotType#STANDARD}.
      *
      * @param capacity The maximum number of parking spaces in the parking lot.
      * @return A newly initialized {@code ParkingLot} instance.
      */
     public static ParkingLot withCapacity(int capacity) {
-        return new ParkingLot(capacity);
+        return new ParkingLot(List.of(new SlotSection(SlotType.STANDARD, capacity)),
+            FallbackPolicy.ALLOW_FALLBACK);
+    }
+
+    /**
+     * Factory method to create a new parking lot instance with the specified layout.
+     * <p>
+     * Each slot class can appear in at most one section, and every section must hold at least
+     * one parking space. An empty layout makes a parking lot with no parking space, the way
+     * {@code withCapacity(0)} does, full for every vehicle.
+     * </p>
+     *
+     * @param sections       The sections of the parking lot, nearest to the entry first.
+     * @param fallbackPolicy The policy deciding if vehicles may take a non-preferred slot class.
+     * @return A newly initialized {@code ParkingLot} instance.
+     * @throws BadInputException if the layout has an empty section or a repeated slot class.
+     */
+    public static ParkingLot withLayout(List<SlotSection> sections, FallbackPolicy fallbackPolicy) {
+        if (sections.isEmpty()) {
+            return new ParkingLot(List.of(new SlotSection(SlotType.STANDARD, 0)), fallbackPolicy);
+        }
+
+        Set<SlotType> seen = EnumSet.noneOf(SlotType.class);
+        for (SlotSection section : sections) {
+            if (section.size() < 1) {
+                throw new BadInputException(
+                    String.format("Section `%s` needs at least one slot", section.slotType().getCode()));
+            }
+            if (!seen.add(section.slotType())) {
+                throw new BadInputException(
+                    String.format("Slot class `%s` is repeated", section.slotType().getCode()));
+            }
+        }
+
+        return new ParkingLot(sections, fallbackPolicy);
     }
 
     /**
@@ -101,34 +202,85 @@ public static ParkingLot withCapacity(int capacity) {
      * @return {@code true} if there's at least one empty parking space available; {@code false} otherwise.
      */
     boolean hasEmptySpace() {
-        return !this.availableParkingSpace.isEmpty();
+        for (ParkingSpaceIdMinHeap heap : availableParkingSpaces.values()) {
+            if (!heap.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
-     * Reserves a parking space in the parking lot.
+     * Returns the number of free parking space ids in the pool of a slot class.
+     *
+     * @param slotType The slot class.
+     * @return The size of the pool, {@code 0} if the parking lot has no such slot class.
+     */
+    int poolSize(SlotType slotType) {
+        ParkingSpaceIdMinHeap heap = availableParkingSpaces.get(slotType);
+        return heap == null ? 0 : heap.size();
+    }
+
+    /**
+     * Reserves a parking space in the parking lot for a vehicle of the given class.
      * <p>
-     * This method attempts to book the nearest available parking space. If the parking lot is full,
-     * no space is allocated.
+     * This method attempts to book the nearest available parking space of the vehicle's preferred
+     * slot class, and if the {@link FallbackPolicy} allows it, falls back to the compatible slot
+     * classes in their order of preference. If none of them has a free space, no space is allocated.
      * </p>
      *
+     * @param vehicleType The class of the vehicle to be parked.
      * @return An {@code Optional} containing the booked {@link ParkingSpace} if one is available;
-     * an empty {@code Optional} if the parking lot is full.
+     * an empty {@code Optional} if the parking lot is full for this vehicle class.
      */
-    Optional<ParkingSpace> bookParkingSpace() {
-        if (hasEmptySpace()) {
-            int id = availableParkingSpace.poll();
-            ParkingSpace allottedSpace = parkingSpaces.get(id - 1);
-            return Optional.of(allottedSpace);
+    Optional<ParkingSpace> bookParkingSpace(VehicleType vehicleType) {
+        return Optional.ofNullable(takeParkingSpace(vehicleType));
+    }
+
+    /**
+     * Books the nearest available parking space for a vehicle of the given class, the way
+     * {@link #bookParkingSpace(VehicleType)} does, without wrapping it.
+     *
+     * @param vehicleType The class of the vehicle to be parked.
+     * @return The booked {@link ParkingSpace}, null if the parking lot is full for this vehicle class.
+     */
+    ParkingSpace takeParkingSpace(VehicleType vehicleType) {
+        int candidates = fallbackPolicy.candidateCount(vehicleType);
+        for (int rank = 0; rank < candidates; rank++) {
+            ParkingSpaceIdMinHeap heap =
+                availableParkingSpaces.get(vehicleType.getCompatibleSlotType(rank));
+            if (heap != null && !heap.isEmpty()) {
+                int id = heap.poll();
+                return parkingSpaces.get(id - 1);
+            }
         }
 
-        return Optional.empty();
+        return null;
+    }
+
+    /**
+     * Parks a vehicle in the given free parking space, taking the space out of its pool in O(log n).
+     * <p>
+     * Used to rebuild the parking lot, where the space a vehicle was parked in is already known.
+     * </p>
+     *
+     * @param id      The parking space id, in the range of [1, capacity].
+     * @param vehicle The vehicle to be parked.
+     * @throws BadInputException      if no such parking space exists.
+     * @throws HeapOperationException if the parking space is not free.
+     */
+    void occupyParkingSpace(int id, Vehicle vehicle) {
+        ParkingSpace parkingSpace = getParkingSpace(id);
+        availableParkingSpaces.get(parkingSpace.getSlotType()).remove(id);
+        parkingSpace.setParkedVehicle(vehicle);
+        vehicle.setParkedAt(parkingSpace);
     }
 
     /**
      * Releases a previously booked parking space, making it available for future bookings.
      * <p>
-     * This method marks the given parking space as vacant and updates the internal data structures
-     * to reflect the change.
+     * This method marks the given parking space as vacant and returns it to the pool of its
+     * slot class.
      * </p>
      *
      * @param parkingSpace The parking space that needs to be vacated.
@@ -136,7 +288,220 @@ Optional<ParkingSpace> bookParkingSpace() {
     void vacateParkingSpace(ParkingSpace parkingSpace) {
         int id = parkingSpace.getId();
         parkingSpace.setParkedVehicle(null);
-        availableParkingSpace.push(id);
+        availableParkingSpaces.get(parkingSpace.getSlotType()).push(id);
+    }
+
+    /**
+     * Returns a batch of booked, but vacant, parking spaces to their pools in one go.
+     * <p>
+     * Spaces are grouped by slot class, and every pool takes its group as a single bulk insert,
+     * rather than one push per space.
+     * </p>
+     *
+     * @param ids   array holding the ids of the parking spaces to be released
+     * @param count number of ids, from the start of the array, to be released
+     */
+    void releaseParkingSpaces(int[] ids, int count) {
+        int[] group = new int[count];
+        for (Map.Entry<SlotType, ParkingSpaceIdMinHeap> entry : availableParkingSpaces.entrySet()) {
+            int groupSize = 0;
+            for (int i = 0; i < count; i++) {
+                if (parkingSpaces.get(ids[i] - 1).getSlotType() == entry.getKey()) {
+                    group[groupSize++] = ids[i];
+                }
+            }
+            if (groupSize > 0) {
+                entry.getValue().pushAll(group, groupSize);
+            }
+        }
+    }
+
+    /**
+     * Returns the parking space by the id.
+     *
+     * @param id The parking space id, in the range of [1, capacity].
+     * @return The parking space.
+     * @throws BadInputException if no such parking space exists.
+     */
+    ParkingSpace getParkingSpace(int id) {
+        if (id < 1 || id > capacity) {
+            throw new BadInputException(String.format("No parking space with id %d", id));
+        }
+        return parkingSpaces.get(id - 1);
+    }
+
+    /**
+     * Resizes the parking lot in place, by adding or retiring spaces at the end of the last section.
+     * <p>
+     * Growing appends new free spaces, in amortized O(added). Shrinking retires the highest
+     * spaces, in O(retired * log n), and is rejected without any change if any of those spaces is
+     * occupied or reserved, or if it would remove the last section altogether. Occupied spaces are never
+     * copied or moved.
+     * </p>
+     *
+     * @param newCapacity The new maximum number of parking spaces in the parking lot.
+     * @throws BadInputException if the parking lot cannot be shrunk to the new capacity.
+     */
+    void resize(int newCapacity) {
+        if (newCapacity < trailingLowerBound) {
+            throw new BadInputException(
+                String.format("Cannot shrink below %d slots, `%s` section would be removed",
+                    trailingLowerBound, trailingSlotType.getCode()));
+        }
+
+        ParkingSpaceIdMinHeap heap = availableParkingSpaces.get(trailingSlotType);
+
+        if (newCapacity > capacity) {
+            for (int id = capacity + 1; id <= newCapacity; id++) {
+                parkingSpaces.add(new ParkingSpace(id, trailingSlotType));
+            }
+            heap.grow(newCapacity);
+        } else if (newCapacity < capacity) {
+            for (int id = capacity; id > newCapacity; id--) {
+                ParkingSpace parkingSpace = parkingSpaces.get(id - 1);
+                if (parkingSpace.isOccupied()) {
+                    throw new BadInputException(String.format("Slot %d is occupied", id));
+                }
+                if (parkingSpace.isReserved()) {
+                    throw new BadInputException(String.format("Slot %d is reserved", id));
+                }
+            }
+            heap.shrink(newCapacity);
+            parkingSpaces.subList(newCapacity, capacity).clear();
+        }
+
+        capacity = newCapacity;
+    }
+
+    /**
+     * Takes a consistent image of the parking lot, in a single O(n) pass.
+     * <p>
+     * The image is a copy, which shares nothing mutable with the parking lot, so it can be written out
+     * on another thread while the parking lot keeps changing.
+     * </p>
+     *
+     * @return the image of the parking lot.
+     */
+    @SuppressWarnings("OptionalGetWithoutIsPresent")
+    LotSnapshot snapshot() {
+        int occupiedCount = 0;
+        for (ParkingSpace parkingSpace : parkingSpaces) {
+            if (parkingSpace.isOccupied()) {
+                occupiedCount++;
+            }
+        }
+
+        int[] parkingSpaceIds = new int[occupiedCount];
+        VehicleType[] vehicleTypes = new VehicleType[occupiedCount];
+        String[] registrationNumbers = new String[occupiedCount];
+        String[] colours = new String[occupiedCount];
+        int i = 0;
+        for (ParkingSpace parkingSpace : parkingSpaces) {
+            if (parkingSpace.isOccupied()) {
+                // get() without a null check is okay here, since the space is occupied
+                Vehicle vehicle = parkingSpace.getParkedVehicle().get();
+                parkingSpaceIds[i] = parkingSpace.getId();
+                vehicleTypes[i] = vehicle.getVehicleType();
+                registrationNumbers[i] = vehicle.getRegistrationNumber();
+                colours[i] = vehicle.getColour().orElse(null);
+                i++;
+            }
+        }
+
+        List<SlotSection> sections = new ArrayList<>(leadingSections);
+        sections.add(new SlotSection(trailingSlotType, capacity - trailingLowerBound + 1));
+        return new LotSnapshot(sections, occupiedCount, parkingSpaceIds, vehicleTypes,
+            registrationNumbers, colours);
+    }
+
+    /**
+     * Brings an empty parking lot to the state held by the image, in O(n).
+     * <p>
+     * Vehicles are put back in their parking spaces by id, and every pool is rebuilt in one pass,
+     * rather than taking the occupied spaces out one at a time.
+     * </p>
+     *
+     * @param snapshot The image of a parking lot laid out the same way.
+     * @throws BadInputException if the image does not match the layout of the parking lot.
+     */
+    void restore(LotSnapshot snapshot) {
+        List<SlotSection> sections = snapshot.sections();
+        if (!sections.subList(0, sections.size() - 1).equals(leadingSections)
+            || sections.getLast().slotType() != trailingSlotType) {
+            throw new BadInputException("Snapshot does not match the layout of the parking lot");
+        }
+
+        resize(snapshot.capacity());
+
+        for (int i = 0; i < snapshot.occupiedCount(); i++) {
+            ParkingSpace parkingSpace = getParkingSpace(snapshot.parkingSpaceIds()[i]);
+            Vehicle vehicle = new Vehicle(snapshot.registrationNumbers()[i],
+                snapshot.vehicleTypes()[i], snapshot.colours()[i]);
+            parkingSpace.setParkedVehicle(vehicle);
+            vehicle.setParkedAt(parkingSpace);
+        }
+
+        for (ParkingSpaceIdMinHeap heap : availableParkingSpaces.values()) {
+            heap.resetTo(id -> !parkingSpaces.get(id - 1).isOccupied());
+        }
+    }
+
+    /**
+     * Returns the policy deciding if vehicles may be parked outside their preferred slot class.
+     *
+     * @return the fallback policy of the parking lot.
+     */
+    FallbackPolicy getFallbackPolicy() {
+        return fallbackPolicy;
+    }
+
+    /**
+     * Returns the maximum number of vehicles the parking lot can accommodate.
+     *
+     * @return The number of parking spaces.
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of parking spaces of a slot class, out of the sections laid out, without
+     * looking at the parking spaces.
+     *
+     * @param slotType The slot class.
+     * @return The number of parking spaces of the slot class.
+     */
+    int getCapacity(SlotType slotType) {
+        int capacity = 0;
+        for (SlotSection section : leadingSections) {
+            if (section.slotType() == slotType) {
+                capacity += section.size();
+            }
+        }
+        if (trailingSlotType == slotType) {
+            capacity += this.capacity - trailingLowerBound + 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Returns the slot classes this parking lot has been laid out with.
+     *
+     * @return An unmodifiable set of slot classes present in the parking lot.
+     */
+    Set<SlotType> getSlotTypes() {
+        return slotTypes;
+    }
+
+    /**
+     * Returns the slot class of the parking space by the id.
+     *
+     * @param id The parking space id, in the range of [1, capacity].
+     * @return The slot class of the parking space.
+     * @throws BadInputException if no such parking space exists.
+     */
+    SlotType getSlotType(int id) {
+        return getParkingSpace(id).getSlotType();
     }
 
     /**
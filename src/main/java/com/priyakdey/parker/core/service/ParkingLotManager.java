@@ -22,11 +22,24 @@
 
 package com.priyakdey.parker.core.service;
 
+import com.priyakdey.parker.core.journal.JournalRecordHandler;
+import com.priyakdey.parker.core.model.LotStats;
 import com.priyakdey.parker.core.model.ParkingSpace;
+import com.priyakdey.parker.core.model.Rejection;
+import com.priyakdey.parker.core.model.SlotOccupancy;
+import com.priyakdey.parker.core.model.SlotType;
 import com.priyakdey.parker.core.model.Vehicle;
+import com.priyakdey.parker.core.model.VehicleType;
+import com.priyakdey.parker.core.model.WaitlistPriority;
 import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.exception.ReadOnlyStandbyException;
+import com.priyakdey.parker.exception.VehicleAlreadyParkedException;
+import com.priyakdey.parker.exception.VehicleNotParkedException;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Manages parking operations for vehicles, offering functionality to park vehicles
@@ -40,17 +53,30 @@ public interface ParkingLotManager {
     /**
      * Attempts to park a vehicle in the parking lot.
      * <p>
-     * If the parking lot has available spaces, the vehicle will be parked and
-     * this method will return an Optional containing the parking space id
+     * If the parking lot has available spaces compatible with the vehicle's class, the vehicle
+     * will be parked and this method will return an Optional containing the parking space id
      * where the vehicle was parked. If the parking lot is full, the vehicle
      * will not be parked, and this method will return an empty Optional.
      * </p>
      *
      * @param vehicle The vehicle to be parked.
      * @return An Optional containing the assigned parking space id if the vehicle was successfully parked, or an empty Optional otherwise.
+     * @throws VehicleAlreadyParkedException if the registration number is parked already.
      */
     Optional<Integer> parkVehicle(Vehicle vehicle);
 
+    /**
+     * Parks a vehicle in the nearest parking space compatible with its class, without allocating
+     * once every parking space has held a vehicle before.
+     *
+     * @param registrationNumber The registration number of the vehicle.
+     * @param vehicleType        The class of the vehicle.
+     * @param colour             The colour of the vehicle, null if not known.
+     * @return The id of the parking space the vehicle was parked in, {@code 0} if the parking lot is full.
+     * @throws VehicleAlreadyParkedException if the registration number is parked already.
+     */
+    int parkVehicle(String registrationNumber, VehicleType vehicleType, String colour);
+
 
     /**
      * Vacates a given parking space, freeing it up for other vehicles.
@@ -58,12 +84,38 @@ public interface ParkingLotManager {
      * If there is a vehicle currently parked in the space, the vehicle will
      * be removed from the space. The space itself will be marked as vacant.
      * </p>
+     * <p>
+     * When the waitlist is enabled, and a waitlisted vehicle fits the freed space, the space is
+     * handed over to that vehicle directly, instead of going back to the free pool.
+     * </p>
      *
      * @param registrationNumber The registration number of the car which is leaving.
      * @return The parking spot at which vehicle was parked.
-     * @throws BadInputException if no such registration number is found in the parking lot.
+     * @throws VehicleNotParkedException if no such registration number is found in the parking lot.
+     * @throws ReadOnlyStandbyException  if the parking lot is a read-only standby.
+     */
+    int vacateParkingSpace(String registrationNumber);
+
+    /**
+     * Adds a vehicle turned away by the full parking lot to the waitlist.
+     * <p>
+     * The vehicle is parked in the first compatible space freed, either by a leaving vehicle or
+     * an expired reservation, once every vehicle ahead of it has been served.
+     * </p>
+     *
+     * @param vehicle  The vehicle to be waitlisted.
+     * @param priority The priority class the vehicle waits in.
+     * @return The position of the vehicle on the waitlist.
+     * @throws BadInputException if the waitlist is disabled or the vehicle is already waitlisted.
+     */
+    int waitlistVehicle(Vehicle vehicle, WaitlistPriority priority);
+
+    /**
+     * Returns if vehicles turned away by the full parking lot can be waitlisted.
+     *
+     * @return true if the waitlist is enabled, false otherwise.
      */
-    String vacateParkingSpace(String registrationNumber);
+    boolean isWaitlistEnabled();
 
 
     /**
@@ -76,4 +128,240 @@ public interface ParkingLotManager {
      * @return A Map of id of occupied {@link ParkingSpace} and parked {@link Vehicle} registtration number, sorted by ids.
      */
     TreeMap<Integer, String> status();
+
+    /**
+     * Hands every occupied parking space, and the registration number parked in it, to a visitor,
+     * in the order of their ids.
+     *
+     * @param visitor The visitor to hand the occupied parking spaces to.
+     */
+    void forEachOccupied(OccupantVisitor visitor);
+
+    /**
+     * Holds the nearest parking space compatible with the vehicle's class, for the given number of ticks.
+     * <p>
+     * The space is taken out of the parking lot's free pools till the vehicle claims it with
+     * {@link #claimReservation(String)}, or the reservation expires as the clock advances.
+     * </p>
+     *
+     * @param vehicle  The vehicle to hold the space for.
+     * @param ttlTicks Number of ticks, from now, the space is held for.
+     * @return An Optional containing the held parking space id, or an empty Optional if the parking lot is full.
+     * @throws BadInputException if the ttl is not positive or the vehicle already holds a reservation.
+     */
+    Optional<Integer> reserveParkingSpace(Vehicle vehicle, int ttlTicks);
+
+    /**
+     * Parks the vehicle holding a reservation in its held parking space.
+     *
+     * @param registrationNumber The registration number of the arriving vehicle.
+     * @return The parking space id the vehicle is now parked in.
+     * @throws BadInputException if the vehicle holds no reservation.
+     * @throws VehicleAlreadyParkedException if the registration number is parked already.
+     */
+    int claimReservation(String registrationNumber);
+
+    /**
+     * Advances the reservation clock, releasing every expired reservation back to the parking lot,
+     * or handing it over to the waitlist.
+     *
+     * @param ticks Number of ticks to advance the clock by.
+     * @return Number of reservations expired.
+     */
+    int advanceClock(int ticks);
+
+    /**
+     * Returns the current tick of the reservation clock.
+     *
+     * @return the current tick.
+     */
+    long currentTick();
+
+    /**
+     * Resizes the parking lot in place, without rebuilding it or touching parked vehicles.
+     * <p>
+     * Spaces are added to, or retired from, the end of the section farthest from the entry.
+     * A shrink is rejected if any of the spaces to be retired is in use.
+     * </p>
+     *
+     * @param capacity The new maximum number of parking spaces.
+     * @throws BadInputException if the parking lot cannot be shrunk to the new capacity.
+     */
+    void resize(int capacity);
+
+    /**
+     * Rebuilds the parking lot from its journal, by loading the latest snapshot and replaying every
+     * change journaled after it, in order.
+     *
+     * @return The number of journal records replayed.
+     * @throws BadInputException if the journal does not match the layout of the parking lot.
+     */
+    long recover();
+
+    /**
+     * Returns the parking lot as it was right after the given change.
+     *
+     * @param sequence The sequence number of the change.
+     * @return A Map of id of occupied parking spaces and parked vehicle registration numbers, sorted by ids.
+     * @throws BadInputException if the history is disabled, or does not retain the change.
+     */
+    TreeMap<Integer, String> status(long sequence);
+
+    /**
+     * Returns every vehicle which held a parking space at any change in the given range.
+     *
+     * @param parkingSpaceId The parking space id.
+     * @param fromSequence   The sequence number of the first change in the range.
+     * @param toSequence     The sequence number of the last change in the range.
+     * @return The stretches the parking space was held for, oldest first.
+     * @throws BadInputException if the history is disabled, or does not retain the range.
+     */
+    List<SlotOccupancy> occupancy(int parkingSpaceId, long fromSequence, long toSequence);
+
+    /**
+     * Returns the last change made at or before the given time.
+     *
+     * @param epochMillis The time, in epoch milliseconds.
+     * @return The sequence number of the change.
+     * @throws BadInputException if the history is disabled, or retains no change made by then.
+     */
+    long sequenceAt(long epochMillis);
+
+    /**
+     * Returns the sequence number of the last change made to the parking lot.
+     *
+     * @return The last sequence number, {@code 0} if no change was made yet.
+     * @throws BadInputException if the history is disabled.
+     */
+    long lastSequence();
+
+    /**
+     * Counts the free parking spaces in a range of ids, neither occupied nor held.
+     *
+     * @param fromId The first parking space id of the range.
+     * @param toId   The last parking space id of the range.
+     * @return The number of free parking spaces in the range.
+     * @throws BadInputException if the range is not within the parking lot.
+     */
+    int countFree(int fromId, int toId);
+
+    /**
+     * Returns the occupied parking spaces in a range of ids.
+     *
+     * @param fromId The first parking space id of the range.
+     * @param toId   The last parking space id of the range.
+     * @return A Map of occupied parking space ids in the range to registration numbers, sorted by ids.
+     * @throws BadInputException if the range is not within the parking lot.
+     */
+    TreeMap<Integer, String> status(int fromId, int toId);
+
+    /**
+     * Returns the parking spaces holding vehicles of a colour.
+     *
+     * @param colour The colour, matched ignoring case.
+     * @return The parking space ids, in ascending order.
+     */
+    List<Integer> slotsForColour(String colour);
+
+    /**
+     * Returns the registration numbers of the vehicles of a colour.
+     *
+     * @param colour The colour, matched ignoring case.
+     * @return The registration numbers, in the order of the parking spaces they are parked in.
+     */
+    List<String> registrationsForColour(String colour);
+
+    /**
+     * Returns the parking spaces holding vehicles whose registration number starts with a prefix.
+     *
+     * @param prefix The registration number prefix.
+     * @return The parking space ids, in ascending order.
+     */
+    List<Integer> slotsForPrefix(String prefix);
+
+    /**
+     * Adds the charge of a vehicle which left to the revenue of its parking space's slot class.
+     *
+     * @param parkingSpaceId The id of the parking space the vehicle left.
+     * @param chargeCents    The charge of the stay, in cents.
+     */
+    void recordCharge(int parkingSpaceId, long chargeCents);
+
+    /**
+     * Returns the stats of the parking lot, by slot class, without scanning the parking spaces.
+     *
+     * @return The stats of the parking lot.
+     */
+    LotStats stats();
+
+    /**
+     * Returns the number of requests the parking lot refused so far, for the given reason.
+     *
+     * @param rejection The reason of the refusals.
+     * @return The number of refusals.
+     */
+    long rejections(Rejection rejection);
+
+    /**
+     * Returns the number of free parking space ids in the pool of a slot class, to be allotted.
+     *
+     * @param slotType The slot class.
+     * @return The size of the pool, {@code 0} if the parking lot has no such slot class.
+     */
+    int allocatorDepth(SlotType slotType);
+
+    /**
+     * Subscribes to the occupancy changes of the parking lot, starting with the free count of every
+     * zone.
+     *
+     * @param queueCapacity Number of changes queued for the subscriber before they are conflated.
+     * @param onAvailable   Run when a change comes in for the subscriber, who had none to take, null
+     *                      for none.
+     * @return The subscription, to be closed once done with.
+     */
+    OccupancySubscription subscribe(int queueCapacity, Runnable onAvailable);
+
+    /**
+     * Ends every occupancy subscription, waking each subscriber up to find its stream closed.
+     */
+    void closeSubscriptions();
+
+    /**
+     * Returns a handler applying the records shipped by a leader to the parking lot, journaling
+     * each of them as well.
+     *
+     * @return The handler applying shipped records.
+     */
+    JournalRecordHandler replicaApplier();
+
+    /**
+     * Marks the parking lot as a read-only standby, or lifts it.
+     *
+     * @param readOnly If every change, other than the records applied from a leader, is to be rejected.
+     */
+    void setReadOnly(boolean readOnly);
+
+    /**
+     * Takes a snapshot of the parking lot, which is written to the journal in the background.
+     *
+     * @return A future completed once the snapshot is durable.
+     * @throws BadInputException if the parking lot is not journaled.
+     */
+    CompletableFuture<Void> snapshot();
+
+    /**
+     * Returns the slot classes the parking lot has been laid out with.
+     *
+     * @return A set of slot classes present in the parking lot.
+     */
+    Set<SlotType> slotTypes();
+
+    /**
+     * Returns the slot class of the parking space by the id.
+     *
+     * @param parkingSpaceId The parking space id.
+     * @return The slot class of the parking space.
+     * @throws BadInputException if no such parking space exists.
+     */
+    SlotType slotTypeOf(int parkingSpaceId);
 }
@@ -22,11 +22,34 @@
 
 package com.priyakdey.parker.core.service;
 
+import com.priyakdey.parker.core.event.ParkingEventListener;
+import com.priyakdey.parker.core.jfr.Events;
+import com.priyakdey.parker.core.jfr.LeaveEvent;
+import com.priyakdey.parker.core.jfr.ParkEvent;
+import com.priyakdey.parker.core.jfr.StatusEvent;
+import com.priyakdey.parker.core.journal.Journal;
+import com.priyakdey.parker.core.journal.JournalRecordHandler;
+import com.priyakdey.parker.core.journal.LotSnapshot;
+import com.priyakdey.parker.core.model.LotStats;
+import com.priyakdey.parker.core.model.OccupancyEvent;
 import com.priyakdey.parker.core.model.ParkingSpace;
+import com.priyakdey.parker.core.model.Rejection;
+import com.priyakdey.parker.core.model.SlotOccupancy;
+import com.priyakdey.parker.core.model.SlotType;
 import com.priyakdey.parker.core.model.Vehicle;
+import com.priyakdey.parker.core.model.VehicleType;
+import com.priyakdey.parker.core.model.WaitlistPriority;
+import com.priyakdey.parker.core.model.ZoneStats;
 import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.exception.ReadOnlyStandbyException;
+import com.priyakdey.parker.exception.VehicleAlreadyParkedException;
+import com.priyakdey.parker.exception.VehicleNotParkedException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Concrete implementation of {@link ParkingLotManager}.
@@ -35,73 +58,263 @@
  * and vacate parking spaces. It acts as an interface between higher-level operations
  * and the parking lot's data structures.
  * </p>
+ * <p>
+ * Parking, leaving and listing the status are recorded as Flight Recorder events, with how full
+ * the lot is, see {@link com.priyakdey.parker.core.jfr}.
+ * </p>
  *
  * @author Priyak Dey
  */
 public class ParkingLotManagerImpl implements ParkingLotManager {
     private final ParkingLot parkingLot;
 
+    private final SlotReservations reservations;
+
     /**
-     * Initializes a new instance of the ParkingManager with a given parking lot.
+     * Vehicles waiting for a space to be freed, null if the waitlist is disabled.
+     */
+    private final ParkingWaitlist waitlist;
+
+    private final ParkingEventListener eventListener;
+
+    /**
+     * Journal every successful change to the parking lot is appended to.
+     */
+    private final Journal journal;
+
+    /**
+     * Who held every parking space over time, null if the history is disabled.
+     */
+    private final OccupancyHistory history;
+
+    /**
+     * Running counters of the parking lot, updated with every change made to it.
+     */
+    private final LotCounters counters = new LotCounters();
+
+    /**
+     * Counts of occupied, and of held, parking spaces by id, to count the free spaces of any range
+     * in O(log n).
+     */
+    private final FenwickTree occupiedIndex;
+
+    private final FenwickTree heldIndex;
+
+    /**
+     * The occupied parking spaces by id, to list any range of spaces in O(log n) plus the spaces
+     * listed, never looking at the free spaces in between.
+     */
+    private final HierarchicalBitSet occupiedSpaces;
+
+    private final VehicleIndex vehicleIndex = new VehicleIndex();
+
+    private final OccupancyFeed feed = new OccupancyFeed();
+
+    /**
+     * Set while the parking lot is a standby, changed only by the records shipped to it.
+     */
+    private volatile boolean readOnly;
+
+    /**
+     * Initializes a new instance of the ParkingManager with a given parking lot, without a waitlist.
      *
      * @param parkingLot The parking lot this manager will manage.
      */
     public ParkingLotManagerImpl(ParkingLot parkingLot) {
+        this(parkingLot, false, ParkingEventListener.NOOP);
+    }
+
+    /**
+     * Initializes a new instance of the ParkingManager with a given parking lot.
+     *
+     * @param parkingLot      The parking lot this manager will manage.
+     * @param waitlistEnabled If vehicles turned away by the full parking lot can be waitlisted.
+     * @param eventListener   The listener notified of the events raised by the parking lot.
+     */
+    public ParkingLotManagerImpl(ParkingLot parkingLot, boolean waitlistEnabled,
+                                 ParkingEventListener eventListener) {
+        this(parkingLot, waitlistEnabled, eventListener, Journal.NOOP);
+    }
+
+    /**
+     * Initializes a new instance of the ParkingManager with a given parking lot, journaling every
+     * change made to it.
+     *
+     * @param parkingLot      The parking lot this manager will manage.
+     * @param waitlistEnabled If vehicles turned away by the full parking lot can be waitlisted.
+     * @param eventListener   The listener notified of the events raised by the parking lot.
+     * @param journal         The journal every change to the parking lot is appended to.
+     */
+    public ParkingLotManagerImpl(ParkingLot parkingLot, boolean waitlistEnabled,
+                                 ParkingEventListener eventListener, Journal journal) {
+        this(parkingLot, waitlistEnabled, eventListener, journal, null);
+    }
+
+    /**
+     * Initializes a new instance of the ParkingManager with a given parking lot, journaling every
+     * change made to it, and keeping a history of them to look back at.
+     *
+     * @param parkingLot      The parking lot this manager will manage.
+     * @param waitlistEnabled If vehicles turned away by the full parking lot can be waitlisted.
+     * @param eventListener   The listener notified of the events raised by the parking lot.
+     * @param journal         The journal every change to the parking lot is appended to.
+     * @param history         The history every change is recorded in, null to keep none.
+     */
+    public ParkingLotManagerImpl(ParkingLot parkingLot, boolean waitlistEnabled,
+                                 ParkingEventListener eventListener, Journal journal,
+                                 OccupancyHistory history) {
         this.parkingLot = parkingLot;
+        this.reservations = new SlotReservations(parkingLot);
+        this.waitlist = waitlistEnabled ? new ParkingWaitlist() : null;
+        this.eventListener = eventListener;
+        this.journal = journal;
+        this.history = history;
+        this.occupiedIndex = new FenwickTree(parkingLot.getCapacity());
+        this.heldIndex = new FenwickTree(parkingLot.getCapacity());
+        this.occupiedSpaces = new HierarchicalBitSet(parkingLot.getCapacity());
+        occupiedIndex.reset(parkingLot.getCapacity(),
+            id -> parkingLot.getParkingSpace(id).isOccupied());
+        occupiedSpaces.reset(parkingLot.getCapacity(),
+            id -> parkingLot.getParkingSpace(id).isOccupied());
     }
 
     /**
      * Attempts to park a vehicle in the parking lot.
      * <p>
-     * If the parking lot has available spaces, the vehicle will be parked and
-     * this method will return an Optional containing the parking space id
+     * If the parking lot has available spaces compatible with the vehicle's class, the vehicle
+     * will be parked and this method will return an Optional containing the parking space id
      * where the vehicle was parked. If the parking lot is full, the vehicle
      * will not be parked, and this method will return an empty Optional.
      * </p>
      *
      * @param vehicle The vehicle to be parked.
      * @return An Optional containing the assigned parking space id if the vehicle was successfully parked, or an empty Optional otherwise.
+     * @throws VehicleAlreadyParkedException if the registration number is parked already.
      */
     @Override
     public Optional<Integer> parkVehicle(Vehicle vehicle) {
-        Optional<ParkingSpace> allottedParkingSpaceOptional = parkingLot.bookParkingSpace();
-        if (allottedParkingSpaceOptional.isEmpty()) {
+        checkWritable();
+        checkNotParked(vehicle.getRegistrationNumber());
+        ParkEvent event = Events.begin(ParkEvent.class, ParkEvent::new);
+        ParkingSpace allottedParkingSpace = parkingLot.takeParkingSpace(vehicle.getVehicleType());
+        if (allottedParkingSpace == null) {
+            counters.rejected(Rejection.FULL);
+            commit(event, vehicle.getRegistrationNumber(), vehicle.getVehicleType(), null);
             return Optional.empty();
         }
 
-        ParkingSpace allottedParkingSpace = allottedParkingSpaceOptional.get();
         allottedParkingSpace.setParkedVehicle(vehicle);
         vehicle.setParkedAt(allottedParkingSpace);
+        recordPark(allottedParkingSpace.getId(), vehicle);
+        snapshotIfDue();
+        commit(event, vehicle.getRegistrationNumber(), vehicle.getVehicleType(),
+            allottedParkingSpace);
 
         return Optional.of(allottedParkingSpace.getId());
     }
 
+    /**
+     * Parks a vehicle in the nearest parking space compatible with its class, reusing the
+     * {@link Vehicle} the parking space kept from its last vehicle, so nothing is allocated once
+     * every parking space has held a vehicle before.
+     *
+     * @param registrationNumber The registration number of the vehicle.
+     * @param vehicleType        The class of the vehicle.
+     * @param colour             The colour of the vehicle, null if not known.
+     * @return The id of the parking space the vehicle was parked in, {@code 0} if the parking lot is full.
+     * @throws VehicleAlreadyParkedException if the registration number is parked already.
+     */
+    @Override
+    public int parkVehicle(String registrationNumber, VehicleType vehicleType, String colour) {
+        checkWritable();
+        checkNotParked(registrationNumber);
+        ParkEvent event = Events.begin(ParkEvent.class, ParkEvent::new);
+        ParkingSpace allottedParkingSpace = parkingLot.takeParkingSpace(vehicleType);
+        if (allottedParkingSpace == null) {
+            counters.rejected(Rejection.FULL);
+            commit(event, registrationNumber, vehicleType, null);
+            return 0;
+        }
+
+        allottedParkingSpace.park(registrationNumber, vehicleType, colour);
+        recordPark(allottedParkingSpace.getId(), vehicleType, registrationNumber, colour);
+        snapshotIfDue();
+        commit(event, registrationNumber, vehicleType, allottedParkingSpace);
+        return allottedParkingSpace.getId();
+    }
+
     /**
      * Vacates a given parking space, freeing it up for other vehicles.
      * <p>
      * If there is a vehicle currently parked in the space, the vehicle will
      * be removed from the space. The space itself will be marked as vacant.
      * </p>
+     * <p>
+     * When the waitlist is enabled, and a waitlisted vehicle fits the freed space, the space is
+     * handed over to that vehicle directly, instead of going back to the free pool.
+     * </p>
      *
      * @param registrationNumber The registration number of the car which is leaving.
      * @return The parking spot at which vehicle was parked.
-     * @throws BadInputException if no such registration number is found in the parking lot.
+     * @throws VehicleNotParkedException if no such registration number is found in the parking lot.
+     * @throws ReadOnlyStandbyException  if the parking lot is a read-only standby.
      */
     @Override
-    public String vacateParkingSpace(String registrationNumber) {
-        Optional<ParkingSpace> optionalParkingSpace =
-            parkingLot.getParkingSpaceByRegistrationNumber(registrationNumber);
+    public int vacateParkingSpace(String registrationNumber) {
+        checkWritable();
+        LeaveEvent event = Events.begin(LeaveEvent.class, LeaveEvent::new);
+        int parkingSpaceId = vehicleIndex.slotOf(registrationNumber);
+        ParkingSpace parkingSpace = parkingSpaceId > 0
+            ? parkingLot.getParkingSpace(parkingSpaceId) : null;
 
-        if (optionalParkingSpace.isEmpty()) {
-            // TODO: Create another custom exception for handling this case
-            throw new BadInputException(
-                String.format("No vehicle with registration number %s is parked right now.",
-                    registrationNumber));
+        if (parkingSpace == null) {
+            counters.rejected(Rejection.NOT_FOUND);
+            commit(event, registrationNumber, null, false);
+            throw new VehicleNotParkedException(registrationNumber);
         }
 
-        ParkingSpace parkingSpace = optionalParkingSpace.get();
-        parkingLot.vacateParkingSpace(parkingSpace);
-        return Integer.toString(parkingSpace.getId());
+        parkingSpace.setParkedVehicle(null);
+        recordVacate(parkingSpace.getId());
+        boolean handedOff = handOffToWaitlist(parkingSpace.getId());
+        if (!handedOff) {
+            parkingLot.vacateParkingSpace(parkingSpace);
+        }
+        snapshotIfDue();
+        commit(event, registrationNumber, parkingSpace, handedOff);
+        return parkingSpace.getId();
+    }
+
+    /**
+     * Adds a vehicle turned away by the full parking lot to the waitlist.
+     * <p>
+     * The vehicle is parked in the first compatible space freed, either by a leaving vehicle or
+     * an expired reservation, once every vehicle ahead of it has been served.
+     * </p>
+     *
+     * @param vehicle  The vehicle to be waitlisted.
+     * @param priority The priority class the vehicle waits in.
+     * @return The position of the vehicle on the waitlist.
+     * @throws BadInputException if the waitlist is disabled or the vehicle is already waitlisted.
+     * @throws VehicleAlreadyParkedException if the registration number is parked already.
+     */
+    @Override
+    public int waitlistVehicle(Vehicle vehicle, WaitlistPriority priority) {
+        checkWritable();
+        checkNotParked(vehicle.getRegistrationNumber());
+        if (waitlist == null) {
+            throw new BadInputException("Waitlist is not enabled for the parking lot");
+        }
+        return waitlist.enqueue(vehicle, priority);
+    }
+
+    /**
+     * Returns if vehicles turned away by the full parking lot can be waitlisted.
+     *
+     * @return true if the waitlist is enabled, false otherwise.
+     */
+    @Override
+    public boolean isWaitlistEnabled() {
+        return waitlist != null;
     }
 
     /**
@@ -115,6 +328,694 @@ public String vacateParkingSpace(String registrationNumber) {
      */
     @Override
     public TreeMap<Integer, String> status() {
-        return parkingLot.getStatusForOccupiedSpaces();
+        StatusEvent event = Events.begin(StatusEvent.class, StatusEvent::new);
+        TreeMap<Integer, String> status = parkingLot.getStatusForOccupiedSpaces();
+        commit(event, 1, parkingLot.getCapacity(), -1, status.size());
+        return status;
+    }
+
+    /**
+     * Hands every occupied parking space, and the registration number parked in it, to a visitor,
+     * in the order of their ids, walking the occupied spaces from one to the next.
+     *
+     * @param visitor The visitor to hand the occupied parking spaces to.
+     */
+    @Override
+    public void forEachOccupied(OccupantVisitor visitor) {
+        StatusEvent event = Events.begin(StatusEvent.class, StatusEvent::new);
+        int listed = 0;
+        for (int id = occupiedSpaces.nextSetBit(1); id > 0; id = occupiedSpaces.nextSetBit(id + 1)) {
+            visitor.visit(id, vehicleIndex.registrationAt(id));
+            listed++;
+        }
+        commit(event, 1, parkingLot.getCapacity(), -1, listed);
+    }
+
+    /**
+     * Holds the nearest parking space compatible with the vehicle's class, for the given number of ticks.
+     * <p>
+     * The space is taken out of the parking lot's free pools till the vehicle claims it with
+     * {@link #claimReservation(String)}, or the reservation expires as the clock advances.
+     * </p>
+     *
+     * @param vehicle  The vehicle to hold the space for.
+     * @param ttlTicks Number of ticks, from now, the space is held for.
+     * @return An Optional containing the held parking space id, or an empty Optional if the parking lot is full.
+     * @throws BadInputException if the ttl is not positive or the vehicle already holds a reservation.
+     */
+    @Override
+    public Optional<Integer> reserveParkingSpace(Vehicle vehicle, int ttlTicks) {
+        checkWritable();
+        Optional<ParkingSpace> parkingSpace = reservations.reserve(vehicle, ttlTicks);
+        if (parkingSpace.isEmpty()) {
+            counters.rejected(Rejection.FULL);
+        }
+        parkingSpace.ifPresent(this::hold);
+        return parkingSpace.map(ParkingSpace::getId);
+    }
+
+    /**
+     * Parks the vehicle holding a reservation in its held parking space.
+     *
+     * @param registrationNumber The registration number of the arriving vehicle.
+     * @return The parking space id the vehicle is now parked in.
+     * @throws BadInputException if the vehicle holds no reservation.
+     * @throws VehicleAlreadyParkedException if the registration number is parked already.
+     */
+    @Override
+    public int claimReservation(String registrationNumber) {
+        checkWritable();
+        checkNotParked(registrationNumber);
+        ParkingSpace parkingSpace = reservations.claim(registrationNumber);
+        release(parkingSpace.getId());
+        recordPark(parkingSpace.getId(), parkingSpace.getParkedVehicle().orElseThrow());
+        snapshotIfDue();
+        return parkingSpace.getId();
+    }
+
+    /**
+     * Advances the reservation clock, releasing every expired reservation back to the parking lot,
+     * or handing it over to the waitlist.
+     *
+     * @param ticks Number of ticks to advance the clock by.
+     * @return Number of reservations expired.
+     */
+    @Override
+    public int advanceClock(int ticks) {
+        int expired = reservations.advance(ticks, parkingSpaceId -> {
+            release(parkingSpaceId);
+            return handOffToWaitlist(parkingSpaceId);
+        });
+        snapshotIfDue();
+        return expired;
+    }
+
+    /**
+     * Returns the current tick of the reservation clock.
+     *
+     * @return the current tick.
+     */
+    @Override
+    public long currentTick() {
+        return reservations.currentTick();
+    }
+
+    /**
+     * Resizes the parking lot in place, without rebuilding it or touching parked vehicles.
+     * <p>
+     * Spaces are added to, or retired from, the end of the section farthest from the entry.
+     * A shrink is rejected if any of the spaces to be retired is in use.
+     * </p>
+     *
+     * @param capacity The new maximum number of parking spaces.
+     * @throws BadInputException if the parking lot cannot be shrunk to the new capacity.
+     */
+    @Override
+    public void resize(int capacity) {
+        checkWritable();
+        resizeLot(capacity);
+        recordResize(capacity);
+        snapshotIfDue();
+    }
+
+    /**
+     * Rebuilds the parking lot from its journal, by loading the latest snapshot and replaying every
+     * change journaled after it, in order.
+     * <p>
+     * Vehicles are put back in the exact parking spaces they were parked in, looked up by id, so
+     * recovery never searches the parking lot. Reservations and the waitlist are not journaled, so
+     * spaces held at the time of the crash come back free, and the waitlist comes back empty.
+     * </p>
+     *
+     * @return The number of journal records replayed.
+     * @throws BadInputException if the journal does not match the layout of the parking lot.
+     */
+    @Override
+    public long recover() {
+        Optional<LotSnapshot> snapshot = journal.latestSnapshot();
+        snapshot.ifPresent(parkingLot::restore);
+        long replayed = journal.replay(new RecordApplier(false));
+        if (snapshot.isPresent() || replayed > 0) {
+            LotSnapshot state = parkingLot.snapshot();
+            journal.onRecovered(state);
+
+            int[] occupiedBySlotType = new int[SlotType.values().length];
+            for (int i = 0; i < state.occupiedCount(); i++) {
+                occupiedBySlotType[parkingLot.getSlotType(state.parkingSpaceIds()[i]).ordinal()]++;
+            }
+            counters.reset(occupiedBySlotType);
+            publishFreeCounts();
+            occupiedIndex.reset(parkingLot.getCapacity(),
+                id -> parkingLot.getParkingSpace(id).isOccupied());
+            occupiedSpaces.reset(parkingLot.getCapacity(),
+                id -> parkingLot.getParkingSpace(id).isOccupied());
+            heldIndex.reset(parkingLot.getCapacity(), id -> false);
+            vehicleIndex.clear();
+            for (int i = 0; i < state.occupiedCount(); i++) {
+                vehicleIndex.add(state.parkingSpaceIds()[i], state.registrationNumbers()[i],
+                    state.colours()[i]);
+            }
+            if (history != null) {
+                // the history starts from the recovered parking lot
+                for (int i = 0; i < state.occupiedCount(); i++) {
+                    history.recordPark(state.parkingSpaceIds()[i], state.registrationNumbers()[i]);
+                }
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Returns the parking lot as it was right after the given change.
+     *
+     * @param sequence The sequence number of the change.
+     * @return A Map of id of occupied {@link ParkingSpace} and parked {@link Vehicle} registration number, sorted by ids.
+     * @throws BadInputException if the history is disabled, or does not retain the change.
+     */
+    @Override
+    public TreeMap<Integer, String> status(long sequence) {
+        StatusEvent event = Events.begin(StatusEvent.class, StatusEvent::new);
+        TreeMap<Integer, String> status = history().statusAt(sequence);
+        commit(event, 1, parkingLot.getCapacity(), sequence, status.size());
+        return status;
+    }
+
+    /**
+     * Returns every vehicle which held a parking space at any change in the given range.
+     *
+     * @param parkingSpaceId The parking space id.
+     * @param fromSequence   The sequence number of the first change in the range.
+     * @param toSequence     The sequence number of the last change in the range.
+     * @return The stretches the parking space was held for, oldest first.
+     * @throws BadInputException if the history is disabled, or does not retain the range.
+     */
+    @Override
+    public List<SlotOccupancy> occupancy(int parkingSpaceId, long fromSequence, long toSequence) {
+        return history().occupancy(parkingSpaceId, fromSequence, toSequence);
+    }
+
+    /**
+     * Returns the last change made at or before the given time.
+     *
+     * @param epochMillis The time, in epoch milliseconds.
+     * @return The sequence number of the change.
+     * @throws BadInputException if the history is disabled, or retains no change made by then.
+     */
+    @Override
+    public long sequenceAt(long epochMillis) {
+        return history().sequenceAt(epochMillis);
+    }
+
+    /**
+     * Returns the sequence number of the last change made to the parking lot.
+     *
+     * @return The last sequence number, {@code 0} if no change was made yet.
+     * @throws BadInputException if the history is disabled.
+     */
+    @Override
+    public long lastSequence() {
+        return history().lastSequence();
+    }
+
+    /**
+     * Counts the free parking spaces in a range of ids, neither occupied nor held.
+     *
+     * @param fromId The first parking space id of the range.
+     * @param toId   The last parking space id of the range.
+     * @return The number of free parking spaces in the range.
+     * @throws BadInputException if the range is not within the parking lot.
+     */
+    @Override
+    public int countFree(int fromId, int toId) {
+        checkRange(fromId, toId);
+        return toId - fromId + 1 - occupiedIndex.rangeSum(fromId, toId)
+            - heldIndex.rangeSum(fromId, toId);
+    }
+
+    /**
+     * Returns the occupied parking spaces in a range of ids, walking the occupied spaces from the
+     * first one in the range to the next, so the free spaces in between are never looked at.
+     *
+     * @param fromId The first parking space id of the range.
+     * @param toId   The last parking space id of the range.
+     * @return A Map of occupied parking space ids in the range to registration numbers, sorted by ids.
+     * @throws BadInputException if the range is not within the parking lot.
+     */
+    @Override
+    @SuppressWarnings("OptionalGetWithoutIsPresent")
+    public TreeMap<Integer, String> status(int fromId, int toId) {
+        checkRange(fromId, toId);
+
+        StatusEvent event = Events.begin(StatusEvent.class, StatusEvent::new);
+        TreeMap<Integer, String> status = new TreeMap<>();
+        for (int id = occupiedSpaces.nextSetBit(fromId); id > 0 && id <= toId;
+             id = occupiedSpaces.nextSetBit(id + 1)) {
+            // get() without a null check is okay here, since the index only holds occupied spaces
+            status.put(id, parkingLot.getParkingSpace(id).getParkedVehicle().get()
+                .getRegistrationNumber());
+        }
+        commit(event, fromId, toId, -1, status.size());
+        return status;
+    }
+
+    /**
+     * Returns the parking spaces holding vehicles of a colour.
+     *
+     * @param colour The colour, matched ignoring case.
+     * @return The parking space ids, in ascending order.
+     */
+    @Override
+    public List<Integer> slotsForColour(String colour) {
+        return vehicleIndex.slotsForColour(colour);
+    }
+
+    /**
+     * Returns the registration numbers of the vehicles of a colour.
+     *
+     * @param colour The colour, matched ignoring case.
+     * @return The registration numbers, in the order of the parking spaces they are parked in.
+     */
+    @Override
+    public List<String> registrationsForColour(String colour) {
+        return vehicleIndex.registrationsForColour(colour);
+    }
+
+    /**
+     * Returns the parking spaces holding vehicles whose registration number starts with a prefix.
+     *
+     * @param prefix The registration number prefix.
+     * @return The parking space ids, in ascending order.
+     */
+    @Override
+    public List<Integer> slotsForPrefix(String prefix) {
+        return vehicleIndex.slotsForPrefix(prefix);
+    }
+
+    /**
+     * Adds the charge of a vehicle which left to the revenue of its parking space's slot class.
+     *
+     * @param parkingSpaceId The id of the parking space the vehicle left.
+     * @param chargeCents    The charge of the stay, in cents.
+     */
+    @Override
+    public void recordCharge(int parkingSpaceId, long chargeCents) {
+        counters.charged(parkingLot.getSlotType(parkingSpaceId), chargeCents);
+    }
+
+    /**
+     * Returns the stats of the parking lot, read off running counters, by slot class.
+     *
+     * @return The stats of the parking lot.
+     */
+    @Override
+    public LotStats stats() {
+        List<ZoneStats> zones = new ArrayList<>();
+        for (SlotType slotType : parkingLot.getSlotTypes()) {
+            zones.add(new ZoneStats(slotType, parkingLot.getCapacity(slotType),
+                counters.occupied(slotType), counters.reserved(slotType), counters.sessions(slotType),
+                counters.departures(slotType), counters.revenueCents(slotType)));
+        }
+        return LotStats.of(zones);
+    }
+
+    /**
+     * Returns the number of requests the parking lot refused so far, for the given reason - a
+     * vehicle turned away, or held no space, by the full lot, or a registration number not found.
+     *
+     * @param rejection The reason of the refusals.
+     * @return The number of refusals.
+     */
+    @Override
+    public long rejections(Rejection rejection) {
+        return counters.rejections(rejection);
+    }
+
+    /**
+     * Returns the number of free parking space ids in the pool of a slot class, to be allotted.
+     *
+     * @param slotType The slot class.
+     * @return The size of the pool, {@code 0} if the parking lot has no such slot class.
+     */
+    @Override
+    public int allocatorDepth(SlotType slotType) {
+        return parkingLot.poolSize(slotType);
+    }
+
+    /**
+     * Subscribes to the occupancy changes of the parking lot, starting with the free count of every
+     * zone. Meant to be called exclusively of the changes, so the counts are of one moment.
+     *
+     * @param queueCapacity Number of changes queued for the subscriber before they are conflated.
+     * @param onAvailable   Run when a change comes in for the subscriber, who had none to take, null
+     *                      for none.
+     * @return The subscription, to be closed once done with.
+     * @throws BadInputException if the queue capacity is out of range.
+     */
+    @Override
+    public OccupancySubscription subscribe(int queueCapacity, Runnable onAvailable) {
+        List<SlotType> zones = new ArrayList<>(parkingLot.getSlotTypes());
+        long[] free = new long[zones.size()];
+        for (int i = 0; i < zones.size(); i++) {
+            free[i] = free(zones.get(i));
+        }
+        return feed.subscribe(queueCapacity, onAvailable, zones, free);
+    }
+
+    /**
+     * Ends every occupancy subscription, waking each subscriber up to find its stream closed.
+     */
+    @Override
+    public void closeSubscriptions() {
+        feed.closeAll();
+    }
+
+    /**
+     * Returns a handler applying the records shipped by a leader to the parking lot, journaling
+     * each of them as well, the way a change made here would be.
+     *
+     * @return The handler applying shipped records.
+     */
+    @Override
+    public JournalRecordHandler replicaApplier() {
+        return new RecordApplier(true);
+    }
+
+    /**
+     * Marks the parking lot as a read-only standby, or lifts it.
+     *
+     * @param readOnly If every change, other than the records applied from a leader, is to be rejected.
+     */
+    @Override
+    public void setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Returns the slot classes the parking lot has been laid out with.
+     *
+     * @return A set of slot classes present in the parking lot.
+     */
+    @Override
+    public Set<SlotType> slotTypes() {
+        return parkingLot.getSlotTypes();
+    }
+
+    /**
+     * Returns the slot class of the parking space by the id.
+     *
+     * @param parkingSpaceId The parking space id.
+     * @return The slot class of the parking space.
+     * @throws BadInputException if no such parking space exists.
+     */
+    @Override
+    public SlotType slotTypeOf(int parkingSpaceId) {
+        return parkingLot.getSlotType(parkingSpaceId);
+    }
+
+    /**
+     * Parks the waitlisted vehicle next in line for a vacant parking space directly in it.
+     * <p>
+     * A waitlisted vehicle may have parked since, as another vehicle class, so the vehicles
+     * already in the vehicle index are dropped off the waitlist instead of being parked twice.
+     * </p>
+     *
+     * @param parkingSpaceId The id of the vacant parking space, which is in none of the free pools.
+     * @return true if the parking space was handed over, false if it still needs to be released.
+     */
+    private boolean handOffToWaitlist(int parkingSpaceId) {
+        if (waitlist == null) {
+            return false;
+        }
+
+        ParkingSpace parkingSpace = parkingLot.getParkingSpace(parkingSpaceId);
+        Vehicle vehicle;
+        do {
+            vehicle = waitlist.poll(parkingSpace.getSlotType(), parkingLot.getFallbackPolicy());
+        } while (vehicle != null && vehicleIndex.slotOf(vehicle.getRegistrationNumber()) > 0);
+        if (vehicle == null) {
+            return false;
+        }
+
+        parkingSpace.setParkedVehicle(vehicle);
+        vehicle.setParkedAt(parkingSpace);
+        recordPark(parkingSpaceId, vehicle);
+        eventListener.onWaitlistAssigned(vehicle.getRegistrationNumber(), parkingSpaceId);
+        return true;
+    }
+
+    /**
+     * Takes a snapshot of the parking lot and hands it to the journal to be written in the background.
+     * <p>
+     * The image is copied on the calling thread, in between two changes, so it is consistent
+     * without stopping the parking lot for longer than the copy takes.
+     * </p>
+     *
+     * @return A future completed once the snapshot is durable.
+     * @throws BadInputException if the parking lot is not journaled.
+     */
+    @Override
+    public CompletableFuture<Void> snapshot() {
+        if (journal == Journal.NOOP) {
+            throw new BadInputException("Journal is not enabled for the parking lot");
+        }
+        return journal.snapshot(parkingLot.snapshot());
+    }
+
+    private void snapshotIfDue() {
+        if (journal.isSnapshotDue()) {
+            snapshot().exceptionally(ex -> {
+                System.err.printf("ERROR: Cannot write snapshot. Details = %s%n", ex.getMessage());
+                return null;
+            });
+        }
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new ReadOnlyStandbyException();
+        }
+    }
+
+    /**
+     * Refuses to park a registration number parked already, which would leave its first parking
+     * space behind the second in the vehicle index, never to be vacated.
+     */
+    private void checkNotParked(String registrationNumber) {
+        int parkingSpaceId = vehicleIndex.slotOf(registrationNumber);
+        if (parkingSpaceId > 0) {
+            throw new VehicleAlreadyParkedException(registrationNumber, parkingSpaceId);
+        }
+    }
+
+    private void recordPark(int parkingSpaceId, Vehicle vehicle) {
+        recordPark(parkingSpaceId, vehicle.getVehicleType(), vehicle.getRegistrationNumber(),
+            vehicle.getColour().orElse(null));
+    }
+
+    /**
+     * Journals a vehicle parked, counts it, and records it in the history.
+     */
+    private void recordPark(int parkingSpaceId, VehicleType vehicleType, String registrationNumber,
+                            String colour) {
+        SlotType slotType = parkingLot.getSlotType(parkingSpaceId);
+        journal.appendPark(parkingSpaceId, vehicleType, registrationNumber, colour);
+        counters.parked(slotType);
+        occupiedIndex.add(parkingSpaceId, 1);
+        occupiedSpaces.set(parkingSpaceId);
+        vehicleIndex.add(parkingSpaceId, registrationNumber, colour);
+        if (history != null) {
+            history.recordPark(parkingSpaceId, registrationNumber);
+        }
+        publish(OccupancyEvent.Kind.PARK, parkingSpaceId, slotType);
+    }
+
+    private void recordVacate(int parkingSpaceId) {
+        SlotType slotType = parkingLot.getSlotType(parkingSpaceId);
+        journal.appendVacate(parkingSpaceId);
+        counters.vacated(slotType);
+        occupiedIndex.add(parkingSpaceId, -1);
+        occupiedSpaces.clear(parkingSpaceId);
+        vehicleIndex.remove(parkingSpaceId);
+        if (history != null) {
+            history.recordVacate(parkingSpaceId);
+        }
+        publish(OccupancyEvent.Kind.VACATE, parkingSpaceId, slotType);
+    }
+
+    private void recordResize(int capacity) {
+        journal.appendResize(capacity);
+        if (history != null) {
+            history.recordResize();
+        }
+    }
+
+    private void hold(ParkingSpace parkingSpace) {
+        counters.held(parkingSpace.getSlotType());
+        heldIndex.add(parkingSpace.getId(), 1);
+        publish(OccupancyEvent.Kind.FREE, 0, parkingSpace.getSlotType());
+    }
+
+    /**
+     * Counts a held parking space given up, whether claimed or expired.
+     */
+    private void release(int parkingSpaceId) {
+        SlotType slotType = parkingLot.getSlotType(parkingSpaceId);
+        counters.released(slotType);
+        heldIndex.add(parkingSpaceId, -1);
+        publish(OccupancyEvent.Kind.FREE, 0, slotType);
+    }
+
+    /**
+     * Resizes the parking lot, and the indexes over its parking spaces along with it.
+     */
+    private void resizeLot(int capacity) {
+        parkingLot.resize(capacity);
+        occupiedIndex.resize(capacity);
+        occupiedSpaces.resize(capacity);
+        heldIndex.resize(capacity);
+        publishFreeCounts();
+    }
+
+    /**
+     * Hands a change to the subscribers, with the free count of its zone right after it.
+     */
+    private void publish(OccupancyEvent.Kind kind, int parkingSpaceId, SlotType slotType) {
+        if (feed.hasSubscribers()) {
+            feed.publish(kind, parkingSpaceId, slotType, free(slotType));
+        }
+    }
+
+    /**
+     * Hands the free count of every zone to the subscribers, after a change to many spaces at once.
+     */
+    private void publishFreeCounts() {
+        if (feed.hasSubscribers()) {
+            for (SlotType slotType : parkingLot.getSlotTypes()) {
+                feed.publish(OccupancyEvent.Kind.FREE, 0, slotType, free(slotType));
+            }
+        }
+    }
+
+    private long free(SlotType slotType) {
+        return parkingLot.getCapacity(slotType) - counters.occupied(slotType)
+            - counters.reserved(slotType);
+    }
+
+    private void commit(ParkEvent event, String registrationNumber, VehicleType vehicleType,
+                        ParkingSpace parkingSpace) {
+        if (event == null) {
+            return;
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.registrationNumber = registrationNumber;
+            event.vehicleClass = vehicleType.getCode();
+            if (parkingSpace != null) {
+                event.slot = parkingSpace.getId();
+                event.slotClass = parkingSpace.getSlotType().getCode();
+            }
+            event.setLot(parkingLot.getCapacity(), occupied());
+            event.commit();
+        }
+    }
+
+    private void commit(LeaveEvent event, String registrationNumber, ParkingSpace parkingSpace,
+                        boolean handedOff) {
+        if (event == null) {
+            return;
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.registrationNumber = registrationNumber;
+            if (parkingSpace != null) {
+                event.slot = parkingSpace.getId();
+                event.slotClass = parkingSpace.getSlotType().getCode();
+            }
+            event.handedOff = handedOff;
+            event.setLot(parkingLot.getCapacity(), occupied());
+            event.commit();
+        }
+    }
+
+    private void commit(StatusEvent event, int fromId, int toId, long sequence, int listed) {
+        if (event == null) {
+            return;
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.fromSlot = fromId;
+            event.toSlot = toId;
+            event.sequence = sequence;
+            event.listed = listed;
+            event.setLot(parkingLot.getCapacity(), occupied());
+            event.commit();
+        }
+    }
+
+    private long occupied() {
+        return occupiedIndex.prefixSum(parkingLot.getCapacity());
+    }
+
+    private void checkRange(int fromId, int toId) {
+        int capacity = parkingLot.getCapacity();
+        if (fromId < 1 || fromId > toId || toId > capacity) {
+            throw new BadInputException(
+                String.format("Invalid range, expecting 1 <= from <= to <= %d", capacity));
+        }
+    }
+
+    private OccupancyHistory history() {
+        if (history == null) {
+            throw new BadInputException("History is not enabled for the parking lot");
+        }
+        return history;
+    }
+
+    /**
+     * Applies journal records to the parking lot, putting vehicles back in the exact parking spaces
+     * they were parked in, looked up by id.
+     */
+    private final class RecordApplier implements JournalRecordHandler {
+
+        /**
+         * If every applied record is appended to the journal as well.
+         */
+        private final boolean journaled;
+
+        private RecordApplier(boolean journaled) {
+            this.journaled = journaled;
+        }
+
+        @Override
+        public void onPark(int parkingSpaceId, VehicleType vehicleType, String registrationNumber,
+                           String colour) {
+            parkingLot.occupyParkingSpace(parkingSpaceId,
+                new Vehicle(registrationNumber, vehicleType, colour));
+            if (journaled) {
+                recordPark(parkingSpaceId, vehicleType, registrationNumber, colour);
+                snapshotIfDue();
+            }
+        }
+
+        @Override
+        public void onVacate(int parkingSpaceId) {
+            parkingLot.vacateParkingSpace(parkingLot.getParkingSpace(parkingSpaceId));
+            if (journaled) {
+                recordVacate(parkingSpaceId);
+                snapshotIfDue();
+            }
+        }
+
+        @Override
+        public void onResize(int capacity) {
+            resizeLot(capacity);
+            if (journaled) {
+                recordResize(capacity);
+                snapshotIfDue();
+            }
+        }
     }
 }
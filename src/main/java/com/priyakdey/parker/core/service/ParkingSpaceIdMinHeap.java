@@ -22,14 +22,12 @@
 
 package com.priyakdey.parker.core.service;
 
+import com.priyakdey.parker.core.jfr.AllocatorEvent;
+import com.priyakdey.parker.core.jfr.Events;
 import com.priyakdey.parker.exception.BadInputException;
 import com.priyakdey.parker.exception.HeapOperationException;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-import java.util.stream.IntStream;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
 
 /**
  * Represents a priority-based storage (min-heap) of available parking spaces.
@@ -37,40 +35,67 @@
  * a new vehicle arrives. The priority is based on parking space IDs, considering that
  * 1 is the nearest spot to the entrance.
  * <p>
- * The heap is internally implemented using a linked list, where the root represents
+ * The heap is internally implemented using a primitive array, where the root represents
  * the parking space closest to the entrance, and the tree structure ensures that parents
  * have a smaller ID (higher priority) than their children.
  * </p>
  * <p>
  * The heap, designed specifically for managing parking space ids;has a specific bound,
- * which is defined by `capacity`. Adding any duplicate elements,
- * adding any elements out of range (outside [1, capacity]) is illegal.
+ * which is defined by `lowerBound` and `upperBound`. Adding any duplicate elements,
+ * adding any elements out of range (outside [lowerBound, upperBound]) is illegal.
+ * A heap created with just a `capacity` manages the range [1, capacity].
  * <p/>
+ * <p>
+ * The upper bound can be moved at runtime - {@link #grow(int)} appends new ids in amortized
+ * O(1) per id, and {@link #shrink(int)} retires the highest ids, as long as all of them are
+ * still in the heap.
+ * </p>
+ * <p>
+ * Every operation which changes the heap is recorded as an {@link AllocatorEvent}, when Flight
+ * Recorder is recording it.
+ * </p>
  *
  * @author Priyak Dey
  */
 public class ParkingSpaceIdMinHeap {
 
     /**
-     * List of available parking space ids.
+     * Marker in {@link #positions} for an id which is not in the heap.
+     */
+    private static final int NOT_PRESENT = -1;
+
+    /**
+     * Backing array of available parking space ids, only the first {@link #size} entries are in use.
      * This acts as a backing array for a min-heap, which allows faster
      * retrieval of nearest empty spot from the entrance when a new vehicle arrives.
      * It considers that 1 is the nearest spot to the entrance to begin with.
      */
-    private final List<Integer> availableParkingSpaces;
+    private int[] availableParkingSpaces;
+
+    /**
+     * Number of ids currently in the heap.
+     */
+    private int size;
 
     /**
-     * Total capacity of the parking lot.
+     * Smallest parking space id managed by this heap.
      */
-    private final int capacity;
+    private final int lowerBound;
 
     /**
-     * presentIdsInHeap keeps a track of current ids in the heap to help faster lookups.
+     * Largest parking space id managed by this heap.
+     */
+    private int upperBound;
+
+    /**
+     * positions keeps a track of the index of every id within the backing array,
+     * {@link #NOT_PRESENT} if the id is not in the heap. An id is stored at {@code id - lowerBound}.
      * <p>
      * Since we say `time is money`, going for a memory overhead to reduce O(n) to O(1) lookup.
      * This performance will come handy when the parking lot is huge, and lots of add/poll.
+     * It also allows removing an arbitrary id in O(log n).
      */
-    private final Set<Integer> presentIdsInHeap;
+    private int[] positions;
 
     /**
      * Initializes the heap with a set of parking spaces based on the provided capacity.
@@ -78,10 +103,29 @@ public class ParkingSpaceIdMinHeap {
      * @param capacity the number of parking spaces to be managed by the heap
      */
     public ParkingSpaceIdMinHeap(int capacity) {
-        this.capacity = capacity;
-        List<Integer> ids = IntStream.rangeClosed(1, capacity).boxed().toList();
-        this.availableParkingSpaces = new ArrayList<>(ids);
-        this.presentIdsInHeap = new HashSet<>(ids);
+        this(1, capacity);
+    }
+
+    /**
+     * Initializes the heap with the parking space ids in the range [lowerBound, upperBound].
+     *
+     * @param lowerBound the smallest parking space id to be managed by the heap
+     * @param upperBound the largest parking space id to be managed by the heap
+     */
+    public ParkingSpaceIdMinHeap(int lowerBound, int upperBound) {
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+
+        int capacity = Math.max(upperBound - lowerBound + 1, 0);
+        this.availableParkingSpaces = new int[capacity];
+        this.positions = new int[capacity];
+
+        // ids in increasing order already satisfy the min-heap property
+        for (int i = 0; i < capacity; i++) {
+            availableParkingSpaces[i] = lowerBound + i;
+            positions[i] = i;
+        }
+        this.size = capacity;
     }
 
     /**
@@ -90,7 +134,16 @@ public ParkingSpaceIdMinHeap(int capacity) {
      * @return true if there are no available parking spaces, false otherwise
      */
     public boolean isEmpty() {
-        return availableParkingSpaces.isEmpty();
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of available parking spaces in the heap.
+     *
+     * @return the number of ids in the heap
+     */
+    public int size() {
+        return size;
     }
 
     /**
@@ -105,9 +158,10 @@ public int poll() {
             throw new HeapOperationException("Heap is empty");
         }
 
-        int removedSpace = availableParkingSpaces.get(0);
-        removeRoot();
-        presentIdsInHeap.remove(removedSpace);
+        AllocatorEvent event = Events.begin(AllocatorEvent.class, AllocatorEvent::new);
+        int removedSpace = availableParkingSpaces[0];
+        removeAt(0);
+        commit(event, "poll", removedSpace);
         return removedSpace;
     }
 
@@ -117,7 +171,7 @@ public int poll() {
      * such as the heap already being at full capacity, the ID being out of range, or the ID
      * already present in the heap, appropriate exceptions are thrown.
      * <p>
-     * The ID should be within the range [1, capacity], representing valid parking spaces.
+     * The ID should be within the range [lowerBound, upperBound], representing valid parking spaces.
      * </p>
      *
      * @param id the parking space ID to be added back into the heap.
@@ -126,26 +180,210 @@ public int poll() {
      * @throws BadInputException      if the provided ID is already present in the heap
      */
     public void push(int id) {
-        if (availableParkingSpaces.size() == capacity) {
+        if (size == upperBound - lowerBound + 1) {
             throw new HeapOperationException("Heap it at its full capacity");
         }
 
-        if (id < 1 || id > capacity) {
+        if (id < lowerBound || id > upperBound) {
             throw new BadInputException(
-                String.format("Accepted ids are in the range of [1, %d]", capacity));
+                String.format("Accepted ids are in the range of [%d, %d]", lowerBound, upperBound));
         }
 
-        if (presentIdsInHeap.contains(id)) {
+        if (positions[id - lowerBound] != NOT_PRESENT) {
             throw new BadInputException(String.format("ID %d is already present in the heap.", id));
         }
 
+        AllocatorEvent event = Events.begin(AllocatorEvent.class, AllocatorEvent::new);
         addId(id);
-        presentIdsInHeap.add(id);
+        commit(event, "push", id);
+    }
+
+    /**
+     * Removes the given parking space ID from the heap, wherever it sits, in O(log n).
+     *
+     * @param id the parking space ID to be taken out of the heap.
+     * @throws BadInputException      if the provided ID is not within the accepted range
+     * @throws HeapOperationException if the provided ID is not present in the heap
+     */
+    public void remove(int id) {
+        if (id < lowerBound || id > upperBound) {
+            throw new BadInputException(
+                String.format("Accepted ids are in the range of [%d, %d]", lowerBound, upperBound));
+        }
+
+        int index = positions[id - lowerBound];
+        if (index == NOT_PRESENT) {
+            throw new HeapOperationException(String.format("ID %d is not present in the heap", id));
+        }
+
+        AllocatorEvent event = Events.begin(AllocatorEvent.class, AllocatorEvent::new);
+        removeAt(index);
+        commit(event, "remove", id);
+    }
+
+    /**
+     * Adds a batch of parking space IDs back into the heap.
+     * <p>
+     * The batch is appended as is and the heap property restored in one go - bottom-up in O(n) when
+     * the batch is large compared to the heap, otherwise by sifting up every new id in O(k log n).
+     * Every id is validated as in {@link #push(int)}, and the heap is left untouched if any of them
+     * is rejected.
+     * </p>
+     *
+     * @param ids   array holding the parking space IDs to be added back into the heap
+     * @param count number of IDs, from the start of the array, to be added
+     * @throws HeapOperationException if the batch does not fit in the heap.
+     * @throws BadInputException      if any of the IDs is out of range, repeated or already present.
+     */
+    public void pushAll(int[] ids, int count) {
+        if (size + count > upperBound - lowerBound + 1) {
+            throw new HeapOperationException("Heap it at its full capacity");
+        }
+
+        AllocatorEvent event = Events.begin(AllocatorEvent.class, AllocatorEvent::new);
+        int i = 0;
+        try {
+            for (; i < count; i++) {
+                int id = ids[i];
+                if (id < lowerBound || id > upperBound) {
+                    throw new BadInputException(
+                        String.format("Accepted ids are in the range of [%d, %d]", lowerBound,
+                            upperBound));
+                }
+                if (positions[id - lowerBound] != NOT_PRESENT) {
+                    throw new BadInputException(
+                        String.format("ID %d is already present in the heap.", id));
+                }
+                availableParkingSpaces[size + i] = id;
+                positions[id - lowerBound] = size + i;
+            }
+        } catch (BadInputException ex) {
+            for (int j = 0; j < i; j++) {
+                positions[availableParkingSpaces[size + j] - lowerBound] = NOT_PRESENT;
+            }
+            throw ex;
+        }
+
+        int oldSize = size;
+        size += count;
+
+        if (count > oldSize) {
+            for (int index = getParentIndex(size - 1); index >= 0; index--) {
+                siftDown(index);
+            }
+        } else {
+            for (int index = oldSize; index < size; index++) {
+                siftUp(index);
+            }
+        }
+        commit(event, "pushAll", 0);
+    }
+
+    /**
+     * Replaces the content of the heap with every id in [lowerBound, upperBound] which is available.
+     * <p>
+     * Ids are laid out in increasing order, which already satisfies the min-heap property, so the
+     * heap is rebuilt in a single O(n) pass, without any sifting.
+     * </p>
+     *
+     * @param available tells if the parking space by the id is available
+     */
+    public void resetTo(IntPredicate available) {
+        AllocatorEvent event = Events.begin(AllocatorEvent.class, AllocatorEvent::new);
+        size = 0;
+        for (int id = lowerBound; id <= upperBound; id++) {
+            if (available.test(id)) {
+                availableParkingSpaces[size] = id;
+                positions[id - lowerBound] = size;
+                size++;
+            } else {
+                positions[id - lowerBound] = NOT_PRESENT;
+            }
+        }
+        commit(event, "reset", 0);
+    }
+
+    /**
+     * Moves the upper bound of the heap up to {@code newUpperBound}, adding every new id to the heap.
+     * <p>
+     * Every new id is larger than any id already in the heap, so each one is appended as a leaf
+     * without moving any other element. Backing arrays grow geometrically, which keeps the
+     * operation amortized O(added).
+     * </p>
+     *
+     * @param newUpperBound the new largest parking space id managed by the heap
+     * @throws BadInputException if the new upper bound is below the current one
+     */
+    public void grow(int newUpperBound) {
+        if (newUpperBound < upperBound) {
+            throw new BadInputException(
+                String.format("Cannot grow heap from %d down to %d", upperBound, newUpperBound));
+        }
+
+        AllocatorEvent event = Events.begin(AllocatorEvent.class, AllocatorEvent::new);
+        int newCapacity = newUpperBound - lowerBound + 1;
+        ensureCapacity(newCapacity);
+
+        for (int id = upperBound + 1; id <= newUpperBound; id++) {
+            positions[id - lowerBound] = NOT_PRESENT;
+            addId(id);
+        }
+        upperBound = newUpperBound;
+        commit(event, "grow", 0);
+    }
+
+    /**
+     * Moves the upper bound of the heap down to {@code newUpperBound}, retiring every id above it.
+     * <p>
+     * All retired ids must be present in the heap, that is, none of those parking spaces can be in
+     * use. The heap is left untouched if the check fails. Each retired id is removed in O(log n).
+     * </p>
+     *
+     * @param newUpperBound the new largest parking space id managed by the heap
+     * @throws BadInputException      if the new upper bound is out of [lowerBound - 1, upperBound]
+     * @throws HeapOperationException if any of the retired ids is not present in the heap
+     */
+    public void shrink(int newUpperBound) {
+        if (newUpperBound < lowerBound - 1 || newUpperBound > upperBound) {
+            throw new BadInputException(
+                String.format("Cannot shrink heap to %d, accepted range is [%d, %d]",
+                    newUpperBound, lowerBound - 1, upperBound));
+        }
+
+        for (int id = newUpperBound + 1; id <= upperBound; id++) {
+            if (positions[id - lowerBound] == NOT_PRESENT) {
+                throw new HeapOperationException(
+                    String.format("ID %d is not present in the heap", id));
+            }
+        }
+
+        AllocatorEvent event = Events.begin(AllocatorEvent.class, AllocatorEvent::new);
+        for (int id = upperBound; id > newUpperBound; id--) {
+            removeAt(positions[id - lowerBound]);
+        }
+        upperBound = newUpperBound;
+        commit(event, "shrink", 0);
     }
 
 
     // ---- Internals ------
 
+    private void commit(AllocatorEvent event, String operation, int id) {
+        if (event == null) {
+            return;
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.slot = id;
+            event.lowerBound = lowerBound;
+            event.upperBound = upperBound;
+            event.heapSize = size;
+            event.commit();
+        }
+    }
+
     /**
      * Retrieves the parent index of the given index within the heap data structure.
      *
@@ -177,37 +415,55 @@ private int getRightChildIndex(int index) {
     }
 
     /**
-     * Removes the smallest ID from the available spots.
-     * This method employs a min-heap property to remove the root and restructures the heap.
+     * Makes sure the backing arrays can hold {@code capacity} ids, growing them by at least half
+     * their current length.
+     *
+     * @param capacity the number of ids the heap needs to be able to hold
      */
-    private void removeRoot() {
-        Collections.swap(availableParkingSpaces, 0, availableParkingSpaces.size() - 1);
-        availableParkingSpaces.removeLast();
-
-        int currIndex = 0;
+    private void ensureCapacity(int capacity) {
+        if (capacity <= positions.length) {
+            return;
+        }
 
-        while (currIndex < availableParkingSpaces.size()) {
-            int leftChildIndex = getLeftChildIndex(currIndex);
-            int rightChildIndex = getRightChildIndex(currIndex);
+        int newLength = Math.max(capacity, positions.length + (positions.length >> 1));
+        availableParkingSpaces = Arrays.copyOf(availableParkingSpaces, newLength);
+        positions = Arrays.copyOf(positions, newLength);
+    }
 
-            if (leftChildIndex >= availableParkingSpaces.size()) {
-                break;
-            }
+    /**
+     * Swaps the ids at the two indices of the backing array, keeping {@link #positions} in sync.
+     *
+     * @param i index of the first id
+     * @param j index of the second id
+     */
+    private void swap(int i, int j) {
+        int first = availableParkingSpaces[i];
+        int second = availableParkingSpaces[j];
+        availableParkingSpaces[i] = second;
+        availableParkingSpaces[j] = first;
+        positions[second - lowerBound] = i;
+        positions[first - lowerBound] = j;
+    }
 
-            int swapIndex = leftChildIndex;
-            if (rightChildIndex < availableParkingSpaces.size() &&
-                availableParkingSpaces.get(rightChildIndex) <
-                    availableParkingSpaces.get(leftChildIndex)) {
-                swapIndex = rightChildIndex;
-            }
+    /**
+     * Removes the id at the given index of the backing array.
+     * This method employs a min-heap property to remove the id and restructures the heap.
+     *
+     * @param index the index of the id to be removed
+     */
+    private void removeAt(int index) {
+        int lastIndex = size - 1;
+        int removedId = availableParkingSpaces[index];
 
-            if (availableParkingSpaces.get(swapIndex) < availableParkingSpaces.get(currIndex)) {
-                Collections.swap(availableParkingSpaces, currIndex, swapIndex);
-            } else {
-                break;
-            }
+        if (index != lastIndex) {
+            swap(index, lastIndex);
+        }
+        size--;
+        positions[removedId - lowerBound] = NOT_PRESENT;
 
-            currIndex = swapIndex;
+        if (index < size) {
+            siftDown(index);
+            siftUp(index);
         }
     }
 
@@ -217,15 +473,25 @@ private void removeRoot() {
      * @param id the parking space ID to be added to available spots
      */
     private void addId(int id) {
-        availableParkingSpaces.add(id);
+        availableParkingSpaces[size] = id;
+        positions[id - lowerBound] = size;
+        size++;
+        siftUp(size - 1);
+    }
 
-        int currIndex = availableParkingSpaces.size() - 1;
+    /**
+     * Moves the id at the given index up, till its parent is smaller.
+     *
+     * @param index index of the id to be moved
+     */
+    private void siftUp(int index) {
+        int currIndex = index;
 
         while (currIndex >= 1) {
             int parentIndex = getParentIndex(currIndex);
 
-            if (availableParkingSpaces.get(currIndex) < availableParkingSpaces.get(parentIndex)) {
-                Collections.swap(availableParkingSpaces, parentIndex, currIndex);
+            if (availableParkingSpaces[currIndex] < availableParkingSpaces[parentIndex]) {
+                swap(parentIndex, currIndex);
             } else {
                 break;
             }
@@ -234,4 +500,36 @@ private void addId(int id) {
         }
     }
 
+    /**
+     * Moves the id at the given index down, till both its children are larger.
+     *
+     * @param index index of the id to be moved
+     */
+    private void siftDown(int index) {
+        int currIndex = index;
+
+        while (currIndex < size) {
+            int leftChildIndex = getLeftChildIndex(currIndex);
+            int rightChildIndex = getRightChildIndex(currIndex);
+
+            if (leftChildIndex >= size) {
+                break;
+            }
+
+            int swapIndex = leftChildIndex;
+            if (rightChildIndex < size &&
+                availableParkingSpaces[rightChildIndex] < availableParkingSpaces[leftChildIndex]) {
+                swapIndex = rightChildIndex;
+            }
+
+            if (availableParkingSpaces[swapIndex] < availableParkingSpaces[currIndex]) {
+                swap(currIndex, swapIndex);
+            } else {
+                break;
+            }
+
+            currIndex = swapIndex;
+        }
+    }
+
 }
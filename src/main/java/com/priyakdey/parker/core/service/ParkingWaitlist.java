@@ -0,0 +1,150 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.service;
+
+import com.priyakdey.parker.core.model.SlotType;
+import com.priyakdey.parker.core.model.Vehicle;
+import com.priyakdey.parker.core.model.VehicleType;
+import com.priyakdey.parker.core.model.WaitlistPriority;
+import com.priyakdey.parker.exception.BadInputException;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Queues the vehicles turned away by a full parking lot, till a compatible space is freed.
+ * <p>
+ * Vehicles wait in one FIFO queue per priority class and vehicle class. A freed space goes to the
+ * oldest vehicle, of the highest priority class, that the space's slot class is compatible with.
+ * Finding it only looks at the head of every queue, so it costs O(priority classes * vehicle classes),
+ * no matter how long the waitlist grows.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+final class ParkingWaitlist {
+
+    private static final int VEHICLE_TYPES = VehicleType.values().length;
+
+    /**
+     * Queue of every priority class and vehicle class, at {@code priority * VEHICLE_TYPES + vehicleType}.
+     */
+    private final ArrayDeque<Waiter>[] queues;
+
+    /**
+     * Registration numbers of every waitlisted vehicle.
+     */
+    private final Set<String> waiting;
+
+    /**
+     * Arrival order of the next vehicle to be waitlisted.
+     */
+    private long nextSequence;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    ParkingWaitlist() {
+        this.queues = new ArrayDeque[WaitlistPriority.values().length * VEHICLE_TYPES];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ArrayDeque<>();
+        }
+        this.waiting = new HashSet<>();
+    }
+
+    /**
+     * Adds a vehicle at the end of the queue of its priority class.
+     *
+     * @param vehicle  The vehicle to be waitlisted.
+     * @param priority The priority class of the vehicle.
+     * @return The position of the vehicle on the waitlist, counting every vehicle served before it.
+     * @throws BadInputException if the vehicle is already waitlisted.
+     */
+    int enqueue(Vehicle vehicle, WaitlistPriority priority) {
+        if (!waiting.add(vehicle.getRegistrationNumber())) {
+            throw new BadInputException(
+                String.format("Registration number %s is already waitlisted",
+                    vehicle.getRegistrationNumber()));
+        }
+
+        int queue = priority.ordinal() * VEHICLE_TYPES + vehicle.getVehicleType().ordinal();
+        queues[queue].addLast(new Waiter(vehicle, nextSequence++));
+
+        int position = 0;
+        for (int i = 0; i < (priority.ordinal() + 1) * VEHICLE_TYPES; i++) {
+            position += queues[i].size();
+        }
+        return position;
+    }
+
+    /**
+     * Takes the vehicle next in line for a freed space of the given slot class off the waitlist.
+     *
+     * @param slotType       The slot class of the freed space.
+     * @param fallbackPolicy The policy deciding which vehicle classes the slot class can be given to.
+     * @return The vehicle to be parked in the freed space, or null if no waitlisted vehicle fits it.
+     */
+    Vehicle poll(SlotType slotType, FallbackPolicy fallbackPolicy) {
+        if (waiting.isEmpty()) {
+            return null;
+        }
+
+        VehicleType[] vehicleTypes = VehicleType.values();
+        for (int priority = 0; priority < WaitlistPriority.values().length; priority++) {
+            ArrayDeque<Waiter> oldest = null;
+            for (VehicleType vehicleType : vehicleTypes) {
+                ArrayDeque<Waiter> queue = queues[priority * VEHICLE_TYPES + vehicleType.ordinal()];
+                if (queue.isEmpty() || !fallbackPolicy.allows(vehicleType, slotType)) {
+                    continue;
+                }
+                if (oldest == null || queue.peekFirst().sequence() < oldest.peekFirst().sequence()) {
+                    oldest = queue;
+                }
+            }
+
+            if (oldest != null) {
+                Vehicle vehicle = oldest.pollFirst().vehicle();
+                waiting.remove(vehicle.getRegistrationNumber());
+                return vehicle;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the number of waitlisted vehicles.
+     *
+     * @return the size of the waitlist.
+     */
+    int size() {
+        return waiting.size();
+    }
+
+    /**
+     * A waitlisted vehicle, along with its arrival order.
+     *
+     * @param vehicle  the waitlisted vehicle
+     * @param sequence arrival order of the vehicle, across every queue
+     */
+    private record Waiter(Vehicle vehicle, long sequence) {
+    }
+}
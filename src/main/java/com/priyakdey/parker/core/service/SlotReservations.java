@@ -0,0 +1,181 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.service;
+
+import com.priyakdey.parker.core.model.ParkingSpace;
+import com.priyakdey.parker.core.model.Vehicle;
+import com.priyakdey.parker.exception.BadInputException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.IntPredicate;
+
+/**
+ * Keeps track of parking spaces held for vehicles which are yet to arrive.
+ * <p>
+ * A reserved space is taken out of the parking lot's free pools, and held till the vehicle claims
+ * it or the reservation expires. Expiry runs on a {@link HierarchicalTimingWheel} over a logical
+ * clock, and every space expired while advancing the clock is handed back to the parking lot in a
+ * single bulk release.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+final class SlotReservations {
+
+    private final ParkingLot parkingLot;
+
+    private final HierarchicalTimingWheel timingWheel;
+
+    /**
+     * Timer handle of the reservation held by every registration number.
+     */
+    private final Map<String, Integer> timerByRegistration;
+
+    /**
+     * Scratch buffer of the parking space ids expired while advancing the clock.
+     */
+    private int[] expiredIds;
+
+    private int expiredCount;
+
+    /**
+     * Offered every expired parking space before it is released, for the duration of an advance.
+     */
+    private IntPredicate handOff;
+
+    /**
+     * Initializes an empty reservation book over the given parking lot, at tick 0.
+     *
+     * @param parkingLot The parking lot to hold spaces in.
+     */
+    SlotReservations(ParkingLot parkingLot) {
+        this.parkingLot = parkingLot;
+        this.timingWheel = new HierarchicalTimingWheel(16);
+        this.timerByRegistration = new HashMap<>();
+        this.expiredIds = new int[16];
+    }
+
+    /**
+     * Holds the nearest compatible parking space for a vehicle, for the given number of ticks.
+     *
+     * @param vehicle  The vehicle to hold the space for.
+     * @param ttlTicks Number of ticks, from now, the space is held for.
+     * @return An Optional containing the held parking space, or an empty Optional if the parking lot is full.
+     * @throws BadInputException if the ttl is not positive or the vehicle already holds a reservation.
+     */
+    Optional<ParkingSpace> reserve(Vehicle vehicle, int ttlTicks) {
+        if (ttlTicks < 1) {
+            throw new BadInputException("Reservation needs to be held for at least one tick");
+        }
+        if (timerByRegistration.containsKey(vehicle.getRegistrationNumber())) {
+            throw new BadInputException(
+                String.format("Registration number %s already holds a reservation",
+                    vehicle.getRegistrationNumber()));
+        }
+
+        Optional<ParkingSpace> optionalParkingSpace =
+            parkingLot.bookParkingSpace(vehicle.getVehicleType());
+        if (optionalParkingSpace.isEmpty()) {
+            return Optional.empty();
+        }
+
+        ParkingSpace parkingSpace = optionalParkingSpace.get();
+        parkingSpace.setReservedFor(vehicle);
+        int timer = timingWheel.schedule(timingWheel.currentTick() + ttlTicks, parkingSpace.getId());
+        timerByRegistration.put(vehicle.getRegistrationNumber(), timer);
+        return optionalParkingSpace;
+    }
+
+    /**
+     * Parks the vehicle holding a reservation in its held space.
+     *
+     * @param registrationNumber The registration number of the arriving vehicle.
+     * @return The parking space the vehicle is now parked in.
+     * @throws BadInputException if the vehicle holds no reservation.
+     */
+    ParkingSpace claim(String registrationNumber) {
+        Integer timer = timerByRegistration.remove(registrationNumber);
+        if (timer == null) {
+            throw new BadInputException(
+                String.format("No reservation held for registration number %s", registrationNumber));
+        }
+
+        ParkingSpace parkingSpace = parkingLot.getParkingSpace(timingWheel.payload(timer));
+        timingWheel.cancel(timer);
+
+        Vehicle vehicle = parkingSpace.getReservedFor();
+        parkingSpace.setReservedFor(null);
+        parkingSpace.setParkedVehicle(vehicle);
+        vehicle.setParkedAt(parkingSpace);
+        return parkingSpace;
+    }
+
+    /**
+     * Advances the clock, releasing every reservation expired on the way back to the parking lot.
+     * <p>
+     * Every expired parking space is first offered to the hand-off, and only the ones it declines
+     * are released.
+     * </p>
+     *
+     * @param ticks   Number of ticks to advance the clock by.
+     * @param handOff Takes over an expired parking space id, returning false to have it released.
+     * @return Number of reservations expired.
+     */
+    int advance(int ticks, IntPredicate handOff) {
+        this.expiredCount = 0;
+        this.handOff = handOff;
+        try {
+            int expired = timingWheel.advanceTo(timingWheel.currentTick() + ticks, this::expire);
+            parkingLot.releaseParkingSpaces(expiredIds, expiredCount);
+            return expired;
+        } finally {
+            this.handOff = null;
+        }
+    }
+
+    /**
+     * Returns the current tick of the clock.
+     *
+     * @return the current tick.
+     */
+    long currentTick() {
+        return timingWheel.currentTick();
+    }
+
+    private void expire(int parkingSpaceId) {
+        ParkingSpace parkingSpace = parkingLot.getParkingSpace(parkingSpaceId);
+        timerByRegistration.remove(parkingSpace.getReservedFor().getRegistrationNumber());
+        parkingSpace.setReservedFor(null);
+
+        if (handOff.test(parkingSpaceId)) {
+            return;
+        }
+
+        if (expiredCount == expiredIds.length) {
+            expiredIds = Arrays.copyOf(expiredIds, expiredIds.length * 2);
+        }
+        expiredIds[expiredCount++] = parkingSpaceId;
+    }
+}
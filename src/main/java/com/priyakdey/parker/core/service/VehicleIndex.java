@@ -0,0 +1,348 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.core.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Secondary indexes over the vehicles parked in a parking lot - the parking spaces holding vehicles
+ * of every colour, and a trie over the registration numbers parked.
+ * <p>
+ * Both are kept up to date on every park and vacate, so a look up walks only the parking spaces it
+ * returns, never the whole parking lot. Colours are matched ignoring case. The trie drops every
+ * node no registration number runs through any more, so a prefix look up walks only the
+ * registration numbers it matches.
+ * </p>
+ * <p>
+ * The vehicles are kept in arrays indexed by parking space id, and the nodes dropped from the trie
+ * are kept aside to be reused, so indexing a vehicle parked without a colour allocates nothing once
+ * the parking lot has been as full before.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+final class VehicleIndex {
+
+    /**
+     * The registration number of every vehicle parked, by parking space id, null for a space with
+     * none.
+     */
+    private String[] registrationNumbers = new String[16];
+
+    /**
+     * The colour of every vehicle parked, in lower case, by parking space id, null if not recorded.
+     */
+    private String[] colours = new String[16];
+
+    private final Map<String, TreeSet<Integer>> slotsByColour = new HashMap<>();
+
+    private final Node registrations = new Node();
+
+    /**
+     * Nodes dropped from the trie, linked through {@link Node#nextSpare}, to be reused.
+     */
+    private Node spareNodes;
+
+    /**
+     * Indexes a vehicle parked in a parking space.
+     *
+     * @param parkingSpaceId     the id of the parking space
+     * @param registrationNumber the registration number of the vehicle
+     * @param colour             the colour of the vehicle, null if not recorded
+     */
+    void add(int parkingSpaceId, String registrationNumber, String colour) {
+        String colourKey = colour == null ? null : colour.toLowerCase(Locale.ROOT);
+        if (parkingSpaceId >= registrationNumbers.length) {
+            int length = Math.max(registrationNumbers.length * 2, parkingSpaceId + 1);
+            registrationNumbers = Arrays.copyOf(registrationNumbers, length);
+            colours = Arrays.copyOf(colours, length);
+        }
+        registrationNumbers[parkingSpaceId] = registrationNumber;
+        colours[parkingSpaceId] = colourKey;
+        if (colourKey != null) {
+            slotsByColour.computeIfAbsent(colourKey, key -> new TreeSet<>()).add(parkingSpaceId);
+        }
+
+        Node node = registrations;
+        node.count++;
+        for (int i = 0; i < registrationNumber.length(); i++) {
+            node = childOrAdd(node, registrationNumber.charAt(i));
+            node.count++;
+        }
+        node.parkingSpaceId = parkingSpaceId;
+    }
+
+    /**
+     * Drops the vehicle parked in a parking space from the indexes.
+     *
+     * @param parkingSpaceId the id of the vacated parking space
+     */
+    void remove(int parkingSpaceId) {
+        String registrationNumber = registrationAt(parkingSpaceId);
+        if (registrationNumber == null) {
+            return;
+        }
+
+        String colour = colours[parkingSpaceId];
+        registrationNumbers[parkingSpaceId] = null;
+        colours[parkingSpaceId] = null;
+        if (colour != null) {
+            TreeSet<Integer> slots = slotsByColour.get(colour);
+            slots.remove(parkingSpaceId);
+            if (slots.isEmpty()) {
+                slotsByColour.remove(colour);
+            }
+        }
+
+        Node node = registrations;
+        node.count--;
+        for (int i = 0; i < registrationNumber.length(); i++) {
+            Node child = node.child(registrationNumber.charAt(i));
+            if (--child.count == 0) {
+                node.removeChild(registrationNumber.charAt(i));
+                spare(child);
+                return;
+            }
+            node = child;
+        }
+        // a journal from before a registration number could be parked once only may hold it twice
+        if (node.parkingSpaceId == parkingSpaceId) {
+            node.parkingSpaceId = 0;
+        }
+    }
+
+    /**
+     * Returns the registration number of the vehicle parked in a parking space.
+     *
+     * @param parkingSpaceId the id of the parking space
+     * @return the registration number, null if no vehicle is parked in the space.
+     */
+    String registrationAt(int parkingSpaceId) {
+        return parkingSpaceId < registrationNumbers.length
+            ? registrationNumbers[parkingSpaceId] : null;
+    }
+
+    /**
+     * Looks up the parking space a registration number is parked in, in O(length) of the
+     * registration number.
+     *
+     * @param registrationNumber the registration number, matched as is
+     * @return the parking space id, 0 if the registration number is not parked.
+     */
+    int slotOf(String registrationNumber) {
+        Node node = registrations;
+        for (int i = 0; i < registrationNumber.length() && node != null; i++) {
+            node = node.child(registrationNumber.charAt(i));
+        }
+        return node == null ? 0 : node.parkingSpaceId;
+    }
+
+    /**
+     * Drops every vehicle from the indexes.
+     */
+    void clear() {
+        Arrays.fill(registrationNumbers, null);
+        Arrays.fill(colours, null);
+        slotsByColour.clear();
+        registrations.clear();
+        spareNodes = null;
+    }
+
+    /**
+     * Returns the parking spaces holding vehicles of a colour.
+     *
+     * @param colour the colour, in any case
+     * @return the parking space ids, in ascending order.
+     */
+    List<Integer> slotsForColour(String colour) {
+        TreeSet<Integer> slots = slotsByColour.get(colour.toLowerCase(Locale.ROOT));
+        return slots == null ? List.of() : List.copyOf(slots);
+    }
+
+    /**
+     * Returns the registration numbers of the vehicles of a colour.
+     *
+     * @param colour the colour, in any case
+     * @return the registration numbers, in the order of the parking spaces they are parked in.
+     */
+    List<String> registrationsForColour(String colour) {
+        TreeSet<Integer> slots = slotsByColour.get(colour.toLowerCase(Locale.ROOT));
+        if (slots == null) {
+            return List.of();
+        }
+
+        List<String> registrationNumbers = new ArrayList<>(slots.size());
+        for (int parkingSpaceId : slots) {
+            registrationNumbers.add(this.registrationNumbers[parkingSpaceId]);
+        }
+        return registrationNumbers;
+    }
+
+    /**
+     * Returns the parking spaces holding vehicles whose registration number starts with a prefix.
+     *
+     * @param prefix the registration number prefix, matched as is
+     * @return the parking space ids, in ascending order.
+     */
+    List<Integer> slotsForPrefix(String prefix) {
+        Node node = registrations;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null || node.count == 0) {
+            return List.of();
+        }
+
+        int[] slots = new int[node.count];
+        int found = collect(node, slots, 0);
+        Arrays.sort(slots, 0, found);
+
+        List<Integer> parkingSpaceIds = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            parkingSpaceIds.add(slots[i]);
+        }
+        return parkingSpaceIds;
+    }
+
+
+    // ---- Internals ------
+
+    /**
+     * Collects the parking space ids of every registration number under a node.
+     *
+     * @return the number of parking space ids collected so far.
+     */
+    private static int collect(Node node, int[] slots, int found) {
+        if (node.parkingSpaceId > 0) {
+            slots[found++] = node.parkingSpaceId;
+        }
+        for (int i = 0; i < node.size; i++) {
+            found = collect(node.children[i], slots, found);
+        }
+        return found;
+    }
+
+    /**
+     * Returns the child of a node for a character, adding it if missing, out of the spare nodes if
+     * there are any.
+     */
+    private Node childOrAdd(Node node, char key) {
+        Node child = node.child(key);
+        if (child != null) {
+            return child;
+        }
+
+        child = spareNodes;
+        if (child == null) {
+            child = new Node();
+        } else {
+            spareNodes = child.nextSpare;
+            child.nextSpare = null;
+        }
+        node.addChild(key, child);
+        return child;
+    }
+
+    /**
+     * Sets a node dropped from the trie aside, along with every node under it, emptied out, with
+     * their arrays kept to be filled again.
+     */
+    private void spare(Node node) {
+        for (int i = 0; i < node.size; i++) {
+            spare(node.children[i]);
+            node.children[i] = null;
+        }
+        node.size = 0;
+        node.count = 0;
+        node.parkingSpaceId = 0;
+        node.nextSpare = spareNodes;
+        spareNodes = node;
+    }
+
+    /**
+     * A node of the registration number trie, its children kept sorted by character.
+     */
+    private static final class Node {
+
+        private char[] keys = new char[0];
+
+        private Node[] children = new Node[0];
+
+        private int size;
+
+        /**
+         * Number of registration numbers running through the node.
+         */
+        private int count;
+
+        /**
+         * Id of the parking space the registration number ending at the node is parked in, 0 if
+         * none ends here.
+         */
+        private int parkingSpaceId;
+
+        /**
+         * The next spare node, while the node is set aside.
+         */
+        private Node nextSpare;
+
+        private Node child(char key) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            return index < 0 ? null : children[index];
+        }
+
+        private void addChild(char key, Node child) {
+            int insertAt = -Arrays.binarySearch(keys, 0, size, key) - 1;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(2, size * 2));
+                children = Arrays.copyOf(children, keys.length);
+            }
+            System.arraycopy(keys, insertAt, keys, insertAt + 1, size - insertAt);
+            System.arraycopy(children, insertAt, children, insertAt + 1, size - insertAt);
+            keys[insertAt] = key;
+            children[insertAt] = child;
+            size++;
+        }
+
+        private void removeChild(char key) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(children, index + 1, children, index, size - index - 1);
+            children[--size] = null;
+        }
+
+        private void clear() {
+            keys = new char[0];
+            children = new Node[0];
+            size = 0;
+            count = 0;
+            parkingSpaceId = 0;
+        }
+    }
+}
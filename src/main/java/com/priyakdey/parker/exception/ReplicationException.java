@@ -0,0 +1,58 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.exception;
+
+import java.io.Serial;
+
+/**
+ * Signals that the journal record stream could not be shipped to, or applied on, a standby.
+ * <p>
+ * This exception wraps the underlying I/O failure, or describes why the standby cannot continue
+ * from where it is, like a standby which has fallen behind the records the leader still holds.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class ReplicationException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 6153782041961437280L;
+
+    /**
+     * Constructs a new runtime exception with the specified detail message.
+     *
+     * @param message the detail message.
+     */
+    public ReplicationException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new runtime exception with the specified detail message and cause.
+     *
+     * @param message the detail message.
+     * @param cause   the underlying failure.
+     */
+    public ReplicationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
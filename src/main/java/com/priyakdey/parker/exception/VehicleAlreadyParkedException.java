@@ -0,0 +1,51 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.exception;
+
+import java.io.Serial;
+
+/**
+ * Thrown to indicate that a vehicle is to be parked under a registration number already parked in
+ * the parking lot.
+ * <p>
+ * A registration number is parked in one parking space at a time, so it can be looked up, and
+ * vacated, by its registration number alone.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class VehicleAlreadyParkedException extends BadInputException {
+    @Serial
+    private static final long serialVersionUID = -3021745612887105193L;
+
+    /**
+     * Constructs a new exception for the registration number already parked.
+     *
+     * @param registrationNumber the registration number already parked
+     * @param parkingSpaceId     the id of the parking space it is parked in
+     */
+    public VehicleAlreadyParkedException(String registrationNumber, int parkingSpaceId) {
+        super(String.format("Vehicle with registration number %s is already parked in slot %d",
+            registrationNumber, parkingSpaceId));
+    }
+}
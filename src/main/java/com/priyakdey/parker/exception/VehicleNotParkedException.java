@@ -0,0 +1,50 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.exception;
+
+import java.io.Serial;
+
+/**
+ * Thrown to indicate that a vehicle is to leave under a registration number not parked in the
+ * parking lot.
+ * <p>
+ * Unlike the other bad inputs, it says nothing of the request itself, so it is replied to as a
+ * vehicle not found, rather than as a malformed request.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public class VehicleNotParkedException extends BadInputException {
+    @Serial
+    private static final long serialVersionUID = 6402913358271640458L;
+
+    /**
+     * Constructs a new exception for the registration number not parked.
+     *
+     * @param registrationNumber the registration number not parked
+     */
+    public VehicleNotParkedException(String registrationNumber) {
+        super(String.format("No vehicle with registration number %s is parked right now.",
+            registrationNumber));
+    }
+}
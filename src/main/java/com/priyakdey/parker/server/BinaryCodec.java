@@ -0,0 +1,181 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.server;
+
+import com.priyakdey.parker.core.model.VehicleType;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes and decodes the frames of the binary protocol, a fixed layout alternative to the text
+ * commands for {@code park} and {@code leave}, for clients sending them at a high rate.
+ * <p>
+ * Every request and every reply is {@value #FRAME_BYTES} bytes, big-endian. The registration number
+ * travels packed with {@link com.priyakdey.parker.common.PackedRegistration}, so the server neither
+ * splits nor matches any text.
+ * </p>
+ * <pre>
+ *     request - [opcode : byte][vehicle type : byte][0 : short][request id : int][registration : long][hours : int]
+ *     reply   - [opcode : byte][status : byte][0 : short][request id : int][slot : int][charge cents : long]
+ * </pre>
+ * <p>
+ * The vehicle type is the ordinal of the {@link VehicleType}, and only read by {@link #PARK}, the
+ * hours only by {@link #LEAVE}. A reply carries the opcode and the request id of its request, the
+ * slot parked in or left, or the waitlist position for {@link #WAITLISTED}, and the charge of a
+ * {@link #LEAVE}. A leave whose slot went straight to a waitlisted vehicle is replied to with
+ * {@link #HANDED_OFF}, instead of {@link #OK}. A server tells a binary client from a text one by the first byte it sends, which
+ * is an opcode for a binary client, and never is for a text one.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public final class BinaryCodec {
+
+    public static final int FRAME_BYTES = 20;
+
+    public static final byte PARK = 1;
+
+    public static final byte LEAVE = 2;
+
+    public static final byte OK = 0;
+
+    public static final byte FULL = 1;
+
+    public static final byte WAITLISTED = 2;
+
+    public static final byte NOT_FOUND = 3;
+
+    public static final byte BAD_REQUEST = 4;
+
+    public static final byte NO_PARKING_LOT = 5;
+
+    public static final byte ERROR = 6;
+
+    public static final byte HANDED_OFF = 7;
+
+    private static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+
+    private BinaryCodec() {
+    }
+
+    /**
+     * Encodes a park request at the buffer's position, moving it past the frame.
+     *
+     * @param out          the buffer, with at least {@value #FRAME_BYTES} bytes remaining
+     * @param requestId    the id to match the reply by
+     * @param registration the packed registration number
+     * @param vehicleType  the class of the vehicle
+     */
+    public static void encodePark(ByteBuffer out, int requestId, long registration,
+                                  VehicleType vehicleType) {
+        encodeRequest(out, PARK, (byte) vehicleType.ordinal(), requestId, registration, 0);
+    }
+
+    /**
+     * Encodes a leave request at the buffer's position, moving it past the frame.
+     *
+     * @param out          the buffer, with at least {@value #FRAME_BYTES} bytes remaining
+     * @param requestId    the id to match the reply by
+     * @param registration the packed registration number
+     * @param hours        the hours the vehicle was parked for
+     */
+    public static void encodeLeave(ByteBuffer out, int requestId, long registration, int hours) {
+        encodeRequest(out, LEAVE, (byte) 0, requestId, registration, hours);
+    }
+
+    /**
+     * Encodes a reply at the buffer's position, moving it past the frame.
+     *
+     * @param out         the buffer, with at least {@value #FRAME_BYTES} bytes remaining
+     * @param opcode      the opcode of the request
+     * @param status      the outcome of the request
+     * @param requestId   the id of the request
+     * @param slot        the slot parked in or left, the waitlist position, or 0
+     * @param chargeCents the charge of a leave, or 0
+     */
+    public static void encodeReply(ByteBuffer out, byte opcode, byte status, int requestId,
+                                   int slot, long chargeCents) {
+        out.put(opcode)
+            .put(status)
+            .putShort((short) 0)
+            .putInt(requestId)
+            .putInt(slot)
+            .putLong(chargeCents);
+    }
+
+    /**
+     * Decodes a reply at the buffer's position, moving it past the frame.
+     *
+     * @param in the buffer, with at least {@value #FRAME_BYTES} bytes remaining
+     * @return the reply.
+     */
+    public static BinaryReply decodeReply(ByteBuffer in) {
+        byte opcode = in.get();
+        byte status = in.get();
+        in.getShort();
+        return new BinaryReply(opcode, status, in.getInt(), in.getInt(), in.getLong());
+    }
+
+
+    // ---- Requests, read in place by the server ------
+
+    static boolean isOpcode(byte b) {
+        return b == PARK || b == LEAVE;
+    }
+
+    static byte opcode(ByteBuffer in, int frame) {
+        return in.get(frame);
+    }
+
+    /**
+     * Returns the vehicle class of a park request, null if the type is unknown.
+     */
+    static VehicleType vehicleType(ByteBuffer in, int frame) {
+        int ordinal = in.get(frame + 1);
+        return ordinal >= 0 && ordinal < VEHICLE_TYPES.length ? VEHICLE_TYPES[ordinal] : null;
+    }
+
+    static int requestId(ByteBuffer in, int frame) {
+        return in.getInt(frame + 4);
+    }
+
+    static long registration(ByteBuffer in, int frame) {
+        return in.getLong(frame + 8);
+    }
+
+    static int hours(ByteBuffer in, int frame) {
+        return in.getInt(frame + 16);
+    }
+
+
+    // ---- Internals ------
+
+    private static void encodeRequest(ByteBuffer out, byte opcode, byte vehicleType, int requestId,
+                                      long registration, int hours) {
+        out.put(opcode)
+            .put(vehicleType)
+            .putShort((short) 0)
+            .putInt(requestId)
+            .putLong(registration)
+            .putInt(hours);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.server;
+
+import com.priyakdey.parker.common.PackedRegistration;
+import com.priyakdey.parker.common.Validator;
+import com.priyakdey.parker.core.model.VehicleType;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Converts a command file into requests of the binary protocol, to replay it through a binary
+ * client, example - {@code nc -q 1 127.0.0.1 7070 < commands.bin}.
+ * <pre>
+ *     BinaryConverter {input file} {output file}
+ * </pre>
+ * <p>
+ * Every {@code park} and {@code leave} line becomes a frame, with its line number as the request
+ * id. A park keeps its vehicle class, and drops a colour or a waitlist priority, which have no
+ * place in a frame. Any other command has no binary form, and is skipped with a warning, like a
+ * malformed line is.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public final class BinaryConverter {
+
+    private static final String BAD_LINE_MSG_TMPL = "Skipped line %d, %s%n";
+
+    private BinaryConverter() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("ERROR: Expecting an input file and an output file");
+            System.exit(1);
+        }
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Path.of(args[1])))) {
+            int frames = convert(Files.readAllLines(Path.of(args[0])), out, System.err);
+            System.out.printf("Converted %d commands%n", frames);
+        } catch (IOException ex) {
+            System.err.printf("ERROR: Cannot convert %s. Details = %s%n", args[0], ex.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Converts the lines of a command file into binary requests.
+     *
+     * @param lines    the lines of the command file
+     * @param out      the stream to write the requests to
+     * @param warnings the stream to report the skipped lines on
+     * @return the number of requests written.
+     * @throws IOException if the requests cannot be written.
+     */
+    public static int convert(List<String> lines, OutputStream out, PrintStream warnings)
+        throws IOException {
+        ByteBuffer frame = ByteBuffer.allocate(BinaryCodec.FRAME_BYTES);
+        int frames = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            int lineNumber = i + 1;
+            String line = lines.get(i).trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            String[] args = line.split("\\s+");
+            frame.clear();
+            String problem = switch (args[0]) {
+                case "park" -> encodePark(frame, lineNumber, args);
+                case "leave" -> encodeLeave(frame, lineNumber, args);
+                default -> String.format("`%s` has no binary form", args[0]);
+            };
+            if (problem != null) {
+                warnings.printf(BAD_LINE_MSG_TMPL, lineNumber, problem);
+                continue;
+            }
+
+            out.write(frame.array(), 0, BinaryCodec.FRAME_BYTES);
+            frames++;
+        }
+        return frames;
+    }
+
+
+    // ---- Internals ------
+
+    /**
+     * Encodes a park line, returning what is wrong with it, or null if it was encoded.
+     */
+    private static String encodePark(ByteBuffer frame, int requestId, String[] args) {
+        if (args.length < 2) {
+            return "expecting a registration number";
+        }
+        long registration = PackedRegistration.pack(args[1]);
+        if (registration == PackedRegistration.INVALID) {
+            return "bad registration number";
+        }
+
+        VehicleType vehicleType = VehicleType.CAR;
+        for (int i = 2; i < args.length; i++) {
+            Optional<VehicleType> optionalVehicleType = VehicleType.findByCode(args[i]);
+            if (optionalVehicleType.isPresent()) {
+                vehicleType = optionalVehicleType.get();
+            }
+        }
+
+        BinaryCodec.encodePark(frame, requestId, registration, vehicleType);
+        return null;
+    }
+
+    /**
+     * Encodes a leave line, returning what is wrong with it, or null if it was encoded.
+     */
+    private static String encodeLeave(ByteBuffer frame, int requestId, String[] args) {
+        if (args.length < 3) {
+            return "expecting a registration number and hours";
+        }
+        long registration = PackedRegistration.pack(args[1]);
+        if (registration == PackedRegistration.INVALID) {
+            return "bad registration number";
+        }
+        if (!Validator.isDigit(args[2]) || args[2].length() > 9) {
+            return "bad hours";
+        }
+
+        BinaryCodec.encodeLeave(frame, requestId, registration, Integer.parseInt(args[2]));
+        return null;
+    }
+}
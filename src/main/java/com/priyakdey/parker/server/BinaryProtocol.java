@@ -0,0 +1,168 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.server;
+
+import static com.priyakdey.parker.server.BinaryCodec.FRAME_BYTES;
+
+import com.priyakdey.parker.command.CommandInvoker;
+import com.priyakdey.parker.common.PackedRegistration;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.core.model.ParkingCharge;
+import com.priyakdey.parker.core.model.VehicleType;
+import com.priyakdey.parker.core.model.WaitlistPriority;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.service.ParkingService;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+/**
+ * The binary protocol - fixed size {@code park} and {@code leave} frames, laid out by
+ * {@link BinaryCodec}, each replied to with a fixed size frame.
+ * <p>
+ * Every complete frame of a read is run under a single hold of the engine lock. A request which
+ * fails is replied to with a status telling why, and the frames after it are run on, as a frame
+ * never leaves the stream out of step.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+final class BinaryProtocol implements Protocol {
+
+    private final ReplyBuffer replies;
+
+    private final ByteBuffer reply = ByteBuffer.allocate(FRAME_BYTES);
+
+    /**
+     * Number of requests replied to with {@link BinaryCodec#BAD_REQUEST} in the current read.
+     */
+    private int badRequests;
+
+    BinaryProtocol(ReplyBuffer replies) {
+        this.replies = replies;
+    }
+
+    @Override
+    public boolean run(ByteBuffer in, boolean endOfInput, CommandInvoker invoker) {
+        int end = in.position();
+        int frames = end / FRAME_BYTES;
+        if (frames > 0) {
+            invoker.call(() -> {
+                ParkingService parkingService =
+                    ApplicationContext.getInstance().get(ParkingService.class);
+                for (int frame = 0; frame < frames * FRAME_BYTES; frame += FRAME_BYTES) {
+                    serve(parkingService, in, frame);
+                }
+                return null;
+            });
+        }
+        if (badRequests > 0) {
+            invoker.recordBadInputs(badRequests);
+            badRequests = 0;
+        }
+
+        // a partial frame left at the end of the input is never completed, and dropped
+        in.limit(end).position(frames * FRAME_BYTES);
+        in.compact();
+        return true;
+    }
+
+
+    // ---- Internals ------
+
+    private void serve(ParkingService parkingService, ByteBuffer in, int frame) {
+        byte opcode = BinaryCodec.opcode(in, frame);
+        int requestId = BinaryCodec.requestId(in, frame);
+        if (parkingService == null) {
+            reply(opcode, BinaryCodec.NO_PARKING_LOT, requestId, 0, 0);
+            return;
+        }
+
+        try {
+            switch (opcode) {
+                case BinaryCodec.PARK -> park(parkingService, in, frame, requestId);
+                case BinaryCodec.LEAVE -> leave(parkingService, in, frame, requestId);
+                default -> reply(opcode, BinaryCodec.BAD_REQUEST, requestId, 0, 0);
+            }
+        } catch (BadInputException ex) {
+            reply(opcode, BinaryCodec.BAD_REQUEST, requestId, 0, 0);
+        } catch (RuntimeException ex) {
+            // a failed request fails only itself, never the connection or the server
+            reply(opcode, BinaryCodec.ERROR, requestId, 0, 0);
+        }
+    }
+
+    private void park(ParkingService parkingService, ByteBuffer in, int frame, int requestId) {
+        VehicleType vehicleType = BinaryCodec.vehicleType(in, frame);
+        if (vehicleType == null) {
+            reply(BinaryCodec.PARK, BinaryCodec.BAD_REQUEST, requestId, 0, 0);
+            return;
+        }
+
+        String registrationNumber =
+            PackedRegistration.unpack(BinaryCodec.registration(in, frame));
+        Optional<Integer> parkingSpaceId =
+            parkingService.park(registrationNumber, vehicleType, null);
+        if (parkingSpaceId.isPresent()) {
+            reply(BinaryCodec.PARK, BinaryCodec.OK, requestId, parkingSpaceId.get(), 0);
+        } else if (parkingService.isWaitlistEnabled()) {
+            int position = parkingService.waitlist(registrationNumber, vehicleType, null,
+                WaitlistPriority.REGULAR);
+            reply(BinaryCodec.PARK, BinaryCodec.WAITLISTED, requestId, position, 0);
+        } else {
+            reply(BinaryCodec.PARK, BinaryCodec.FULL, requestId, 0, 0);
+        }
+    }
+
+    private void leave(ParkingService parkingService, ByteBuffer in, int frame, int requestId) {
+        int hours = BinaryCodec.hours(in, frame);
+        if (hours < 0) {
+            reply(BinaryCodec.LEAVE, BinaryCodec.BAD_REQUEST, requestId, 0, 0);
+            return;
+        }
+
+        String registrationNumber =
+            PackedRegistration.unpack(BinaryCodec.registration(in, frame));
+        ParkingCharge charge;
+        try {
+            charge = parkingService.leave(registrationNumber, hours);
+        } catch (BadInputException ex) {
+            reply(BinaryCodec.LEAVE, BinaryCodec.NOT_FOUND, requestId, 0, 0);
+            return;
+        }
+        int slot = charge.parkedSpot();
+        // the slot left is only taken already if it went to a waitlisted vehicle
+        byte status =
+            parkingService.isWaitlistEnabled() && parkingService.countFree(slot, slot) == 0
+                ? BinaryCodec.HANDED_OFF : BinaryCodec.OK;
+        reply(BinaryCodec.LEAVE, status, requestId, slot, charge.chargeCents());
+    }
+
+    private void reply(byte opcode, byte status, int requestId, int slot, long chargeCents) {
+        if (status == BinaryCodec.BAD_REQUEST) {
+            badRequests++;
+        }
+        reply.clear();
+        BinaryCodec.encodeReply(reply, opcode, status, requestId, slot, chargeCents);
+        replies.write(reply.array(), 0, FRAME_BYTES);
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.server;
+
+import com.priyakdey.parker.command.CommandInvoker;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A long-running server taking commands from any number of clients, in the same text protocol as
+ * the command files.
+ * <p>
+ * The server listens on TCP addresses, and on Unix domain sockets for clients on the same machine,
+ * which skip the TCP stack of the loopback. Connections of every kind are served alike - a single
+ * thread multiplexes all of them with a {@link Selector}, and runs their commands on one
+ * {@link CommandInvoker}, so the commands of all clients are run one at a time, like the lines of a
+ * single command file. Clients may pipeline commands - see {@link Connection}.
+ * </p>
+ * <p>
+ * A command blocking the thread, like {@code promote} waiting for the leader to go away, holds back
+ * every client till it is done.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public final class CommandServer {
+
+    private static final long CLOSE_TIMEOUT_MILLIS = 5_000;
+
+    private final ServerConfig config;
+
+    private final CommandInvoker invoker;
+
+    private final List<ServerSocketChannel> listeners;
+
+    private final Selector selector;
+
+    /**
+     * Connections with events come in for their clients, to write them out from the serving
+     * thread.
+     */
+    private final Queue<Connection> withEvents = new ConcurrentLinkedQueue<>();
+
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private volatile boolean closed;
+
+    private CommandServer(ServerConfig config, CommandInvoker invoker,
+                          List<ServerSocketChannel> listeners, Selector selector) {
+        this.config = config;
+        this.invoker = invoker;
+        this.listeners = listeners;
+        this.selector = selector;
+    }
+
+    /**
+     * Starts listening on the configured addresses. Nothing is accepted till {@link #run()} is
+     * called.
+     *
+     * @param config  the server settings
+     * @param invoker the invoker to run every client's commands with
+     * @return the listening server.
+     * @throws IOException if any of the addresses cannot be listened on.
+     */
+    public static CommandServer open(ServerConfig config, CommandInvoker invoker)
+        throws IOException {
+        Selector selector = Selector.open();
+        List<ServerSocketChannel> listeners = new ArrayList<>(config.addresses().size());
+        try {
+            for (SocketAddress address : config.addresses()) {
+                ServerSocketChannel listener = bind(address);
+                listeners.add(listener);
+                listener.configureBlocking(false);
+                listener.register(selector, SelectionKey.OP_ACCEPT);
+            }
+        } catch (IOException ex) {
+            closeListeners(listeners);
+            selector.close();
+            throw ex;
+        }
+        return new CommandServer(config, invoker, listeners, selector);
+    }
+
+    /**
+     * Returns the addresses the server listens on, in the configured order, with the port picked
+     * where it was asked for port 0.
+     *
+     * @return the bound addresses.
+     * @throws IOException if the server is closed.
+     */
+    public List<SocketAddress> localAddresses() throws IOException {
+        List<SocketAddress> addresses = new ArrayList<>(listeners.size());
+        for (ServerSocketChannel listener : listeners) {
+            addresses.add(listener.getLocalAddress());
+        }
+        return addresses;
+    }
+
+    /**
+     * Serves clients on the calling thread, till the server is closed.
+     */
+    public void run() {
+        try {
+            while (!closed) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid()) {
+                        handle(key);
+                    }
+                }
+                writeEvents();
+            }
+        } catch (IOException ex) {
+            if (!closed) {
+                System.err.printf("ERROR: Server stopped. Details = %s%n", ex.getMessage());
+            }
+        } finally {
+            shutdown();
+            stopped.countDown();
+        }
+    }
+
+    /**
+     * Stops serving, dropping every client, and waits for the serving thread to let go of the
+     * parking lot.
+     */
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        try {
+            stopped.await(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    // ---- Internals ------
+
+    private void handle(SelectionKey key) throws IOException {
+        if (key.isAcceptable()) {
+            accept((ServerSocketChannel) key.channel());
+            return;
+        }
+
+        Connection connection = (Connection) key.attachment();
+        try {
+            boolean open = key.isReadable()
+                ? connection.onReadable(invoker)
+                : connection.onWritable();
+            if (!open) {
+                connection.close();
+            }
+        } catch (IOException ex) {
+            // the client went away, the others are served on
+            connection.close();
+        }
+    }
+
+    /**
+     * Queues a connection to have its events written, from any thread.
+     */
+    private void eventsAvailable(Connection connection) {
+        withEvents.add(connection);
+        selector.wakeup();
+    }
+
+    private void writeEvents() {
+        Connection connection;
+        while ((connection = withEvents.poll()) != null) {
+            if (!connection.isOpen()) {
+                continue;
+            }
+
+            try {
+                if (!connection.onEvents()) {
+                    connection.close();
+                }
+            } catch (IOException ex) {
+                connection.close();
+            }
+        }
+    }
+
+    private void accept(ServerSocketChannel listener) throws IOException {
+        SocketChannel channel = listener.accept();
+        if (channel == null) {
+            return;
+        }
+
+        channel.configureBlocking(false);
+        if (channel.supportedOptions().contains(StandardSocketOptions.TCP_NODELAY)) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(channel, key, config.maxLineBytes(), this::eventsAvailable));
+    }
+
+    private void shutdown() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection connection) {
+                connection.close();
+            }
+        }
+        closeListeners(listeners);
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+            // nothing left to serve
+        }
+    }
+
+    /**
+     * Binds a listening socket, replacing a stale Unix domain socket file left behind.
+     */
+    private static ServerSocketChannel bind(SocketAddress address) throws IOException {
+        ServerSocketChannel listener;
+        if (address instanceof UnixDomainSocketAddress unixAddress) {
+            Files.deleteIfExists(unixAddress.getPath());
+            listener = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            listener = ServerSocketChannel.open();
+        }
+
+        try {
+            listener.bind(address);
+        } catch (IOException ex) {
+            listener.close();
+            throw ex;
+        }
+        return listener;
+    }
+
+    /**
+     * Closes the listening sockets, and removes the files of the Unix domain ones.
+     */
+    private static void closeListeners(List<ServerSocketChannel> listeners) {
+        for (ServerSocketChannel listener : listeners) {
+            try {
+                SocketAddress address = listener.getLocalAddress();
+                listener.close();
+                if (address instanceof UnixDomainSocketAddress unixAddress) {
+                    Files.deleteIfExists(unixAddress.getPath());
+                }
+            } catch (IOException ignored) {
+                // the socket file is replaced by the next bind anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.server;
+
+import com.priyakdey.parker.command.CommandInvoker;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.function.Consumer;
+
+/**
+ * A client connected to a {@link CommandServer}, over TCP or a Unix domain socket.
+ * <p>
+ * The connection speaks the {@link TextProtocol} of the command files, or the
+ * {@link BinaryProtocol}, told apart by the first byte the client sends. Everything else is the
+ * same for both - a client may send any number of requests without waiting for their replies. Every
+ * complete request of a read is run in order, and the replies to all of them are sent together.
+ * While replies are pending, the connection is not read from, so a client which does not read its
+ * replies only ever holds back its own requests.
+ * </p>
+ * <p>
+ * A text client may subscribe to a stream of events as well. The events are written whenever the
+ * socket has taken every reply, so a client which does not read them only leaves them to pile up,
+ * and be conflated, in its own subscription.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+final class Connection {
+
+    private final SocketChannel channel;
+
+    private final SelectionKey key;
+
+    /**
+     * Bytes read and not run yet, at most one partial request between two reads.
+     */
+    private final ByteBuffer in;
+
+    private final ReplyBuffer replies = new ReplyBuffer();
+
+    /**
+     * Called with the connection when an event comes in for its client, on the thread raising it.
+     */
+    private final Consumer<Connection> onEvents;
+
+    /**
+     * The protocol of the client, null till it sends its first byte.
+     */
+    private Protocol protocol;
+
+    private boolean endOfInput;
+
+    Connection(SocketChannel channel, SelectionKey key, int maxLineBytes,
+               Consumer<Connection> onEvents) {
+        this.channel = channel;
+        this.key = key;
+        this.in = ByteBuffer.allocate(maxLineBytes);
+        this.onEvents = onEvents;
+    }
+
+    /**
+     * Reads what the client sent, runs every complete request, and sends the replies.
+     *
+     * @param invoker the invoker to run the requests with
+     * @return false if the connection is done with and can be closed, true otherwise.
+     * @throws IOException if the connection is broken.
+     */
+    boolean onReadable(CommandInvoker invoker) throws IOException {
+        if (channel.read(in) < 0) {
+            endOfInput = true;
+        }
+
+        if (protocol == null && in.position() > 0) {
+            protocol = BinaryCodec.isOpcode(in.get(0))
+                ? new BinaryProtocol(replies)
+                : new TextProtocol(replies, () -> onEvents.accept(this));
+        }
+        if (protocol != null && !protocol.run(in, endOfInput, invoker)) {
+            endOfInput = true;
+        }
+        return sendReplies();
+    }
+
+    /**
+     * Sends the replies the socket could not take earlier.
+     *
+     * @return false if the connection is done with and can be closed, true otherwise.
+     * @throws IOException if the connection is broken.
+     */
+    boolean onWritable() throws IOException {
+        boolean open = sendReplies();
+        if (open && !replies.hasPending()) {
+            open = onEvents();
+        }
+        return open;
+    }
+
+    /**
+     * Writes the events streamed to the client, unless the socket has not taken every reply yet,
+     * in which case they are written once it has.
+     *
+     * @return false if the connection is done with and can be closed, true otherwise.
+     * @throws IOException if the connection is broken.
+     */
+    boolean onEvents() throws IOException {
+        if (protocol == null || replies.hasPending()) {
+            return true;
+        }
+
+        protocol.writeEvents();
+        return sendReplies();
+    }
+
+    boolean isOpen() {
+        return key.isValid();
+    }
+
+    void close() {
+        if (protocol != null) {
+            protocol.close();
+        }
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // the client is gone either way
+        }
+    }
+
+
+    // ---- Internals ------
+
+    private boolean sendReplies() throws IOException {
+        if (!replies.sendTo(channel)) {
+            key.interestOps(SelectionKey.OP_WRITE);
+            return true;
+        }
+        if (endOfInput) {
+            return false;
+        }
+
+        key.interestOps(SelectionKey.OP_READ);
+        return true;
+    }
+}
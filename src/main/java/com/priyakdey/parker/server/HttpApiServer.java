@@ -0,0 +1,539 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.server;
+
+import com.priyakdey.parker.command.CommandInvoker;
+import com.priyakdey.parker.common.Validator;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.core.model.LotStats;
+import com.priyakdey.parker.core.model.OccupancyEvent;
+import com.priyakdey.parker.core.model.ParkingCharge;
+import com.priyakdey.parker.core.model.VehicleType;
+import com.priyakdey.parker.core.model.WaitlistPriority;
+import com.priyakdey.parker.core.model.ZoneStats;
+import com.priyakdey.parker.core.service.OccupancySubscription;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.exception.ReadOnlyStandbyException;
+import com.priyakdey.parker.exception.VehicleAlreadyParkedException;
+import com.priyakdey.parker.exception.VehicleNotParkedException;
+import com.priyakdey.parker.service.ParkingService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An HTTP API over the parking lot, replying in JSON, for clients which cannot speak the command
+ * protocol.
+ * <p>
+ * Every request is served on a virtual thread of its own, so a slow client holds a cheap thread and
+ * never a platform one. The parking lot is only touched under the engine lock, exclusively of the
+ * commands, and the reply is written once the lock is let go of, token by token with a
+ * {@link JsonWriter}.
+ * </p>
+ * <ul>
+ *     <li>{@code POST /park?registration=KA-01-HH-1234[&type=ev][&colour=White][&priority=regular]},
+ *     waitlisting the vehicle if the lot is full and has a waitlist</li>
+ *     <li>{@code POST /leave?registration=KA-01-HH-1234&hours=4}</li>
+ *     <li>{@code GET /status[?from=1&to=100]}</li>
+ *     <li>{@code GET /stats}</li>
+ *     <li>{@code GET /subscribe[?queue=1024]}</li>
+ *     <li>{@code GET /metrics}</li>
+ * </ul>
+ * <p>
+ * Parameters are read off the query string, and off a form encoded body as well.
+ * </p>
+ * <p>
+ * {@code /subscribe} streams the occupancy changes of the parking lot, a JSON object a line, for as
+ * long as the client stays connected. A client reading slower than the changes come in gets the
+ * latest free count of the slot classes it fell behind on, instead of every change.
+ * </p>
+ * <p>
+ * {@code /metrics} serves the metrics of the engine to Prometheus, see {@link MetricsExposition}.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+public final class HttpApiServer {
+
+    private static final String JSON_CONTENT_TYPE = "application/json";
+
+    private static final String PARKING_FULL_MSG = "Sorry, parking lot is full";
+
+    private static final String ALREADY_WAITLISTED_MSG_TMPL =
+        "Registration number %s is already waitlisted";
+
+    private static final String VEHICLE_NOT_FOUND_MSG_TMPL = "Registration number %s not found";
+
+    private static final String NO_PARKING_LOT_MSG = "No parking lot, create one first";
+
+    private static final String EVENT_STREAM_CONTENT_TYPE = "application/x-ndjson";
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * Longest the requests being served are waited for, when stopping.
+     */
+    private static final int STOP_GRACE_SECONDS = 1;
+
+    /**
+     * How often a streaming request checks if the server is stopping, while no event comes in.
+     */
+    private static final long EVENT_POLL_MILLIS = 1_000;
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final CommandInvoker invoker;
+
+    private final Set<OccupancySubscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    private final MetricsExposition metrics = new MetricsExposition();
+
+    /**
+     * Held from rendering the metrics till they are sent, as they are sent off the one buffer.
+     */
+    private final ReentrantLock metricsLock = new ReentrantLock();
+
+    private HttpApiServer(HttpServer server, ExecutorService executor, CommandInvoker invoker) {
+        this.server = server;
+        this.executor = executor;
+        this.invoker = invoker;
+    }
+
+    /**
+     * Starts serving the API on the configured address.
+     *
+     * @param config  the API settings
+     * @param invoker the invoker running the commands, to serve requests exclusively of them
+     * @return the running server.
+     * @throws IOException if the address cannot be listened on.
+     */
+    public static HttpApiServer start(HttpConfig config, CommandInvoker invoker) throws IOException {
+        HttpServer server = HttpServer.create(config.address(), config.backlog());
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpApiServer api = new HttpApiServer(server, executor, invoker);
+
+        server.createContext("/park", exchange -> api.serve(exchange, "POST", api::park));
+        server.createContext("/leave", exchange -> api.serve(exchange, "POST", api::leave));
+        server.createContext("/status", exchange -> api.serve(exchange, "GET", api::status));
+        server.createContext("/stats", exchange -> api.serve(exchange, "GET", api::stats));
+        server.createContext("/subscribe", api::stream);
+        server.createContext("/metrics", api::scrape);
+        server.setExecutor(executor);
+        server.start();
+        return api;
+    }
+
+    /**
+     * Returns the address the API is served on, with the port picked if it was asked for port 0.
+     *
+     * @return the bound address.
+     */
+    public InetSocketAddress localAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stops taking requests, ends the event streams, and lets the requests being served finish.
+     */
+    public void stop() {
+        subscriptions.forEach(OccupancySubscription::close);
+        // the streams ended still have their last chunk to write, which closing the connections
+        // right away would cut off
+        server.stop(STOP_GRACE_SECONDS);
+        executor.close();
+    }
+
+
+    // ---- Endpoints, run under the engine lock ------
+
+    private Reply park(ParkingService parkingService, Map<String, String> params) {
+        String registrationNumber = registrationNumber(params);
+        String type = params.get("type");
+        VehicleType vehicleType = type == null ? VehicleType.CAR : VehicleType.fromCode(type);
+        String colour = params.get("colour");
+        if (colour != null && !Validator.isColour(colour)) {
+            throw new BadInputException("Invalid `colour`, expecting a word");
+        }
+        String priorityCode = params.get("priority");
+        WaitlistPriority priority = priorityCode == null ? WaitlistPriority.REGULAR
+            : WaitlistPriority.findByCode(priorityCode).orElseThrow(
+                () -> new BadInputException("Invalid `priority`, expecting a waitlist priority"));
+
+        Optional<Integer> parkingSpaceId;
+        try {
+            parkingSpaceId = parkingService.park(registrationNumber, vehicleType, colour);
+        } catch (VehicleAlreadyParkedException ex) {
+            return Reply.error(409, ex.getMessage());
+        }
+        if (parkingSpaceId.isEmpty()) {
+            return parkingService.isWaitlistEnabled()
+                ? waitlist(parkingService, registrationNumber, vehicleType, colour, priority)
+                : Reply.error(409, PARKING_FULL_MSG);
+        }
+
+        int slot = parkingSpaceId.get();
+        String slotClass = parkingService.slotTypeOf(slot).getCode();
+        return new Reply(200, json -> json.beginObject()
+            .name("slot").value(slot)
+            .name("slotClass").value(slotClass)
+            .endObject());
+    }
+
+    private static Reply waitlist(ParkingService parkingService, String registrationNumber,
+                                  VehicleType vehicleType, String colour,
+                                  WaitlistPriority priority) {
+        int position;
+        try {
+            position = parkingService.waitlist(registrationNumber, vehicleType, colour, priority);
+        } catch (BadInputException ex) {
+            return Reply.error(409, String.format(ALREADY_WAITLISTED_MSG_TMPL, registrationNumber));
+        }
+        return new Reply(202, json -> json.beginObject()
+            .name("waitlisted").value(position)
+            .endObject());
+    }
+
+    private Reply leave(ParkingService parkingService, Map<String, String> params) {
+        String registrationNumber = registrationNumber(params);
+        String hours = params.getOrDefault("hours", "");
+        if (!Validator.isDigit(hours) || hours.length() > 9) {
+            throw new BadInputException("Invalid `hours`, expecting a whole number");
+        }
+
+        ParkingCharge charge;
+        try {
+            charge = parkingService.leave(registrationNumber, Integer.parseInt(hours));
+        } catch (VehicleNotParkedException ex) {
+            return Reply.error(404, String.format(VEHICLE_NOT_FOUND_MSG_TMPL, registrationNumber));
+        }
+
+        // the slot left is only taken already if it went to a waitlisted vehicle
+        int slot = charge.parkedSpot();
+        String handedOffTo = parkingService.isWaitlistEnabled()
+            ? parkingService.status(slot, slot).get(slot) : null;
+        return new Reply(200, json -> {
+            json.beginObject()
+                .name("registration").value(charge.registrationNumber())
+                .name("slot").value(slot)
+                .name("chargeCents").value(charge.chargeCents());
+            if (handedOffTo != null) {
+                json.name("handedOffTo").value(handedOffTo);
+            }
+            json.endObject();
+        });
+    }
+
+    private Reply status(ParkingService parkingService, Map<String, String> params) {
+        String from = params.get("from");
+        String to = params.get("to");
+        SortedMap<Integer, String> status = from == null && to == null
+            ? parkingService.status()
+            : parkingService.status(slot(from, "from"), slot(to, "to"));
+
+        return new Reply(200, json -> {
+            json.beginObject().name("slots").beginArray();
+            for (Map.Entry<Integer, String> entry : status.entrySet()) {
+                json.beginObject()
+                    .name("slot").value(entry.getKey())
+                    .name("registration").value(entry.getValue())
+                    .endObject();
+            }
+            json.endArray().endObject();
+        });
+    }
+
+    private Reply stats(ParkingService parkingService, Map<String, String> params) {
+        LotStats stats = parkingService.stats();
+
+        return new Reply(200, json -> {
+            json.beginObject()
+                .name("capacity").value(stats.capacity())
+                .name("occupied").value(stats.occupied())
+                .name("reserved").value(stats.reserved())
+                .name("free").value(stats.free())
+                .name("sessions").value(stats.sessions())
+                .name("departures").value(stats.departures())
+                .name("revenueCents").value(stats.revenueCents())
+                .name("zones").beginArray();
+            for (ZoneStats zone : stats.zones()) {
+                json.beginObject()
+                    .name("slotClass").value(zone.slotType().getCode())
+                    .name("capacity").value(zone.capacity())
+                    .name("occupied").value(zone.occupied())
+                    .name("reserved").value(zone.reserved())
+                    .name("free").value(zone.free())
+                    .name("sessions").value(zone.sessions())
+                    .name("departures").value(zone.departures())
+                    .name("revenueCents").value(zone.revenueCents())
+                    .endObject();
+            }
+            json.endArray().endObject();
+        });
+    }
+
+
+    // ---- Internals ------
+
+    /**
+     * Serves a request - runs the endpoint under the engine lock, then writes its reply.
+     */
+    private void serve(HttpExchange exchange, String method, Endpoint endpoint) throws IOException {
+        try (exchange) {
+            Reply reply;
+            if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+                reply = Reply.error(404, "No such endpoint");
+            } else if (!method.equals(exchange.getRequestMethod())) {
+                reply = Reply.error(405, "Expecting " + method);
+            } else {
+                reply = call(endpoint, params(exchange));
+            }
+
+            send(exchange, reply);
+        }
+    }
+
+    /**
+     * Streams the occupancy changes of the parking lot, till the client goes away or the server
+     * stops.
+     */
+    private void stream(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+                send(exchange, Reply.error(404, "No such endpoint"));
+                return;
+            }
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                send(exchange, Reply.error(405, "Expecting GET"));
+                return;
+            }
+
+            OccupancySubscription subscription;
+            try {
+                subscription = subscribe(params(exchange));
+            } catch (BadInputException ex) {
+                send(exchange, Reply.error(400, ex.getMessage()));
+                return;
+            }
+            if (subscription == null) {
+                send(exchange, Reply.error(503, NO_PARKING_LOT_MSG));
+                return;
+            }
+
+            subscriptions.add(subscription);
+            try (subscription;
+                 OutputStream body = new BufferedOutputStream(exchange.getResponseBody())) {
+                exchange.getResponseHeaders().set("Content-Type", EVENT_STREAM_CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, 0);
+                streamEvents(subscription, body);
+            } finally {
+                subscriptions.remove(subscription);
+            }
+        }
+    }
+
+    /**
+     * Serves the metrics, rendered under the engine lock, and sent after it is let go of.
+     */
+    private void scrape(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+                send(exchange, Reply.error(404, "No such endpoint"));
+                return;
+            }
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                send(exchange, Reply.error(405, "Expecting GET"));
+                return;
+            }
+
+            metricsLock.lock();
+            try {
+                int length = invoker.call(() -> metrics.render(invoker,
+                    ApplicationContext.getInstance().get(ParkingService.class)));
+                exchange.getResponseHeaders().set("Content-Type", MetricsExposition.CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(metrics.buffer(), 0, length);
+                }
+            } finally {
+                metricsLock.unlock();
+            }
+        }
+    }
+
+    private OccupancySubscription subscribe(Map<String, String> params) {
+        String queue = params.get("queue");
+        int queueCapacity = queue == null ? DEFAULT_QUEUE_CAPACITY : slot(queue, "queue");
+        return invoker.call(() -> {
+            ParkingService parkingService =
+                ApplicationContext.getInstance().get(ParkingService.class);
+            return parkingService == null ? null : parkingService.subscribe(queueCapacity, null);
+        });
+    }
+
+    /**
+     * Writes every event as it comes in, a line each, flushing once no other event is waiting.
+     */
+    private static void streamEvents(OccupancySubscription subscription, OutputStream body)
+        throws IOException {
+        body.flush();
+        try {
+            while (!subscription.isClosed()) {
+                OccupancyEvent event =
+                    subscription.poll(EVENT_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (event == null) {
+                    continue;
+                }
+
+                do {
+                    writeEvent(new JsonWriter(body), event);
+                    body.write('\n');
+                } while ((event = subscription.poll()) != null);
+                body.flush();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void writeEvent(JsonWriter json, OccupancyEvent event) throws IOException {
+        json.beginObject().name("event").value(event.kind().name().toLowerCase());
+        if (event.kind() != OccupancyEvent.Kind.FREE) {
+            json.name("slot").value(event.parkingSpaceId());
+        }
+        json.name("slotClass").value(event.slotType().getCode())
+            .name("free").value(event.free())
+            .endObject();
+    }
+
+    private static void send(HttpExchange exchange, Reply reply) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        reply.body().write(new JsonWriter(body));
+
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(reply.status(), body.size());
+        try (OutputStream out = exchange.getResponseBody()) {
+            body.writeTo(out);
+        }
+    }
+
+    private Reply call(Endpoint endpoint, Map<String, String> params) {
+        try {
+            return invoker.call(() -> {
+                ParkingService parkingService =
+                    ApplicationContext.getInstance().get(ParkingService.class);
+                if (parkingService == null) {
+                    return Reply.error(503, NO_PARKING_LOT_MSG);
+                }
+                return endpoint.respond(parkingService, params);
+            });
+        } catch (ReadOnlyStandbyException ex) {
+            return Reply.error(503, ex.getMessage());
+        } catch (BadInputException ex) {
+            return Reply.error(400, ex.getMessage());
+        }
+    }
+
+    private static Map<String, String> params(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        try (InputStream body = exchange.getRequestBody()) {
+            parseForm(new String(body.readAllBytes(), StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+
+        for (String pair : form.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8).trim());
+            }
+        }
+    }
+
+    private static String registrationNumber(Map<String, String> params) {
+        String registrationNumber = params.getOrDefault("registration", "");
+        if (!Validator.isRegistrationNumber(registrationNumber)) {
+            throw new BadInputException("Invalid `registration`, expecting a registration number");
+        }
+        return registrationNumber;
+    }
+
+    private static int slot(String value, String name) {
+        if (value == null || !Validator.isDigit(value) || value.length() > 9) {
+            throw new BadInputException(String.format("Invalid `%s`, expecting a slot number", name));
+        }
+        return Integer.parseInt(value);
+    }
+
+    /**
+     * Serves a request to the parking lot, under the engine lock.
+     */
+    @FunctionalInterface
+    private interface Endpoint {
+
+        Reply respond(ParkingService parkingService, Map<String, String> params);
+    }
+
+    /**
+     * Writes the body of a reply, once the engine lock is let go of.
+     */
+    @FunctionalInterface
+    private interface Body {
+
+        void write(JsonWriter json) throws IOException;
+    }
+
+    private record Reply(int status, Body body) {
+
+        static Reply error(int status, String message) {
+            return new Reply(status, json -> json.beginObject()
+                .name("error").value(message)
+                .endObject());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.server;
+
+import com.priyakdey.parker.exception.BadInputException;
+import java.net.InetSocketAddress;
+import java.util.Optional;
+
+/**
+ * Settings of an {@link HttpApiServer}.
+ *
+ * @param address the address to listen on
+ * @param backlog number of connections the OS queues up while none is accepted, {@code 0} for the
+ *                system default
+ * @author Priyak Dey
+ */
+public record HttpConfig(InetSocketAddress address, int backlog) {
+
+    /**
+     * System property holding the {@code host:port} to serve the API on, the API is disabled when
+     * it is not set.
+     */
+    public static final String ADDRESS_PROPERTY = "parker.http.address";
+
+    public static final String BACKLOG_PROPERTY = "parker.http.backlog";
+
+    private static final int DEFAULT_BACKLOG = 4096;
+
+    public HttpConfig {
+        if (backlog < 0) {
+            throw new BadInputException("HTTP backlog cannot be negative");
+        }
+    }
+
+    /**
+     * Reads the API settings from the {@code parker.http.*} system properties.
+     *
+     * @return the settings wrapped in an {@link Optional}, empty if no address is set.
+     * @throws BadInputException if any of the properties is malformed.
+     */
+    public static Optional<HttpConfig> fromSystemProperties() {
+        String address = System.getProperty(ADDRESS_PROPERTY);
+        if (address == null || address.isBlank()) {
+            return Optional.empty();
+        }
+
+        String backlog = System.getProperty(BACKLOG_PROPERTY);
+        try {
+            return Optional.of(new HttpConfig(ServerConfig.parseAddress(address.trim()),
+                backlog == null ? DEFAULT_BACKLOG : Integer.parseInt(backlog.trim())));
+        } catch (NumberFormatException ex) {
+            throw new BadInputException(
+                String.format("Invalid `%s`, expecting a number", BACKLOG_PROPERTY));
+        }
+    }
+}
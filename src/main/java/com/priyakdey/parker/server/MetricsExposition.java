@@ -0,0 +1,340 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.server;
+
+import com.priyakdey.parker.command.CommandInvoker;
+import com.priyakdey.parker.command.LatencyHistogram;
+import com.priyakdey.parker.core.model.LotStats;
+import com.priyakdey.parker.core.model.Rejection;
+import com.priyakdey.parker.core.model.SlotType;
+import com.priyakdey.parker.core.model.ZoneStats;
+import com.priyakdey.parker.core.replication.ReplicationStatus;
+import com.priyakdey.parker.service.ParkingService;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Renders the metrics of the engine in the Prometheus text exposition format - the commands run,
+ * the requests refused by cause, the latency histogram of every command, the occupancy and free
+ * pools of every slot class, and the replication lag.
+ * <p>
+ * Every name, label and bucket bound is encoded once, and the metrics are written, digits and all,
+ * into a buffer kept from one scrape to the next, so a scrape allocates nothing per metric. The
+ * buffer is only valid till the next render, and like the commands, rendering is to be run under
+ * the engine lock.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+final class MetricsExposition {
+
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * Upper bounds of the latency buckets, from 10 microseconds to a second.
+     */
+    private static final long[] LATENCY_BOUNDS_NANOS = {
+        10_000, 25_000, 50_000, 100_000, 250_000, 500_000,
+        1_000_000, 2_500_000, 5_000_000, 10_000_000, 25_000_000, 50_000_000,
+        100_000_000, 250_000_000, 500_000_000, 1_000_000_000};
+
+    private static final byte[][] LATENCY_BOUND_LABELS = latencyBoundLabels();
+
+    private static final byte[] LATENCY_INF_LABEL = ascii(",le=\"+Inf\"} ");
+
+    private static final byte[] COMMANDS = ascii("""
+        # HELP parker_commands_total Commands run, by command.
+        # TYPE parker_commands_total counter
+        """);
+
+    private static final byte[] COMMANDS_SAMPLE = ascii("parker_commands_total{");
+
+    private static final byte[] ERRORS = ascii("""
+        # HELP parker_errors_total Requests refused, by cause.
+        # TYPE parker_errors_total counter
+        """);
+
+    private static final byte[] BAD_INPUT_SAMPLE = ascii("parker_errors_total{cause=\"bad_input\"} ");
+
+    private static final byte[][] REJECTION_SAMPLES = rejectionSamples();
+
+    private static final byte[] LATENCY = ascii("""
+        # HELP parker_command_duration_seconds Time commands took to run, by command.
+        # TYPE parker_command_duration_seconds histogram
+        """);
+
+    private static final byte[] LATENCY_BUCKET_SAMPLE = ascii("parker_command_duration_seconds_bucket{");
+
+    private static final byte[] LATENCY_SUM_SAMPLE = ascii("parker_command_duration_seconds_sum{");
+
+    private static final byte[] LATENCY_COUNT_SAMPLE = ascii("parker_command_duration_seconds_count{");
+
+    private static final Gauge CAPACITY = Gauge.of("parker_slots_capacity",
+        "Parking spaces, by slot class.");
+
+    private static final Gauge OCCUPIED = Gauge.of("parker_slots_occupied",
+        "Parking spaces with a vehicle parked, by slot class.");
+
+    private static final Gauge RESERVED = Gauge.of("parker_slots_reserved",
+        "Parking spaces held for arriving vehicles, by slot class.");
+
+    private static final Gauge FREE = Gauge.of("parker_slots_free",
+        "Parking spaces neither occupied nor held, by slot class.");
+
+    private static final Gauge ALLOCATOR_DEPTH = Gauge.of("parker_allocator_depth",
+        "Free parking space ids in the pool to allot from, by slot class.");
+
+    private static final Gauge REPLICATION_LAG_RECORDS = Gauge.of("parker_replication_lag_records",
+        "Journal records appended but not applied by every standby yet.");
+
+    private static final Gauge REPLICATION_LAG_SECONDS = Gauge.of("parker_replication_lag_seconds",
+        "On a leader, age of the oldest journal record not applied by every standby yet. On a "
+            + "standby, time the latest batch applied took to come from the leader.");
+
+    private static final Gauge REPLICATION_PEERS = Gauge.of("parker_replication_connected_peers",
+        "Standbys, or leaders, connected.");
+
+    private static final byte[][] SLOT_CLASS_LABELS = slotClassLabels();
+
+    private static final int INITIAL_BUFFER_BYTES = 16 * 1024;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private static final int NANOS_DIGITS = 9;
+
+    /**
+     * The {@code command="<name>"} label of every command, encoded the first time it is rendered.
+     */
+    private final Map<String, byte[]> commandLabels = new HashMap<>();
+
+    private final long[] cumulativeCounts = new long[LATENCY_BOUNDS_NANOS.length];
+
+    private byte[] buffer = new byte[INITIAL_BUFFER_BYTES];
+
+    private int size;
+
+    /**
+     * Renders every metric into the buffer.
+     *
+     * @param invoker        the invoker the commands run with
+     * @param parkingService the parking lot, null if there is none yet
+     * @return the number of bytes rendered, from the start of {@link #buffer()}.
+     */
+    int render(CommandInvoker invoker, ParkingService parkingService) {
+        size = 0;
+
+        write(COMMANDS);
+        invoker.latencies().forEach((cmd, histogram) -> {
+            write(COMMANDS_SAMPLE).write(commandLabel(cmd)).write('}').write(' ')
+                .write(histogram.count()).write('\n');
+        });
+
+        write(ERRORS);
+        write(BAD_INPUT_SAMPLE).write(invoker.badInputs()).write('\n');
+        for (Rejection rejection : Rejection.values()) {
+            long rejections = parkingService == null ? 0 : parkingService.rejections(rejection);
+            write(REJECTION_SAMPLES[rejection.ordinal()]).write(rejections).write('\n');
+        }
+
+        write(LATENCY);
+        invoker.latencies().forEach(this::writeLatency);
+
+        if (parkingService != null) {
+            writeLot(parkingService);
+        }
+        return size;
+    }
+
+    /**
+     * Returns the buffer the metrics are rendered into.
+     *
+     * @return the buffer, valid till the next render.
+     */
+    byte[] buffer() {
+        return buffer;
+    }
+
+
+    // ---- Internals ------
+
+    private void writeLatency(String cmd, LatencyHistogram histogram) {
+        if (histogram.count() == 0) {
+            return;
+        }
+
+        byte[] label = commandLabel(cmd);
+        histogram.cumulativeCounts(LATENCY_BOUNDS_NANOS, cumulativeCounts);
+        for (int i = 0; i < LATENCY_BOUNDS_NANOS.length; i++) {
+            write(LATENCY_BUCKET_SAMPLE).write(label).write(LATENCY_BOUND_LABELS[i])
+                .write(cumulativeCounts[i]).write('\n');
+        }
+        write(LATENCY_BUCKET_SAMPLE).write(label).write(LATENCY_INF_LABEL)
+            .write(histogram.count()).write('\n');
+        write(LATENCY_SUM_SAMPLE).write(label).write('}').write(' ')
+            .writeSeconds(histogram.sumNanos()).write('\n');
+        write(LATENCY_COUNT_SAMPLE).write(label).write('}').write(' ')
+            .write(histogram.count()).write('\n');
+    }
+
+    private void writeLot(ParkingService parkingService) {
+        LotStats stats = parkingService.stats();
+
+        write(CAPACITY.header());
+        for (ZoneStats zone : stats.zones()) {
+            writeZone(CAPACITY, zone.slotType(), zone.capacity());
+        }
+        write(OCCUPIED.header());
+        for (ZoneStats zone : stats.zones()) {
+            writeZone(OCCUPIED, zone.slotType(), zone.occupied());
+        }
+        write(RESERVED.header());
+        for (ZoneStats zone : stats.zones()) {
+            writeZone(RESERVED, zone.slotType(), zone.reserved());
+        }
+        write(FREE.header());
+        for (ZoneStats zone : stats.zones()) {
+            writeZone(FREE, zone.slotType(), zone.free());
+        }
+        write(ALLOCATOR_DEPTH.header());
+        for (ZoneStats zone : stats.zones()) {
+            writeZone(ALLOCATOR_DEPTH, zone.slotType(),
+                parkingService.allocatorDepth(zone.slotType()));
+        }
+
+        ReplicationStatus replication = parkingService.replicationStatus();
+        write(REPLICATION_LAG_RECORDS.header());
+        write(REPLICATION_LAG_RECORDS.name()).write(' ').write(replication.lagRecords()).write('\n');
+        write(REPLICATION_LAG_SECONDS.header());
+        write(REPLICATION_LAG_SECONDS.name()).write(' ')
+            .writeSeconds(replication.lagMillis() * 1_000_000).write('\n');
+        write(REPLICATION_PEERS.header());
+        write(REPLICATION_PEERS.name()).write(' ').write(replication.connectedPeers()).write('\n');
+    }
+
+    private void writeZone(Gauge gauge, SlotType slotType, long value) {
+        write(gauge.name()).write(SLOT_CLASS_LABELS[slotType.ordinal()]).write(value).write('\n');
+    }
+
+    private byte[] commandLabel(String cmd) {
+        return commandLabels.computeIfAbsent(cmd, name -> ascii("command=\"" + name + "\""));
+    }
+
+    private MetricsExposition write(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+        return this;
+    }
+
+    private MetricsExposition write(char ch) {
+        ensure(1);
+        buffer[size++] = (byte) ch;
+        return this;
+    }
+
+    /**
+     * Writes a non-negative number, digit by digit, without going through a string.
+     */
+    private MetricsExposition write(long value) {
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        ensure(digits);
+        for (int i = size + digits - 1; i >= size; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += digits;
+        return this;
+    }
+
+    /**
+     * Writes nanoseconds as seconds, with all nine decimals.
+     */
+    private MetricsExposition writeSeconds(long nanos) {
+        write(nanos / NANOS_PER_SECOND).write('.');
+        ensure(NANOS_DIGITS);
+        long fraction = nanos % NANOS_PER_SECOND;
+        for (int i = size + NANOS_DIGITS - 1; i >= size; i--) {
+            buffer[i] = (byte) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        size += NANOS_DIGITS;
+        return this;
+    }
+
+    private void ensure(int bytes) {
+        if (size + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + bytes));
+        }
+    }
+
+    private static byte[][] latencyBoundLabels() {
+        byte[][] labels = new byte[LATENCY_BOUNDS_NANOS.length][];
+        for (int i = 0; i < labels.length; i++) {
+            String seconds = BigDecimal.valueOf(LATENCY_BOUNDS_NANOS[i], NANOS_DIGITS)
+                .stripTrailingZeros().toPlainString();
+            labels[i] = ascii(",le=\"" + seconds + "\"} ");
+        }
+        return labels;
+    }
+
+    private static byte[][] rejectionSamples() {
+        Rejection[] rejections = Rejection.values();
+        byte[][] samples = new byte[rejections.length][];
+        for (Rejection rejection : rejections) {
+            samples[rejection.ordinal()] =
+                ascii("parker_errors_total{cause=\"" + rejection.getCode() + "\"} ");
+        }
+        return samples;
+    }
+
+    private static byte[][] slotClassLabels() {
+        SlotType[] slotTypes = SlotType.values();
+        byte[][] labels = new byte[slotTypes.length][];
+        for (SlotType slotType : slotTypes) {
+            labels[slotType.ordinal()] = ascii("{slot_class=\"" + slotType.getCode() + "\"} ");
+        }
+        return labels;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * A gauge, by its {@code # HELP} and {@code # TYPE} lines, and its name.
+     */
+    private record Gauge(byte[] header, byte[] name) {
+
+        static Gauge of(String name, String help) {
+            return new Gauge(
+                ascii("# HELP " + name + " " + help + "\n# TYPE " + name + " gauge\n"),
+                ascii(name));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.server;
+
+import com.priyakdey.parker.command.CommandInvoker;
+import java.nio.ByteBuffer;
+
+/**
+ * A protocol a {@link Connection} speaks, running the requests read off it and writing their
+ * replies to the connection's {@link ReplyBuffer}.
+ *
+ * @author Priyak Dey
+ */
+interface Protocol {
+
+    /**
+     * Runs every complete request read, and leaves only the bytes of an incomplete one in the
+     * buffer, moved to its start.
+     *
+     * @param in         the bytes read, from the start of the buffer to its position
+     * @param endOfInput if the client sent all it ever will
+     * @param invoker    the invoker to run the requests with
+     * @return false if the client broke the protocol, and is not to be read from anymore, true
+     * otherwise.
+     */
+    boolean run(ByteBuffer in, boolean endOfInput, CommandInvoker invoker);
+
+    /**
+     * Writes the events streamed to the client since the last call, for a protocol which streams
+     * any.
+     */
+    default void writeEvents() {
+    }
+
+    /**
+     * Lets go of what the protocol holds for the client, once the connection is closed.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Collects the replies to a connection's commands, so every reply to the commands of one read goes
+ * out in as few writes as the socket takes.
+ * <p>
+ * The buffer grows to the largest batch of replies written to it, and is reused from then on.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+final class ReplyBuffer extends OutputStream {
+
+    private byte[] bytes = new byte[4 * 1024];
+
+    private ByteBuffer view = ByteBuffer.wrap(bytes);
+
+    /**
+     * Number of bytes written to the buffer.
+     */
+    private int count;
+
+    /**
+     * Number of bytes sent to the socket so far.
+     */
+    private int sent;
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(1);
+        bytes[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(len);
+        System.arraycopy(b, off, bytes, count, len);
+        count += len;
+    }
+
+    /**
+     * Returns if there are bytes left to send.
+     *
+     * @return true if some replies were not sent yet, false otherwise.
+     */
+    boolean hasPending() {
+        return sent < count;
+    }
+
+    /**
+     * Sends as much of the pending replies as the channel takes without blocking, and empties the
+     * buffer once everything is sent.
+     *
+     * @param channel the channel to send to
+     * @return true if everything was sent, false if the channel is full.
+     * @throws IOException if the channel is broken.
+     */
+    boolean sendTo(WritableByteChannel channel) throws IOException {
+        while (sent < count) {
+            view.limit(count).position(sent);
+            int written = channel.write(view);
+            if (written == 0) {
+                return false;
+            }
+            sent += written;
+        }
+
+        count = 0;
+        sent = 0;
+        return true;
+    }
+
+    private void ensureCapacity(int more) {
+        if (count + more > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, count + more));
+            view = ByteBuffer.wrap(bytes);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.server;
+
+import com.priyakdey.parker.exception.BadInputException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Settings of a {@link CommandServer}.
+ *
+ * @param addresses    the addresses to listen on, TCP and Unix domain socket ones alike
+ * @param maxLineBytes longest command line accepted, a client sending a longer one is disconnected
+ * @author Priyak Dey
+ */
+public record ServerConfig(List<SocketAddress> addresses, int maxLineBytes) {
+
+    /**
+     * System property holding the {@code host:port} to serve commands on over TCP.
+     */
+    public static final String ADDRESS_PROPERTY = "parker.server.address";
+
+    /**
+     * System property holding the path of a Unix domain socket to serve commands on, for clients on
+     * the same machine.
+     */
+    public static final String SOCKET_PROPERTY = "parker.server.socket";
+
+    public static final String MAX_LINE_BYTES_PROPERTY = "parker.server.max-line-bytes";
+
+    private static final int DEFAULT_MAX_LINE_BYTES = 8 * 1024;
+
+    /**
+     * Smallest line limit accepted, every command of the protocol must fit in a line.
+     */
+    private static final int MIN_LINE_BYTES = 256;
+
+    public ServerConfig {
+        if (addresses.isEmpty()) {
+            throw new BadInputException("Server needs an address to listen on");
+        }
+        if (maxLineBytes < MIN_LINE_BYTES) {
+            throw new BadInputException(
+                String.format("Server lines need at least %d bytes", MIN_LINE_BYTES));
+        }
+        addresses = List.copyOf(addresses);
+    }
+
+    public ServerConfig(SocketAddress address, int maxLineBytes) {
+        this(List.of(address), maxLineBytes);
+    }
+
+    /**
+     * Reads the server settings from the {@code parker.server.*} system properties.
+     *
+     * @return the settings wrapped in an {@link Optional}, empty if neither an address nor a socket
+     * is set.
+     * @throws BadInputException if any of the properties is malformed.
+     */
+    public static Optional<ServerConfig> fromSystemProperties() {
+        List<SocketAddress> addresses = new ArrayList<>(2);
+        String address = System.getProperty(ADDRESS_PROPERTY);
+        if (address != null && !address.isBlank()) {
+            addresses.add(parseAddress(address.trim()));
+        }
+        String socket = System.getProperty(SOCKET_PROPERTY);
+        if (socket != null && !socket.isBlank()) {
+            addresses.add(UnixDomainSocketAddress.of(socket.trim()));
+        }
+        if (addresses.isEmpty()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new ServerConfig(addresses,
+            intProperty(MAX_LINE_BYTES_PROPERTY, DEFAULT_MAX_LINE_BYTES)));
+    }
+
+    /**
+     * Parses a {@code host:port} address, port {@code 0} picking any free port.
+     *
+     * @param address the address
+     * @return the socket address.
+     * @throws BadInputException if the address is malformed or the port is out of range.
+     */
+    public static InetSocketAddress parseAddress(String address) {
+        int separator = address.lastIndexOf(':');
+        String port = separator < 0 ? "" : address.substring(separator + 1);
+        if (separator <= 0 || port.isEmpty() || port.length() > 5
+            || !port.chars().allMatch(Character::isDigit) || Integer.parseInt(port) > 65535) {
+            throw new BadInputException(
+                String.format("Invalid server address `%s`, expecting `host:port`", address));
+        }
+        return new InetSocketAddress(address.substring(0, separator), Integer.parseInt(port));
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new BadInputException(String.format("Invalid `%s`, expecting a number", name));
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright(c) 2023 Priyak Dey <https://priyakydey.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A
+ * PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.priyakdey.parker.server;
+
+import com.priyakdey.parker.command.CommandInvoker;
+import com.priyakdey.parker.common.Validator;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.core.model.OccupancyEvent;
+import com.priyakdey.parker.core.service.OccupancySubscription;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.service.ParkingService;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The protocol of the command files - one command per line, replied to with whatever the command
+ * prints, or {@code ERROR: <reason>} if it fails.
+ * <p>
+ * On top of the commands, {@code subscribe [{queue capacity}]} streams the occupancy changes of the
+ * parking lot to the client, a line each, as they happen - {@code EVENT park {slot} {slot class}
+ * {free}}, {@code EVENT vacate {slot} {slot class} {free}}, or {@code EVENT free {slot class}
+ * {free}}, with the free count of the slot class right after the change. The client can go on
+ * sending commands, their replies come in between the events. A parking lot re-created ends the
+ * subscription, with a line saying so.
+ * </p>
+ *
+ * @author Priyak Dey
+ */
+final class TextProtocol implements Protocol {
+
+    private static final String ERROR_MSG_TMPL = "ERROR: %s%n";
+
+    private static final String LINE_TOO_LONG_MSG_TMPL = "Line longer than %d bytes";
+
+    private static final String SUBSCRIBE = "subscribe";
+
+    private static final String SUBSCRIBED_MSG_TMPL = "Subscribed, queueing up to %d events%n";
+
+    private static final String CHANGE_EVENT_MSG_TMPL = "EVENT %s %d %s %d%n";
+
+    private static final String FREE_EVENT_MSG_TMPL = "EVENT free %s %d%n";
+
+    private static final String UNSUBSCRIBED_MSG = "Subscription ended, the parking lot was replaced";
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private final PrintStream out;
+
+    /**
+     * Run when an event comes in for the client, who had none to take.
+     */
+    private final Runnable onEvents;
+
+    /**
+     * The client's stream of occupancy changes, null till it subscribes.
+     */
+    private OccupancySubscription subscription;
+
+    TextProtocol(ReplyBuffer replies, Runnable onEvents) {
+        this.out = new PrintStream(replies, false, StandardCharsets.UTF_8);
+        this.onEvents = onEvents;
+    }
+
+    @Override
+    public boolean run(ByteBuffer in, boolean endOfInput, CommandInvoker invoker) {
+        byte[] bytes = in.array();
+        int end = in.position();
+        int lineStart = 0;
+        for (int i = 0; i < end; i++) {
+            if (bytes[i] == '\n') {
+                runLine(invoker, bytes, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        if (endOfInput && lineStart < end) {
+            runLine(invoker, bytes, lineStart, end);
+            lineStart = end;
+        }
+
+        in.limit(end).position(lineStart);
+        in.compact();
+        if (!endOfInput && !in.hasRemaining()) {
+            out.printf(ERROR_MSG_TMPL, String.format(LINE_TOO_LONG_MSG_TMPL, in.capacity()));
+            return false;
+        }
+        return true;
+    }
+
+    private void runLine(CommandInvoker invoker, byte[] bytes, int from, int to) {
+        String line = new String(bytes, from, to - from, StandardCharsets.UTF_8).trim();
+        if (line.isEmpty()) {
+            return;
+        }
+
+        try {
+            String[] args = invoker.tokenize(line);
+            if (args[0].equals(SUBSCRIBE)) {
+                subscribe(invoker, args);
+            } else {
+                invoker.execute(args, out);
+            }
+        } catch (RuntimeException ex) {
+            // a bad command fails only itself, never the connection or the server
+            out.printf(ERROR_MSG_TMPL, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void writeEvents() {
+        if (subscription == null) {
+            return;
+        }
+
+        OccupancyEvent event;
+        while ((event = subscription.poll()) != null) {
+            String slotClass = event.slotType().getCode();
+            if (event.kind() == OccupancyEvent.Kind.FREE) {
+                out.printf(FREE_EVENT_MSG_TMPL, slotClass, event.free());
+            } else {
+                out.printf(CHANGE_EVENT_MSG_TMPL, event.kind() == OccupancyEvent.Kind.PARK
+                    ? "park" : "vacate", event.parkingSpaceId(), slotClass, event.free());
+            }
+        }
+        if (subscription.isClosed()) {
+            subscription = null;
+            out.println(UNSUBSCRIBED_MSG);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (subscription != null) {
+            subscription.close();
+        }
+    }
+
+    private void subscribe(CommandInvoker invoker, String[] args) {
+        if (subscription != null) {
+            throw new BadInputException("Already subscribed");
+        }
+        if (args.length > 1 && (!Validator.isDigit(args[1]) || args[1].length() > 9)) {
+            throw new BadInputException("Invalid queue capacity, expecting a number");
+        }
+
+        int queueCapacity = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_QUEUE_CAPACITY;
+        subscription = invoker.call(() -> {
+            ParkingService parkingService =
+                ApplicationContext.getInstance().get(ParkingService.class);
+            if (parkingService == null) {
+                throw new BadInputException("No parking lot, create one first");
+            }
+            return parkingService.subscribe(queueCapacity, onEvents);
+        });
+        out.printf(SUBSCRIBED_MSG_TMPL, queueCapacity);
+        writeEvents();
+    }
+}
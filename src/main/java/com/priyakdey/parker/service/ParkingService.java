@@ -22,10 +22,27 @@
 
 package com.priyakdey.parker.service;
 
+import com.priyakdey.parker.core.model.LotStats;
 import com.priyakdey.parker.core.model.ParkingCharge;
+import com.priyakdey.parker.core.model.Rejection;
+import com.priyakdey.parker.core.model.SlotOccupancy;
+import com.priyakdey.parker.core.model.SlotType;
+import com.priyakdey.parker.core.model.VehicleType;
+import com.priyakdey.parker.core.model.WaitlistPriority;
+import com.priyakdey.parker.core.pricing.Tariff;
+import com.priyakdey.parker.core.replication.ReplicationStatus;
+import com.priyakdey.parker.core.service.OccupancySubscription;
+import com.priyakdey.parker.core.service.OccupantVisitor;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.exception.VehicleNotParkedException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Provides the primary services for parking and vehicle management.
@@ -55,6 +72,25 @@ public interface ParkingService {
      */
     Optional<Integer> park(String registrationNumber);
 
+    /**
+     * Parks a vehicle of the given class and returns the allocated parking space id.
+     *
+     * @param registrationNumber The registration number of the vehicle to be parked.
+     * @param vehicleType        The class of the vehicle to be parked.
+     * @return An {@link Optional} wrapping the parking space id if parking is successful, or an empty Optional if parking failed.
+     */
+    Optional<Integer> park(String registrationNumber, VehicleType vehicleType);
+
+    /**
+     * Parks a vehicle of the given class and colour and returns the allocated parking space id.
+     *
+     * @param registrationNumber The registration number of the vehicle to be parked.
+     * @param vehicleType        The class of the vehicle to be parked.
+     * @param colour             The colour of the vehicle to be parked, null if not recorded.
+     * @return An {@link Optional} wrapping the parking space id if parking is successful, or an empty Optional if parking failed.
+     */
+    Optional<Integer> park(String registrationNumber, VehicleType vehicleType, String colour);
+
     /**
      * Vacates the parking space for the specified vehicle and calculates the parking charges.
      *
@@ -64,6 +100,38 @@ public interface ParkingService {
      */
     ParkingCharge leave(String registrationNumber, int hoursParked);
 
+    /**
+     * Parks a vehicle of the given class and colour, the way
+     * {@link #park(String, VehicleType, String)} does, allocating nothing once every parking space
+     * has held a vehicle before.
+     *
+     * @param registrationNumber The registration number of the vehicle to be parked.
+     * @param vehicleType        The class of the vehicle to be parked.
+     * @param colour             The colour of the vehicle to be parked, null if not recorded.
+     * @return The allocated parking space id, {@code 0} if the parking area is full.
+     */
+    int tryPark(String registrationNumber, VehicleType vehicleType, String colour);
+
+    /**
+     * Vacates the parking space of the specified vehicle, leaving the charges to
+     * {@link #charge(int, int)}.
+     *
+     * @param registrationNumber The registration number of the vehicle that's leaving.
+     * @return The id of the parking space the vehicle was parked in.
+     * @throws VehicleNotParkedException if no such registration number is parked.
+     */
+    int vacate(String registrationNumber);
+
+    /**
+     * Calculates the charges of a stay in a parking space just vacated, and adds them to the
+     * revenue of its slot class.
+     *
+     * @param parkingSpaceId The id of the parking space vacated.
+     * @param hoursParked    The number of hours the vehicle was parked.
+     * @return The charges, in cents.
+     */
+    long charge(int parkingSpaceId, int hoursParked);
+
     /**
      * Retrieves the current status of the parking area.
      *
@@ -71,4 +139,255 @@ public interface ParkingService {
      */
     SortedMap<Integer, String> status();
 
+    /**
+     * Hands every occupied parking space, and the registration number parked in it, to a visitor,
+     * in the order of their ids, without a map of them being made.
+     *
+     * @param visitor The visitor to hand the occupied parking spaces to.
+     */
+    void forEachOccupied(OccupantVisitor visitor);
+
+    /**
+     * Retrieves the status of the parking area as it was right after the given change.
+     *
+     * @param sequence The sequence number of the change, parks, leaves and resizes numbered in order from 1.
+     * @return A {@link SortedMap} of the parking space ids occupied at the time to the registration numbers parked in them.
+     * @throws BadInputException if the history is disabled, or does not retain the change.
+     */
+    SortedMap<Integer, String> status(long sequence);
+
+    /**
+     * Retrieves the status of a range of parking spaces.
+     *
+     * @param fromId The first parking space id of the range.
+     * @param toId   The last parking space id of the range.
+     * @return A {@link SortedMap} of the occupied parking space ids in the range to the registration numbers parked in them.
+     * @throws BadInputException if the range is not within the parking area.
+     */
+    SortedMap<Integer, String> status(int fromId, int toId);
+
+    /**
+     * Counts the free parking spaces in a range, neither occupied nor reserved.
+     *
+     * @param fromId The first parking space id of the range.
+     * @param toId   The last parking space id of the range.
+     * @return The number of free parking spaces in the range.
+     * @throws BadInputException if the range is not within the parking area.
+     */
+    int countFree(int fromId, int toId);
+
+    /**
+     * Retrieves the parking spaces holding vehicles of a colour.
+     *
+     * @param colour The colour, matched ignoring case.
+     * @return The parking space ids, in ascending order.
+     */
+    List<Integer> slotsForColour(String colour);
+
+    /**
+     * Retrieves the registration numbers of the vehicles of a colour.
+     *
+     * @param colour The colour, matched ignoring case.
+     * @return The registration numbers, in the order of the parking spaces they are parked in.
+     */
+    List<String> registrationsForColour(String colour);
+
+    /**
+     * Retrieves the parking spaces holding vehicles whose registration number starts with a prefix.
+     *
+     * @param prefix The registration number prefix.
+     * @return The parking space ids, in ascending order.
+     */
+    List<Integer> slotsForPrefix(String prefix);
+
+    /**
+     * Retrieves every vehicle which held a parking space at any change in the given range.
+     *
+     * @param parkingSpaceId The parking space id.
+     * @param fromSequence   The sequence number of the first change in the range.
+     * @param toSequence     The sequence number of the last change in the range.
+     * @return The stretches the parking space was held for, oldest first.
+     * @throws BadInputException if the history is disabled, or does not retain the range.
+     */
+    List<SlotOccupancy> slotHistory(int parkingSpaceId, long fromSequence, long toSequence);
+
+    /**
+     * Returns the last change made at or before the given instant.
+     *
+     * @param instant The point in time.
+     * @return The sequence number of the change.
+     * @throws BadInputException if the history is disabled, or retains no change made by then.
+     */
+    long sequenceAt(Instant instant);
+
+    /**
+     * Returns the sequence number of the last change made to the parking area.
+     *
+     * @return The last sequence number, {@code 0} if no change was made yet.
+     * @throws BadInputException if the history is disabled.
+     */
+    long lastSequence();
+
+    /**
+     * Waitlists a vehicle turned away by the full parking area, till a compatible space is freed.
+     *
+     * @param registrationNumber The registration number of the vehicle to be waitlisted.
+     * @param vehicleType        The class of the vehicle to be waitlisted.
+     * @param colour             The colour of the vehicle to be waitlisted, null if not recorded.
+     * @param priority           The priority class the vehicle waits in.
+     * @return The position of the vehicle on the waitlist.
+     * @throws BadInputException if the waitlist is disabled or the vehicle is already waitlisted.
+     */
+    int waitlist(String registrationNumber, VehicleType vehicleType, String colour,
+                 WaitlistPriority priority);
+
+    /**
+     * Returns if vehicles turned away by the full parking area can be waitlisted.
+     *
+     * @return true if the waitlist is enabled, false otherwise.
+     */
+    boolean isWaitlistEnabled();
+
+    /**
+     * Holds a parking space for a vehicle which is yet to arrive, for the given number of ticks.
+     *
+     * @param registrationNumber The registration number of the vehicle to hold the space for.
+     * @param vehicleType        The class of the vehicle to hold the space for.
+     * @param ttlTicks           Number of ticks the space is held for, before it is released.
+     * @return An {@link Optional} wrapping the held parking space id, or an empty Optional if the parking area is full.
+     */
+    Optional<Integer> reserve(String registrationNumber, VehicleType vehicleType, int ttlTicks);
+
+    /**
+     * Parks an arriving vehicle in the parking space held for it.
+     *
+     * @param registrationNumber The registration number of the arriving vehicle.
+     * @return The parking space id the vehicle is parked in.
+     * @throws BadInputException if no parking space is held for the vehicle.
+     */
+    int claim(String registrationNumber);
+
+    /**
+     * Advances the reservation clock, releasing every reservation which expires on the way.
+     *
+     * @param ticks Number of ticks to advance the clock by.
+     * @return Number of reservations expired.
+     */
+    int advanceClock(int ticks);
+
+    /**
+     * Returns the current tick of the reservation clock.
+     *
+     * @return the current tick.
+     */
+    long currentTick();
+
+    /**
+     * Resizes the parking area in place, keeping every parked vehicle where it is.
+     *
+     * @param capacity The new number of parking spaces.
+     * @throws BadInputException if any of the parking spaces to be retired is in use.
+     */
+    void resize(int capacity);
+
+    /**
+     * Takes a snapshot of the parking area, so a restart only replays the journal written after it.
+     *
+     * @return A future completed once the snapshot is durable.
+     * @throws BadInputException if the parking area is not journaled.
+     */
+    CompletableFuture<Void> snapshot();
+
+    /**
+     * Turns the parking area into a read-only warm standby, applying the changes a leader ships to
+     * the given address.
+     *
+     * @param address The address to listen for the leader on, {@code host:port} or a socket path.
+     * @throws BadInputException if the parking area is already a standby, or the address is malformed.
+     */
+    void follow(String address);
+
+    /**
+     * Stops following the leader, and opens the parking area for changes again.
+     *
+     * @param timeoutMillis Longest to wait for the leader to go away first, {@code 0} to not wait.
+     * @return The sequence number of the last change applied from the leader.
+     * @throws BadInputException if the parking area is not a standby.
+     */
+    long promote(long timeoutMillis);
+
+    /**
+     * Returns where the parking area stands in replication.
+     *
+     * @return The replication status.
+     */
+    ReplicationStatus replicationStatus();
+
+    /**
+     * Returns the occupancy, turnover and revenue of the parking area, overall and by slot class.
+     *
+     * @return The stats of the parking area.
+     */
+    LotStats stats();
+
+    /**
+     * Returns the number of requests the parking area refused so far, for the given reason.
+     *
+     * @param rejection The reason of the refusals.
+     * @return The number of refusals.
+     */
+    long rejections(Rejection rejection);
+
+    /**
+     * Returns the number of free parking spaces a slot class has in its pool, to be allotted.
+     *
+     * @param slotType The slot class.
+     * @return The size of the pool, {@code 0} if the parking area has no such slot class.
+     */
+    int allocatorDepth(SlotType slotType);
+
+    /**
+     * Subscribes to the occupancy changes of the parking area, starting with the free count of
+     * every slot class. A subscriber falling behind gets the latest free counts instead of every
+     * change, and never holds the parking area up.
+     *
+     * @param queueCapacity Number of changes queued for the subscriber before they are conflated.
+     * @param onAvailable   Run when a change comes in for the subscriber, who had none to take, null
+     *                      for none.
+     * @return The subscription, to be closed once done with.
+     * @throws BadInputException if the queue capacity is out of range.
+     */
+    OccupancySubscription subscribe(int queueCapacity, Runnable onAvailable);
+
+    /**
+     * Compiles a tariff file, and prices every stay ending from now on with it.
+     *
+     * @param path The path of the tariff file.
+     * @return The compiled tariff.
+     * @throws BadInputException if the file cannot be read or is malformed, or the parking area
+     *                           is not priced by a tariff.
+     */
+    Tariff loadTariff(Path path);
+
+    /**
+     * Returns the slot classes the parking area has been laid out with.
+     *
+     * @return A set of slot classes present in the parking area.
+     */
+    Set<SlotType> slotTypes();
+
+    /**
+     * Returns the slot class of a parking space.
+     *
+     * @param parkingSpaceId The parking space id.
+     * @return The slot class of the parking space.
+     */
+    SlotType slotTypeOf(int parkingSpaceId);
+
+    /**
+     * Lets go of the parking area before it is replaced - stops following a leader, if it does,
+     * and ends every occupancy subscription.
+     */
+    void close();
+
 }
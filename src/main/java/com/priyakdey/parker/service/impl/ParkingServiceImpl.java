@@ -22,14 +22,36 @@
 
 package com.priyakdey.parker.service.impl;
 
+import com.priyakdey.parker.core.model.LotStats;
 import com.priyakdey.parker.core.model.ParkingCharge;
+import com.priyakdey.parker.core.model.Rejection;
+import com.priyakdey.parker.core.model.SlotOccupancy;
+import com.priyakdey.parker.core.model.SlotType;
 import com.priyakdey.parker.core.model.Vehicle;
+import com.priyakdey.parker.core.model.VehicleType;
+import com.priyakdey.parker.core.model.WaitlistPriority;
 import com.priyakdey.parker.core.pricing.ChargesCalculator;
+import com.priyakdey.parker.core.pricing.Tariff;
+import com.priyakdey.parker.core.pricing.impl.TariffChargesCalculatorImpl;
+import com.priyakdey.parker.core.replication.ReplicatingJournal;
+import com.priyakdey.parker.core.replication.ReplicationFollower;
+import com.priyakdey.parker.core.replication.ReplicationStatus;
+import com.priyakdey.parker.core.service.OccupancySubscription;
+import com.priyakdey.parker.core.service.OccupantVisitor;
 import com.priyakdey.parker.core.service.ParkingLotManager;
+import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.exception.VehicleNotParkedException;
 import com.priyakdey.parker.service.ParkingService;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author Priyak Dey
@@ -39,10 +61,33 @@ public class ParkingServiceImpl implements ParkingService {
     private final ParkingLotManager parkingLotManager;
     private final ChargesCalculator chargesCalculator;
 
+    /**
+     * Journal shipping the changes to the standbys, null if the parking area is not a leader.
+     */
+    private final ReplicatingJournal leader;
+
+    /**
+     * Lock every command runs under, which the changes applied from a leader are made under as well.
+     */
+    private final Lock engineLock;
+
+    /**
+     * Applies the changes shipped by a leader, null if the parking area is not a standby.
+     */
+    private ReplicationFollower follower;
+
     public ParkingServiceImpl(ParkingLotManager parkingLotManager,
                               ChargesCalculator chargesCalculator) {
+        this(parkingLotManager, chargesCalculator, null, new ReentrantLock());
+    }
+
+    public ParkingServiceImpl(ParkingLotManager parkingLotManager,
+                              ChargesCalculator chargesCalculator, ReplicatingJournal leader,
+                              Lock engineLock) {
         this.parkingLotManager = parkingLotManager;
         this.chargesCalculator = chargesCalculator;
+        this.leader = leader;
+        this.engineLock = engineLock;
     }
 
     /**
@@ -53,8 +98,34 @@ public ParkingServiceImpl(ParkingLotManager parkingLotManager,
      */
     @Override
     public Optional<Integer> park(String registrationNumber) {
-        Vehicle vehicle = new Vehicle(registrationNumber);
-        return parkingLotManager.parkVehicle(vehicle);
+        return park(registrationNumber, VehicleType.CAR);
+    }
+
+    /**
+     * Parks a vehicle of the given class and returns the allocated parking space id.
+     *
+     * @param registrationNumber The registration number of the vehicle to be parked.
+     * @param vehicleType        The class of the vehicle to be parked.
+     * @return An {@link Optional} wrapping the parking space id if parking is successful, or an empty Optional if parking failed.
+     */
+    @Override
+    public Optional<Integer> park(String registrationNumber, VehicleType vehicleType) {
+        return park(registrationNumber, vehicleType, null);
+    }
+
+    /**
+     * Parks a vehicle of the given class and colour and returns the allocated parking space id.
+     *
+     * @param registrationNumber The registration number of the vehicle to be parked.
+     * @param vehicleType        The class of the vehicle to be parked.
+     * @param colour             The colour of the vehicle to be parked, null if not recorded.
+     * @return An {@link Optional} wrapping the parking space id if parking is successful, or an empty Optional if parking failed.
+     */
+    @Override
+    public Optional<Integer> park(String registrationNumber, VehicleType vehicleType,
+                                  String colour) {
+        int parkingSpaceId = tryPark(registrationNumber, vehicleType, colour);
+        return parkingSpaceId == 0 ? Optional.empty() : Optional.of(parkingSpaceId);
     }
 
     /**
@@ -66,9 +137,50 @@ public Optional<Integer> park(String registrationNumber) {
      */
     @Override
     public ParkingCharge leave(String registrationNumber, int hoursParked) {
-        String parkingSpaceId = parkingLotManager.vacateParkingSpace(registrationNumber);
-        Number number = chargesCalculator.computePrice(hoursParked);
-        return new ParkingCharge(registrationNumber, parkingSpaceId, number.toString());
+        int parkingSpaceId = vacate(registrationNumber);
+        long chargeCents = charge(parkingSpaceId, hoursParked);
+        return new ParkingCharge(registrationNumber, parkingSpaceId, chargeCents);
+    }
+
+    /**
+     * Parks a vehicle of the given class and colour, allocating nothing once every parking space
+     * has held a vehicle before.
+     *
+     * @param registrationNumber The registration number of the vehicle to be parked.
+     * @param vehicleType        The class of the vehicle to be parked.
+     * @param colour             The colour of the vehicle to be parked, null if not recorded.
+     * @return The allocated parking space id, {@code 0} if the parking area is full.
+     */
+    @Override
+    public int tryPark(String registrationNumber, VehicleType vehicleType, String colour) {
+        return parkingLotManager.parkVehicle(registrationNumber, vehicleType, colour);
+    }
+
+    /**
+     * Vacates the parking space of the specified vehicle.
+     *
+     * @param registrationNumber The registration number of the vehicle that's leaving.
+     * @return The id of the parking space the vehicle was parked in.
+     * @throws VehicleNotParkedException if no such registration number is parked.
+     */
+    @Override
+    public int vacate(String registrationNumber) {
+        return parkingLotManager.vacateParkingSpace(registrationNumber);
+    }
+
+    /**
+     * Calculates the charges of a stay in a parking space just vacated, and adds them to the
+     * revenue of its slot class.
+     *
+     * @param parkingSpaceId The id of the parking space vacated.
+     * @param hoursParked    The number of hours the vehicle was parked.
+     * @return The charges, in cents.
+     */
+    @Override
+    public long charge(int parkingSpaceId, int hoursParked) {
+        long chargeCents = chargesCalculator.computeCents(hoursParked);
+        parkingLotManager.recordCharge(parkingSpaceId, chargeCents);
+        return chargeCents;
     }
 
     /**
@@ -80,4 +192,376 @@ public ParkingCharge leave(String registrationNumber, int hoursParked) {
     public SortedMap<Integer, String> status() {
         return Collections.unmodifiableSortedMap(parkingLotManager.status());
     }
+
+    /**
+     * Hands every occupied parking space, and the registration number parked in it, to a visitor,
+     * in the order of their ids.
+     *
+     * @param visitor The visitor to hand the occupied parking spaces to.
+     */
+    @Override
+    public void forEachOccupied(OccupantVisitor visitor) {
+        parkingLotManager.forEachOccupied(visitor);
+    }
+
+    /**
+     * Retrieves the status of the parking area as it was right after the given change.
+     *
+     * @param sequence The sequence number of the change, parks, leaves and resizes numbered in order from 1.
+     * @return A {@link SortedMap} of the parking space ids occupied at the time to the registration numbers parked in them.
+     * @throws BadInputException if the history is disabled, or does not retain the change.
+     */
+    @Override
+    public SortedMap<Integer, String> status(long sequence) {
+        return Collections.unmodifiableSortedMap(parkingLotManager.status(sequence));
+    }
+
+    /**
+     * Retrieves the status of a range of parking spaces.
+     *
+     * @param fromId The first parking space id of the range.
+     * @param toId   The last parking space id of the range.
+     * @return A {@link SortedMap} of the occupied parking space ids in the range to the registration numbers parked in them.
+     * @throws BadInputException if the range is not within the parking area.
+     */
+    @Override
+    public SortedMap<Integer, String> status(int fromId, int toId) {
+        return Collections.unmodifiableSortedMap(parkingLotManager.status(fromId, toId));
+    }
+
+    /**
+     * Counts the free parking spaces in a range, neither occupied nor reserved.
+     *
+     * @param fromId The first parking space id of the range.
+     * @param toId   The last parking space id of the range.
+     * @return The number of free parking spaces in the range.
+     * @throws BadInputException if the range is not within the parking area.
+     */
+    @Override
+    public int countFree(int fromId, int toId) {
+        return parkingLotManager.countFree(fromId, toId);
+    }
+
+    /**
+     * Retrieves the parking spaces holding vehicles of a colour.
+     *
+     * @param colour The colour, matched ignoring case.
+     * @return The parking space ids, in ascending order.
+     */
+    @Override
+    public List<Integer> slotsForColour(String colour) {
+        return parkingLotManager.slotsForColour(colour);
+    }
+
+    /**
+     * Retrieves the registration numbers of the vehicles of a colour.
+     *
+     * @param colour The colour, matched ignoring case.
+     * @return The registration numbers, in the order of the parking spaces they are parked in.
+     */
+    @Override
+    public List<String> registrationsForColour(String colour) {
+        return parkingLotManager.registrationsForColour(colour);
+    }
+
+    /**
+     * Retrieves the parking spaces holding vehicles whose registration number starts with a prefix.
+     *
+     * @param prefix The registration number prefix.
+     * @return The parking space ids, in ascending order.
+     */
+    @Override
+    public List<Integer> slotsForPrefix(String prefix) {
+        return parkingLotManager.slotsForPrefix(prefix);
+    }
+
+    /**
+     * Retrieves every vehicle which held a parking space at any change in the given range.
+     *
+     * @param parkingSpaceId The parking space id.
+     * @param fromSequence   The sequence number of the first change in the range.
+     * @param toSequence     The sequence number of the last change in the range.
+     * @return The stretches the parking space was held for, oldest first.
+     * @throws BadInputException if the history is disabled, or does not retain the range.
+     */
+    @Override
+    public List<SlotOccupancy> slotHistory(int parkingSpaceId, long fromSequence, long toSequence) {
+        return parkingLotManager.occupancy(parkingSpaceId, fromSequence, toSequence);
+    }
+
+    /**
+     * Returns the last change made at or before the given instant.
+     *
+     * @param instant The point in time.
+     * @return The sequence number of the change.
+     * @throws BadInputException if the history is disabled, or retains no change made by then.
+     */
+    @Override
+    public long sequenceAt(Instant instant) {
+        return parkingLotManager.sequenceAt(instant.toEpochMilli());
+    }
+
+    /**
+     * Returns the sequence number of the last change made to the parking area.
+     *
+     * @return The last sequence number, {@code 0} if no change was made yet.
+     * @throws BadInputException if the history is disabled.
+     */
+    @Override
+    public long lastSequence() {
+        return parkingLotManager.lastSequence();
+    }
+
+    /**
+     * Waitlists a vehicle turned away by the full parking area, till a compatible space is freed.
+     *
+     * @param registrationNumber The registration number of the vehicle to be waitlisted.
+     * @param vehicleType        The class of the vehicle to be waitlisted.
+     * @param colour             The colour of the vehicle to be waitlisted, null if not recorded.
+     * @param priority           The priority class the vehicle waits in.
+     * @return The position of the vehicle on the waitlist.
+     * @throws BadInputException if the waitlist is disabled or the vehicle is already waitlisted.
+     */
+    @Override
+    public int waitlist(String registrationNumber, VehicleType vehicleType, String colour,
+                        WaitlistPriority priority) {
+        Vehicle vehicle = new Vehicle(registrationNumber, vehicleType, colour);
+        return parkingLotManager.waitlistVehicle(vehicle, priority);
+    }
+
+    /**
+     * Returns if vehicles turned away by the full parking area can be waitlisted.
+     *
+     * @return true if the waitlist is enabled, false otherwise.
+     */
+    @Override
+    public boolean isWaitlistEnabled() {
+        return parkingLotManager.isWaitlistEnabled();
+    }
+
+    /**
+     * Holds a parking space for a vehicle which is yet to arrive, for the given number of ticks.
+     *
+     * @param registrationNumber The registration number of the vehicle to hold the space for.
+     * @param vehicleType        The class of the vehicle to hold the space for.
+     * @param ttlTicks           Number of ticks the space is held for, before it is released.
+     * @return An {@link Optional} wrapping the held parking space id, or an empty Optional if the parking area is full.
+     */
+    @Override
+    public Optional<Integer> reserve(String registrationNumber, VehicleType vehicleType, int ttlTicks) {
+        Vehicle vehicle = new Vehicle(registrationNumber, vehicleType);
+        return parkingLotManager.reserveParkingSpace(vehicle, ttlTicks);
+    }
+
+    /**
+     * Parks an arriving vehicle in the parking space held for it.
+     *
+     * @param registrationNumber The registration number of the arriving vehicle.
+     * @return The parking space id the vehicle is parked in.
+     * @throws BadInputException if no parking space is held for the vehicle.
+     */
+    @Override
+    public int claim(String registrationNumber) {
+        return parkingLotManager.claimReservation(registrationNumber);
+    }
+
+    /**
+     * Advances the reservation clock, releasing every reservation which expires on the way.
+     *
+     * @param ticks Number of ticks to advance the clock by.
+     * @return Number of reservations expired.
+     */
+    @Override
+    public int advanceClock(int ticks) {
+        return parkingLotManager.advanceClock(ticks);
+    }
+
+    /**
+     * Returns the current tick of the reservation clock.
+     *
+     * @return the current tick.
+     */
+    @Override
+    public long currentTick() {
+        return parkingLotManager.currentTick();
+    }
+
+    /**
+     * Resizes the parking area in place, keeping every parked vehicle where it is.
+     *
+     * @param capacity The new number of parking spaces.
+     * @throws BadInputException if any of the parking spaces to be retired is in use.
+     */
+    @Override
+    public void resize(int capacity) {
+        parkingLotManager.resize(capacity);
+    }
+
+    /**
+     * Takes a snapshot of the parking area, so a restart only replays the journal written after it.
+     *
+     * @return A future completed once the snapshot is durable.
+     * @throws BadInputException if the parking area is not journaled.
+     */
+    @Override
+    public CompletableFuture<Void> snapshot() {
+        return parkingLotManager.snapshot();
+    }
+
+    /**
+     * Turns the parking area into a read-only warm standby, applying the changes a leader ships to
+     * the given address.
+     *
+     * @param address The address to listen for the leader on, {@code host:port} or a socket path.
+     * @throws BadInputException if the parking area is already a standby, or the address is malformed.
+     */
+    @Override
+    public void follow(String address) {
+        if (follower != null) {
+            throw new BadInputException("Parking lot is already following a leader");
+        }
+
+        parkingLotManager.setReadOnly(true);
+        try {
+            follower = ReplicationFollower.listen(address, parkingLotManager.replicaApplier(), engineLock);
+        } catch (RuntimeException ex) {
+            parkingLotManager.setReadOnly(false);
+            throw ex;
+        }
+    }
+
+    /**
+     * Stops following the leader, and opens the parking area for changes again.
+     *
+     * @param timeoutMillis Longest to wait for the leader to go away first, {@code 0} to not wait.
+     * @return The sequence number of the last change applied from the leader.
+     * @throws BadInputException if the parking area is not a standby.
+     */
+    @Override
+    public long promote(long timeoutMillis) {
+        if (follower == null) {
+            throw new BadInputException("Parking lot is not following a leader");
+        }
+
+        follower.awaitLeaderGone(timeoutMillis);
+        long applied = follower.close();
+        follower = null;
+        parkingLotManager.setReadOnly(false);
+        return applied;
+    }
+
+    /**
+     * Returns where the parking area stands in replication - a standby reports on the leader it
+     * follows, even if it ships the changes on to standbys of its own.
+     *
+     * @return The replication status.
+     */
+    @Override
+    public ReplicationStatus replicationStatus() {
+        if (follower != null) {
+            return follower.status();
+        }
+        return leader == null ? ReplicationStatus.STANDALONE : leader.status();
+    }
+
+    /**
+     * Returns the occupancy, turnover and revenue of the parking area, overall and by slot class,
+     * read off counters kept up to date with every change.
+     *
+     * @return The stats of the parking area.
+     */
+    @Override
+    public LotStats stats() {
+        return parkingLotManager.stats();
+    }
+
+    /**
+     * Returns the number of requests the parking area refused so far, for the given reason.
+     *
+     * @param rejection The reason of the refusals.
+     * @return The number of refusals.
+     */
+    @Override
+    public long rejections(Rejection rejection) {
+        return parkingLotManager.rejections(rejection);
+    }
+
+    /**
+     * Returns the number of free parking spaces a slot class has in its pool, to be allotted.
+     *
+     * @param slotType The slot class.
+     * @return The size of the pool, {@code 0} if the parking area has no such slot class.
+     */
+    @Override
+    public int allocatorDepth(SlotType slotType) {
+        return parkingLotManager.allocatorDepth(slotType);
+    }
+
+    /**
+     * Subscribes to the occupancy changes of the parking area, starting with the free count of
+     * every slot class.
+     *
+     * @param queueCapacity Number of changes queued for the subscriber before they are conflated.
+     * @param onAvailable   Run when a change comes in for the subscriber, who had none to take, null
+     *                      for none.
+     * @return The subscription, to be closed once done with.
+     */
+    @Override
+    public OccupancySubscription subscribe(int queueCapacity, Runnable onAvailable) {
+        return parkingLotManager.subscribe(queueCapacity, onAvailable);
+    }
+
+    /**
+     * Lets go of the parking area before it is replaced - stops following a leader, freeing the
+     * address it listens on, and ends every occupancy subscription.
+     */
+    @Override
+    public void close() {
+        if (follower != null) {
+            follower.close();
+            follower = null;
+        }
+        parkingLotManager.closeSubscriptions();
+    }
+
+    /**
+     * Compiles a tariff file, and prices every stay ending from now on with it. The tariff is
+     * compiled before it is swapped in, so a malformed file leaves the current tariff in place.
+     *
+     * @param path The path of the tariff file.
+     * @return The compiled tariff.
+     * @throws BadInputException if the file cannot be read or is malformed, or the parking area
+     *                           is not priced by a tariff.
+     */
+    @Override
+    public Tariff loadTariff(Path path) {
+        if (!(chargesCalculator instanceof TariffChargesCalculatorImpl tariffCalculator)) {
+            throw new BadInputException("Parking lot is not priced by a tariff");
+        }
+
+        Tariff tariff = Tariff.load(path);
+        tariffCalculator.load(tariff);
+        return tariff;
+    }
+
+    /**
+     * Returns the slot classes the parking area has been laid out with.
+     *
+     * @return A set of slot classes present in the parking area.
+     */
+    @Override
+    public Set<SlotType> slotTypes() {
+        return parkingLotManager.slotTypes();
+    }
+
+    /**
+     * Returns the slot class of a parking space.
+     *
+     * @param parkingSpaceId The parking space id.
+     * @return The slot class of the parking space.
+     */
+    @Override
+    public SlotType slotTypeOf(int parkingSpaceId) {
+        return parkingLotManager.slotTypeOf(parkingSpaceId);
+    }
 }
@@ -0,0 +1,179 @@
+package com.priyakdey.parker.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load tests the HTTP API, from one virtual thread per connection, and reports the latency
+ * percentiles of the requests.
+ * <p>
+ * Every connection parks a car of its own, reads the status of the lot around it, and takes the
+ * car away again, till the run is over. The lot needs a slot for every connection, or parks are
+ * turned away as full - which still counts as a reply.
+ * </p>
+ * <pre>
+ *     HttpLoadClient {base_url} [{connections} [{seconds}]]
+ * </pre>
+ * The defaults are 10000 connections, for 30 seconds. The open file limit of both the server and
+ * the client has to allow for as many sockets.
+ *
+ * @author Priyak Dey
+ */
+public final class HttpLoadClient {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private HttpLoadClient() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("ERROR: No base url provided, example - http://127.0.0.1:8080");
+            System.exit(1);
+        }
+
+        URI base = URI.create(args[0]);
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        long seconds = args.length > 2 ? Long.parseLong(args[2]) : 30;
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                 .version(HttpClient.Version.HTTP_1_1)
+                 .executor(threads)
+                 .connectTimeout(Duration.ofSeconds(30))
+                 .build()) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            long start = System.nanoTime();
+            List<Future<Worker>> futures = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                Worker worker = new Worker(client, base, i, deadline);
+                futures.add(threads.submit(worker::run));
+            }
+
+            Samples samples = new Samples();
+            long errors = 0;
+            for (Future<Worker> future : futures) {
+                Worker worker = future.get();
+                samples.addAll(worker.samples);
+                errors += worker.errors;
+            }
+            report(samples, errors, System.nanoTime() - start, connections);
+        }
+    }
+
+    private static void report(Samples samples, long errors, long elapsedNanos, int connections) {
+        long[] latencies = samples.sorted();
+        System.out.printf("Connections %d, requests %d, errors %d, %.0f requests/s%n",
+            connections, latencies.length, errors,
+            latencies.length / (elapsedNanos / 1_000_000_000.0));
+        if (latencies.length == 0) {
+            return;
+        }
+
+        for (double percentile : PERCENTILES) {
+            int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+            System.out.printf("p%-5s %10.3f ms%n", format(percentile),
+                latencies[Math.max(0, index)] / 1_000_000.0);
+        }
+        System.out.printf("max    %10.3f ms%n", latencies[latencies.length - 1] / 1_000_000.0);
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile)
+            ? Long.toString((long) percentile)
+            : Double.toString(percentile);
+    }
+
+    /**
+     * Drives one connection, timing every request.
+     */
+    private static final class Worker {
+
+        private final HttpClient client;
+
+        private final HttpRequest park;
+
+        private final HttpRequest status;
+
+        private final HttpRequest leave;
+
+        private final long deadline;
+
+        private final Samples samples = new Samples();
+
+        private long errors;
+
+        private Worker(HttpClient client, URI base, int id, long deadline) {
+            this.client = client;
+            this.deadline = deadline;
+
+            String registration = String.format("KA-%02d-HH-%04d", id / 10_000 % 100, id % 10_000);
+            this.park = HttpRequest.newBuilder(base.resolve("/park?registration=" + registration))
+                .POST(HttpRequest.BodyPublishers.noBody()).build();
+            this.leave = HttpRequest.newBuilder(
+                    base.resolve("/leave?registration=" + registration + "&hours=3"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build();
+            int from = 1 + id;
+            this.status = HttpRequest.newBuilder(
+                base.resolve("/status?from=" + from + "&to=" + (from + 10))).GET().build();
+        }
+
+        private Worker run() {
+            while (System.nanoTime() < deadline) {
+                send(park);
+                send(status);
+                send(leave);
+            }
+            return this;
+        }
+
+        private void send(HttpRequest request) {
+            long start = System.nanoTime();
+            try {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+                samples.add(System.nanoTime() - start);
+            } catch (Exception ex) {
+                errors++;
+            }
+        }
+    }
+
+    /**
+     * A growable array of latencies, in nanoseconds.
+     */
+    private static final class Samples {
+
+        private long[] values = new long[1024];
+
+        private int size;
+
+        private void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private void addAll(Samples other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        private long[] sorted() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
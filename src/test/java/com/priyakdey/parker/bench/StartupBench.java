@@ -0,0 +1,114 @@
+package com.priyakdey.parker.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures the cold start of the application, run the way cron runs it, by the time from starting
+ * the process to the first byte of its output, and to its exit.
+ * <p>
+ * The jar and the class data sharing archive {@code ./bin/setup} builds are run without class data
+ * sharing, with the archive of the JDK classes only, and with the archive of the training run, and
+ * then through {@code ./bin/parking_lot}, which adds the JIT and GC flags. Every configuration is
+ * run once before it is measured, to have the files in the page cache. It is run from the root of
+ * the project, after {@code ./bin/setup}.
+ * </p>
+ * <pre>
+ *     StartupBench [{runs} [{input file}]]
+ * </pre>
+ * The defaults are 20 runs of every configuration, over {@code file_inputs.txt}.
+ *
+ * @author Priyak Dey
+ */
+public final class StartupBench {
+
+    private static final double[] PERCENTILES = {50, 90, 100};
+
+    private static final Path JAR = Path.of("build", "libs", "parker.jar").toAbsolutePath();
+
+    private static final Path ARCHIVE = Path.of("build", "libs", "parker.jsa").toAbsolutePath();
+
+    private StartupBench() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        String input = args.length > 1 ? args[1] : "file_inputs.txt";
+        if (!Files.exists(JAR)) {
+            throw new IllegalStateException(JAR + " is missing, run ./bin/setup first");
+        }
+
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String jar = JAR.toString();
+        List<String[]> configurations = List.of(
+            new String[] {"no cds", java, "-Xshare:off", "-jar", jar, input},
+            new String[] {"jdk cds", java, "-jar", jar, input},
+            new String[] {"app cds", java, "-XX:SharedArchiveFile=" + ARCHIVE, "-Xlog:cds=off",
+                "-Xlog:cds+dynamic=off", "-jar", jar, input},
+            new String[] {"launcher", "./bin/parking_lot", input});
+
+        System.out.printf("%-8s %12s %12s %12s %12s %12s %12s%n", "", "first p50 ms",
+            "first p90 ms", "first max ms", "exit p50 ms", "exit p90 ms", "exit max ms");
+        for (String[] configuration : configurations) {
+            String[] command = Arrays.copyOfRange(configuration, 1, configuration.length);
+            run(command);
+
+            long[] firstOutput = new long[runs];
+            long[] exit = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                long[] nanos = run(command);
+                firstOutput[i] = nanos[0];
+                exit[i] = nanos[1];
+            }
+            report(configuration[0], firstOutput, exit);
+        }
+    }
+
+    /**
+     * Runs the command to its exit, reading its output away.
+     *
+     * @return the nanos to the first byte of output, and to the exit.
+     */
+    private static long[] run(String[] command) throws IOException, InterruptedException {
+        ProcessBuilder builder = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectInput(ProcessBuilder.Redirect.from(Path.of("/dev/null").toFile()));
+
+        long start = System.nanoTime();
+        Process process = builder.start();
+        long firstOutput = -1;
+        try (InputStream in = process.getInputStream()) {
+            byte[] buffer = new byte[8 * 1024];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                if (firstOutput < 0 && read > 0) {
+                    firstOutput = System.nanoTime() - start;
+                }
+            }
+        }
+        int status = process.waitFor();
+        long exit = System.nanoTime() - start;
+        if (status != 0) {
+            throw new IllegalStateException(String.join(" ", command) + " exited with " + status);
+        }
+        return new long[] {firstOutput < 0 ? exit : firstOutput, exit};
+    }
+
+    private static void report(String name, long[] firstOutput, long[] exit) {
+        System.out.printf("%-8s", name);
+        List<long[]> columns = new ArrayList<>(List.of(firstOutput, exit));
+        for (long[] nanos : columns) {
+            Arrays.sort(nanos);
+            for (double percentile : PERCENTILES) {
+                int index = (int) Math.ceil(percentile / 100 * nanos.length) - 1;
+                System.out.printf(" %12.1f", nanos[Math.max(0, index)] / 1_000_000.0);
+            }
+        }
+        System.out.println();
+    }
+}
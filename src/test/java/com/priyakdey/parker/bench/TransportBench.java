@@ -0,0 +1,179 @@
+package com.priyakdey.parker.bench;
+
+import static com.priyakdey.parker.command.CommandOutput.out;
+
+import com.priyakdey.parker.command.CommandInvoker;
+import com.priyakdey.parker.server.CommandServer;
+import com.priyakdey.parker.server.ServerConfig;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the command server over TCP loopback with the server over a Unix domain socket, by the
+ * round trip latency of single commands and by the throughput of pipelined ones.
+ * <p>
+ * A server listening on both transports is started in the same JVM, with a single {@code ping}
+ * command, so the numbers are of the transport and the protocol and not of the parking lot. Each
+ * transport is warmed up for a second before every measurement.
+ * </p>
+ * <pre>
+ *     TransportBench [{seconds} [{pipeline depth}]]
+ * </pre>
+ * The defaults are 5 seconds per measurement, and 64 commands per pipelined write.
+ *
+ * @author Priyak Dey
+ */
+public final class TransportBench {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private static final long WARM_UP_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final byte[] PING = "ping\n".getBytes(StandardCharsets.UTF_8);
+
+    private TransportBench() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 5;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+
+        CommandInvoker invoker = new CommandInvoker();
+        invoker.registerCommand("ping", arguments -> out().println("PONG"));
+
+        Path socketPath = Files.createTempDirectory("parker-bench").resolve("parker.sock");
+        ServerConfig config = new ServerConfig(List.of(new InetSocketAddress("127.0.0.1", 0),
+            UnixDomainSocketAddress.of(socketPath)), 8 * 1024);
+        CommandServer server = CommandServer.open(config, invoker);
+        Thread thread = Thread.ofPlatform().name("parker-server").start(server::run);
+
+        try {
+            System.out.printf("%-5s %13s %10s %10s %10s %10s %14s%n",
+                "", "round trips/s", "p50 us", "p90 us", "p99 us", "p99.9 us", "pipelined/s");
+            for (SocketAddress address : server.localAddresses()) {
+                try (SocketChannel channel = connect(address)) {
+                    String name = address instanceof UnixDomainSocketAddress ? "unix" : "tcp";
+                    long nanos = TimeUnit.SECONDS.toNanos(seconds);
+
+                    roundTrips(channel, WARM_UP_NANOS);
+                    long[] latencies = roundTrips(channel, nanos);
+
+                    pipelined(channel, depth, WARM_UP_NANOS);
+                    long commands = pipelined(channel, depth, nanos);
+
+                    report(name, latencies, commands, seconds);
+                }
+            }
+        } finally {
+            server.close();
+            thread.join();
+        }
+    }
+
+    private static SocketChannel connect(SocketAddress address) throws IOException {
+        if (address instanceof UnixDomainSocketAddress) {
+            SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+            channel.connect(address);
+            return channel;
+        }
+
+        SocketChannel channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        return channel;
+    }
+
+    /**
+     * Sends one command at a time, waiting for every reply, and times each round trip.
+     */
+    private static long[] roundTrips(SocketChannel channel, long nanos) throws IOException {
+        ByteBuffer request = ByteBuffer.wrap(PING);
+        ByteBuffer reply = ByteBuffer.allocate(64 * 1024);
+        long[] latencies = new long[1024];
+        int count = 0;
+
+        long deadline = System.nanoTime() + nanos;
+        long start;
+        while ((start = System.nanoTime()) < deadline) {
+            request.rewind();
+            send(channel, request);
+            awaitReplies(channel, reply, 1);
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - start;
+        }
+
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Sends the commands {@code depth} at a time in one write, and counts the commands replied to.
+     */
+    private static long pipelined(SocketChannel channel, int depth, long nanos)
+        throws IOException {
+        ByteBuffer request = ByteBuffer.allocate(PING.length * depth);
+        for (int i = 0; i < depth; i++) {
+            request.put(PING);
+        }
+        ByteBuffer reply = ByteBuffer.allocate(64 * 1024);
+
+        long commands = 0;
+        long deadline = System.nanoTime() + nanos;
+        while (System.nanoTime() < deadline) {
+            request.rewind();
+            send(channel, request);
+            awaitReplies(channel, reply, depth);
+            commands += depth;
+        }
+        return commands;
+    }
+
+    private static void send(SocketChannel channel, ByteBuffer request) throws IOException {
+        while (request.hasRemaining()) {
+            channel.write(request);
+        }
+    }
+
+    /**
+     * Reads till the given number of reply lines have come in.
+     */
+    private static void awaitReplies(SocketChannel channel, ByteBuffer reply, int lines)
+        throws IOException {
+        int remaining = lines;
+        while (remaining > 0) {
+            reply.clear();
+            if (channel.read(reply) < 0) {
+                throw new IOException("Server closed the connection");
+            }
+            byte[] bytes = reply.array();
+            for (int i = 0; i < reply.position(); i++) {
+                if (bytes[i] == '\n') {
+                    remaining--;
+                }
+            }
+        }
+    }
+
+    private static void report(String name, long[] latencies, long commands, long seconds) {
+        System.out.printf("%-5s %13.0f", name, latencies.length / (double) seconds);
+        for (double percentile : PERCENTILES) {
+            int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+            System.out.printf(" %10.1f", latencies[Math.max(0, index)] / 1_000.0);
+        }
+        System.out.printf(" %14.0f%n", commands / (double) seconds);
+    }
+}
@@ -0,0 +1,68 @@
+package com.priyakdey.parker.command;
+
+import static com.priyakdey.parker.util.AssertionUtil.assertionMsg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.priyakdey.parker.command.AllocationAccounting.Phase;
+import com.priyakdey.parker.command.impl.ParkCommand;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.core.pricing.impl.PerHourChargesCalculatorImpl;
+import com.priyakdey.parker.core.service.ParkingLot;
+import com.priyakdey.parker.core.service.ParkingLotManagerImpl;
+import com.priyakdey.parker.service.ParkingService;
+import com.priyakdey.parker.service.impl.ParkingServiceImpl;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("AllocationAccounting")
+class AllocationAccountingTest {
+
+    @DisplayName("Should charge the parking lot, and the printing, to their own phases")
+    @Test
+    void test_execute_shouldChargeEveryPhase() {
+        ApplicationContext.getInstance().put(new ParkingServiceImpl(
+            new ParkingLotManagerImpl(ParkingLot.withCapacity(4)),
+            new PerHourChargesCalculatorImpl()));
+        CommandInvoker invoker = new CommandInvoker();
+        invoker.registerCommand("park", new ParkCommand());
+        invoker.enableAllocationAccounting();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+        invoker.execute(invoker.tokenize("park KA-01-HH-1234"), out);
+        invoker.execute(invoker.tokenize("park KA-01-HH-9999 White"), out);
+
+        String expected = String.format("Allocated slot number: 1%nAllocated slot number: 2%n");
+        String actual = bytes.toString(StandardCharsets.UTF_8);
+        assertEquals(expected, actual, assertionMsg(expected, actual));
+
+        AllocationAccounting allocations = invoker.allocations();
+        for (Phase phase : Phase.values()) {
+            long allocated = allocations.bytes("park", phase);
+            assertTrue(allocated > 0, assertionMsg(phase + " > 0", allocated));
+        }
+        ParkingService parkingService = ApplicationContext.getInstance().get(ParkingService.class);
+        assertTrue(parkingService instanceof AccountedParkingService,
+            assertionMsg(AccountedParkingService.class, parkingService.getClass()));
+    }
+
+    @DisplayName("Should leave commands unaccounted for till enabled")
+    @Test
+    void test_execute_shouldNotChargeWhenDisabled() {
+        CommandInvoker invoker = new CommandInvoker();
+        invoker.registerCommand("echo", args -> CommandOutput.out().println(args[0]));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        invoker.execute(invoker.tokenize("echo hello"), new PrintStream(bytes, true));
+
+        long allocated = invoker.allocations().bytes("echo", Phase.OUTPUT);
+        assertEquals(0, allocated, assertionMsg(0, allocated));
+        boolean enabled = invoker.allocations().isEnabled();
+        assertFalse(enabled, assertionMsg(false, enabled));
+    }
+}
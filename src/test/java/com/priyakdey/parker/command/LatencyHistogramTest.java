@@ -0,0 +1,48 @@
+package com.priyakdey.parker.command;
+
+import static com.priyakdey.parker.util.AssertionUtil.assertionMsg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("LatencyHistogram")
+class LatencyHistogramTest {
+
+    @DisplayName("Should keep small latencies exact, and larger ones within 1/64th")
+    @Test
+    void test_valueAtPercentile_shouldMatchSortedLatencies() {
+        Random random = new Random(11);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] latencies = new long[10_000];
+        for (int i = 0; i < latencies.length; i++) {
+            // mostly microseconds, with a tail of milliseconds
+            latencies[i] = i % 100 == 0
+                ? 1_000_000 + random.nextInt(50_000_000)
+                : 100 + random.nextInt(20_000);
+            histogram.record(latencies[i]);
+        }
+        Arrays.sort(latencies);
+
+        for (double percentile : new double[]{50, 90, 99, 99.9, 100}) {
+            long expected = latencies[(int) Math.ceil(percentile / 100 * latencies.length) - 1];
+            long actual = histogram.valueAtPercentile(percentile);
+            boolean close = actual >= expected && actual - expected <= expected / 64;
+            assertTrue(close, assertionMsg(expected, actual));
+        }
+        long max = histogram.maxNanos();
+        long expectedMax = latencies[latencies.length - 1];
+        assertEquals(expectedMax, max, assertionMsg(expectedMax, max));
+
+        histogram.reset();
+        histogram.record(-5);
+        histogram.record(127);
+        long median = histogram.valueAtPercentile(50);
+        assertEquals(0L, median, assertionMsg(0L, median));
+        long top = histogram.valueAtPercentile(100);
+        assertEquals(127L, top, assertionMsg(127L, top));
+    }
+}
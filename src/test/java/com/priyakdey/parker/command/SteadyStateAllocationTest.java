@@ -0,0 +1,74 @@
+package com.priyakdey.parker.command;
+
+import static com.priyakdey.parker.util.AssertionUtil.assertionMsg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.priyakdey.parker.command.impl.LeaveCommand;
+import com.priyakdey.parker.command.impl.ParkCommand;
+import com.priyakdey.parker.command.impl.StatusCommand;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.core.pricing.impl.PerHourChargesCalculatorImpl;
+import com.priyakdey.parker.core.service.ParkingLot;
+import com.priyakdey.parker.core.service.ParkingLotManagerImpl;
+import com.priyakdey.parker.service.impl.ParkingServiceImpl;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Steady state allocation")
+class SteadyStateAllocationTest {
+
+    private static final int WARM_UP_CYCLES = 20_000;
+
+    private static final int MEASURED_CYCLES = 10_000;
+
+    @DisplayName("Should allocate nothing parking, listing and leaving once warmed up")
+    @Test
+    void test_execute_shouldNotAllocateInSteadyState() {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        ApplicationContext.getInstance().put(new ParkingServiceImpl(
+            new ParkingLotManagerImpl(ParkingLot.withCapacity(8)),
+            new PerHourChargesCalculatorImpl()));
+        ConsoleEventReporter eventReporter = new ConsoleEventReporter();
+        CommandInvoker invoker = new CommandInvoker();
+        invoker.registerCommand("park", new ParkCommand());
+        invoker.registerCommand("leave", new LeaveCommand());
+        invoker.registerCommand("status", new StatusCommand());
+        invoker.registerCompletionHook(eventReporter::flush);
+
+        PrintStream out = new PrintStream(OutputStream.nullOutputStream());
+        String[][] commands = {
+            invoker.tokenize("park KA-01-HH-1234"),
+            invoker.tokenize("park KA-01-HH-9999"),
+            invoker.tokenize("park DL-12-AA-9999"),
+            invoker.tokenize("status"),
+            invoker.tokenize("leave KA-01-HH-9999 4"),
+            invoker.tokenize("leave KA-01-HH-1234 1"),
+            invoker.tokenize("status"),
+            invoker.tokenize("leave DL-12-AA-9999 3"),
+        };
+
+        for (int i = 0; i < WARM_UP_CYCLES; i++) {
+            runCycle(invoker, commands, out);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_CYCLES; i++) {
+            runCycle(invoker, commands, out);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertEquals(0, allocated, assertionMsg(0, allocated));
+    }
+
+    private static void runCycle(CommandInvoker invoker, String[][] commands, PrintStream out) {
+        for (String[] command : commands) {
+            invoker.execute(command, out);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.priyakdey.parker.common;
+
+import static com.priyakdey.parker.util.AssertionUtil.assertionExceptionMsg;
+import static com.priyakdey.parker.util.AssertionUtil.assertionMsg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.priyakdey.parker.exception.BadInputException;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("PackedRegistration")
+class PackedRegistrationTest {
+
+    @DisplayName("Should unpack every registration number to the one packed")
+    @Test
+    void test_pack_shouldRoundTrip() {
+        List<String> expected = List.of("KA-01-P-333", "DL-12-AA-9999", "KA-01-HH-1234",
+            "KA-01-BB-0001", "ZZ-99-ZZ-0000", "AA-00-A-000", "AA-00-A-0000");
+
+        List<String> actual = expected.stream()
+            .map(PackedRegistration::pack)
+            .map(PackedRegistration::unpack)
+            .toList();
+        assertEquals(expected, actual, assertionMsg(expected, actual));
+        assertNotEquals(PackedRegistration.pack("AA-00-A-000"),
+            PackedRegistration.pack("AA-00-A-0000"));
+    }
+
+    @DisplayName("Should not pack anything but a registration number")
+    @Test
+    void test_pack_shouldRejectMalformed() {
+        List<String> malformed = List.of("ABC-12-AA-1234", "12-AA-1234", "1234", "KA-01-0001",
+            "DL-1ABC-AA-9999", "ka-01-hh-1234", "KA-01-HHH-123", "KA-01-HH-12", "KA-01-HH-12345",
+            "KA_01-HH-1234", "");
+
+        List<Long> expected = malformed.stream().map(input -> PackedRegistration.INVALID).toList();
+        List<Long> actual = malformed.stream().map(PackedRegistration::pack).toList();
+        assertEquals(expected, actual, assertionMsg(expected, actual));
+    }
+
+    @DisplayName("Should not unpack a value no registration number packs to")
+    @Test
+    void test_unpack_shouldRejectMalformed() {
+        assertThrows(BadInputException.class,
+            () -> PackedRegistration.unpack(PackedRegistration.INVALID),
+            assertionExceptionMsg(BadInputException.class));
+        assertThrows(BadInputException.class, () -> PackedRegistration.unpack(-1L),
+            assertionExceptionMsg(BadInputException.class));
+        assertThrows(BadInputException.class,
+            () -> PackedRegistration.unpack(PackedRegistration.pack("KA-01-HH-1234") | 1L << 50),
+            assertionExceptionMsg(BadInputException.class));
+    }
+}
@@ -0,0 +1,84 @@
+package com.priyakdey.parker.core.jfr;
+
+import static com.priyakdey.parker.data.TestData.REG_NUM_1;
+import static com.priyakdey.parker.data.TestData.REG_NUM_2;
+import static com.priyakdey.parker.util.AssertionUtil.assertionMsg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.priyakdey.parker.core.model.Vehicle;
+import com.priyakdey.parker.core.service.ParkingLot;
+import com.priyakdey.parker.core.service.ParkingLotManager;
+import com.priyakdey.parker.core.service.ParkingLotManagerImpl;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("LotEvent")
+class LotEventTest {
+
+    @DisplayName("Should record park, leave and allocator events with the state of the lot")
+    @Test
+    void test_events_shouldCarryLotState() throws IOException {
+        ParkingLotManager manager = new ParkingLotManagerImpl(ParkingLot.withCapacity(4));
+        Path file = Files.createTempDirectory("parker-jfr").resolve("lot.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(ParkEvent.class).withoutThreshold();
+            recording.enable(LeaveEvent.class).withoutThreshold();
+            recording.enable(AllocatorEvent.class).withoutThreshold();
+            recording.start();
+
+            manager.parkVehicle(new Vehicle(REG_NUM_1));
+            manager.parkVehicle(new Vehicle(REG_NUM_2));
+            manager.vacateParkingSpace(REG_NUM_1);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<String> events = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            String name = event.getEventType().getName();
+            events.add(switch (name) {
+                case "parker.Allocator" -> name + " " + event.getString("operation") + " "
+                    + event.getInt("slot") + " " + event.getInt("heapSize");
+                default -> name + " " + event.getInt("slot") + " " + event.getLong("occupied")
+                    + " " + event.getFloat("fillRatio");
+            });
+        }
+
+        List<String> expected = List.of(
+            "parker.Allocator poll 1 3",
+            "parker.Park 1 1 0.25",
+            "parker.Allocator poll 2 2",
+            "parker.Park 2 2 0.5",
+            "parker.Allocator push 1 3",
+            "parker.Leave 1 1 0.25");
+        assertEquals(expected, events, assertionMsg(expected, events));
+    }
+
+    @DisplayName("Should begin only the events a running recording enables")
+    @Test
+    void test_begin_shouldSkipDisabledEvents() {
+        boolean parkBegun;
+        boolean leaveBegun;
+        try (Recording recording = new Recording()) {
+            recording.enable(ParkEvent.class).withoutThreshold();
+            recording.disable(LeaveEvent.class);
+            recording.start();
+
+            parkBegun = Events.begin(ParkEvent.class, ParkEvent::new) != null;
+            leaveBegun = Events.begin(LeaveEvent.class, LeaveEvent::new) != null;
+        }
+
+        assertEquals(true, parkBegun, assertionMsg(true, parkBegun));
+        assertEquals(false, leaveBegun, assertionMsg(false, leaveBegun));
+    }
+}
@@ -0,0 +1,173 @@
+package com.priyakdey.parker.core.journal;
+
+import static com.priyakdey.parker.util.AssertionUtil.assertionMsg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.priyakdey.parker.core.model.SlotSection;
+import com.priyakdey.parker.core.model.SlotType;
+import com.priyakdey.parker.core.model.VehicleType;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("MappedJournal")
+class MappedJournalTest {
+
+    private final Path directory;
+
+    MappedJournalTest() throws IOException {
+        directory = Files.createTempDirectory("parker-journal");
+    }
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @DisplayName("Should replay every record, in the order appended")
+    @Test
+    void test_replay_shouldReturnRecordsInOrder() {
+        try (Journal journal = MappedJournal.open(config(4096))) {
+            journal.appendPark(1, VehicleType.EV, "KA-01-HH-1234", "White");
+            journal.appendResize(8);
+            journal.appendVacate(1);
+        }
+
+        List<String> records = replay();
+
+        List<String> expected = List.of("park 1 EV KA-01-HH-1234 White", "resize 8", "vacate 1");
+        assertEquals(expected, records, assertionMsg(expected, records));
+    }
+
+    @DisplayName("Should roll over to new segments, and append after the last record on reopen")
+    @Test
+    void test_append_shouldRollOverSegments() throws IOException {
+        try (Journal journal = MappedJournal.open(config(4096))) {
+            for (int id = 1; id <= 500; id++) {
+                journal.appendPark(id, VehicleType.CAR, "KA-01-HH-1234", null);
+            }
+        }
+        try (Journal journal = MappedJournal.open(config(4096))) {
+            journal.appendVacate(500);
+        }
+
+        List<String> records = replay();
+        long segments;
+        try (Stream<Path> paths = Files.list(directory)) {
+            segments = paths.count();
+        }
+
+        assertEquals(501, records.size(), assertionMsg(501, records.size()));
+        assertEquals("vacate 500", records.getLast(), assertionMsg("vacate 500", records.getLast()));
+        assertEquals(true, segments > 1, assertionMsg("more than 1 segment", segments));
+    }
+
+    @DisplayName("Should stop at a torn record, and overwrite it on reopen")
+    @Test
+    void test_replay_tornRecord_shouldStopAtIt() throws IOException {
+        try (Journal journal = MappedJournal.open(config(4096))) {
+            journal.appendVacate(1);
+            journal.appendVacate(2);
+        }
+
+        // flip a payload byte of the second record, leaving its checksum stale
+        Path segment;
+        try (Stream<Path> paths = Files.list(directory)) {
+            segment = paths.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {9}), 13 + 5 + 3);
+        }
+
+        List<String> records = replay();
+        assertEquals(List.of("vacate 1"), records, assertionMsg(List.of("vacate 1"), records));
+
+        try (Journal journal = MappedJournal.open(config(4096))) {
+            journal.appendVacate(3);
+        }
+
+        records = replay();
+        assertEquals(List.of("vacate 1", "vacate 3"), records,
+            assertionMsg(List.of("vacate 1", "vacate 3"), records));
+    }
+
+    @DisplayName("Should replay only the records after the latest snapshot, and drop the ones before")
+    @Test
+    void test_snapshot_shouldTruncateJournal() throws IOException {
+        LotSnapshot image = new LotSnapshot(List.of(new SlotSection(SlotType.STANDARD, 4)), 1,
+            new int[] {2}, new VehicleType[] {VehicleType.CAR}, new String[] {"KA-01-HH-1234"},
+            new String[] {"Red"});
+
+        try (Journal journal = MappedJournal.open(config(4096))) {
+            journal.appendPark(1, VehicleType.CAR, "KA-01-HH-9999", null);
+            journal.appendPark(2, VehicleType.CAR, "KA-01-HH-1234", "Red");
+            journal.appendVacate(1);
+            journal.snapshot(image).join();
+            journal.appendVacate(2);
+        }
+
+        List<String> records = replay();
+        assertEquals(List.of("vacate 2"), records, assertionMsg(List.of("vacate 2"), records));
+
+        LotSnapshot snapshot;
+        try (Journal journal = MappedJournal.open(config(4096))) {
+            snapshot = journal.latestSnapshot().orElseThrow();
+        }
+        assertEquals(image.sections(), snapshot.sections(),
+            assertionMsg(image.sections(), snapshot.sections()));
+        assertEquals(1, snapshot.occupiedCount(), assertionMsg(1, snapshot.occupiedCount()));
+        assertEquals(2, snapshot.parkingSpaceIds()[0], assertionMsg(2, snapshot.parkingSpaceIds()[0]));
+        assertEquals("KA-01-HH-1234", snapshot.registrationNumbers()[0],
+            assertionMsg("KA-01-HH-1234", snapshot.registrationNumbers()[0]));
+        assertEquals("Red", snapshot.colours()[0], assertionMsg("Red", snapshot.colours()[0]));
+
+        long segments;
+        try (Stream<Path> paths = Files.list(directory)) {
+            segments = paths.filter(path -> path.toString().endsWith(".seg")).count();
+        }
+        assertEquals(1, segments, assertionMsg(1, segments));
+    }
+
+    private JournalConfig config(int segmentBytes) {
+        return new JournalConfig(directory, segmentBytes, 0, 1, 0);
+    }
+
+    private List<String> replay() {
+        List<String> records = new ArrayList<>();
+        try (Journal journal = MappedJournal.open(config(4096))) {
+            journal.replay(new JournalRecordHandler() {
+                @Override
+                public void onPark(int parkingSpaceId, VehicleType vehicleType, String registrationNumber,
+                                   String colour) {
+                    records.add("park " + parkingSpaceId + " " + vehicleType + " " + registrationNumber
+                        + (colour == null ? "" : " " + colour));
+                }
+
+                @Override
+                public void onVacate(int parkingSpaceId) {
+                    records.add("vacate " + parkingSpaceId);
+                }
+
+                @Override
+                public void onResize(int capacity) {
+                    records.add("resize " + capacity);
+                }
+            });
+        }
+        return records;
+    }
+}
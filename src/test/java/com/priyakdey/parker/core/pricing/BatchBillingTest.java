@@ -0,0 +1,69 @@
+package com.priyakdey.parker.core.pricing;
+
+import static com.priyakdey.parker.util.AssertionUtil.assertionExceptionMsg;
+import static com.priyakdey.parker.util.AssertionUtil.assertionMsg;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.priyakdey.parker.core.model.SlotType;
+import com.priyakdey.parker.exception.BadInputException;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("BatchBilling")
+class BatchBillingTest {
+
+    @DisplayName("Should bill every stay and total them like one at a time")
+    @Test
+    void test_bill_shouldMatchSingleStays() {
+        Tariff tariff = Tariff.parse(List.of("flat 2 10", "rate 4", "rate weekend 0-24 6", "cap 60"));
+        int stays = 5 * BatchBilling.CHUNK_STAYS + 17;
+        int[] hoursParked = new int[stays];
+        int[] startHoursOfWeek = new int[stays];
+        int[] slotTypes = new int[stays];
+        long[] charges = new long[stays];
+
+        Random random = new Random(42);
+        for (int i = 0; i < stays; i++) {
+            hoursParked[i] = random.nextInt(400);
+            startHoursOfWeek[i] = random.nextInt(Tariff.HOURS_PER_WEEK);
+            slotTypes[i] = random.nextInt(SlotType.values().length);
+        }
+
+        BillingTotals totals =
+            BatchBilling.bill(tariff, hoursParked, startHoursOfWeek, slotTypes, charges);
+
+        long[] expectedCharges = new long[stays];
+        long[] expectedBySlotType = new long[SlotType.values().length];
+        long[] expectedByStartHour = new long[Tariff.HOURS_PER_DAY];
+        long expectedTotal = 0;
+        for (int i = 0; i < stays; i++) {
+            long cents = tariff.computeCents(hoursParked[i], startHoursOfWeek[i]);
+            expectedCharges[i] = cents;
+            expectedBySlotType[slotTypes[i]] += cents;
+            expectedByStartHour[startHoursOfWeek[i] % Tariff.HOURS_PER_DAY] += cents;
+            expectedTotal += cents;
+        }
+
+        assertArrayEquals(expectedCharges, charges);
+        assertArrayEquals(expectedBySlotType, totals.slotTypeCents());
+        assertArrayEquals(expectedByStartHour, totals.startHourCents());
+        assertEquals(expectedTotal, totals.totalCents(),
+            assertionMsg(expectedTotal, totals.totalCents()));
+    }
+
+    @DisplayName("Should throw BadInputException")
+    @Test
+    void test_bill_shouldThrowException() {
+        assertThrows(BadInputException.class,
+            () -> BatchBilling.bill(Tariff.DEFAULT, new int[2], new int[2], new int[1], new long[2]),
+            assertionExceptionMsg(BadInputException.class));
+        assertThrows(BadInputException.class,
+            () -> BatchBilling.bill(Tariff.DEFAULT, new int[1], new int[] {Tariff.HOURS_PER_WEEK},
+                new int[1], new long[1]),
+            assertionExceptionMsg(BadInputException.class));
+    }
+}
@@ -0,0 +1,114 @@
+package com.priyakdey.parker.core.pricing;
+
+import static com.priyakdey.parker.util.AssertionUtil.assertionExceptionMsg;
+import static com.priyakdey.parker.util.AssertionUtil.assertionMsg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.priyakdey.parker.core.pricing.impl.PerHourChargesCalculatorImpl;
+import com.priyakdey.parker.exception.BadInputException;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Tariff")
+class TariffTest {
+
+    private static final int SATURDAY_NOON = 5 * 24 + 12;
+
+    @DisplayName("Should price the default tariff like the per hour calculator")
+    @Test
+    void test_default_shouldMatchPerHourCalculator() {
+        ChargesCalculator perHour = new PerHourChargesCalculatorImpl();
+        for (int hours = 0; hours <= 1_000; hours++) {
+            long expected = perHour.computeCents(hours);
+            long actual = Tariff.DEFAULT.computeCents(hours, 0);
+            assertEquals(expected, actual, assertionMsg(expected, actual));
+        }
+    }
+
+    @DisplayName("Should apply grace, flat block, windowed rates and daily cap")
+    @Test
+    void test_computeCents_shouldApplyRules() {
+        Tariff tariff = Tariff.parse(List.of(
+            "# evenings and weekends are cheaper",
+            "grace 1",
+            "flat 2 10",
+            "rate 4.50",
+            "rate weekday 18-08 2   # wraps past midnight",
+            "rate weekend 0-24 3",
+            "cap 50"));
+
+        long actual = tariff.computeCents(1, 0);
+        assertEquals(0L, actual, assertionMsg(0L, actual));
+
+        // Monday 08:00, 2 flat hours then 3 hours at 4.50
+        actual = tariff.computeCents(5, 8);
+        assertEquals(2_350L, actual, assertionMsg(2_350L, actual));
+
+        // Monday 16:00, 2 flat hours then 2 hours at 2
+        actual = tariff.computeCents(4, 16);
+        assertEquals(1_400L, actual, assertionMsg(1_400L, actual));
+
+        // Saturday 12:00, 2 flat hours then 2 hours at 3
+        actual = tariff.computeCents(4, SATURDAY_NOON);
+        assertEquals(1_600L, actual, assertionMsg(1_600L, actual));
+
+        // Monday 08:00 for 3 days, every day capped at 50
+        actual = tariff.computeCents(72, 8);
+        assertEquals(15_000L, actual, assertionMsg(15_000L, actual));
+    }
+
+    @DisplayName("Should price stays longer than a week like hour by hour")
+    @Test
+    void test_computeCents_shouldMatchHourByHourBeyondAWeek() {
+        Tariff tariff = Tariff.parse(List.of(
+            "flat 3 12", "rate 2", "rate daily 09-17 5", "rate weekend 10-14 7", "cap 40"));
+        long[] rates = new long[Tariff.HOURS_PER_WEEK];
+        for (int hour = 0; hour < rates.length; hour++) {
+            int hourOfDay = hour % 24;
+            boolean weekend = hour >= 5 * 24;
+            rates[hour] = weekend && hourOfDay >= 10 && hourOfDay < 14 ? 700
+                : hourOfDay >= 9 && hourOfDay < 17 ? 500 : 200;
+        }
+
+        for (int start = 0; start < Tariff.HOURS_PER_WEEK; start += 7) {
+            for (int hours = 0; hours <= 3 * Tariff.HOURS_PER_WEEK + 30; hours += 5) {
+                long expected = hourByHour(rates, 3, 1_200, 4_000, start, hours);
+                long actual = tariff.computeCents(hours, start);
+                assertEquals(expected, actual, assertionMsg(expected, actual));
+            }
+        }
+    }
+
+    @DisplayName("Should reject malformed rules with their line number")
+    @Test
+    void test_parse_shouldThrowException() {
+        final var ex = assertThrows(BadInputException.class,
+            () -> Tariff.parse(List.of("rate 10", "", "cap 10.555")),
+            assertionExceptionMsg(BadInputException.class));
+        String message = "Invalid tariff rule at line 3. Invalid amount `10.555`";
+        assertEquals(message, ex.getMessage(), assertionMsg(message, ex.getMessage()));
+
+        assertThrows(BadInputException.class, () -> Tariff.parse(List.of("rate weekend 0-24 3")),
+            assertionExceptionMsg(BadInputException.class));
+        assertThrows(BadInputException.class, () -> Tariff.parse(List.of("flat 2 10")),
+            assertionExceptionMsg(BadInputException.class));
+    }
+
+    private static long hourByHour(long[] rates, int flatHours, long flatCents, long capCents,
+                                   int start, int hours) {
+        long total = 0;
+        long day = flatCents;
+        for (int hour = 0; hour < hours; hour++) {
+            if (hour > 0 && hour % 24 == 0) {
+                total += Math.min(capCents, day);
+                day = 0;
+            }
+            if (hour >= flatHours) {
+                day += rates[(start + hour) % rates.length];
+            }
+        }
+        return total + Math.min(capCents, day);
+    }
+}
@@ -36,6 +36,17 @@ void test_computePrice_shouldReturnComputedPrice() {
         assertEquals(expected, actual, assertionMsg(expected, actual));
     }
 
+    @DisplayName("Should return computed price in cents")
+    @Test
+    void test_computeCents_shouldReturnCents() {
+        long actual = chargesCalculator.computeCents(2);
+        assertEquals(1_000L, actual, assertionMsg(1_000L, actual));
+
+        actual = chargesCalculator.computeCents(5);
+        long expected = 1_000 + (5 - 2) * 1_000;
+        assertEquals(expected, actual, assertionMsg(expected, actual));
+    }
+
     @DisplayName("Should throw BadInputException")
     @Test
     void test_computePrice_shouldThrowException() {
@@ -0,0 +1,163 @@
+package com.priyakdey.parker.core.replication;
+
+import static com.priyakdey.parker.util.AssertionUtil.assertionMsg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.priyakdey.parker.core.journal.Journal;
+import com.priyakdey.parker.core.journal.JournalRecordHandler;
+import com.priyakdey.parker.core.model.VehicleType;
+import com.priyakdey.parker.exception.HeapOperationException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ReplicatingJournal")
+class ReplicatingJournalTest {
+
+    private final List<String> applied = new CopyOnWriteArrayList<>();
+
+    @DisplayName("Should ship every record to the follower over TCP, in batches and in order")
+    @Test
+    void test_append_overTcp_shouldApplyOnFollower() {
+        ReplicationFollower follower =
+            ReplicationFollower.listen("127.0.0.1:0", recorder(), new ReentrantLock());
+        int port = ((InetSocketAddress) follower.localAddress()).getPort();
+
+        try (Journal journal = ReplicatingJournal.start(Journal.NOOP,
+            new ReplicationConfig(List.of("127.0.0.1:" + port), 2, 16, 5_000))) {
+            journal.appendPark(1, VehicleType.EV, "KA-01-HH-1234", "White");
+            journal.appendPark(2, VehicleType.CAR, "KA-01-HH-9999", null);
+            journal.appendResize(8);
+            journal.appendVacate(1);
+            journal.appendVacate(2);
+        }
+
+        boolean leaderGone = follower.awaitLeaderGone(5_000);
+        ReplicationStatus status = follower.status();
+        follower.close();
+
+        List<String> expected = List.of("park 1 EV KA-01-HH-1234 White", "park 2 CAR KA-01-HH-9999",
+            "resize 8", "vacate 1", "vacate 2");
+        assertEquals(true, leaderGone, assertionMsg(true, leaderGone));
+        assertEquals(expected, applied, assertionMsg(expected, applied));
+        assertEquals(5, status.acknowledged(), assertionMsg(5, status.acknowledged()));
+        assertEquals(0, status.lagRecords(), assertionMsg(0, status.lagRecords()));
+        assertEquals(true, status.batches() >= 3, assertionMsg("at least 3 batches", status.batches()));
+    }
+
+    @DisplayName("Should ship every record to the follower over a Unix domain socket")
+    @Test
+    void test_append_overUnixSocket_shouldApplyOnFollower() throws IOException {
+        Path directory = Files.createTempDirectory("parker-replication");
+        String socket = directory.resolve("follower.sock").toString();
+
+        ReplicationFollower follower = ReplicationFollower.listen(socket, recorder(), new ReentrantLock());
+        ReplicatingJournal journal = ReplicatingJournal.start(Journal.NOOP,
+            new ReplicationConfig(List.of(socket), 256, 1024, 5_000));
+        journal.appendPark(4, VehicleType.MOTORCYCLE, "KA-01-HH-0001", null);
+        journal.appendVacate(4);
+        journal.close();
+
+        follower.awaitLeaderGone(5_000);
+        long sequence = follower.close();
+        Files.deleteIfExists(Path.of(socket));
+        Files.delete(directory);
+
+        List<String> expected = List.of("park 4 MOTORCYCLE KA-01-HH-0001", "vacate 4");
+        assertEquals(expected, applied, assertionMsg(expected, applied));
+        assertEquals(2L, sequence, assertionMsg(2L, sequence));
+    }
+
+    @DisplayName("Should stop following, and say why, when a record cannot be applied")
+    @Test
+    void test_append_whenApplyFails_shouldReportStoppedFollower() {
+        JournalRecordHandler failing = new JournalRecordHandler() {
+            @Override
+            public void onPark(int parkingSpaceId, VehicleType vehicleType, String registrationNumber,
+                               String colour) {
+                throw new HeapOperationException("Heap is empty");
+            }
+
+            @Override
+            public void onVacate(int parkingSpaceId) {
+            }
+
+            @Override
+            public void onResize(int capacity) {
+            }
+        };
+        ReplicationFollower follower =
+            ReplicationFollower.listen("127.0.0.1:0", failing, new ReentrantLock());
+        int port = ((InetSocketAddress) follower.localAddress()).getPort();
+
+        try (Journal journal = ReplicatingJournal.start(Journal.NOOP,
+            new ReplicationConfig(List.of("127.0.0.1:" + port), 1, 16, 5_000))) {
+            journal.appendPark(1, VehicleType.CAR, "KA-01-HH-1234", null);
+        }
+
+        boolean leaderGone = follower.awaitLeaderGone(5_000);
+        ReplicationStatus status = follower.status();
+        boolean listening;
+        try (SocketChannel ignored = SocketChannel.open(new InetSocketAddress("127.0.0.1", port))) {
+            listening = true;
+        } catch (IOException ex) {
+            listening = false;
+        }
+        follower.close();
+
+        assertEquals(true, leaderGone, assertionMsg(true, leaderGone));
+        assertEquals(false, listening, assertionMsg(false, listening));
+        assertEquals("Heap is empty", status.failure(), assertionMsg("Heap is empty", status.failure()));
+        assertEquals(0, status.acknowledged(), assertionMsg(0, status.acknowledged()));
+    }
+
+    @DisplayName("Should report the age of the oldest record no follower has applied")
+    @Test
+    void test_status_shouldReportAgeOfOldestUnacknowledgedRecord() throws InterruptedException {
+        ReplicationFollower follower =
+            ReplicationFollower.listen("127.0.0.1:0", recorder(), new ReentrantLock());
+        int port = ((InetSocketAddress) follower.localAddress()).getPort();
+        follower.close();
+
+        ReplicationStatus status;
+        try (ReplicatingJournal journal = ReplicatingJournal.start(Journal.NOOP,
+            new ReplicationConfig(List.of("127.0.0.1:" + port), 16, 16, 100))) {
+            journal.appendVacate(1);
+            Thread.sleep(50);
+            journal.appendVacate(2);
+            status = journal.status();
+        }
+
+        assertEquals(2, status.lagRecords(), assertionMsg(2, status.lagRecords()));
+        assertEquals(true, status.lagMillis() >= 50,
+            assertionMsg("at least 50 ms", status.lagMillis()));
+    }
+
+    private JournalRecordHandler recorder() {
+        return new JournalRecordHandler() {
+            @Override
+            public void onPark(int parkingSpaceId, VehicleType vehicleType, String registrationNumber,
+                               String colour) {
+                applied.add("park " + parkingSpaceId + " " + vehicleType + " " + registrationNumber
+                    + (colour == null ? "" : " " + colour));
+            }
+
+            @Override
+            public void onVacate(int parkingSpaceId) {
+                applied.add("vacate " + parkingSpaceId);
+            }
+
+            @Override
+            public void onResize(int capacity) {
+                applied.add("resize " + capacity);
+            }
+        };
+    }
+}
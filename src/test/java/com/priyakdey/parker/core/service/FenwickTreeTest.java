@@ -0,0 +1,75 @@
+package com.priyakdey.parker.core.service;
+
+import static com.priyakdey.parker.util.AssertionUtil.assertionMsg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("FenwickTree")
+class FenwickTreeTest {
+
+    @DisplayName("Should add up ranges and search ranks like a plain array, across resizes")
+    @Test
+    void test_rangeSum_shouldMatchPlainArray() {
+        Random random = new Random(7);
+        final var fenwickTree = new FenwickTree(50);
+        int[] counts = new int[1024];
+        int size = 50;
+
+        for (int round = 0; round < 2_000; round++) {
+            int id = 1 + random.nextInt(size);
+            if (counts[id] == 0 || random.nextBoolean()) {
+                counts[id]++;
+                fenwickTree.add(id, 1);
+            } else {
+                counts[id]--;
+                fenwickTree.add(id, -1);
+            }
+
+            if (round % 100 == 99) {
+                int newSize = 1 + random.nextInt(1000);
+                for (int i = newSize + 1; i <= size; i++) {
+                    fenwickTree.add(i, -counts[i]);
+                    counts[i] = 0;
+                }
+                fenwickTree.resize(newSize);
+                size = newSize;
+            }
+
+            int from = 1 + random.nextInt(size);
+            int to = from + random.nextInt(size - from + 1);
+            int expected = Arrays.stream(counts, from, to + 1).sum();
+            int actual = fenwickTree.rangeSum(from, to);
+            assertEquals(expected, actual, assertionMsg(expected, actual));
+
+            int rank = 1 + random.nextInt(Math.max(1, fenwickTree.prefixSum(size)));
+            int expectedId = size + 1;
+            for (int i = 1, sum = 0; i <= size; i++) {
+                sum += counts[i];
+                if (sum >= rank) {
+                    expectedId = i;
+                    break;
+                }
+            }
+            int actualId = fenwickTree.search(rank);
+            assertEquals(expectedId, actualId, assertionMsg(expectedId, actualId));
+        }
+    }
+
+    @DisplayName("Should rebuild from a predicate")
+    @Test
+    void test_reset_shouldCountMatchingIds() {
+        final var fenwickTree = new FenwickTree(4);
+        fenwickTree.reset(100, id -> id % 3 == 0);
+
+        int actual = fenwickTree.rangeSum(1, 100);
+        assertEquals(33, actual, assertionMsg(33, actual));
+        actual = fenwickTree.rangeSum(10, 20);
+        assertEquals(3, actual, assertionMsg(3, actual));
+        actual = fenwickTree.search(5);
+        assertEquals(15, actual, assertionMsg(15, actual));
+    }
+}
@@ -0,0 +1,62 @@
+package com.priyakdey.parker.core.service;
+
+import static com.priyakdey.parker.util.AssertionUtil.assertionMsg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.BitSet;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("HierarchicalBitSet")
+class HierarchicalBitSetTest {
+
+    @DisplayName("Should find the next id set like a plain bit set, across resizes")
+    @Test
+    void test_nextSetBit_shouldMatchPlainBitSet() {
+        Random random = new Random(11);
+        final var bitSet = new HierarchicalBitSet(50);
+        BitSet expectedBits = new BitSet();
+        int size = 50;
+
+        for (int round = 0; round < 20_000; round++) {
+            int id = 1 + random.nextInt(size);
+            if (random.nextInt(4) == 0) {
+                bitSet.set(id);
+                expectedBits.set(id);
+            } else {
+                bitSet.clear(id);
+                expectedBits.clear(id);
+            }
+
+            if (round % 500 == 499) {
+                int newSize = 1 + random.nextInt(300_000);
+                for (int i = newSize + 1; i <= size; i++) {
+                    bitSet.clear(i);
+                    expectedBits.clear(i);
+                }
+                bitSet.resize(newSize);
+                size = newSize;
+            }
+
+            int from = 1 + random.nextInt(size + 1);
+            int expected = from > size ? -1 : expectedBits.nextSetBit(from);
+            int actual = bitSet.nextSetBit(from);
+            assertEquals(expected, actual, assertionMsg(expected, actual));
+        }
+    }
+
+    @DisplayName("Should walk every id set, in order, after a reset")
+    @Test
+    void test_reset_shouldSetMatchingIds() {
+        final var bitSet = new HierarchicalBitSet(1);
+        bitSet.reset(70_000, id -> id % 4_099 == 0);
+
+        int walked = 0;
+        for (int id = bitSet.nextSetBit(1); id > 0; id = bitSet.nextSetBit(id + 1)) {
+            assertEquals(0, id % 4_099, assertionMsg(0, id % 4_099));
+            walked++;
+        }
+        assertEquals(70_000 / 4_099, walked, assertionMsg(70_000 / 4_099, walked));
+    }
+}
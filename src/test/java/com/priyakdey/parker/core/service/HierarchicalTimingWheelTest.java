@@ -0,0 +1,97 @@
+package com.priyakdey.parker.core.service;
+
+import static com.priyakdey.parker.util.AssertionUtil.assertionExceptionMsg;
+import static com.priyakdey.parker.util.AssertionUtil.assertionMsg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.priyakdey.parker.exception.BadInputException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("HierarchicalTimingWheel")
+class HierarchicalTimingWheelTest {
+
+    @DisplayName("Should expire timers exactly at their deadline across all levels")
+    @Test
+    void test_advanceTo_shouldExpireAtDeadline() {
+        final var timingWheel = new HierarchicalTimingWheel(4);
+        long[] deadlines = {1, 63, 64, 65, 4095, 4096, 4097, 262_145, 16_777_300};
+
+        for (int i = 0; i < deadlines.length; i++) {
+            timingWheel.schedule(deadlines[i], i);
+        }
+
+        for (int i = 0; i < deadlines.length; i++) {
+            List<Integer> expired = new ArrayList<>();
+
+            timingWheel.advanceTo(deadlines[i] - 1, expired::add);
+            assertEquals(List.of(), expired, assertionMsg(List.of(), expired));
+
+            timingWheel.advanceTo(deadlines[i], expired::add);
+            assertEquals(List.of(i), expired, assertionMsg(List.of(i), expired));
+        }
+
+        int size = timingWheel.size();
+        assertEquals(0, size, assertionMsg(0, size));
+    }
+
+    @DisplayName("Should not expire cancelled timers")
+    @Test
+    void test_cancel_shouldNotExpire() {
+        final var timingWheel = new HierarchicalTimingWheel(4);
+
+        int first = timingWheel.schedule(10, 1);
+        timingWheel.schedule(10, 2);
+        int third = timingWheel.schedule(5000, 3);
+        timingWheel.cancel(first);
+        timingWheel.cancel(third);
+
+        List<Integer> expired = new ArrayList<>();
+        int count = timingWheel.advanceTo(10_000, expired::add);
+
+        assertEquals(1, count, assertionMsg(1, count));
+        assertEquals(List.of(2), expired, assertionMsg(List.of(2), expired));
+    }
+
+    @DisplayName("Should expire random timers on the tick of their deadline")
+    @Test
+    void test_advanceTo_randomDeadlines_shouldExpireOnDeadline() {
+        final var timingWheel = new HierarchicalTimingWheel(4);
+        Random random = new Random(42);
+        long[] deadlineOf = new long[5000];
+
+        for (int i = 0; i < deadlineOf.length; i++) {
+            deadlineOf[i] = 1 + random.nextInt(300_000);
+            timingWheel.schedule(deadlineOf[i], i);
+        }
+
+        int count = 0;
+        List<Integer> expired = new ArrayList<>();
+        for (long tick = 1; tick <= 300_000; tick++) {
+            expired.clear();
+            count += timingWheel.advanceTo(tick, expired::add);
+
+            for (int payload : expired) {
+                assertEquals(tick, deadlineOf[payload], assertionMsg(tick, deadlineOf[payload]));
+            }
+        }
+
+        assertEquals(deadlineOf.length, count, assertionMsg(deadlineOf.length, count));
+    }
+
+    @DisplayName("Should throw BadInputException for a deadline in the past")
+    @Test
+    void test_schedule_pastDeadline_shouldThrowException() {
+        final var timingWheel = new HierarchicalTimingWheel(4);
+        timingWheel.advanceTo(10, payload -> {
+        });
+
+        assertThrows(BadInputException.class, () -> timingWheel.schedule(10, 1),
+            assertionExceptionMsg(BadInputException.class));
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.priyakdey.parker.core.service;
+
+import static com.priyakdey.parker.util.AssertionUtil.assertionExceptionMsg;
+import static com.priyakdey.parker.util.AssertionUtil.assertionMsg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.priyakdey.parker.core.model.SlotOccupancy;
+import com.priyakdey.parker.exception.BadInputException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("OccupancyHistory")
+class OccupancyHistoryTest {
+
+    @DisplayName("Should return the parking lot as it was right after every change")
+    @Test
+    void test_statusAt_shouldReturnPastOccupants() {
+        final var history = new OccupancyHistory(100, () -> 0L);
+        history.recordPark(1, "KA-01-HH-1234");
+        history.recordPark(2, "KA-01-HH-9999");
+        history.recordVacate(1);
+        history.recordResize();
+        history.recordPark(1, "KA-01-BB-0001");
+
+        List<Map<Integer, String>> expected = List.of(
+            Map.of(1, "KA-01-HH-1234"),
+            Map.of(1, "KA-01-HH-1234", 2, "KA-01-HH-9999"),
+            Map.of(2, "KA-01-HH-9999"),
+            Map.of(2, "KA-01-HH-9999"),
+            Map.of(1, "KA-01-BB-0001", 2, "KA-01-HH-9999"));
+
+        for (int sequence = 1; sequence <= expected.size(); sequence++) {
+            TreeMap<Integer, String> actual = history.statusAt(sequence);
+            Map<Integer, String> status = expected.get(sequence - 1);
+            assertEquals(status, actual, assertionMsg(status, actual));
+        }
+
+        Optional<String> occupant = history.occupantAt(1, 3);
+        assertEquals(Optional.empty(), occupant, assertionMsg(Optional.empty(), occupant));
+    }
+
+    @DisplayName("Should return every stretch a parking space was held for in a range")
+    @Test
+    void test_occupancy_shouldReturnStretchesInRange() {
+        final var history = new OccupancyHistory(100, () -> 0L);
+        history.recordPark(1, "KA-01-HH-1234");
+        history.recordPark(2, "KA-01-HH-9999");
+        history.recordVacate(1);
+        history.recordPark(1, "KA-01-BB-0001");
+        history.recordVacate(2);
+
+        List<SlotOccupancy> all = history.occupancy(1, 1, 5);
+        List<SlotOccupancy> expected = List.of(
+            new SlotOccupancy("KA-01-HH-1234", 1, 3),
+            new SlotOccupancy("KA-01-BB-0001", 4, 0));
+        assertEquals(expected, all, assertionMsg(expected, all));
+
+        List<SlotOccupancy> middle = history.occupancy(1, 2, 3);
+        List<SlotOccupancy> first = List.of(new SlotOccupancy("KA-01-HH-1234", 1, 3));
+        assertEquals(first, middle, assertionMsg(first, middle));
+
+        final var ex = assertThrows(BadInputException.class, () -> history.occupancy(1, 4, 2),
+            assertionExceptionMsg(BadInputException.class));
+        String message = "Invalid range, `from` is after `to`";
+        assertEquals(message, ex.getMessage(), assertionMsg(message, ex.getMessage()));
+    }
+
+    @DisplayName("Should resolve a time to the last change made at or before it")
+    @Test
+    void test_sequenceAt_shouldReturnLastChangeByTime() {
+        final long[] now = {1_000};
+        final var history = new OccupancyHistory(100, () -> now[0]);
+        for (int i = 1; i <= 4; i++) {
+            history.recordPark(i, "KA-01-HH-000" + i);
+            now[0] += 1_000;
+        }
+
+        long sequence = history.sequenceAt(2_500);
+        assertEquals(2, sequence, assertionMsg(2, sequence));
+        sequence = history.sequenceAt(4_000);
+        assertEquals(4, sequence, assertionMsg(4, sequence));
+        sequence = history.sequenceAt(100_000);
+        assertEquals(4, sequence, assertionMsg(4, sequence));
+
+        assertThrows(BadInputException.class, () -> history.sequenceAt(999),
+            assertionExceptionMsg(BadInputException.class));
+    }
+
+    @DisplayName("Should drop changes past the retention, keeping the occupants still parked")
+    @Test
+    void test_retention_shouldKeepCurrentOccupants() {
+        final var history = new OccupancyHistory(4, () -> 0L);
+        history.recordPark(1, "KA-01-HH-1234");
+        history.recordPark(2, "KA-01-HH-9999");
+        history.recordVacate(2);
+        for (int i = 0; i < 6; i++) {
+            history.recordPark(3, "KA-01-BB-000" + i);
+            history.recordVacate(3);
+        }
+
+        long last = history.lastSequence();
+        assertEquals(15, last, assertionMsg(15, last));
+
+        final var ex = assertThrows(BadInputException.class, () -> history.statusAt(1),
+            assertionExceptionMsg(BadInputException.class));
+        String message = "History before sequence 9 is no longer retained";
+        assertEquals(message, ex.getMessage(), assertionMsg(message, ex.getMessage()));
+
+        for (long sequence = last - 3; sequence <= last; sequence++) {
+            Optional<String> occupant = history.occupantAt(1, sequence);
+            Optional<String> expected = Optional.of("KA-01-HH-1234");
+            assertEquals(expected, occupant, assertionMsg(expected, occupant));
+        }
+
+        TreeMap<Integer, String> status = history.statusAt(last - 1);
+        Map<Integer, String> expected = Map.of(1, "KA-01-HH-1234", 3, "KA-01-BB-0005");
+        assertEquals(expected, status, assertionMsg(expected, status));
+    }
+}
@@ -3,6 +3,7 @@
 import static com.priyakdey.parker.data.TestData.REG_NUM_1;
 import static com.priyakdey.parker.data.TestData.REG_NUM_2;
 import static com.priyakdey.parker.data.TestData.REG_NUM_3;
+import static com.priyakdey.parker.data.TestData.REG_NUM_4;
 import static com.priyakdey.parker.data.TestData.vehicle1;
 import static com.priyakdey.parker.data.TestData.vehicle2;
 import static com.priyakdey.parker.data.TestData.vehicle3;
@@ -13,12 +14,33 @@
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.priyakdey.parker.core.event.ParkingEventListener;
 import com.priyakdey.parker.core.exception.TestSetupException;
+import com.priyakdey.parker.core.journal.Journal;
+import com.priyakdey.parker.core.journal.JournalConfig;
+import com.priyakdey.parker.core.journal.LotSnapshot;
+import com.priyakdey.parker.core.journal.MappedJournal;
+import com.priyakdey.parker.core.model.LotStats;
+import com.priyakdey.parker.core.model.OccupancyEvent;
 import com.priyakdey.parker.core.model.ParkingSpace;
+import com.priyakdey.parker.core.model.SlotSection;
+import com.priyakdey.parker.core.model.SlotType;
 import com.priyakdey.parker.core.model.Vehicle;
+import com.priyakdey.parker.core.model.VehicleType;
+import com.priyakdey.parker.core.model.WaitlistPriority;
+import com.priyakdey.parker.core.model.ZoneStats;
 import com.priyakdey.parker.exception.BadInputException;
+import com.priyakdey.parker.exception.VehicleAlreadyParkedException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.TreeMap;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -94,6 +116,29 @@ void test_vacateParkingSpace_shouldThrowException() {
             assertionExceptionMsg(BadInputException.class));
     }
 
+    @DisplayName("Should turn away a registration number parked already, keeping its space")
+    @Test
+    void test_parkVehicle_shouldRejectRegistrationParkedAlready() {
+        int id = parkingLotManager.parkVehicle(REG_NUM_1, VehicleType.CAR, null);
+
+        assertThrows(VehicleAlreadyParkedException.class,
+            () -> parkingLotManager.parkVehicle(REG_NUM_1, VehicleType.CAR, null),
+            assertionExceptionMsg(VehicleAlreadyParkedException.class));
+        assertThrows(VehicleAlreadyParkedException.class,
+            () -> parkingLotManager.parkVehicle(new Vehicle(REG_NUM_1)),
+            assertionExceptionMsg(VehicleAlreadyParkedException.class));
+
+        int vacated = parkingLotManager.vacateParkingSpace(REG_NUM_1);
+        assertEquals(id, vacated, assertionMsg(id, vacated));
+        assertThrows(BadInputException.class, () -> parkingLotManager.vacateParkingSpace(REG_NUM_1),
+            assertionExceptionMsg(BadInputException.class));
+
+        TreeMap<Integer, String> status = parkingLotManager.status();
+        assertTrue(status.isEmpty(), assertionMsg(Map.of(), status));
+        int reparked = parkingLotManager.parkVehicle(REG_NUM_2, VehicleType.CAR, null);
+        assertEquals(id, reparked, assertionMsg(id, reparked));
+    }
+
     @DisplayName("Should return correct status")
     @Test
     void test_status() {
@@ -116,4 +161,427 @@ void test_status() {
 
     }
 
-}
\ No newline at end of file
+    @DisplayName("Should park vehicles in their preferred slot class")
+    @Test
+    void test_parkVehicle_shouldUsePreferredSlotClass() {
+        ParkingLot mixedLot = ParkingLot.withLayout(List.of(
+            new SlotSection(SlotType.MOTORCYCLE, 1),
+            new SlotSection(SlotType.EV_CHARGING, 1),
+            new SlotSection(SlotType.STANDARD, 2)), FallbackPolicy.ALLOW_FALLBACK);
+        ParkingLotManager manager = new ParkingLotManagerImpl(mixedLot);
+
+        Integer carId = manager.parkVehicle(new Vehicle(REG_NUM_1, VehicleType.CAR))
+            .orElseThrow(TestSetupException::new);
+        Integer evId = manager.parkVehicle(new Vehicle(REG_NUM_2, VehicleType.EV))
+            .orElseThrow(TestSetupException::new);
+        Integer motorcycleId = manager.parkVehicle(new Vehicle(REG_NUM_3, VehicleType.MOTORCYCLE))
+            .orElseThrow(TestSetupException::new);
+
+        assertEquals(3, carId, assertionMsg(3, carId));
+        assertEquals(2, evId, assertionMsg(2, evId));
+        assertEquals(1, motorcycleId, assertionMsg(1, motorcycleId));
+    }
+
+    @DisplayName("Should fall back to a compatible slot class")
+    @Test
+    void test_parkVehicle_shouldFallBackToCompatibleSlotClass() {
+        ParkingLot mixedLot = ParkingLot.withLayout(List.of(
+            new SlotSection(SlotType.OVERSIZED, 1),
+            new SlotSection(SlotType.STANDARD, 1)), FallbackPolicy.ALLOW_FALLBACK);
+        ParkingLotManager manager = new ParkingLotManagerImpl(mixedLot);
+
+        manager.parkVehicle(new Vehicle(REG_NUM_1, VehicleType.CAR)).orElseThrow(TestSetupException::new);
+        Integer id = manager.parkVehicle(new Vehicle(REG_NUM_2, VehicleType.CAR))
+            .orElseThrow(TestSetupException::new);
+        SlotType slotType = manager.slotTypeOf(id);
+
+        assertEquals(SlotType.OVERSIZED, slotType, assertionMsg(SlotType.OVERSIZED, slotType));
+
+        boolean isEmpty = manager.parkVehicle(new Vehicle(REG_NUM_3, VehicleType.OVERSIZED)).isEmpty();
+        assertTrue(isEmpty, assertionMsg(true, isEmpty));
+    }
+
+    @DisplayName("Should not fall back with strict policy")
+    @Test
+    void test_parkVehicle_strictPolicy_shouldNotFallBack() {
+        ParkingLot mixedLot = ParkingLot.withLayout(List.of(
+            new SlotSection(SlotType.OVERSIZED, 1),
+            new SlotSection(SlotType.STANDARD, 1)), FallbackPolicy.STRICT);
+        ParkingLotManager manager = new ParkingLotManagerImpl(mixedLot);
+
+        manager.parkVehicle(new Vehicle(REG_NUM_1, VehicleType.CAR)).orElseThrow(TestSetupException::new);
+
+        boolean isEmpty = manager.parkVehicle(new Vehicle(REG_NUM_2, VehicleType.CAR)).isEmpty();
+        assertTrue(isEmpty, assertionMsg(true, isEmpty));
+    }
+
+    @DisplayName("Should throw BadInputException for a repeated slot class")
+    @Test
+    void test_withLayout_repeatedSlotClass_shouldThrowException() {
+        List<SlotSection> sections = List.of(
+            new SlotSection(SlotType.STANDARD, 1),
+            new SlotSection(SlotType.STANDARD, 1));
+
+        assertThrows(BadInputException.class,
+            () -> ParkingLot.withLayout(sections, FallbackPolicy.ALLOW_FALLBACK),
+            assertionExceptionMsg(BadInputException.class));
+    }
+
+    @DisplayName("Should make a full parking lot of an empty layout, and grow it by resize")
+    @Test
+    void test_withLayout_emptyLayout_shouldHaveNoSpace() {
+        ParkingLot emptyLot = ParkingLot.withLayout(List.of(), FallbackPolicy.ALLOW_FALLBACK);
+        ParkingLotManager manager = new ParkingLotManagerImpl(emptyLot);
+
+        boolean isEmpty = manager.parkVehicle(new Vehicle(REG_NUM_1)).isEmpty();
+        assertTrue(isEmpty, assertionMsg(true, isEmpty));
+
+        manager.resize(1);
+        int id = manager.parkVehicle(new Vehicle(REG_NUM_1)).orElseThrow(TestSetupException::new);
+        assertEquals(1, id, assertionMsg(1, id));
+    }
+
+    @DisplayName("Should park in the spaces added by resize")
+    @Test
+    void test_resize_grow_shouldAddSpaces() {
+        ParkingLotManager manager = new ParkingLotManagerImpl(ParkingLot.withCapacity(1));
+
+        manager.parkVehicle(new Vehicle(REG_NUM_1)).orElseThrow(TestSetupException::new);
+        manager.resize(2);
+        Integer id = manager.parkVehicle(new Vehicle(REG_NUM_2)).orElseThrow(TestSetupException::new);
+
+        assertEquals(2, id, assertionMsg(2, id));
+    }
+
+    @DisplayName("Should reject shrinking over an occupied space")
+    @Test
+    void test_resize_shrinkOccupied_shouldThrowException() {
+        ParkingLotManager manager = new ParkingLotManagerImpl(ParkingLot.withCapacity(3));
+
+        manager.parkVehicle(new Vehicle(REG_NUM_1)).orElseThrow(TestSetupException::new);
+        manager.parkVehicle(new Vehicle(REG_NUM_2)).orElseThrow(TestSetupException::new);
+
+        assertThrows(BadInputException.class, () -> manager.resize(1),
+            assertionExceptionMsg(BadInputException.class));
+
+        manager.vacateParkingSpace(REG_NUM_2);
+        manager.resize(1);
+
+        boolean isEmpty = manager.parkVehicle(new Vehicle(REG_NUM_3)).isEmpty();
+        assertTrue(isEmpty, assertionMsg(true, isEmpty));
+    }
+
+    @DisplayName("Should park the vehicle in the space held for it")
+    @Test
+    void test_claimReservation_shouldParkInHeldSpace() {
+        ParkingLotManager manager = new ParkingLotManagerImpl(ParkingLot.withCapacity(2));
+
+        Integer heldId = manager.reserveParkingSpace(new Vehicle(REG_NUM_1), 5)
+            .orElseThrow(TestSetupException::new);
+        Integer parkedId = manager.parkVehicle(new Vehicle(REG_NUM_2)).orElseThrow(TestSetupException::new);
+        int claimedId = manager.claimReservation(REG_NUM_1);
+
+        assertEquals(1, heldId, assertionMsg(1, heldId));
+        assertEquals(2, parkedId, assertionMsg(2, parkedId));
+        assertEquals(heldId, claimedId, assertionMsg(heldId, claimedId));
+
+        TreeMap<Integer, String> status = manager.status();
+        assertEquals(REG_NUM_1, status.get(1), assertionMsg(REG_NUM_1, status.get(1)));
+    }
+
+    @DisplayName("Should release expired reservations back to the parking lot")
+    @Test
+    void test_advanceClock_shouldReleaseExpiredReservations() {
+        ParkingLotManager manager = new ParkingLotManagerImpl(ParkingLot.withCapacity(2));
+
+        manager.reserveParkingSpace(new Vehicle(REG_NUM_1), 5).orElseThrow(TestSetupException::new);
+        manager.reserveParkingSpace(new Vehicle(REG_NUM_2), 10).orElseThrow(TestSetupException::new);
+
+        int expired = manager.advanceClock(5);
+        assertEquals(1, expired, assertionMsg(1, expired));
+
+        Integer id = manager.parkVehicle(new Vehicle(REG_NUM_3)).orElseThrow(TestSetupException::new);
+        assertEquals(1, id, assertionMsg(1, id));
+
+        assertThrows(BadInputException.class, () -> manager.claimReservation(REG_NUM_1),
+            assertionExceptionMsg(BadInputException.class));
+    }
+
+    @DisplayName("Should hand the vacated parking space to the waitlisted vehicle")
+    @Test
+    void test_vacateParkingSpace_shouldHandOffToWaitlist() {
+        List<String> events = new ArrayList<>();
+        ParkingLotManager manager = new ParkingLotManagerImpl(ParkingLot.withCapacity(1), true,
+            new ParkingEventListener() {
+                @Override
+                public void onWaitlistAssigned(String registrationNumber, int parkingSpaceId) {
+                    events.add(registrationNumber + ":" + parkingSpaceId);
+                }
+            });
+
+        manager.parkVehicle(new Vehicle(REG_NUM_1)).orElseThrow(TestSetupException::new);
+        int position = manager.waitlistVehicle(new Vehicle(REG_NUM_2), WaitlistPriority.REGULAR);
+        assertEquals(1, position, assertionMsg(1, position));
+
+        manager.vacateParkingSpace(REG_NUM_1);
+
+        TreeMap<Integer, String> status = manager.status();
+        assertEquals(REG_NUM_2, status.get(1), assertionMsg(REG_NUM_2, status.get(1)));
+        assertEquals(List.of(REG_NUM_2 + ":1"), events, assertionMsg(List.of(REG_NUM_2 + ":1"), events));
+    }
+
+    @DisplayName("Should serve the waitlist by priority class, then by arrival")
+    @Test
+    void test_vacateParkingSpace_shouldServeWaitlistByPriority() {
+        ParkingLotManager manager =
+            new ParkingLotManagerImpl(ParkingLot.withCapacity(1), true, ParkingEventListener.NOOP);
+
+        manager.parkVehicle(new Vehicle(REG_NUM_1)).orElseThrow(TestSetupException::new);
+        manager.waitlistVehicle(new Vehicle(REG_NUM_2), WaitlistPriority.REGULAR);
+        int position = manager.waitlistVehicle(new Vehicle(REG_NUM_3), WaitlistPriority.ACCESSIBILITY);
+        assertEquals(1, position, assertionMsg(1, position));
+
+        manager.vacateParkingSpace(REG_NUM_1);
+        TreeMap<Integer, String> status = manager.status();
+        assertEquals(REG_NUM_3, status.get(1), assertionMsg(REG_NUM_3, status.get(1)));
+
+        manager.vacateParkingSpace(REG_NUM_3);
+        status = manager.status();
+        assertEquals(REG_NUM_2, status.get(1), assertionMsg(REG_NUM_2, status.get(1)));
+    }
+
+    @DisplayName("Should skip waitlisted vehicles which do not fit the vacated parking space")
+    @Test
+    void test_vacateParkingSpace_shouldSkipIncompatibleWaitlistedVehicles() {
+        ParkingLot lot = ParkingLot.withLayout(
+            List.of(new SlotSection(SlotType.EV_CHARGING, 1), new SlotSection(SlotType.STANDARD, 1)),
+            FallbackPolicy.ALLOW_FALLBACK);
+        ParkingLotManager manager = new ParkingLotManagerImpl(lot, true, ParkingEventListener.NOOP);
+
+        manager.parkVehicle(new Vehicle(REG_NUM_1, VehicleType.EV)).orElseThrow(TestSetupException::new);
+        manager.parkVehicle(new Vehicle(REG_NUM_2)).orElseThrow(TestSetupException::new);
+        manager.waitlistVehicle(new Vehicle(REG_NUM_3), WaitlistPriority.REGULAR);
+        manager.waitlistVehicle(new Vehicle(REG_NUM_4, VehicleType.EV), WaitlistPriority.REGULAR);
+
+        manager.vacateParkingSpace(REG_NUM_1);
+
+        TreeMap<Integer, String> status = manager.status();
+        assertEquals(REG_NUM_4, status.get(1), assertionMsg(REG_NUM_4, status.get(1)));
+    }
+
+    @DisplayName("Should not hand the vacated parking space to a waitlisted vehicle parked since")
+    @Test
+    void test_vacateParkingSpace_shouldSkipWaitlistedVehiclesParkedSince() {
+        ParkingLot lot = ParkingLot.withLayout(
+            List.of(new SlotSection(SlotType.OVERSIZED, 1), new SlotSection(SlotType.STANDARD, 1)),
+            FallbackPolicy.STRICT);
+        ParkingLotManager manager = new ParkingLotManagerImpl(lot, true, ParkingEventListener.NOOP);
+
+        manager.parkVehicle(new Vehicle(REG_NUM_1, VehicleType.OVERSIZED))
+            .orElseThrow(TestSetupException::new);
+        manager.waitlistVehicle(new Vehicle(REG_NUM_2, VehicleType.OVERSIZED), WaitlistPriority.REGULAR);
+        manager.parkVehicle(new Vehicle(REG_NUM_2)).orElseThrow(TestSetupException::new);
+
+        manager.vacateParkingSpace(REG_NUM_1);
+        TreeMap<Integer, String> status = manager.status();
+        TreeMap<Integer, String> expected = new TreeMap<>(Map.of(2, REG_NUM_2));
+        assertEquals(expected, status, assertionMsg(expected, status));
+
+        manager.vacateParkingSpace(REG_NUM_2);
+        status = manager.status();
+        assertEquals(true, status.isEmpty(), assertionMsg(true, status.isEmpty()));
+    }
+
+    @DisplayName("Should hand expired reservations to the waitlist")
+    @Test
+    void test_advanceClock_shouldHandOffToWaitlist() {
+        ParkingLotManager manager =
+            new ParkingLotManagerImpl(ParkingLot.withCapacity(1), true, ParkingEventListener.NOOP);
+
+        manager.reserveParkingSpace(new Vehicle(REG_NUM_1), 1).orElseThrow(TestSetupException::new);
+        manager.waitlistVehicle(new Vehicle(REG_NUM_2), WaitlistPriority.REGULAR);
+
+        manager.advanceClock(1);
+
+        TreeMap<Integer, String> status = manager.status();
+        assertEquals(REG_NUM_2, status.get(1), assertionMsg(REG_NUM_2, status.get(1)));
+    }
+
+    @DisplayName("Should throw BadInputException when the waitlist is not enabled")
+    @Test
+    void test_waitlistVehicle_disabled_shouldThrowException() {
+        assertThrows(BadInputException.class,
+            () -> parkingLotManager.waitlistVehicle(vehicle1, WaitlistPriority.REGULAR),
+            assertionExceptionMsg(BadInputException.class));
+    }
+
+    @DisplayName("Should restore parked vehicles and free spaces from a snapshot")
+    @Test
+    void test_restore_shouldRebuildParkingLot() {
+        parkingLotManager.parkVehicle(vehicle1).orElseThrow(TestSetupException::new);
+        parkingLotManager.parkVehicle(vehicle2).orElseThrow(TestSetupException::new);
+        parkingLotManager.vacateParkingSpace(REG_NUM_1);
+        LotSnapshot snapshot = parkingLot.snapshot();
+
+        ParkingLot restored = ParkingLot.withCapacity(2);
+        restored.restore(snapshot);
+        ParkingLotManager manager = new ParkingLotManagerImpl(restored);
+
+        TreeMap<Integer, String> status = manager.status();
+        assertEquals(REG_NUM_2, status.get(2), assertionMsg(REG_NUM_2, status.get(2)));
+
+        Integer id = manager.parkVehicle(vehicle3).orElseThrow(TestSetupException::new);
+        assertEquals(1, id, assertionMsg(1, id));
+        Integer nextId = manager.parkVehicle(vehicle4).orElseThrow(TestSetupException::new);
+        assertEquals(3, nextId, assertionMsg(3, nextId));
+
+        parkingLotManager.vacateParkingSpace(REG_NUM_2);
+    }
+
+    @DisplayName("Should recover the colours of the vehicles from the snapshot and the journal")
+    @Test
+    void test_recover_shouldKeepColours() throws IOException {
+        Path directory = Files.createTempDirectory("parker-journal");
+        JournalConfig config = new JournalConfig(directory, 4096, 0, 1, 0);
+        try (Journal journal = MappedJournal.open(config)) {
+            ParkingLotManager manager = new ParkingLotManagerImpl(ParkingLot.withCapacity(4), false,
+                ParkingEventListener.NOOP, journal);
+            manager.parkVehicle(REG_NUM_1, VehicleType.CAR, "White");
+            manager.snapshot().join();
+            manager.parkVehicle(REG_NUM_2, VehicleType.CAR, "white");
+            manager.parkVehicle(REG_NUM_3, VehicleType.CAR, null);
+        }
+
+        List<String> registrations;
+        try (Journal journal = MappedJournal.open(config)) {
+            ParkingLotManager manager = new ParkingLotManagerImpl(ParkingLot.withCapacity(4), false,
+                ParkingEventListener.NOOP, journal);
+            manager.recover();
+            registrations = manager.registrationsForColour("WHITE");
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+
+        List<String> expected = List.of(REG_NUM_1, REG_NUM_2);
+        assertEquals(expected, registrations, assertionMsg(expected, registrations));
+    }
+
+    @DisplayName("Should keep occupancy, turnover and revenue by slot class")
+    @Test
+    void test_stats_shouldCountParksAndLeaves() {
+        ParkingLot mixedLot = ParkingLot.withLayout(List.of(
+            new SlotSection(SlotType.EV_CHARGING, 1),
+            new SlotSection(SlotType.STANDARD, 3)), FallbackPolicy.ALLOW_FALLBACK);
+        ParkingLotManager manager = new ParkingLotManagerImpl(mixedLot);
+
+        manager.parkVehicle(new Vehicle(REG_NUM_1, VehicleType.EV)).orElseThrow(TestSetupException::new);
+        manager.parkVehicle(new Vehicle(REG_NUM_2)).orElseThrow(TestSetupException::new);
+        manager.reserveParkingSpace(new Vehicle(REG_NUM_3), 5).orElseThrow(TestSetupException::new);
+        int id = manager.vacateParkingSpace(REG_NUM_2);
+        manager.recordCharge(id, 1_000);
+        manager.resize(6);
+
+        LotStats stats = manager.stats();
+        LotStats expected = new LotStats(6, 1, 1, 2, 1, 1_000, List.of(
+            new ZoneStats(SlotType.STANDARD, 5, 0, 1, 1, 1, 1_000),
+            new ZoneStats(SlotType.EV_CHARGING, 1, 1, 0, 1, 0, 0)));
+        assertEquals(expected, stats, assertionMsg(expected, stats));
+
+        manager.advanceClock(5);
+        long reserved = manager.stats().reserved();
+        assertEquals(0L, reserved, assertionMsg(0L, reserved));
+        long free = manager.stats().free();
+        assertEquals(5L, free, assertionMsg(5L, free));
+    }
+
+    @DisplayName("Should count free spaces and list occupied spaces in a range of ids")
+    @Test
+    void test_rangeQueries_shouldSkipFreeAndHeldSpaces() {
+        ParkingLotManager manager = new ParkingLotManagerImpl(ParkingLot.withCapacity(6));
+        manager.parkVehicle(new Vehicle(REG_NUM_1)).orElseThrow(TestSetupException::new);
+        manager.parkVehicle(new Vehicle(REG_NUM_2)).orElseThrow(TestSetupException::new);
+        manager.reserveParkingSpace(new Vehicle(REG_NUM_3), 5).orElseThrow(TestSetupException::new);
+        manager.parkVehicle(new Vehicle(REG_NUM_4)).orElseThrow(TestSetupException::new);
+        manager.vacateParkingSpace(REG_NUM_1);
+
+        int free = manager.countFree(1, 6);
+        assertEquals(3, free, assertionMsg(3, free));
+        TreeMap<Integer, String> status = manager.status(2, 6);
+        TreeMap<Integer, String> expected = new TreeMap<>(Map.of(2, REG_NUM_2, 4, REG_NUM_4));
+        assertEquals(expected, status, assertionMsg(expected, status));
+
+        manager.resize(8);
+        free = manager.countFree(5, 8);
+        assertEquals(4, free, assertionMsg(4, free));
+        manager.advanceClock(5);
+        free = manager.countFree(3, 3);
+        assertEquals(1, free, assertionMsg(1, free));
+
+        assertThrows(BadInputException.class, () -> manager.countFree(0, 8),
+            assertionExceptionMsg(BadInputException.class));
+        assertThrows(BadInputException.class, () -> manager.status(5, 9),
+            assertionExceptionMsg(BadInputException.class));
+    }
+
+    @DisplayName("Should stream the free counts, then every change, to a subscriber")
+    @Test
+    void test_subscribe_shouldStreamChanges() {
+        ParkingLotManager manager = new ParkingLotManagerImpl(ParkingLot.withCapacity(3));
+        manager.parkVehicle(new Vehicle(REG_NUM_1)).orElseThrow(TestSetupException::new);
+
+        List<OccupancyEvent> events = new ArrayList<>();
+        try (OccupancySubscription subscription = manager.subscribe(8, null)) {
+            manager.parkVehicle(new Vehicle(REG_NUM_2)).orElseThrow(TestSetupException::new);
+            manager.vacateParkingSpace(REG_NUM_1);
+            manager.reserveParkingSpace(new Vehicle(REG_NUM_3), 5)
+                .orElseThrow(TestSetupException::new);
+
+            OccupancyEvent event;
+            while ((event = subscription.poll()) != null) {
+                events.add(event);
+            }
+        }
+        manager.parkVehicle(new Vehicle(REG_NUM_4)).orElseThrow(TestSetupException::new);
+
+        List<OccupancyEvent> expected = List.of(
+            new OccupancyEvent(OccupancyEvent.Kind.FREE, 0, SlotType.STANDARD, 2),
+            new OccupancyEvent(OccupancyEvent.Kind.PARK, 2, SlotType.STANDARD, 1),
+            new OccupancyEvent(OccupancyEvent.Kind.VACATE, 1, SlotType.STANDARD, 2),
+            new OccupancyEvent(OccupancyEvent.Kind.FREE, 0, SlotType.STANDARD, 1));
+        assertEquals(expected, events, assertionMsg(expected, events));
+    }
+
+    @DisplayName("Should conflate changes into the latest free count for a subscriber behind")
+    @Test
+    void test_subscribe_shouldConflateOnceQueueIsFull() {
+        ParkingLotManager manager = new ParkingLotManagerImpl(ParkingLot.withCapacity(4));
+
+        try (OccupancySubscription subscription = manager.subscribe(2, null)) {
+            manager.parkVehicle(new Vehicle(REG_NUM_1)).orElseThrow(TestSetupException::new);
+            manager.parkVehicle(new Vehicle(REG_NUM_2)).orElseThrow(TestSetupException::new);
+            manager.parkVehicle(new Vehicle(REG_NUM_3)).orElseThrow(TestSetupException::new);
+            manager.vacateParkingSpace(REG_NUM_2);
+
+            List<OccupancyEvent> events = new ArrayList<>();
+            OccupancyEvent event;
+            while ((event = subscription.poll()) != null) {
+                events.add(event);
+            }
+
+            // the queue holds the start count and the first park, the rest is conflated
+            List<OccupancyEvent> expected = List.of(
+                new OccupancyEvent(OccupancyEvent.Kind.FREE, 0, SlotType.STANDARD, 4),
+                new OccupancyEvent(OccupancyEvent.Kind.PARK, 1, SlotType.STANDARD, 3),
+                new OccupancyEvent(OccupancyEvent.Kind.FREE, 0, SlotType.STANDARD, 2));
+            assertEquals(expected, events, assertionMsg(expected, events));
+            long conflated = subscription.conflated();
+            assertEquals(3L, conflated, assertionMsg(3L, conflated));
+        }
+
+        assertThrows(BadInputException.class, () -> manager.subscribe(0, null),
+            assertionExceptionMsg(BadInputException.class));
+    }
+}
@@ -136,4 +136,139 @@ void test_add_duplicateId_shouldThrowException() {
             assertionExceptionMsg(BadInputException.class));
     }
 
-}
\ No newline at end of file
+    @DisplayName("Should return nearest parking space id within the range")
+    @Test
+    void test_poll_withRange_shouldReturnMinId() {
+        final var parkingSpaceIdMinHeap = new ParkingSpaceIdMinHeap(4, 6);
+
+        int id = parkingSpaceIdMinHeap.poll();
+        assertEquals(4, id, assertionMsg(4, id));
+
+        parkingSpaceIdMinHeap.poll();
+        parkingSpaceIdMinHeap.push(4);
+
+        id = parkingSpaceIdMinHeap.poll();
+        assertEquals(4, id, assertionMsg(4, id));
+    }
+
+    @DisplayName("Should throw BadInputException")
+    @Test
+    void test_add_withRange_outOfRange_shouldThrowException() {
+        final var parkingSpaceIdMinHeap = new ParkingSpaceIdMinHeap(4, 6);
+
+        parkingSpaceIdMinHeap.poll();
+
+        assertThrows(BadInputException.class, () -> parkingSpaceIdMinHeap.push(3),
+            assertionExceptionMsg(BadInputException.class));
+
+        assertThrows(BadInputException.class, () -> parkingSpaceIdMinHeap.push(7),
+            assertionExceptionMsg(BadInputException.class));
+    }
+
+    @DisplayName("Should hand out the new ids after grow")
+    @Test
+    void test_grow_shouldAddIds() {
+        final var parkingSpaceIdMinHeap = new ParkingSpaceIdMinHeap(2);
+
+        parkingSpaceIdMinHeap.poll();
+        parkingSpaceIdMinHeap.poll();
+        parkingSpaceIdMinHeap.grow(4);
+        parkingSpaceIdMinHeap.push(1);
+
+        int id = parkingSpaceIdMinHeap.poll();
+        assertEquals(1, id, assertionMsg(1, id));
+
+        id = parkingSpaceIdMinHeap.poll();
+        assertEquals(3, id, assertionMsg(3, id));
+
+        id = parkingSpaceIdMinHeap.poll();
+        assertEquals(4, id, assertionMsg(4, id));
+
+        boolean isEmpty = parkingSpaceIdMinHeap.isEmpty();
+        assertTrue(isEmpty, assertionMsg(true, isEmpty));
+    }
+
+    @DisplayName("Should retire the highest ids on shrink")
+    @Test
+    void test_shrink_shouldRetireIds() {
+        final var parkingSpaceIdMinHeap = new ParkingSpaceIdMinHeap(6);
+
+        parkingSpaceIdMinHeap.poll();
+        parkingSpaceIdMinHeap.shrink(3);
+
+        // current state = [2, 3]
+
+        assertThrows(BadInputException.class, () -> parkingSpaceIdMinHeap.push(4),
+            assertionExceptionMsg(BadInputException.class));
+
+        int id = parkingSpaceIdMinHeap.poll();
+        assertEquals(2, id, assertionMsg(2, id));
+
+        id = parkingSpaceIdMinHeap.poll();
+        assertEquals(3, id, assertionMsg(3, id));
+
+        boolean isEmpty = parkingSpaceIdMinHeap.isEmpty();
+        assertTrue(isEmpty, assertionMsg(true, isEmpty));
+    }
+
+    @DisplayName("Should throw HeapOperationException when retiring ids not in the heap")
+    @Test
+    void test_shrink_missingId_shouldThrowException() {
+        final var parkingSpaceIdMinHeap = new ParkingSpaceIdMinHeap(3);
+
+        parkingSpaceIdMinHeap.poll();
+        parkingSpaceIdMinHeap.poll();
+        parkingSpaceIdMinHeap.push(1);
+
+        // current state = [1, 3], 2 is in use
+
+        assertThrows(HeapOperationException.class, () -> parkingSpaceIdMinHeap.shrink(1),
+            assertionExceptionMsg(HeapOperationException.class));
+
+        int id = parkingSpaceIdMinHeap.poll();
+        assertEquals(1, id, assertionMsg(1, id));
+
+        id = parkingSpaceIdMinHeap.poll();
+        assertEquals(3, id, assertionMsg(3, id));
+    }
+
+    @DisplayName("Should add a batch of ids back in the heap")
+    @Test
+    void test_pushAll_shouldAddIds() {
+        final var parkingSpaceIdMinHeap = new ParkingSpaceIdMinHeap(6);
+
+        for (int i = 0; i < 6; i++) {
+            parkingSpaceIdMinHeap.poll();
+        }
+        parkingSpaceIdMinHeap.push(4);
+        parkingSpaceIdMinHeap.pushAll(new int[] {6, 2, 5, 1}, 3);
+
+        // current state = [2, 4, 5, 6]
+
+        int[] expected = {2, 4, 5, 6};
+        for (int expectedId : expected) {
+            int id = parkingSpaceIdMinHeap.poll();
+            assertEquals(expectedId, id, assertionMsg(expectedId, id));
+        }
+    }
+
+    @DisplayName("Should throw BadInputException and leave the heap as is")
+    @Test
+    void test_pushAll_duplicateId_shouldThrowException() {
+        final var parkingSpaceIdMinHeap = new ParkingSpaceIdMinHeap(4);
+
+        parkingSpaceIdMinHeap.poll();
+        parkingSpaceIdMinHeap.poll();
+
+        // current state = [3, 4]
+
+        assertThrows(BadInputException.class,
+            () -> parkingSpaceIdMinHeap.pushAll(new int[] {1, 3}, 2),
+            assertionExceptionMsg(BadInputException.class));
+
+        parkingSpaceIdMinHeap.push(1);
+        int id = parkingSpaceIdMinHeap.poll();
+        assertEquals(1, id, assertionMsg(1, id));
+    }
+
+}
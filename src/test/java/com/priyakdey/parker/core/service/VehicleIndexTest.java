@@ -0,0 +1,68 @@
+package com.priyakdey.parker.core.service;
+
+import static com.priyakdey.parker.data.TestData.REG_NUM_1;
+import static com.priyakdey.parker.data.TestData.REG_NUM_2;
+import static com.priyakdey.parker.data.TestData.REG_NUM_3;
+import static com.priyakdey.parker.data.TestData.REG_NUM_4;
+import static com.priyakdey.parker.data.TestData.REG_NUM_6;
+import static com.priyakdey.parker.util.AssertionUtil.assertionMsg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("VehicleIndex")
+class VehicleIndexTest {
+
+    @DisplayName("Should look vehicles up by colour, ignoring case, as they park and leave")
+    @Test
+    void test_slotsForColour_shouldFollowParksAndLeaves() {
+        final var vehicleIndex = new VehicleIndex();
+        vehicleIndex.add(4, REG_NUM_1, "White");
+        vehicleIndex.add(2, REG_NUM_2, "white");
+        vehicleIndex.add(3, REG_NUM_3, "Black");
+        vehicleIndex.add(1, REG_NUM_4, null);
+
+        List<Integer> slots = vehicleIndex.slotsForColour("WHITE");
+        assertEquals(List.of(2, 4), slots, assertionMsg(List.of(2, 4), slots));
+        List<String> registrations = vehicleIndex.registrationsForColour("white");
+        assertEquals(List.of(REG_NUM_2, REG_NUM_1), registrations,
+            assertionMsg(List.of(REG_NUM_2, REG_NUM_1), registrations));
+
+        vehicleIndex.remove(2);
+        vehicleIndex.remove(3);
+        slots = vehicleIndex.slotsForColour("white");
+        assertEquals(List.of(4), slots, assertionMsg(List.of(4), slots));
+        slots = vehicleIndex.slotsForColour("black");
+        assertEquals(List.of(), slots, assertionMsg(List.of(), slots));
+    }
+
+    @DisplayName("Should look vehicles up by registration number prefix, dropping those which left")
+    @Test
+    void test_slotsForPrefix_shouldFollowParksAndLeaves() {
+        final var vehicleIndex = new VehicleIndex();
+        vehicleIndex.add(5, REG_NUM_1, null);
+        vehicleIndex.add(2, REG_NUM_2, null);
+        vehicleIndex.add(3, REG_NUM_3, null);
+        vehicleIndex.add(1, REG_NUM_6, null);
+
+        List<Integer> slots = vehicleIndex.slotsForPrefix("KA-01");
+        assertEquals(List.of(2, 3, 5), slots, assertionMsg(List.of(2, 3, 5), slots));
+        slots = vehicleIndex.slotsForPrefix("KA-01-HH");
+        assertEquals(List.of(2, 5), slots, assertionMsg(List.of(2, 5), slots));
+        slots = vehicleIndex.slotsForPrefix("");
+        assertEquals(List.of(1, 2, 3, 5), slots, assertionMsg(List.of(1, 2, 3, 5), slots));
+
+        vehicleIndex.remove(5);
+        vehicleIndex.remove(3);
+        slots = vehicleIndex.slotsForPrefix("KA-01");
+        assertEquals(List.of(2), slots, assertionMsg(List.of(2), slots));
+        slots = vehicleIndex.slotsForPrefix(REG_NUM_1);
+        assertEquals(List.of(), slots, assertionMsg(List.of(), slots));
+
+        vehicleIndex.add(3, REG_NUM_1, null);
+        slots = vehicleIndex.slotsForPrefix(REG_NUM_1);
+        assertEquals(List.of(3), slots, assertionMsg(List.of(3), slots));
+    }
+}
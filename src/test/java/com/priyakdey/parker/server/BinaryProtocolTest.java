@@ -0,0 +1,134 @@
+package com.priyakdey.parker.server;
+
+import static com.priyakdey.parker.util.AssertionUtil.assertionMsg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.priyakdey.parker.command.CommandInvoker;
+import com.priyakdey.parker.command.ConsoleEventReporter;
+import com.priyakdey.parker.common.PackedRegistration;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.core.model.VehicleType;
+import com.priyakdey.parker.core.pricing.impl.PerHourChargesCalculatorImpl;
+import com.priyakdey.parker.core.service.ParkingLot;
+import com.priyakdey.parker.core.service.ParkingLotManagerImpl;
+import com.priyakdey.parker.service.impl.ParkingServiceImpl;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("BinaryProtocol")
+class BinaryProtocolTest {
+
+    @DisplayName("Should run converted park and leave frames, replying with fixed frames")
+    @Test
+    void test_run_shouldReplyToConvertedCommands() throws IOException, InterruptedException {
+        ApplicationContext.getInstance().put(new ParkingServiceImpl(
+            new ParkingLotManagerImpl(ParkingLot.withCapacity(2)),
+            new PerHourChargesCalculatorImpl()));
+
+        List<String> lines = List.of(
+            "create_parking_lot 2",
+            "park KA-01-HH-1234",
+            "park KA-01-HH-9999 ev White",
+            "park KA-01-BB-0001",
+            "leave KA-01-HH-1234 4",
+            "leave KA-01-HH-1234 4",
+            "leave KA-01-hh-1234 4");
+        ByteArrayOutputStream requests = new ByteArrayOutputStream();
+        ByteArrayOutputStream warnings = new ByteArrayOutputStream();
+        int frames = BinaryConverter.convert(lines, requests,
+            new PrintStream(warnings, true, StandardCharsets.UTF_8));
+
+        assertEquals(5, frames, assertionMsg(5, frames));
+        String expectedWarnings = String.format(
+            "Skipped line 1, `create_parking_lot` has no binary form%n"
+                + "Skipped line 7, bad registration number%n");
+        String actualWarnings = warnings.toString(StandardCharsets.UTF_8);
+        assertEquals(expectedWarnings, actualWarnings,
+            assertionMsg(expectedWarnings, actualWarnings));
+
+        ServerConfig config = new ServerConfig(new InetSocketAddress("127.0.0.1", 0), 256);
+        CommandServer server = CommandServer.open(config, new CommandInvoker());
+        Thread thread = Thread.ofPlatform().start(server::run);
+
+        List<BinaryReply> replies = new ArrayList<>();
+        try (Socket socket = new Socket()) {
+            socket.connect(server.localAddresses().get(0));
+            socket.getOutputStream().write(requests.toByteArray());
+            socket.shutdownOutput();
+
+            ByteBuffer in = ByteBuffer.wrap(socket.getInputStream().readAllBytes());
+            while (in.hasRemaining()) {
+                replies.add(BinaryCodec.decodeReply(in));
+            }
+        } finally {
+            server.close();
+            thread.join();
+        }
+
+        List<BinaryReply> expected = List.of(
+            new BinaryReply(BinaryCodec.PARK, BinaryCodec.OK, 2, 1, 0),
+            new BinaryReply(BinaryCodec.PARK, BinaryCodec.OK, 3, 2, 0),
+            new BinaryReply(BinaryCodec.PARK, BinaryCodec.FULL, 4, 0, 0),
+            new BinaryReply(BinaryCodec.LEAVE, BinaryCodec.OK, 5, 1, 3000),
+            new BinaryReply(BinaryCodec.LEAVE, BinaryCodec.NOT_FOUND, 6, 0, 0));
+        assertEquals(expected, replies, assertionMsg(expected, replies));
+    }
+
+    @DisplayName("Should reply to a leave handing its slot to the waitlist, printing nothing")
+    @Test
+    void test_run_leaveHandingOff_shouldReplyHandedOff() throws IOException, InterruptedException {
+        ConsoleEventReporter eventReporter = new ConsoleEventReporter();
+        ApplicationContext.getInstance().put(new ParkingServiceImpl(
+            new ParkingLotManagerImpl(ParkingLot.withCapacity(1), true, eventReporter),
+            new PerHourChargesCalculatorImpl()));
+        CommandInvoker invoker = new CommandInvoker();
+        invoker.registerCompletionHook(eventReporter::flush);
+
+        ByteBuffer requests = ByteBuffer.allocate(3 * BinaryCodec.FRAME_BYTES);
+        long first = PackedRegistration.pack("KA-01-HH-1234");
+        long second = PackedRegistration.pack("KA-01-HH-9999");
+        BinaryCodec.encodePark(requests, 1, first, VehicleType.CAR);
+        BinaryCodec.encodePark(requests, 2, second, VehicleType.CAR);
+        BinaryCodec.encodeLeave(requests, 3, first, 4);
+
+        ServerConfig config = new ServerConfig(new InetSocketAddress("127.0.0.1", 0), 256);
+        CommandServer server = CommandServer.open(config, invoker);
+        Thread thread = Thread.ofPlatform().start(server::run);
+
+        List<BinaryReply> replies = new ArrayList<>();
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed, true, StandardCharsets.UTF_8));
+        try (Socket socket = new Socket()) {
+            socket.connect(server.localAddresses().get(0));
+            socket.getOutputStream().write(requests.array());
+            socket.shutdownOutput();
+
+            ByteBuffer in = ByteBuffer.wrap(socket.getInputStream().readAllBytes());
+            while (in.hasRemaining()) {
+                replies.add(BinaryCodec.decodeReply(in));
+            }
+        } finally {
+            System.setOut(stdout);
+            server.close();
+            thread.join();
+        }
+
+        List<BinaryReply> expected = List.of(
+            new BinaryReply(BinaryCodec.PARK, BinaryCodec.OK, 1, 1, 0),
+            new BinaryReply(BinaryCodec.PARK, BinaryCodec.WAITLISTED, 2, 1, 0),
+            new BinaryReply(BinaryCodec.LEAVE, BinaryCodec.HANDED_OFF, 3, 1, 3000));
+        assertEquals(expected, replies, assertionMsg(expected, replies));
+        String actualPrinted = printed.toString(StandardCharsets.UTF_8);
+        assertEquals("", actualPrinted, assertionMsg("", actualPrinted));
+    }
+}
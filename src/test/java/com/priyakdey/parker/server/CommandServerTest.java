@@ -0,0 +1,104 @@
+package com.priyakdey.parker.server;
+
+import static com.priyakdey.parker.command.CommandOutput.out;
+import static com.priyakdey.parker.util.AssertionUtil.assertionMsg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.priyakdey.parker.command.CommandInvoker;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("CommandServer")
+class CommandServerTest {
+
+    @DisplayName("Should run pipelined commands in order and reply on the client's connection")
+    @Test
+    void test_run_shouldReplyToPipelinedCommands() throws IOException, InterruptedException {
+        CommandInvoker invoker = new CommandInvoker();
+        invoker.registerCommand("echo", args -> out().println(String.join(" ", args)));
+
+        ServerConfig config = new ServerConfig(new InetSocketAddress("127.0.0.1", 0), 256);
+        CommandServer server = CommandServer.open(config, invoker);
+        Thread thread = Thread.ofPlatform().start(server::run);
+
+        List<String> replies = new ArrayList<>();
+        try (Socket socket = new Socket()) {
+            socket.connect(server.localAddresses().get(0));
+            socket.getOutputStream().write(
+                "echo a b\n\nbogus\r\necho c\necho d".getBytes(StandardCharsets.UTF_8));
+            socket.shutdownOutput();
+
+            BufferedReader reader = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                replies.add(line);
+            }
+        } finally {
+            server.close();
+            thread.join();
+        }
+
+        List<String> expected = List.of("a b", "ERROR: Invalid command.", "c", "d");
+        assertEquals(expected, replies, assertionMsg(expected, replies));
+    }
+
+    @DisplayName("Should serve the same protocol over TCP and a Unix domain socket at once")
+    @Test
+    void test_run_shouldServeUnixDomainSockets() throws IOException, InterruptedException {
+        CommandInvoker invoker = new CommandInvoker();
+        invoker.registerCommand("echo", args -> out().println(String.join(" ", args)));
+
+        Path socketPath = Files.createTempDirectory("parker-server").resolve("parker.sock");
+        ServerConfig config = new ServerConfig(List.of(new InetSocketAddress("127.0.0.1", 0),
+            UnixDomainSocketAddress.of(socketPath)), 256);
+        CommandServer server = CommandServer.open(config, invoker);
+        Thread thread = Thread.ofPlatform().start(server::run);
+
+        List<String> replies = new ArrayList<>();
+        try {
+            for (SocketAddress address : server.localAddresses()) {
+                replies.addAll(send(address, "echo " + address.getClass().getSimpleName() + "\n"));
+            }
+        } finally {
+            server.close();
+            thread.join();
+        }
+
+        List<String> expected = List.of("InetSocketAddress", "UnixDomainSocketAddress");
+        assertEquals(expected, replies, assertionMsg(expected, replies));
+        assertFalse(Files.exists(socketPath), "Expected the socket file to be removed on close");
+    }
+
+    private static List<String> send(SocketAddress address, String commands) throws IOException {
+        StandardProtocolFamily family = address instanceof UnixDomainSocketAddress
+            ? StandardProtocolFamily.UNIX
+            : StandardProtocolFamily.INET;
+        try (SocketChannel channel = SocketChannel.open(family)) {
+            channel.connect(address);
+            channel.write(ByteBuffer.wrap(commands.getBytes(StandardCharsets.UTF_8)));
+            channel.shutdownOutput();
+
+            BufferedReader reader = new BufferedReader(
+                Channels.newReader(channel, StandardCharsets.UTF_8));
+            return reader.lines().toList();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.priyakdey.parker.server;
+
+import static com.priyakdey.parker.util.AssertionUtil.assertionMsg;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.priyakdey.parker.command.CommandInvoker;
+import com.priyakdey.parker.command.ConsoleEventReporter;
+import com.priyakdey.parker.context.ApplicationContext;
+import com.priyakdey.parker.core.event.ParkingEventListener;
+import com.priyakdey.parker.core.pricing.impl.PerHourChargesCalculatorImpl;
+import com.priyakdey.parker.core.service.ParkingLot;
+import com.priyakdey.parker.core.service.ParkingLotManagerImpl;
+import com.priyakdey.parker.service.impl.ParkingServiceImpl;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("HttpApiServer")
+class HttpApiServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private CommandInvoker invoker;
+
+    private HttpApiServer server;
+
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ApplicationContext.getInstance().put(new ParkingServiceImpl(
+            new ParkingLotManagerImpl(ParkingLot.withCapacity(2)),
+            new PerHourChargesCalculatorImpl()));
+
+        HttpConfig config = new HttpConfig(new InetSocketAddress("127.0.0.1", 0), 16);
+        invoker = new CommandInvoker();
+        server = HttpApiServer.start(config, invoker);
+        baseUrl = "http://127.0.0.1:" + server.localAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @DisplayName("Should park, show and release vehicles, replying in JSON")
+    @Test
+    void test_endpoints_shouldReplyInJson() throws IOException, InterruptedException {
+        List<String> expected = List.of(
+            "200 {\"slot\":1,\"slotClass\":\"standard\"}",
+            "200 {\"slot\":2,\"slotClass\":\"standard\"}",
+            "409 {\"error\":\"Sorry, parking lot is full\"}",
+            "200 {\"slots\":[{\"slot\":2,\"registration\":\"KA-01-HH-9999\"}]}",
+            "200 {\"registration\":\"KA-01-HH-1234\",\"slot\":1,\"chargeCents\":3000}",
+            "404 {\"error\":\"Registration number KA-01-HH-1234 not found\"}");
+
+        List<String> actual = List.of(
+            post("/park", "registration=KA-01-HH-1234"),
+            post("/park", "registration=KA-01-HH-9999&colour=White"),
+            post("/park", "registration=KA-01-BB-0001"),
+            get("/status?from=2&to=2"),
+            post("/leave", "registration=KA-01-HH-1234&hours=4"),
+            post("/leave", "registration=KA-01-HH-1234&hours=4"));
+        assertEquals(expected, actual, assertionMsg(expected, actual));
+    }
+
+    @DisplayName("Should reject bad requests with a JSON error")
+    @Test
+    void test_endpoints_shouldRejectBadRequests() throws IOException, InterruptedException {
+        List<String> expected = List.of(
+            "400 {\"error\":\"Invalid `registration`, expecting a registration number\"}",
+            "400 {\"error\":\"Invalid `hours`, expecting a whole number\"}",
+            "405 {\"error\":\"Expecting POST\"}",
+            "404 {\"error\":\"No such endpoint\"}");
+
+        List<String> actual = List.of(
+            post("/park", "registration=bogus"),
+            post("/leave", "registration=KA-01-HH-1234&hours=four"),
+            get("/park"),
+            get("/parking"));
+        assertEquals(expected, actual, assertionMsg(expected, actual));
+    }
+
+    @DisplayName("Should reply to changes asked of a read-only standby with 503, not 404")
+    @Test
+    void test_endpoints_onStandby_shouldReply503() throws IOException, InterruptedException {
+        ParkingLotManagerImpl parkingLotManager =
+            new ParkingLotManagerImpl(ParkingLot.withCapacity(2));
+        parkingLotManager.setReadOnly(true);
+        ApplicationContext.getInstance().put(new ParkingServiceImpl(parkingLotManager,
+            new PerHourChargesCalculatorImpl()));
+
+        String standby = "503 {\"error\":\"Parking lot is a read-only standby, promote it first\"}";
+        List<String> expected = List.of(standby, standby);
+
+        List<String> actual = List.of(
+            post("/park", "registration=KA-01-HH-1234"),
+            post("/leave", "registration=KA-01-HH-1234&hours=4"));
+        assertEquals(expected, actual, assertionMsg(expected, actual));
+    }
+
+    @DisplayName("Should waitlist a vehicle turned away by a full lot with a waitlist")
+    @Test
+    void test_park_withWaitlist_shouldWaitlist() throws IOException, InterruptedException {
+        ApplicationContext.getInstance().put(new ParkingServiceImpl(
+            new ParkingLotManagerImpl(ParkingLot.withCapacity(1), true, ParkingEventListener.NOOP),
+            new PerHourChargesCalculatorImpl()));
+
+        List<String> expected = List.of(
+            "200 {\"slot\":1,\"slotClass\":\"standard\"}",
+            "202 {\"waitlisted\":1}",
+            "409 {\"error\":\"Registration number KA-01-HH-9999 is already waitlisted\"}",
+            "202 {\"waitlisted\":1}");
+
+        List<String> actual = List.of(
+            post("/park", "registration=KA-01-HH-1234"),
+            post("/park", "registration=KA-01-HH-9999"),
+            post("/park", "registration=KA-01-HH-9999"),
+            post("/park", "registration=KA-01-BB-0001&priority=accessible"));
+        assertEquals(expected, actual, assertionMsg(expected, actual));
+    }
+
+    @DisplayName("Should reply to a leave handing its slot to the waitlist, printing nothing")
+    @Test
+    void test_leave_handOff_shouldNameWaitlisted() throws IOException, InterruptedException {
+        ConsoleEventReporter eventReporter = new ConsoleEventReporter();
+        ApplicationContext.getInstance().put(new ParkingServiceImpl(
+            new ParkingLotManagerImpl(ParkingLot.withCapacity(1), true, eventReporter),
+            new PerHourChargesCalculatorImpl()));
+        invoker.registerCompletionHook(eventReporter::flush);
+
+        List<String> expected = List.of(
+            "200 {\"slot\":1,\"slotClass\":\"standard\"}",
+            "202 {\"waitlisted\":1}",
+            "200 {\"registration\":\"KA-01-HH-1234\",\"slot\":1,\"chargeCents\":3000,"
+                + "\"handedOffTo\":\"KA-01-HH-9999\"}");
+
+        List<String> actual = new ArrayList<>();
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed, true, StandardCharsets.UTF_8));
+        try {
+            actual.add(post("/park", "registration=KA-01-HH-1234"));
+            actual.add(post("/park", "registration=KA-01-HH-9999"));
+            actual.add(post("/leave", "registration=KA-01-HH-1234&hours=4"));
+        } finally {
+            System.setOut(stdout);
+        }
+
+        assertEquals(expected, actual, assertionMsg(expected, actual));
+        String actualPrinted = printed.toString(StandardCharsets.UTF_8);
+        assertEquals("", actualPrinted, assertionMsg("", actualPrinted));
+    }
+
+    @DisplayName("Should stream the occupancy changes as JSON lines")
+    @Test
+    void test_subscribe_shouldStreamChanges() throws IOException, InterruptedException {
+        HttpResponse<Stream<String>> response = client.send(
+            HttpRequest.newBuilder(URI.create(baseUrl + "/subscribe?queue=4")).GET().build(),
+            HttpResponse.BodyHandlers.ofLines());
+        Iterator<String> lines = response.body().iterator();
+
+        List<String> actual = new ArrayList<>();
+        actual.add(lines.next());
+        post("/park", "registration=KA-01-HH-1234");
+        actual.add(lines.next());
+        post("/leave", "registration=KA-01-HH-1234&hours=1");
+        actual.add(lines.next());
+        server.stop();
+        boolean ended = !lines.hasNext();
+
+        List<String> expected = List.of(
+            "{\"event\":\"free\",\"slotClass\":\"standard\",\"free\":2}",
+            "{\"event\":\"park\",\"slot\":1,\"slotClass\":\"standard\",\"free\":1}",
+            "{\"event\":\"vacate\",\"slot\":1,\"slotClass\":\"standard\",\"free\":2}");
+        assertEquals(expected, actual, assertionMsg(expected, actual));
+        assertTrue(ended, assertionMsg(true, ended));
+    }
+
+    @DisplayName("Should serve the errors and the occupancy of the lot as Prometheus metrics")
+    @Test
+    void test_metrics_shouldCountErrorsAndSlots() throws IOException, InterruptedException {
+        post("/park", "registration=KA-01-HH-1234");
+        post("/park", "registration=KA-01-HH-9999");
+        post("/park", "registration=KA-01-BB-0001");
+        post("/park", "registration=bogus");
+        post("/leave", "registration=KA-01-BB-0001&hours=1");
+
+        HttpResponse<String> response = client.send(
+            HttpRequest.newBuilder(URI.create(baseUrl + "/metrics")).GET().build(),
+            HttpResponse.BodyHandlers.ofString());
+        List<String> lines = response.body().lines().toList();
+
+        List<String> expected = List.of(
+            "parker_errors_total{cause=\"bad_input\"} 1",
+            "parker_errors_total{cause=\"full\"} 1",
+            "parker_errors_total{cause=\"not_found\"} 1",
+            "parker_slots_capacity{slot_class=\"standard\"} 2",
+            "parker_slots_occupied{slot_class=\"standard\"} 2",
+            "parker_slots_free{slot_class=\"standard\"} 0",
+            "parker_allocator_depth{slot_class=\"standard\"} 0");
+        List<String> actual = lines.stream().filter(expected::contains).toList();
+        assertEquals(expected, actual, assertionMsg(expected, actual));
+
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        assertTrue(contentType.startsWith("text/plain; version=0.0.4"),
+            assertionMsg("text/plain; version=0.0.4", contentType));
+        assertEquals("405 {\"error\":\"Expecting GET\"}", post("/metrics", ""));
+    }
+
+    private String get(String path) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build());
+    }
+
+    private String post(String path, String form) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(form))
+            .build());
+    }
+
+    private String send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        return response.statusCode() + " " + response.body();
+    }
+}
@@ -15,11 +15,16 @@
 import com.priyakdey.parker.core.exception.TestSetupException;
 import com.priyakdey.parker.core.model.ParkingCharge;
 import com.priyakdey.parker.core.pricing.impl.PerHourChargesCalculatorImpl;
+import com.priyakdey.parker.core.replication.ReplicationStatus;
+import com.priyakdey.parker.core.service.OccupancySubscription;
 import com.priyakdey.parker.core.service.ParkingLot;
 import com.priyakdey.parker.core.service.ParkingLotManager;
 import com.priyakdey.parker.core.service.ParkingLotManagerImpl;
 import com.priyakdey.parker.exception.BadInputException;
 import com.priyakdey.parker.service.ParkingService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Optional;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -76,12 +81,11 @@ void test_leave_shouldReturnBaseCharge() {
         Integer id = parkingService.park(REG_NUM_1).orElseThrow(TestSetupException::new);
 
         int hoursParked = 2;
-        int expectedCharge = 10;
+        long expectedCharge = 1_000;
 
         ParkingCharge actual = parkingService.leave(REG_NUM_1, hoursParked);
 
-        ParkingCharge expected = new ParkingCharge(REG_NUM_1, Integer.toString(id),
-            Integer.toString(expectedCharge));
+        ParkingCharge expected = new ParkingCharge(REG_NUM_1, id, expectedCharge);
 
         assertEquals(expected, actual, assertionMsg(expected, actual));
     }
@@ -92,12 +96,11 @@ void test_leave_shouldReturnIncrementCharge() {
         Integer parkedId = parkingService.park(REG_NUM_5).orElseThrow(TestSetupException::new);
 
         int hoursParked = 5;
-        int expectedCharge = 40;
+        long expectedCharge = 4_000;
 
         ParkingCharge actual = parkingService.leave(REG_NUM_5, hoursParked);
 
-        ParkingCharge expected = new ParkingCharge(REG_NUM_5, Integer.toString(parkedId),
-            Integer.toString(expectedCharge));
+        ParkingCharge expected = new ParkingCharge(REG_NUM_5, parkedId, expectedCharge);
 
         assertEquals(expected, actual, assertionMsg(expected, actual));
     }
@@ -131,4 +134,25 @@ void test_status_shouldReturnEmptyMap() {
 
         assertEquals(expected, actual, assertionMsg(expected, actual));
     }
-}
\ No newline at end of file
+
+    @DisplayName("Should stop following and end the subscriptions when closed")
+    @Test
+    void test_close_shouldStopFollowingAndEndSubscriptions() throws IOException {
+        Path directory = Files.createTempDirectory("parker-close");
+        String socket = directory.resolve("standby.sock").toString();
+
+        parkingService.follow(socket);
+        OccupancySubscription subscription = parkingService.subscribe(4, null);
+        parkingService.close();
+
+        ReplicationStatus status = parkingService.replicationStatus();
+        boolean closed = subscription.isClosed();
+        boolean socketGone = !Files.exists(Path.of(socket));
+        Files.delete(directory);
+
+        assertEquals(ReplicationStatus.STANDALONE, status,
+            assertionMsg(ReplicationStatus.STANDALONE, status));
+        assertTrue(closed, assertionMsg(true, closed));
+        assertTrue(socketGone, assertionMsg(true, socketGone));
+    }
+}